@@ -26,6 +26,8 @@ import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.yaml.snakeyaml.error.YAMLException;
 
+import com.expediagroup.jetfuel.models.AdvisorConfiguration;
+import com.expediagroup.jetfuel.models.BatchConfiguration;
 import com.expediagroup.jetfuel.models.JetFuelConfiguration;
 
 import lombok.extern.slf4j.Slf4j;
@@ -42,7 +44,12 @@ final class Application {
         final CommandLineParser commandLineParser = new DefaultParser();
         final Options options = new Options();
         options.addOption(Option.builder("yamlFile")
-                .desc("YAML configuration file")
+                .desc("YAML configuration file or directory of YAML files")
+                .hasArg()
+                .argName("FILE")
+                .build());
+        options.addOption(Option.builder("advise")
+                .desc("YAML configuration file of the warehouse advisor")
                 .hasArg()
                 .argName("FILE")
                 .build());
@@ -58,9 +65,17 @@ final class Application {
         if (commandLine.hasOption("yamlFile")) {
 
             final String yamlFile = commandLine.getOptionValue("yamlFile");
-            final JetFuelConfiguration jetFuelConfiguration;
+            final JetFuelManager jetFuelManager;
             try {
-                jetFuelConfiguration = JetFuelConfiguration.loadFromYaml(yamlFile);
+                if (BatchConfiguration.isBatch(yamlFile)) {
+                    final BatchConfiguration batchConfiguration = BatchConfiguration.loadFromYaml(yamlFile);
+                    log.info("BatchConfiguration of {} tables with up to {} sessions", batchConfiguration.getTables().size(), batchConfiguration.getMaxSessions());
+                    jetFuelManager = JetFuelManagerFactory.createBatch(batchConfiguration);
+                } else {
+                    final JetFuelConfiguration jetFuelConfiguration = JetFuelConfiguration.loadFromYaml(yamlFile);
+                    log.info("JetFuelConfiguration {}", jetFuelConfiguration);
+                    jetFuelManager = JetFuelManagerFactory.create(jetFuelConfiguration);
+                }
             } catch (final IOException e) {
                 log.error("Unable to load YAML configuration file.", e);
                 return;
@@ -69,11 +84,24 @@ final class Application {
                 return;
             }
 
-            log.info("JetFuelConfiguration {}", jetFuelConfiguration);
-
-            final JetFuelManager jetFuelManager = JetFuelManagerFactory.create(jetFuelConfiguration);
             jetFuelManager.fuel();
 
+        } else if (commandLine.hasOption("advise")) {
+
+            final AdvisorConfiguration advisorConfiguration;
+            try {
+                advisorConfiguration = AdvisorConfiguration.loadFromYaml(commandLine.getOptionValue("advise"));
+            } catch (final IOException e) {
+                log.error("Unable to load YAML configuration file.", e);
+                return;
+            } catch (final YAMLException e) {
+                log.error("Error parsing YAML file; is this a valid advisor configuration file?", e);
+                return;
+            }
+            log.info("AdvisorConfiguration {}", advisorConfiguration);
+
+            JetFuelManagerFactory.createAdvisor(advisorConfiguration).advise();
+
         } else {
             final HelpFormatter formatter = new HelpFormatter();
             formatter.printHelp("java -jar jetfuel.jar", options);
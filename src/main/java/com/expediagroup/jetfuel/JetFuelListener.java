@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel;
+
+import java.util.List;
+
+import com.expediagroup.jetfuel.exception.FailureType;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.expediagroup.jetfuel.models.JetFuelRequest;
+
+/**
+ * Listener to the lifecycle of a fuel run, for custom timing, tracing or cost accounting.
+ *
+ * Implementations are discovered with {@link java.util.ServiceLoader}: list their class names in a
+ * META-INF/services/com.expediagroup.jetfuel.JetFuelListener file on the classpath.  They need a public no-argument
+ * constructor, and only override the events they need.
+ *
+ * Query events are invoked on the thread of the session running the query, concurrently when concurrency is above 1,
+ * so implementations must be thread-safe.  Events are invoked synchronously and should return quickly; exceptions they
+ * throw are logged and otherwise ignored.
+ */
+public interface JetFuelListener {
+
+    /**
+     * Invoked when the queries of a request are generated, before they run.  A run generates a second request to
+     * concatenate partitions when concatenate is enabled.
+     *
+     * @param jetFuelConfiguration {@link JetFuelConfiguration} of the run
+     * @param request              generated {@link JetFuelRequest}
+     */
+    default void onPlanGenerated(final JetFuelConfiguration jetFuelConfiguration, final JetFuelRequest request) {
+    }
+
+    /**
+     * Invoked before a Hive query runs, including the session SETs.
+     *
+     * @param request {@link JetFuelRequest} the query belongs to, or null outside of a request
+     * @param query   Hive query
+     */
+    default void onQueryStart(final JetFuelRequest request, final String query) {
+    }
+
+    /**
+     * Invoked after a Hive query ran, whatever its outcome.
+     *
+     * @param request        {@link JetFuelRequest} the query belongs to, or null outside of a request
+     * @param query          Hive query
+     * @param durationMillis duration of the query in milliseconds
+     * @param failureType    cause of the failure, or null if the query succeeded
+     */
+    default void onQueryEnd(final JetFuelRequest request, final String query, final long durationMillis, final FailureType failureType) {
+    }
+
+    /**
+     * Invoked when the query of a partition group fails and its partitions are retried in smaller groups or one by
+     * one.
+     *
+     * @param request                  {@link JetFuelRequest} the query belongs to
+     * @param query                    failed Hive query
+     * @param partitionFilterFragments partition filter fragments of the failed group
+     * @param failure                  failure of the query
+     */
+    default void onGroupFallback(final JetFuelRequest request, final String query, final List<String> partitionFilterFragments, final Exception failure) {
+    }
+
+    /**
+     * Invoked once the run ends, whatever its outcome.
+     *
+     * @param jetFuelConfiguration {@link JetFuelConfiguration} of the run
+     * @param succeeded            whether all partitions were fueled
+     * @param durationMillis       duration of the run in milliseconds
+     */
+    default void onRunComplete(final JetFuelConfiguration jetFuelConfiguration, final boolean succeeded, final long durationMillis) {
+    }
+}
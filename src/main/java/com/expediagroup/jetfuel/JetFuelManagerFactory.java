@@ -15,18 +15,31 @@
  */
 package com.expediagroup.jetfuel;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.commons.lang3.Validate;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.metastore.api.MetaException;
 
 import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.internal.BatchManagerImpl;
+import com.expediagroup.jetfuel.internal.CodecEvaluator;
+import com.expediagroup.jetfuel.internal.JetFuelListeners;
 import com.expediagroup.jetfuel.internal.JetFuelManagerImpl;
+import com.expediagroup.jetfuel.internal.ProgressJournal;
 import com.expediagroup.jetfuel.internal.QueryGenerator;
 import com.expediagroup.jetfuel.internal.QueryGeneratorFactory;
 import com.expediagroup.jetfuel.internal.QueryRunner;
 import com.expediagroup.jetfuel.internal.QueryRunnerFactory;
+import com.expediagroup.jetfuel.internal.RunContext;
+import com.expediagroup.jetfuel.internal.RunMetrics;
+import com.expediagroup.jetfuel.internal.WarehouseAdvisor;
 import com.expediagroup.jetfuel.internal.hive.HiveDriverClient;
+import com.expediagroup.jetfuel.internal.hive.HiveSessionPool;
 import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+import com.expediagroup.jetfuel.models.AdvisorConfiguration;
+import com.expediagroup.jetfuel.models.BatchConfiguration;
 import com.expediagroup.jetfuel.models.JetFuelConfiguration;
 
 /**
@@ -44,19 +57,87 @@ public class JetFuelManagerFactory {
         Validate.notNull(jetFuelConfiguration, "jetFuelConfiguration cannot be null");
 
         try {
-            final HiveTableUtils hiveTableUtils = createHiveTableUtils(jetFuelConfiguration);
+            return create(jetFuelConfiguration, createHiveTableUtils(jetFuelConfiguration.getHiveMetastoreUri()), null);
+        } catch (final MetaException e) {
+            throw new JetFuelException(e);
+        }
+    }
+
+    /**
+     * Creates a new instance of a JetFuelManager for a table of a batch, sharing the metastore client and the
+     * HiveServer2 sessions of the batch.  A table with a codecEvaluation gets a {@link CodecEvaluator} instead.
+     *
+     * @param jetFuelConfiguration {@link JetFuelConfiguration}
+     * @param hiveTableUtils       {@link HiveTableUtils} for the metastore of the table
+     * @param sessionPool          {@link HiveSessionPool} of the batch, or null to open the sessions of the table directly
+     * @return new instance
+     */
+    public static JetFuelManager create(final JetFuelConfiguration jetFuelConfiguration, final HiveTableUtils hiveTableUtils, final HiveSessionPool sessionPool) {
+        Validate.notNull(jetFuelConfiguration, "jetFuelConfiguration cannot be null");
+        Validate.notNull(hiveTableUtils, "hiveTableUtils cannot be null");
+
+        try {
+            if (jetFuelConfiguration.getCodecEvaluation() != null) {
+                return new CodecEvaluator(jetFuelConfiguration, hiveTableUtils, new HiveDriverClient(jetFuelConfiguration,
+                        new RunContext.Builder().withSessionPool(sessionPool).build()), sessionPool);
+            }
+
             final QueryGenerator queryGenerator = QueryGeneratorFactory.create(jetFuelConfiguration, hiveTableUtils);
-            final QueryRunner queryRunner = QueryRunnerFactory.create(jetFuelConfiguration, new HiveDriverClient(jetFuelConfiguration));
+            final RunContext runContext = new RunContext.Builder()
+                    .withProgressJournal(ProgressJournal.create(jetFuelConfiguration))
+                    .withRunMetrics(new RunMetrics())
+                    .withListeners(JetFuelListeners.load())
+                    .withSessionPool(sessionPool)
+                    .build();
+            final QueryRunner queryRunner = QueryRunnerFactory.create(jetFuelConfiguration, createHiveDriverClients(jetFuelConfiguration, runContext), runContext);
 
-            return new JetFuelManagerImpl(jetFuelConfiguration, hiveTableUtils, queryGenerator, queryRunner);
-        } catch (final MetaException | ClassNotFoundException e) {
+            return new JetFuelManagerImpl(jetFuelConfiguration, hiveTableUtils, queryGenerator, queryRunner, runContext);
+        } catch (final ClassNotFoundException e) {
             throw new JetFuelException(e);
         }
     }
 
-    private static HiveTableUtils createHiveTableUtils(final JetFuelConfiguration jetFuelConfiguration) throws MetaException {
+    /**
+     * Creates a new instance of a JetFuelManager fueling every table of a batch in one process.
+     *
+     * @param batchConfiguration {@link BatchConfiguration}
+     * @return new instance
+     */
+    public static JetFuelManager createBatch(final BatchConfiguration batchConfiguration) {
+        Validate.notNull(batchConfiguration, "batchConfiguration cannot be null");
+        return new BatchManagerImpl(batchConfiguration);
+    }
+
+    /**
+     * Creates a new instance of a WarehouseAdvisor.
+     *
+     * @param advisorConfiguration {@link AdvisorConfiguration}
+     * @return new instance
+     */
+    public static WarehouseAdvisor createAdvisor(final AdvisorConfiguration advisorConfiguration) {
+        Validate.notNull(advisorConfiguration, "advisorConfiguration cannot be null");
+        return new WarehouseAdvisor(advisorConfiguration);
+    }
+
+    private static List<HiveDriverClient> createHiveDriverClients(final JetFuelConfiguration jetFuelConfiguration, final RunContext runContext)
+            throws ClassNotFoundException {
+        final List<HiveDriverClient> hiveDriverClients = new ArrayList<>();
+        for (int i = 0; i < jetFuelConfiguration.getConcurrency(); i++) {
+            hiveDriverClients.add(new HiveDriverClient(jetFuelConfiguration, runContext));
+        }
+        return hiveDriverClients;
+    }
+
+    /**
+     * Creates a metastore client.
+     *
+     * @param hiveMetastoreUri metastore URI
+     * @return new instance
+     * @throws MetaException thrown when unable to instantiate the client
+     */
+    public static HiveTableUtils createHiveTableUtils(final String hiveMetastoreUri) throws MetaException {
         final HiveConf hiveConf = new HiveConf();
-        hiveConf.setVar(HiveConf.ConfVars.METASTOREURIS, jetFuelConfiguration.getHiveMetastoreUri());
+        hiveConf.setVar(HiveConf.ConfVars.METASTOREURIS, hiveMetastoreUri);
 
         return new HiveTableUtils(hiveConf);
     }
@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.exception;
+
+/**
+ * Cause of a failed Hive query, which decides how JetFuel recovers from it.
+ */
+public enum FailureType {
+
+    /**
+     * The HiveServer2 connection was lost; the query is retried on a new connection.
+     */
+    CONNECTION,
+
+    /**
+     * The query cannot compile or is invalid; retrying cannot help, so the run is aborted.
+     */
+    SEMANTIC,
+
+    /**
+     * The user lacks a privilege on a table or its files; retrying cannot help, so the run is aborted.
+     */
+    AUTHORIZATION,
+
+    /**
+     * A task ran out of Java heap; the query is retried with more memory.
+     */
+    TASK_OOM,
+
+    /**
+     * YARN killed a container exceeding its memory limit; the query is retried with more memory, and the partition
+     * group is made smaller once the memory ladder is exhausted.
+     */
+    CONTAINER_MEMORY,
+
+    /**
+     * A task stopped reporting progress, or the query was cancelled at its deadline; the partition group is made smaller.
+     */
+    TIMEOUT,
+
+    /**
+     * The run budget is spent; the run is aborted without starting more queries.
+     */
+    BUDGET_EXHAUSTED,
+
+    /**
+     * Any other failure; the partition group is made smaller.
+     */
+    UNKNOWN
+}
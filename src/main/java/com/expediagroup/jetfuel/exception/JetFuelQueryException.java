@@ -0,0 +1,33 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.exception;
+
+import lombok.Getter;
+
+/**
+ * Failure of a Hive query, classified by its cause.
+ */
+@Getter
+public class JetFuelQueryException extends JetFuelException {
+    private static final long serialVersionUID = 4617287502347163591L;
+
+    private final FailureType failureType;
+
+    public JetFuelQueryException(final String message, final Throwable cause, final FailureType failureType) {
+        super(message, cause);
+        this.failureType = failureType;
+    }
+}
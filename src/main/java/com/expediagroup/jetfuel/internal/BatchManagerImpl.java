@@ -0,0 +1,178 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.hadoop.hive.metastore.api.MetaException;
+
+import com.expediagroup.jetfuel.JetFuelManager;
+import com.expediagroup.jetfuel.JetFuelManagerFactory;
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.internal.hive.HiveSessionPool;
+import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+import com.expediagroup.jetfuel.models.BatchConfiguration;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link JetFuelManager} fueling the tables of a batch in one process.
+ *
+ * The tables are fueled in the order of the {@link BatchPlanner}, which skips the tables that do not fit in the time
+ * budget.  They share one metastore client per metastore URI and a {@link HiveSessionPool} capped at maxSessions, which
+ * also caps the tables fueled at once: each table waits for its primary session, and its other sessions only run when
+ * the pool has sessions to spare.  A table that fails is logged and the others carry on; the batch fails once all
+ * tables have run.
+ */
+@Slf4j
+public class BatchManagerImpl implements JetFuelManager {
+
+    private final BatchConfiguration batchConfiguration;
+
+    /**
+     * Metastore clients by metastore URI
+     */
+    private final Map<String, HiveTableUtils> metastoreClients = new HashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param batchConfiguration {@link BatchConfiguration}
+     */
+    public BatchManagerImpl(final BatchConfiguration batchConfiguration) {
+        Validate.notNull(batchConfiguration, "batchConfiguration cannot be null");
+        this.batchConfiguration = batchConfiguration;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void fuel() throws JetFuelException {
+        final int maxSessions = batchConfiguration.getMaxSessions();
+        final Set<String> failedTables = Collections.synchronizedSet(new LinkedHashSet<>());
+        final Instant start = Instant.now();
+        final List<JetFuelConfiguration> tables = new BatchPlanner(batchConfiguration).schedule(this::getMetastoreClient);
+        log.info("Fueling {} of {} tables with up to {} HiveServer2 sessions", tables.size(), batchConfiguration.getTables().size(), maxSessions);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(maxSessions, tables.size())),
+                new ThreadFactoryBuilder().setNameFormat("jetfuel-table-%d").build());
+        try (final HiveSessionPool sessionPool = new HiveSessionPool(maxSessions)) {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (final JetFuelConfiguration table : tables) {
+                futures.add(executor.submit(() -> {
+                    if (!fuelTable(table, sessionPool)) {
+                        failedTables.add(BatchConfiguration.getTableName(table));
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JetFuelException("Interrupted while fueling the batch", e);
+        } catch (final ExecutionException e) {
+            throw new JetFuelException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            closeMetastoreClients();
+        }
+
+        log.info("Fueled {} of {} tables in {} seconds", tables.size() - failedTables.size(), tables.size(), Duration.between(start, Instant.now()).getSeconds());
+        if (!failedTables.isEmpty()) {
+            final String errorMessage = String.format("%d of %d tables failed: %s", failedTables.size(), tables.size(), failedTables);
+            log.error(errorMessage);
+            throw new JetFuelException(errorMessage);
+        }
+    }
+
+    /**
+     * Fuels a table of the batch on the calling thread, named after the target table for the logs.
+     *
+     * @param table       {@link JetFuelConfiguration} of the table
+     * @param sessionPool {@link HiveSessionPool} of the batch
+     * @return true if the table was fueled
+     */
+    private boolean fuelTable(final JetFuelConfiguration table, final HiveSessionPool sessionPool) {
+        final String name = BatchConfiguration.getTableName(table);
+        final Thread thread = Thread.currentThread();
+        final String threadName = thread.getName();
+        thread.setName(String.format("jetfuel-%s.%s", table.getTargetDatabase(), table.getTargetTable()));
+        final Instant start = Instant.now();
+        try {
+            log.info("Fueling {}", name);
+            JetFuelManagerFactory.create(table, getMetastoreClient(table.getHiveMetastoreUri()), sessionPool).fuel();
+            log.info("Fueled {} in {} seconds", name, Duration.between(start, Instant.now()).getSeconds());
+            return true;
+        } catch (final RuntimeException e) {
+            log.error(String.format("Fueling %s failed after %d seconds", name, Duration.between(start, Instant.now()).getSeconds()), e);
+            return false;
+        } finally {
+            thread.setName(threadName);
+        }
+    }
+
+    /**
+     * Retrieves the metastore client shared by the tables of a metastore, creating it on first use.
+     *
+     * @param hiveMetastoreUri metastore URI
+     * @return {@link HiveTableUtils}
+     * @throws JetFuelException thrown when unable to create the client
+     */
+    private HiveTableUtils getMetastoreClient(final String hiveMetastoreUri) throws JetFuelException {
+        synchronized (metastoreClients) {
+            HiveTableUtils hiveTableUtils = metastoreClients.get(hiveMetastoreUri);
+            if (hiveTableUtils == null) {
+                try {
+                    hiveTableUtils = JetFuelManagerFactory.createHiveTableUtils(hiveMetastoreUri);
+                } catch (final MetaException e) {
+                    throw new JetFuelException(String.format("Unable to connect to metastore %s", hiveMetastoreUri), e);
+                }
+                metastoreClients.put(hiveMetastoreUri, hiveTableUtils);
+            }
+            return hiveTableUtils;
+        }
+    }
+
+    private void closeMetastoreClients() {
+        synchronized (metastoreClients) {
+            for (final HiveTableUtils hiveTableUtils : metastoreClients.values()) {
+                try {
+                    hiveTableUtils.close();
+                } catch (final RuntimeException e) {
+                    log.warn("Error closing metastore client: {}", e.getMessage());
+                }
+            }
+            metastoreClients.clear();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import static org.apache.commons.io.FileUtils.byteCountToDisplaySize;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+import com.expediagroup.jetfuel.models.BatchConfiguration;
+import com.expediagroup.jetfuel.models.CompressionType;
+import com.expediagroup.jetfuel.models.FileFormat;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.expediagroup.jetfuel.models.OptimalPartitions;
+import com.expediagroup.jetfuel.models.PartitionSpec;
+import com.expediagroup.jetfuel.models.TableEstimate;
+import com.google.common.collect.ImmutableMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Orders the tables of a batch by estimated benefit per rewritten byte, and skips the tables that do not fit in the
+ * timeBudgetInMinutes.
+ *
+ * Estimates only read metastore statistics.  The bytes to rewrite are the totalSize of the partitions matching the
+ * partitionFilter, leaving out optimal partitions that are skipped.  The bytes saved compare the totalSize with the
+ * rawDataSize, or failing that the totalSize re-encoded, scaled by rough storage factors of the source and target file
+ * formats and compressions.  Every file removed by compaction is worth {@link #REMOVED_FILE_BENEFIT_BYTES}.  Partitions
+ * without a totalSize statistic are left out, so tables should be analyzed for accurate plans.
+ */
+@Slf4j
+public class BatchPlanner {
+
+    /**
+     * Benefit of removing a file, an HDFS block worth of bytes for the NameNode memory and task start up it saves
+     */
+    static final long REMOVED_FILE_BENEFIT_BYTES = 128L * 1024 * 1024;
+
+    /**
+     * Bytes on disk per byte of raw data by file format, without compression
+     */
+    private static final Map<FileFormat, Double> FORMAT_FACTORS = ImmutableMap.<FileFormat, Double>builder()
+            .put(FileFormat.TEXT, 1.0)
+            .put(FileFormat.SEQ, 1.0)
+            .put(FileFormat.AVRO, 0.8)
+            .put(FileFormat.RC, 0.7)
+            .put(FileFormat.ORC, 0.5)
+            .put(FileFormat.PARQUET, 0.5)
+            .build();
+
+    /**
+     * Bytes on disk per uncompressed byte by compression
+     */
+    private static final Map<String, Double> COMPRESSION_FACTORS = ImmutableMap.of(
+            CompressionType.NONE.toString(), 1.0,
+            CompressionType.SNAPPY.toString(), 0.5,
+            CompressionType.ZLIB.toString(), 0.35,
+            CompressionType.GZIP.toString(), 0.35);
+
+    private final BatchConfiguration batchConfiguration;
+
+    /**
+     * Constructor
+     *
+     * @param batchConfiguration {@link BatchConfiguration}
+     */
+    public BatchPlanner(final BatchConfiguration batchConfiguration) {
+        Validate.notNull(batchConfiguration, "batchConfiguration cannot be null");
+        this.batchConfiguration = batchConfiguration;
+    }
+
+    /**
+     * Orders the tables of the batch highest benefit per rewritten byte first.  With a timeBudgetInMinutes, a table is
+     * skipped when its rewrite does not fit in what is left of the budget after the tables before it, at
+     * rewriteBytesPerSecond for each of the maxSessions sessions.  Tables that cannot be estimated are fueled last.
+     *
+     * @param metastoreClients metastore client by metastore URI
+     * @return tables to fuel, in order
+     */
+    public List<JetFuelConfiguration> schedule(final Function<String, HiveTableUtils> metastoreClients) {
+        Validate.notNull(metastoreClients, "metastoreClients cannot be null");
+
+        final List<TableEstimate> estimates = new ArrayList<>();
+        final List<JetFuelConfiguration> unestimated = new ArrayList<>();
+        for (final JetFuelConfiguration table : batchConfiguration.getTables()) {
+            try {
+                estimates.add(estimate(table, metastoreClients.apply(table.getHiveMetastoreUri())));
+            } catch (final RuntimeException e) {
+                log.warn("Unable to estimate {}, fueling it last: {}", BatchConfiguration.getTableName(table), e.getMessage());
+                unestimated.add(table);
+            }
+        }
+        estimates.sort(Comparator.comparingDouble(TableEstimate::getBenefitPerCost).reversed());
+
+        final Long timeBudgetInMinutes = batchConfiguration.getTimeBudgetInMinutes();
+        double remainingBytes = timeBudgetInMinutes == null ? Double.MAX_VALUE
+                : timeBudgetInMinutes * 60.0 * batchConfiguration.getRewriteBytesPerSecond() * batchConfiguration.getMaxSessions();
+        final List<JetFuelConfiguration> scheduled = new ArrayList<>();
+        for (final TableEstimate estimate : estimates) {
+            final String name = BatchConfiguration.getTableName(estimate.getTable());
+            if (estimate.getRewriteBytes() > remainingBytes) {
+                log.warn("Skipping {}: rewriting {} does not fit in the time budget", name, byteCountToDisplaySize(estimate.getRewriteBytes()));
+                continue;
+            }
+            remainingBytes -= estimate.getRewriteBytes();
+            log.info("Scheduling {}: rewriting {} to save {} and {} files", name, byteCountToDisplaySize(estimate.getRewriteBytes()),
+                    byteCountToDisplaySize(estimate.getSavedBytes()), estimate.getRemovedFiles());
+            scheduled.add(estimate.getTable());
+        }
+        scheduled.addAll(unestimated);
+        return scheduled;
+    }
+
+    /**
+     * Estimates the cost and benefit of fueling a table from the statistics of its source partitions.
+     *
+     * @param table          {@link JetFuelConfiguration} of the table
+     * @param hiveTableUtils metastore client of the table
+     * @return {@link TableEstimate}
+     * @throws JetFuelException thrown when unable to retrieve the source table or its partitions
+     */
+    TableEstimate estimate(final JetFuelConfiguration table, final HiveTableUtils hiveTableUtils) throws JetFuelException {
+        final Table sourceTable = hiveTableUtils.getTable(table.getSourceDatabase(), table.getSourceTable());
+        if (sourceTable == null) {
+            throw new JetFuelException(String.format("Table %s.%s does not exist", table.getSourceDatabase(), table.getSourceTable()));
+        }
+
+        final PartitionAnalyzer partitionAnalyzer = new PartitionAnalyzer(table, hiveTableUtils);
+        final boolean isTablePartitioned = hiveTableUtils.isPartitioned(sourceTable);
+        final List<Partition> partitions = isTablePartitioned
+                ? partitionAnalyzer.getFilteredPartitions(sourceTable).stream().map(PartitionSpec::getPartition).collect(Collectors.toList())
+                : Collections.singletonList(new Partition(Collections.emptyList(), sourceTable.getDbName(), sourceTable.getTableName(), 0, 0, sourceTable.getSd(), sourceTable.getParameters()));
+
+        final long smallFileAvgSize = NumberUtils.toLong(table.getSmallFileAvgSize(), 0);
+        final double targetFactor = getStorageFactor(table.getTargetFileFormat(), table.getTargetCompression());
+        long rewriteBytes = 0;
+        long savedBytes = 0;
+        long removedFiles = 0;
+        int partitionsWithoutStats = 0;
+        for (final Partition partition : partitions) {
+            final long totalSize = hiveTableUtils.getTotalSize(partition);
+            if (totalSize < 0) {
+                partitionsWithoutStats++;
+                continue;
+            }
+            final long numFiles = hiveTableUtils.getNumFiles(partition);
+            final boolean isEncoded = partitionAnalyzer.isEncoded(sourceTable, partition);
+            final boolean isCompacted = numFiles >= 0 && (numFiles <= 1 || smallFileAvgSize <= 0 || totalSize / numFiles >= smallFileAvgSize);
+            if (isTablePartitioned && isEncoded && (isCompacted || !table.getTargetCompaction()) && table.getOptimalPartitions() == OptimalPartitions.SKIP) {
+                continue;
+            }
+
+            final long targetSize = isEncoded ? totalSize : getTargetSize(sourceTable, partition, hiveTableUtils, totalSize, targetFactor);
+            rewriteBytes += totalSize;
+            savedBytes += Math.max(0, totalSize - targetSize);
+            if (numFiles >= 0 && table.getTargetCompaction() && smallFileAvgSize > 0) {
+                removedFiles += Math.max(0, numFiles - Math.max(1, (targetSize + smallFileAvgSize - 1) / smallFileAvgSize));
+            }
+        }
+
+        if (partitionsWithoutStats > 0) {
+            log.warn("{} partitions of {}.{} have no totalSize statistic and are left out of the estimate", partitionsWithoutStats,
+                    table.getSourceDatabase(), table.getSourceTable());
+        }
+        return new TableEstimate(table, rewriteBytes, savedBytes, removedFiles, partitionsWithoutStats,
+                savedBytes + removedFiles * REMOVED_FILE_BENEFIT_BYTES);
+    }
+
+    /**
+     * Estimates the size of a partition once fueled, from its rawDataSize or else from its totalSize scaled by the
+     * storage factors of its current and target file formats.  Unknown source formats are assumed not to change size.
+     */
+    private static long getTargetSize(final Table table, final Partition partition, final HiveTableUtils hiveTableUtils, final long totalSize,
+                                      final double targetFactor) {
+        final long rawDataSize = hiveTableUtils.getRawDataSize(partition);
+        if (rawDataSize > 0) {
+            return (long) (rawDataSize * targetFactor);
+        }
+
+        final FileFormat sourceFileFormat = PartitionAnalyzer.getFileFormat(partition);
+        if (sourceFileFormat == null) {
+            return totalSize;
+        }
+        final String sourceCompression = PartitionAnalyzer.getCompression(table, partition, sourceFileFormat);
+        return (long) (totalSize * targetFactor / getStorageFactor(sourceFileFormat, sourceCompression));
+    }
+
+    /**
+     * Bytes on disk per byte of raw data in a file format and compression.  Unknown compressions count as uncompressed.
+     */
+    private static double getStorageFactor(final FileFormat fileFormat, final String compression) {
+        final double compressionFactor = compression == null ? 1.0 : COMPRESSION_FACTORS.getOrDefault(PartitionAnalyzer.normalizeCompression(compression), 1.0);
+        return FORMAT_FACTORS.getOrDefault(fileFormat, 1.0) * compressionFactor;
+    }
+}
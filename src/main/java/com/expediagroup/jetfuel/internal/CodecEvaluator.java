@@ -0,0 +1,313 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.hadoop.hive.metastore.api.Table;
+
+import com.expediagroup.jetfuel.JetFuelManager;
+import com.expediagroup.jetfuel.JetFuelManagerFactory;
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.internal.hive.HiveDriverClient;
+import com.expediagroup.jetfuel.internal.hive.HiveSessionPool;
+import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+import com.expediagroup.jetfuel.models.CodecEvaluation;
+import com.expediagroup.jetfuel.models.CodecResult;
+import com.expediagroup.jetfuel.models.CompressionType;
+import com.expediagroup.jetfuel.models.EvaluationObjective;
+import com.expediagroup.jetfuel.models.ExecutionEngine;
+import com.expediagroup.jetfuel.models.FileFormat;
+import com.expediagroup.jetfuel.models.HiveProperty;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.expediagroup.jetfuel.models.PartitionSpec;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link JetFuelManager} choosing the target file format and compression of a table from a sample of it.
+ *
+ * A sample of the source table, either its latest partitions matching the partition filter or a TABLESAMPLE
+ * percentage of an unpartitioned table, is rewritten into a temporary table for every valid compression of the
+ * evaluated file formats.  The combinations are ranked by the size of their sample table, or by the time of the scan
+ * query against it, and the best one is either recommended or used to fuel the table.  The temporary tables are
+ * dropped once measured.
+ */
+@Slf4j
+public class CodecEvaluator implements JetFuelManager {
+
+    private static final String TABLE_PLACEHOLDER = "${table}";
+
+    private final JetFuelConfiguration jetFuelConfiguration;
+    private final CodecEvaluation codecEvaluation;
+    private final HiveTableUtils hiveTableUtils;
+    private final HiveDriverClient hiveDriverClient;
+    private final HiveSessionPool sessionPool;
+
+    /**
+     * Constructor
+     *
+     * @param jetFuelConfiguration {@link JetFuelConfiguration} with a {@link CodecEvaluation}
+     * @param hiveTableUtils       {@link HiveTableUtils}
+     * @param hiveDriverClient     {@link HiveDriverClient} writing the sample tables
+     * @param sessionPool          {@link HiveSessionPool} shared with other tables, or null
+     */
+    public CodecEvaluator(final JetFuelConfiguration jetFuelConfiguration, final HiveTableUtils hiveTableUtils, final HiveDriverClient hiveDriverClient,
+                          final HiveSessionPool sessionPool) {
+        Validate.notNull(jetFuelConfiguration, "jetFuelConfiguration cannot be null");
+        Validate.notNull(jetFuelConfiguration.getCodecEvaluation(), "codecEvaluation cannot be null");
+        Validate.notNull(hiveTableUtils, "hiveTableUtils cannot be null");
+        Validate.notNull(hiveDriverClient, "hiveDriverClient cannot be null");
+        this.jetFuelConfiguration = jetFuelConfiguration;
+        this.codecEvaluation = jetFuelConfiguration.getCodecEvaluation();
+        this.hiveTableUtils = hiveTableUtils;
+        this.hiveDriverClient = hiveDriverClient;
+        this.sessionPool = sessionPool;
+    }
+
+    /**
+     * Evaluates the combinations and recommends the best one, fueling the table with it when apply is enabled.
+     *
+     * @throws JetFuelException thrown when no combination could be evaluated or fueling fails
+     */
+    @Override
+    public void fuel() throws JetFuelException {
+        final List<CodecResult> results = evaluate();
+        if (results.isEmpty()) {
+            final String errorMessage = String.format("No combination of file format and compression could be evaluated for %s.%s",
+                    jetFuelConfiguration.getSourceDatabase(), jetFuelConfiguration.getSourceTable());
+            log.error(errorMessage);
+            throw new JetFuelException(errorMessage);
+        }
+
+        final CodecResult best = results.get(0);
+        log.info("Recommended targetFileFormat {} and targetCompression {} for {}.{} on the {} objective", best.getFileFormat(), best.getCompression(),
+                jetFuelConfiguration.getSourceDatabase(), jetFuelConfiguration.getSourceTable(), codecEvaluation.getObjective());
+        if (!codecEvaluation.isApply()) {
+            return;
+        }
+
+        final JetFuelConfiguration fuelingConfiguration = jetFuelConfiguration.toBuilder()
+                .withTargetFileFormat(best.getFileFormat())
+                .withTargetCompression(best.getCompression())
+                .withCodecEvaluation(null)
+                .build();
+        JetFuelManagerFactory.create(fuelingConfiguration, hiveTableUtils, sessionPool).fuel();
+    }
+
+    /**
+     * Rewrites the sample of the source table with every combination, skipping the combinations that fail.
+     *
+     * @return {@link CodecResult} of each evaluated combination, best first
+     * @throws JetFuelException thrown when the source table cannot be sampled
+     */
+    public List<CodecResult> evaluate() throws JetFuelException {
+        final Table sourceTable = hiveTableUtils.getTable(jetFuelConfiguration.getSourceDatabase(), jetFuelConfiguration.getSourceTable());
+        final boolean isPartitioned = hiveTableUtils.isPartitioned(sourceTable);
+        final String sampleQuery = getSampleQuery(sourceTable, isPartitioned);
+
+        final List<CodecResult> results = new ArrayList<>();
+        hiveDriverClient.openConnection();
+        try {
+            for (final String sessionQuery : getSessionQueries()) {
+                hiveDriverClient.runQuery(sessionQuery);
+            }
+            for (final JetFuelConfiguration candidate : getCandidates()) {
+                try {
+                    results.add(evaluate(candidate, sampleQuery, isPartitioned));
+                } catch (final JetFuelException e) {
+                    log.warn("Unable to evaluate {} with {} compression: {}", candidate.getTargetFileFormat(), candidate.getTargetCompression(), e.getMessage());
+                }
+            }
+        } finally {
+            hiveDriverClient.closeConnection();
+        }
+
+        results.sort(getComparator());
+        for (int i = 0; i < results.size(); i++) {
+            final CodecResult result = results.get(i);
+            log.info("{}. {} with {} compression: {} bytes written in {} ms{}", i + 1, result.getFileFormat(), result.getCompression(), result.getSampleBytes(),
+                    result.getWriteMillis(), result.getScanMillis() == null ? "" : String.format(", scanned in %d ms", result.getScanMillis()));
+        }
+        return results;
+    }
+
+    /**
+     * Writes, measures and drops the sample table of a combination.
+     *
+     * @param candidate     {@link JetFuelConfiguration} whose target is the sample table
+     * @param sampleQuery   sample of the source table, following INSERT OVERWRITE TABLE
+     * @param isPartitioned true when the source table is partitioned
+     * @return {@link CodecResult}
+     */
+    private CodecResult evaluate(final JetFuelConfiguration candidate, final String sampleQuery, final boolean isPartitioned) {
+        final String sampleTable = String.format("%s.%s", candidate.getTargetDatabase(), candidate.getTargetTable());
+        log.info("Evaluating {} with {} compression in {}", candidate.getTargetFileFormat(), candidate.getTargetCompression(), sampleTable);
+
+        hiveDriverClient.runQuery(String.format("DROP TABLE IF EXISTS %s", sampleTable));
+        try {
+            for (final String query : QueryGeneratorFactory.getFileFormatCompressor(candidate.getTargetFileFormat().getCreateFormat())
+                    .getFileFormatCompressionQueries(candidate)) {
+                hiveDriverClient.runQuery(query);
+            }
+
+            final long writeMillis = time(String.format("INSERT OVERWRITE TABLE %s %s", sampleTable, sampleQuery));
+            final Long scanMillis = isBlank(codecEvaluation.getScanQuery()) ? null : time(codecEvaluation.getScanQuery().replace(TABLE_PLACEHOLDER, sampleTable));
+            final long sampleBytes = getSampleBytes(candidate, isPartitioned);
+
+            return new CodecResult(candidate.getTargetFileFormat(), candidate.getTargetCompression(), sampleBytes, writeMillis, scanMillis);
+        } finally {
+            try {
+                hiveDriverClient.runQuery(String.format("DROP TABLE IF EXISTS %s", sampleTable));
+            } catch (final JetFuelException e) {
+                log.warn("Unable to drop sample table {}: {}", sampleTable, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs a query and measures its duration.
+     *
+     * @param query Hive query
+     * @return duration of the query in milliseconds
+     */
+    private long time(final String query) {
+        final Instant start = Instant.now();
+        hiveDriverClient.runQuery(query);
+        return Duration.between(start, Instant.now()).toMillis();
+    }
+
+    /**
+     * Retrieves the size of a sample table from the statistics gathered when writing it.
+     *
+     * @param candidate     {@link JetFuelConfiguration} whose target is the sample table
+     * @param isPartitioned true when the source table is partitioned
+     * @return size of the sample table in bytes
+     * @throws JetFuelException thrown when the statistics are missing
+     */
+    private long getSampleBytes(final JetFuelConfiguration candidate, final boolean isPartitioned) {
+        final long sampleBytes;
+        if (isPartitioned) {
+            final List<Long> sizes = hiveTableUtils.getAllPartitions(candidate.getTargetDatabase(), candidate.getTargetTable()).stream()
+                    .map(hiveTableUtils::getTotalSize)
+                    .collect(Collectors.toList());
+            sampleBytes = sizes.contains(-1L) ? -1 : sizes.stream().mapToLong(Long::longValue).sum();
+        } else {
+            sampleBytes = hiveTableUtils.getTableTotalSize(hiveTableUtils.getTable(candidate.getTargetDatabase(), candidate.getTargetTable()));
+        }
+        if (sampleBytes < 0) {
+            throw new JetFuelException(String.format("Statistics of %s.%s are missing", candidate.getTargetDatabase(), candidate.getTargetTable()));
+        }
+        return sampleBytes;
+    }
+
+    /**
+     * Retrieves the sample of the source table: its latest partitions matching the partition filter, or a TABLESAMPLE
+     * percentage of an unpartitioned table.
+     *
+     * @param sourceTable   source {@link Table}
+     * @param isPartitioned true when the source table is partitioned
+     * @return query selecting the sample, following INSERT OVERWRITE TABLE
+     * @throws JetFuelException thrown when no partition matches the partition filter
+     */
+    String getSampleQuery(final Table sourceTable, final boolean isPartitioned) {
+        if (!isPartitioned) {
+            return String.format("SELECT * FROM %s.%s TABLESAMPLE(%d PERCENT) sample", jetFuelConfiguration.getSourceDatabase(), jetFuelConfiguration.getSourceTable(),
+                    codecEvaluation.getSamplePercent());
+        }
+
+        final List<PartitionSpec> partitionSpecs = new PartitionAnalyzer(jetFuelConfiguration, hiveTableUtils).getFilteredPartitions(sourceTable);
+        if (partitionSpecs.isEmpty()) {
+            throw new JetFuelException(String.format("No partitions of %s.%s to sample", jetFuelConfiguration.getSourceDatabase(), jetFuelConfiguration.getSourceTable()));
+        }
+        final String sampleFilter = partitionSpecs.subList(Math.max(0, partitionSpecs.size() - codecEvaluation.getSamplePartitions()), partitionSpecs.size()).stream()
+                .map(PartitionSpec::getFilterFragment)
+                .collect(Collectors.joining(" OR "));
+        log.info("Sampling partitions {}", sampleFilter);
+
+        final String partitions = hiveTableUtils.getPartitions(sourceTable);
+        return String.format("PARTITION %s SELECT %s, %s FROM %s.%s WHERE %s", partitions, hiveTableUtils.getTableColumnsAsString(sourceTable),
+                partitions.replace("(", "").replace(")", ""), jetFuelConfiguration.getSourceDatabase(), jetFuelConfiguration.getSourceTable(), sampleFilter);
+    }
+
+    /**
+     * Retrieves the session queries of the evaluation, gathering the statistics measured by it.
+     *
+     * @return List of session queries
+     */
+    private List<String> getSessionQueries() {
+        final List<String> sessionQueries = new ArrayList<>();
+        if (jetFuelConfiguration.getExecutionEngine() == ExecutionEngine.TEZ) {
+            sessionQueries.add(HiveProperty.HIVE_TEZ_EXECUTION.getQuery());
+            sessionQueries.add(HiveProperty.HIVE_TEZ_INPUT_FORMAT.getQuery());
+        } else {
+            sessionQueries.add(HiveProperty.HIVE_MR_EXECUTION.getQuery());
+        }
+        sessionQueries.add(HiveProperty.DYNAMIC_PARTITION_MODE.getQuery());
+        sessionQueries.add(HiveProperty.DYNAMIC_PARTITION.getQuery());
+        sessionQueries.add(new HiveProperty("hive.stats.autogather", "true").getQuery());
+        if (jetFuelConfiguration.getConfigQueries() != null) {
+            sessionQueries.addAll(jetFuelConfiguration.getConfigQueries());
+        }
+        return sessionQueries;
+    }
+
+    /**
+     * Retrieves a configuration targeting a sample table for every valid compression of the evaluated file formats.
+     * NONE is skipped as it writes the same files as UNCOMPRESSED.
+     *
+     * @return List of {@link JetFuelConfiguration}
+     */
+    List<JetFuelConfiguration> getCandidates() {
+        final List<JetFuelConfiguration> candidates = new ArrayList<>();
+        for (final String name : codecEvaluation.getFileFormats()) {
+            final FileFormat fileFormat = FileFormat.valueOf(name.toUpperCase());
+            for (final String compression : new TreeSet<>(fileFormat.getValidCompressions())) {
+                if (CompressionType.NONE.toString().equals(compression)) {
+                    continue;
+                }
+                candidates.add(jetFuelConfiguration.toBuilder()
+                        .withTargetTable(String.format("%s_eval_%s_%s", jetFuelConfiguration.getTargetTable(), fileFormat, compression).toLowerCase())
+                        .withTargetFileFormat(fileFormat)
+                        .withTargetCompression(compression)
+                        .withCodecEvaluation(null)
+                        .build());
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Retrieves the ordering of the results for the objective, best first.
+     *
+     * @return {@link Comparator} of {@link CodecResult}
+     */
+    private Comparator<CodecResult> getComparator() {
+        if (codecEvaluation.getObjective() == EvaluationObjective.READ_SPEED) {
+            return Comparator.comparing(CodecResult::getScanMillis).thenComparingLong(CodecResult::getSampleBytes);
+        }
+        return Comparator.comparingLong(CodecResult::getSampleBytes).thenComparingLong(CodecResult::getWriteMillis);
+    }
+}
@@ -15,13 +15,19 @@
  */
 package com.expediagroup.jetfuel.internal;
 
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.List;
+import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.Validate;
 
 import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.internal.filter.PartitionPredicates;
 import com.expediagroup.jetfuel.internal.hive.HiveDriverClient;
+import com.expediagroup.jetfuel.models.FailureIsolation;
 import com.expediagroup.jetfuel.models.JetFuelRequest;
 
 import lombok.extern.slf4j.Slf4j;
@@ -34,8 +40,8 @@ class DynamicQueryRunner extends QueryRunner {
 
     private static final double DYNAMIC_STEP_DIVISOR = 2.0;
 
-    DynamicQueryRunner(final HiveDriverClient hiveDriverClient) {
-        super(hiveDriverClient);
+    DynamicQueryRunner(final List<HiveDriverClient> hiveDriverClients, final RunContext runContext) {
+        super(hiveDriverClients, runContext);
     }
 
     /**
@@ -45,74 +51,142 @@ class DynamicQueryRunner extends QueryRunner {
      */
     void execute(final JetFuelRequest request) {
         Validate.notNull(request, "Request cannot be null");
+        setRequest(request);
         try {
             hiveDriverClient.openConnection();
 
             request.getJetFuelQueries().forEach(hiveDriverClient::runQuery);
 
             // Start Dynamic Partition Inserts
-            final String insertTemplate = request.getInsertPartitionTemplate();
+            final AtomicInteger successQueryCount = new AtomicInteger();
+            final AtomicInteger failedQueryCount = new AtomicInteger();
 
-            int successQueryCount = 0;
-            int failedQueryCount = 0;
-
-            // Remaining partitions initially contains all partitions
-            // CurrentPartitions contains the group we're currently Fueling
-            Stack<String> currentPartitions = new Stack<>();
+            // Remaining partitions initially contains all partitions, and is shared by all sessions
             final Deque<String> remainingPartitions = request.getPartitionFilterFragments();
-            final int partitionCount = request.getPartitionFilterFragments().size();
 
             // Initial group size based on configuration / partition count (whichever is smaller)
-            long groupSize = request.getPartitionGroupSize();
-            if (partitionCount < groupSize) {
-                groupSize = partitionCount;
+            final long groupSize = Math.min(request.getPartitionGroupSize(), remainingPartitions.size());
+
+            getRunMetrics().addPartitionsPlanned(remainingPartitions);
+            if (!remainingPartitions.isEmpty()) {
+                runOnSessions(request, session -> runDynamicGroups(session, request, remainingPartitions, groupSize, successQueryCount, failedQueryCount));
             }
 
-            while (!remainingPartitions.isEmpty()) {
+            log.info("Completed in {} successful queries", successQueryCount.get());
+            log.info("Handled {} failed queries", failedQueryCount.get());
 
-                // Ensure we have `groupSize` partitions in the current Stack
+            // Grouped queries with individual fallbacks, e.g. partition concatenation
+            runInsertPartitionQueries(request);
+
+        } finally {
+            hiveDriverClient.closeConnection();
+        }
+    }
+
+    /**
+     * Runs dynamically sized partition groups on a single session until no partitions remain.
+     * Each session sizes its own groups: the size is halved on failure and grows by one partition after
+     * groupSizeIncreaseAfter consecutive successes, up to the request's partition group size.
+     *
+     * @param session             session to run the queries on
+     * @param request             {@link JetFuelRequest}
+     * @param remainingPartitions shared stack of partition filter fragments still to be fueled
+     * @param initialGroupSize    starting group size
+     * @param successQueryCount   shared count of successful queries
+     * @param failedQueryCount    shared count of failed queries
+     */
+    private void runDynamicGroups(final HiveDriverClient session, final JetFuelRequest request, final Deque<String> remainingPartitions,
+                                  final long initialGroupSize, final AtomicInteger successQueryCount, final AtomicInteger failedQueryCount) {
+        final String insertTemplate = request.getInsertPartitionTemplate();
+        final boolean compactPredicates = request.isCompactPartitionPredicates();
+        final Set<String> integerKeys = request.getIntegerPartitionKeys();
+        final Set<String> dateKeys = request.getDatePartitionKeys();
+        final long maxGroupSize = request.getPartitionGroupSize();
+        final int increaseAfter = request.getGroupSizeIncreaseAfter();
+
+        long groupSize = initialGroupSize;
+        int consecutiveSuccesses = 0;
+        final List<Long> groupSizeHistory = new ArrayList<>();
+        groupSizeHistory.add(groupSize);
+
+        // CurrentPartitions contains the group we're currently Fueling
+        Stack<String> currentPartitions = new Stack<>();
+
+        while (!Thread.currentThread().isInterrupted()) {
+
+            // Ensure we have `groupSize` partitions in the current Stack
+            synchronized (remainingPartitions) {
                 while (currentPartitions.size() < groupSize && remainingPartitions.peek() != null) {
                     currentPartitions.push(remainingPartitions.pop());
                 }
+            }
 
-                // Generate current query
-                final String currentQuery = String.format("%s WHERE %s", insertTemplate, String.join(" OR ", currentPartitions));
+            if (currentPartitions.isEmpty()) {
+                break;
+            }
 
-                try {
-                    hiveDriverClient.runQuery(currentQuery);
-                    log.info("Successfully executed insert partition grouped query");
+            // Generate current query
+            final String currentQuery = String.format("%s WHERE %s", insertTemplate, PartitionPredicates.join(currentPartitions, compactPredicates, integerKeys, dateKeys));
+
+            try {
+                runQuery(session, request, currentQuery, currentPartitions.size());
+                log.info("Successfully executed insert partition grouped query");
+
+                successQueryCount.incrementAndGet();
+                recordCompleted(currentPartitions);
+                currentPartitions = new Stack<>();
+
+                // Additive increase once the session has been stable for a while
+                consecutiveSuccesses++;
+                if (increaseAfter > 0 && consecutiveSuccesses >= increaseAfter && groupSize < maxGroupSize) {
+                    log.info("Increasing dynamic partition group size from {} to {} after {} successful queries", groupSize, groupSize + 1, consecutiveSuccesses);
+                    getRunMetrics().recordGroupSizeChange((int) groupSize, (int) groupSize + 1);
+                    groupSize++;
+                    groupSizeHistory.add(groupSize);
+                    consecutiveSuccesses = 0;
+                }
+            } catch (final Exception e) {
+                abortOnUnrecoverableFailure(e);
+                failedQueryCount.incrementAndGet();
+                consecutiveSuccesses = 0;
+                if (currentPartitions.size() > 1) {
+                    notifyGroupFallback(request, currentQuery, currentPartitions, e);
+                }
 
-                    successQueryCount++;
+                // Isolate the failing partitions and carry on at the same group size
+                if (request.getFailureIsolation() == FailureIsolation.BISECT) {
+                    log.warn("Insert partition grouped query failed, bisecting group to isolate failing partitions");
+                    bisect(session, request, new ArrayList<>(currentPartitions), e);
                     currentPartitions = new Stack<>();
-                } catch (final Exception e) {
-                    log.warn("Insert partition grouped query failed");
-                    failedQueryCount++;
-
-                    if (groupSize == 1) {
-                        log.error("Failed for single partition {}", currentPartitions.peek());
-                        log.error("Dynamic partition group size is already 1.");
-                        throw new JetFuelException("Dynamic partition grouping unable to continue", e);
-                    }
+                    continue;
+                }
+
+                log.warn("Insert partition grouped query failed");
+
+                if (groupSize == 1) {
+                    log.error("Failed for single partition {}", currentPartitions.peek());
+                    log.error("Dynamic partition group size is already 1.");
+                    throw new JetFuelException("Dynamic partition grouping unable to continue", e);
+                }
 
-                    // Reduce the group size
-                    // Use the actual count in case it's smaller than the configured group size
-                    final long newGroupSize = (long) Math.ceil(currentPartitions.size() / DYNAMIC_STEP_DIVISOR);
-                    log.warn("Reducing dynamic partition group size from {} to {}", groupSize, newGroupSize);
-                    groupSize = newGroupSize;
+                // Reduce the group size
+                // Use the actual count in case it's smaller than the configured group size
+                final long newGroupSize = (long) Math.ceil(currentPartitions.size() / DYNAMIC_STEP_DIVISOR);
+                log.warn("Reducing dynamic partition group size from {} to {}", groupSize, newGroupSize);
+                getRunMetrics().recordGroupSizeChange((int) groupSize, (int) newGroupSize);
+                groupSize = newGroupSize;
+                groupSizeHistory.add(groupSize);
 
-                    // Restore current (failed) partitions to the remaining stack
+                // Restore current (failed) partitions to the remaining stack
+                synchronized (remainingPartitions) {
                     while (currentPartitions.size() > groupSize) {
                         remainingPartitions.push(currentPartitions.pop());
                     }
                 }
             }
-
-            log.info("Final Dynamic Partition Group Size: {}", groupSize);
-            log.info("Completed in {} successful queries", successQueryCount);
-            log.info("Handled {} failed queries", failedQueryCount);
-
-        } finally {
-            hiveDriverClient.closeConnection();
         }
+
+        log.info("Final Dynamic Partition Group Size: {}", groupSize);
+        log.info("Dynamic Partition Group Size history: {}", groupSizeHistory);
     }
 }
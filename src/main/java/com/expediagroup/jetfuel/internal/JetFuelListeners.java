@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import org.apache.commons.lang3.Validate;
+
+import com.expediagroup.jetfuel.JetFuelListener;
+import com.expediagroup.jetfuel.exception.FailureType;
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.expediagroup.jetfuel.models.JetFuelRequest;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dispatches events to the registered {@link JetFuelListener}s, isolating the run from their failures.
+ *
+ * The listeners are held in an array so that dispatching to no listeners allocates nothing; callers that would
+ * allocate to build the arguments of an event check {@link #isEmpty()} first.
+ */
+@Slf4j
+public final class JetFuelListeners implements JetFuelListener {
+
+    /**
+     * Without any listener
+     */
+    public static final JetFuelListeners NONE = new JetFuelListeners(Collections.emptyList());
+
+    private final JetFuelListener[] listeners;
+
+    /**
+     * Constructor
+     *
+     * @param listeners List of {@link JetFuelListener}
+     */
+    public JetFuelListeners(final List<JetFuelListener> listeners) {
+        Validate.noNullElements(listeners, "listeners cannot contain null");
+        this.listeners = listeners.toArray(new JetFuelListener[0]);
+    }
+
+    /**
+     * Loads the listeners registered with {@link ServiceLoader}.
+     *
+     * @return new instance, or {@link #NONE} if no listener is registered
+     * @throws JetFuelException thrown if a registered listener cannot be loaded
+     */
+    public static JetFuelListeners load() throws JetFuelException {
+        final List<JetFuelListener> listeners = new ArrayList<>();
+        try {
+            for (final JetFuelListener listener : ServiceLoader.load(JetFuelListener.class)) {
+                log.info("Loaded listener {}", listener.getClass().getName());
+                listeners.add(listener);
+            }
+        } catch (final ServiceConfigurationError e) {
+            throw new JetFuelException(String.format("Unable to load listeners: %s", e.getMessage()), e);
+        }
+        return listeners.isEmpty() ? NONE : new JetFuelListeners(listeners);
+    }
+
+    /**
+     * Returns whether no listener is registered.
+     *
+     * @return true if events are not dispatched to anyone
+     */
+    public boolean isEmpty() {
+        return listeners.length == 0;
+    }
+
+    @Override
+    public void onPlanGenerated(final JetFuelConfiguration jetFuelConfiguration, final JetFuelRequest request) {
+        for (final JetFuelListener listener : listeners) {
+            try {
+                listener.onPlanGenerated(jetFuelConfiguration, request);
+            } catch (final RuntimeException e) {
+                warn(listener, "onPlanGenerated", e);
+            }
+        }
+    }
+
+    @Override
+    public void onQueryStart(final JetFuelRequest request, final String query) {
+        for (final JetFuelListener listener : listeners) {
+            try {
+                listener.onQueryStart(request, query);
+            } catch (final RuntimeException e) {
+                warn(listener, "onQueryStart", e);
+            }
+        }
+    }
+
+    @Override
+    public void onQueryEnd(final JetFuelRequest request, final String query, final long durationMillis, final FailureType failureType) {
+        for (final JetFuelListener listener : listeners) {
+            try {
+                listener.onQueryEnd(request, query, durationMillis, failureType);
+            } catch (final RuntimeException e) {
+                warn(listener, "onQueryEnd", e);
+            }
+        }
+    }
+
+    @Override
+    public void onGroupFallback(final JetFuelRequest request, final String query, final List<String> partitionFilterFragments, final Exception failure) {
+        for (final JetFuelListener listener : listeners) {
+            try {
+                listener.onGroupFallback(request, query, partitionFilterFragments, failure);
+            } catch (final RuntimeException e) {
+                warn(listener, "onGroupFallback", e);
+            }
+        }
+    }
+
+    @Override
+    public void onRunComplete(final JetFuelConfiguration jetFuelConfiguration, final boolean succeeded, final long durationMillis) {
+        for (final JetFuelListener listener : listeners) {
+            try {
+                listener.onRunComplete(jetFuelConfiguration, succeeded, durationMillis);
+            } catch (final RuntimeException e) {
+                warn(listener, "onRunComplete", e);
+            }
+        }
+    }
+
+    private static void warn(final JetFuelListener listener, final String event, final RuntimeException e) {
+        log.warn("Listener {} failed on {}: {}", listener.getClass().getName(), event, e.getMessage());
+    }
+}
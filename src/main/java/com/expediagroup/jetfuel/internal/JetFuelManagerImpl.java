@@ -15,7 +15,19 @@
  */
 package com.expediagroup.jetfuel.internal;
 
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 import org.apache.commons.lang3.Validate;
+import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.Table;
 
 import com.expediagroup.jetfuel.JetFuelManager;
@@ -23,6 +35,8 @@ import com.expediagroup.jetfuel.exception.JetFuelException;
 import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
 import com.expediagroup.jetfuel.models.JetFuelConfiguration;
 import com.expediagroup.jetfuel.models.JetFuelRequest;
+import com.expediagroup.jetfuel.models.OptimalPartitions;
+import com.expediagroup.jetfuel.models.PartitionSpec;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -36,24 +50,37 @@ public class JetFuelManagerImpl implements JetFuelManager {
     private final HiveTableUtils hiveTableUtils;
     private final QueryGenerator queryGenerator;
     private final QueryRunner queryRunner;
+    private final ProgressJournal progressJournal;
+    private final RunMetrics runMetrics;
+    private final JetFuelListeners listeners;
+    private final RunContext runContext;
+    private List<PartitionSpec> sourcePartitions = Collections.emptyList();
 
     /**
      * Constructor
      *
      * @param jetFuelConfiguration {@link JetFuelConfiguration}
      * @param hiveTableUtils {@link HiveTableUtils}
+     * @param queryGenerator {@link QueryGenerator}
+     * @param queryRunner {@link QueryRunner}
+     * @param runContext {@link RunContext} shared with the queryRunner; without run metrics the live metrics and the run report are skipped
      */
     public JetFuelManagerImpl(final JetFuelConfiguration jetFuelConfiguration, final HiveTableUtils hiveTableUtils,
-                              final QueryGenerator queryGenerator, final QueryRunner queryRunner) {
+                              final QueryGenerator queryGenerator, final QueryRunner queryRunner, final RunContext runContext) {
         Validate.notNull(jetFuelConfiguration, "jetFuelConfiguration cannot be null");
         Validate.notNull(hiveTableUtils, "hiveTableUtils cannot be null");
         Validate.notNull(queryGenerator, "queryGenerator cannot be null");
         Validate.notNull(queryRunner, "queryRunner cannot be null");
+        Validate.notNull(runContext, "runContext cannot be null");
 
         this.jetFuelConfiguration = jetFuelConfiguration;
         this.hiveTableUtils = hiveTableUtils;
         this.queryGenerator = queryGenerator;
         this.queryRunner = queryRunner;
+        this.progressJournal = runContext.getProgressJournal();
+        this.runMetrics = runContext.getRunMetrics();
+        this.listeners = runContext.getListeners();
+        this.runContext = runContext;
     }
 
     /**
@@ -61,7 +88,31 @@ public class JetFuelManagerImpl implements JetFuelManager {
      */
     @Override
     public void fuel() throws JetFuelException {
+        final Instant start = runContext.startClock();
+        final MetricsExporter metricsExporter = runMetrics == null ? null : new MetricsExporter(jetFuelConfiguration, runMetrics);
 
+        boolean succeeded = false;
+        try {
+            if (metricsExporter != null) {
+                metricsExporter.start();
+            }
+            fuelTable();
+            succeeded = true;
+        } finally {
+            if (runMetrics != null) {
+                report(start, succeeded);
+                metricsExporter.close();
+            }
+            listeners.onRunComplete(jetFuelConfiguration, succeeded, Duration.between(start, Instant.now()).toMillis());
+        }
+    }
+
+    /**
+     * Plans and runs the fueling of the source table.
+     *
+     * @throws JetFuelException thrown if fueling fails
+     */
+    private void fuelTable() throws JetFuelException {
         log.info("---------- PLANNING ----------");
         log.info("Started fueling for source table {}.{} and target table {}.{}", jetFuelConfiguration.getSourceDatabase(), jetFuelConfiguration.getSourceTable(),
                 jetFuelConfiguration.getTargetDatabase(), jetFuelConfiguration.getTargetTable());
@@ -81,22 +132,181 @@ public class JetFuelManagerImpl implements JetFuelManager {
 
         final String tableColumnsAsString = hiveTableUtils.getTableColumnsAsString(sourceTable);
 
+        // Listed once, as every listing scans all partitions in the metastore
+        if (isTablePartitioned) {
+            sourcePartitions = hiveTableUtils.getPartitionSpecs(sourceTable);
+        }
+
         final boolean isCompacted = jetFuelConfiguration.getTargetCompaction();
 
-        final boolean dropTablePreFueling = getDropTablePreFueling(targetTable);
+        final Set<String> completedPartitions = new HashSet<>(getCompletedPartitions(targetTable));
+
+        // Never drop partitions fueled by the interrupted run
+        final boolean dropTablePreFueling = completedPartitions.isEmpty() && getDropTablePreFueling(targetTable);
         log.info("Drop table pre fueling {}", dropTablePreFueling);
 
+        if (jetFuelConfiguration.isIncremental()) {
+            if (dropTablePreFueling) {
+                log.warn("Target table will be recreated, fueling all partitions");
+            } else if (isTablePartitioned) {
+                completedPartitions.addAll(hiveTableUtils.getUpToDatePartitions(sourcePartitions, targetTable));
+            }
+        }
+
+        final PartitionAnalyzer partitionAnalyzer = new PartitionAnalyzer(jetFuelConfiguration, hiveTableUtils);
+        final List<PartitionSpec> copyPartitions = new ArrayList<>();
+        if (jetFuelConfiguration.getOptimalPartitions() != OptimalPartitions.FUEL && isTablePartitioned) {
+            final List<PartitionSpec> optimalPartitions = getPendingPartitions(partitionAnalyzer.getOptimalPartitions(sourceTable, sourcePartitions), completedPartitions);
+
+            if (jetFuelConfiguration.getOptimalPartitions() == OptimalPartitions.COPY) {
+                log.info("Copying {} partitions that already meet the target file format, compression and file size", optimalPartitions.size());
+                copyPartitions.addAll(optimalPartitions);
+            } else {
+                log.warn("Skipping {} partitions that already meet the target file format, compression and file size", optimalPartitions.size());
+            }
+        }
+
+        List<PartitionSpec> concatenatePartitions = Collections.emptyList();
+        if (jetFuelConfiguration.isConcatenate() && isTablePartitioned) {
+            if (isCompacted) {
+                concatenatePartitions = getPendingPartitions(partitionAnalyzer.getConcatenatePartitions(sourceTable, sourcePartitions), completedPartitions);
+                log.info("Copying and concatenating {} partitions that already meet the target file format and compression", concatenatePartitions.size());
+                copyPartitions.addAll(concatenatePartitions);
+            } else {
+                log.warn("Partitions are only concatenated when targetCompaction is enabled");
+            }
+        }
+
         // Generate Queries
-        final JetFuelRequest request = queryGenerator.generateJetFuelRequest(isTablePartitioned, sourceTable, tableColumnsAsString, isCompacted, dropTablePreFueling);
+        final JetFuelRequest request = queryGenerator.generateJetFuelRequest(isTablePartitioned, sourceTable, tableColumnsAsString, isCompacted, dropTablePreFueling,
+                completedPartitions, sourcePartitions);
+        listeners.onPlanGenerated(jetFuelConfiguration, request);
 
         // Execute Queries
         log.info("---------- EXECUTING ----------");
         queryRunner.execute(request);
 
+        // Copy after the queries, which create the target table when needed
+        if (!copyPartitions.isEmpty()) {
+            final Table fueledTable = hiveTableUtils.getTable(jetFuelConfiguration.getTargetDatabase(), jetFuelConfiguration.getTargetTable());
+            new PartitionCopier(jetFuelConfiguration, hiveTableUtils).copy(fueledTable, copyPartitions);
+        }
+
+        // Merge the small files of the copied partitions in place
+        if (!concatenatePartitions.isEmpty()) {
+            final JetFuelRequest concatenateRequest = queryGenerator.generateConcatenateRequest(request.getSessionQueries(), sourceTable, tableColumnsAsString,
+                    concatenatePartitions);
+            listeners.onPlanGenerated(jetFuelConfiguration, concatenateRequest);
+            queryRunner.execute(concatenateRequest);
+        }
+
+        // Keep the journal so that resuming retries only the quarantined partitions
+        final Set<String> quarantinedPartitions = queryRunner.getQuarantinedPartitions();
+        if (!quarantinedPartitions.isEmpty()) {
+            final String errorMessage = String.format("%d partitions failed and were not fueled: %s", quarantinedPartitions.size(), quarantinedPartitions);
+            log.error(errorMessage);
+            throw new JetFuelException(errorMessage);
+        }
+
+        if (progressJournal != null) {
+            progressJournal.delete();
+        }
+
         log.info("Finished fueling for source table {}.{} and target table {}.{}", jetFuelConfiguration.getSourceDatabase(), jetFuelConfiguration.getSourceTable(),
                 jetFuelConfiguration.getTargetDatabase(), jetFuelConfiguration.getTargetTable());
     }
 
+    /**
+     * Logs the run report and writes it to reportPath when configured.
+     *
+     * The source statistics reuse the partitions listed when planning, only the target partitions are listed again.
+     * A report that cannot be built or written is logged and otherwise ignored, so it never hides the outcome of the run.
+     *
+     * @param start     start of the run
+     * @param succeeded whether the run succeeded
+     */
+    private void report(final Instant start, final boolean succeeded) {
+        try {
+            final Set<String> fueledPartitions = runMetrics.getFueledPartitions();
+            RunReport.StorageStatistics before = null;
+            RunReport.StorageStatistics after = null;
+            if (!fueledPartitions.isEmpty()) {
+                before = RunReport.StorageStatistics.of(hiveTableUtils, sourcePartitions.stream()
+                        .filter(partitionSpec -> fueledPartitions.contains(partitionSpec.getFilterFragment()))
+                        .map(PartitionSpec::getPartition)
+                        .collect(Collectors.toList()));
+                after = RunReport.StorageStatistics.of(hiveTableUtils,
+                        getPartitions(jetFuelConfiguration.getTargetDatabase(), jetFuelConfiguration.getTargetTable(), fueledPartitions));
+            }
+
+            final RunReport runReport = new RunReport(
+                    String.format("%s.%s", jetFuelConfiguration.getSourceDatabase(), jetFuelConfiguration.getSourceTable()),
+                    String.format("%s.%s", jetFuelConfiguration.getTargetDatabase(), jetFuelConfiguration.getTargetTable()),
+                    start, Instant.now(), succeeded, runMetrics.getQueryMetrics(), runMetrics.getGroupSizeChanges(), fueledPartitions.size(), queryRunner.getQuarantinedPartitions().size(),
+                    before, after);
+            log.info("Run report: {}", runReport.getSummary());
+            if (!isBlank(jetFuelConfiguration.getReportPath())) {
+                runReport.write(jetFuelConfiguration.getReportPath());
+            }
+        } catch (final RuntimeException e) {
+            log.warn("Unable to create run report: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves the partitions of a table matching partition filter fragments.
+     *
+     * @param databaseName             database name
+     * @param tableName                table name
+     * @param partitionFilterFragments partition filter fragments
+     * @return List of {@link Partition}
+     */
+    private List<Partition> getPartitions(final String databaseName, final String tableName, final Set<String> partitionFilterFragments) {
+        final Table table = hiveTableUtils.getTable(databaseName, tableName);
+        return hiveTableUtils.getAllPartitions(databaseName, tableName).stream()
+                .filter(partition -> partitionFilterFragments.contains(hiveTableUtils.getPartitionFilterFragment(table, partition)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Removes partitions already completed and marks the remaining ones as completed, so they are not fueled
+     *
+     * @param partitionSpecs      candidate partitions
+     * @param completedPartitions partition filter fragments of the completed partitions, updated in place
+     * @return candidate partitions that were not completed
+     */
+    private static List<PartitionSpec> getPendingPartitions(final List<PartitionSpec> partitionSpecs, final Set<String> completedPartitions) {
+        final List<PartitionSpec> pendingPartitions = partitionSpecs.stream()
+                .filter(partitionSpec -> !completedPartitions.contains(partitionSpec.getFilterFragment()))
+                .collect(Collectors.toList());
+        pendingPartitions.forEach(partitionSpec -> completedPartitions.add(partitionSpec.getFilterFragment()));
+        return pendingPartitions;
+    }
+
+    /**
+     * Retrieves the partitions fueled by a previous run when resuming, otherwise clears the progress journal.
+     *
+     * @param targetTable target {@link Table}, or null if it does not exist
+     * @return partition filter fragments of the completed partitions
+     */
+    private Set<String> getCompletedPartitions(final Table targetTable) {
+        if (progressJournal == null) {
+            return Collections.emptySet();
+        }
+
+        if (jetFuelConfiguration.isResume()) {
+            if (targetTable != null) {
+                final Set<String> completedPartitions = progressJournal.load();
+                log.info("Resuming with {} partitions already fueled", completedPartitions.size());
+                return completedPartitions;
+            }
+            log.warn("Target table does not exist, ignoring the progress journal");
+        }
+
+        progressJournal.delete();
+        return Collections.emptySet();
+    }
+
     /**
      * Determines if the drop needs to be dropped and created before fueling.
      * @param table {@link Table}
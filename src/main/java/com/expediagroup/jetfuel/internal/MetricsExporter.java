@@ -0,0 +1,240 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.lang3.Validate;
+
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exposes the live {@link RunMetrics} of a run while it runs: always as a JMX MXBean, and in the Prometheus text
+ * format on a local HTTP endpoint when metricsPort is set and in a file when metricsTextfilePath is set.
+ *
+ * The file is rewritten through a temporary file so the node exporter textfile collector never reads a partial file.
+ */
+@Slf4j
+public class MetricsExporter implements AutoCloseable {
+
+    static final String METRICS_PATH = "/metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final long TEXTFILE_INTERVAL_IN_SECONDS = 15;
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final RunMetrics runMetrics;
+    private final JetFuelConfiguration jetFuelConfiguration;
+    private final String labels;
+    private ObjectName objectName;
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ScheduledExecutorService textfileWriter;
+
+    /**
+     * Constructor
+     *
+     * @param jetFuelConfiguration {@link JetFuelConfiguration}
+     * @param runMetrics           {@link RunMetrics} of the run
+     */
+    public MetricsExporter(final JetFuelConfiguration jetFuelConfiguration, final RunMetrics runMetrics) {
+        Validate.notNull(jetFuelConfiguration, "jetFuelConfiguration cannot be null");
+        Validate.notNull(runMetrics, "runMetrics cannot be null");
+
+        this.jetFuelConfiguration = jetFuelConfiguration;
+        this.runMetrics = runMetrics;
+        this.labels = String.format("{source_table=\"%s\",target_table=\"%s\"}",
+                escape(jetFuelConfiguration.getSourceDatabase() + "." + jetFuelConfiguration.getSourceTable()),
+                escape(jetFuelConfiguration.getTargetDatabase() + "." + jetFuelConfiguration.getTargetTable()));
+    }
+
+    /**
+     * Registers the MXBean and starts the configured endpoint and textfile.
+     *
+     * An MXBean that cannot be registered is logged and otherwise ignored.
+     *
+     * @throws JetFuelException thrown if the metrics endpoint cannot be started
+     */
+    public synchronized void start() throws JetFuelException {
+        registerMBean();
+
+        if (jetFuelConfiguration.getMetricsPort() != null) {
+            try {
+                server = HttpServer.create(new InetSocketAddress(jetFuelConfiguration.getMetricsPort()), 0);
+            } catch (final IOException e) {
+                throw new JetFuelException(String.format("Unable to start the metrics endpoint on port %d", jetFuelConfiguration.getMetricsPort()), e);
+            }
+            server.createContext(METRICS_PATH, this::handle);
+            serverExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("jetfuel-metrics-%d").setDaemon(true).build());
+            server.setExecutor(serverExecutor);
+            server.start();
+            log.info("Serving metrics on port {}{}", server.getAddress().getPort(), METRICS_PATH);
+        }
+
+        if (!isBlank(jetFuelConfiguration.getMetricsTextfilePath())) {
+            textfileWriter = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("jetfuel-metrics-textfile-%d").setDaemon(true).build());
+            textfileWriter.scheduleWithFixedDelay(this::writeTextfile, 0, TEXTFILE_INTERVAL_IN_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stops the endpoint, writes the final metrics to the textfile and unregisters the MXBean.  Closing twice, or after
+     * start failed part way, only releases what was started.
+     */
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (serverExecutor != null) {
+            serverExecutor.shutdownNow();
+            serverExecutor = null;
+        }
+        if (textfileWriter != null) {
+            textfileWriter.shutdownNow();
+            textfileWriter = null;
+            writeTextfile();
+        }
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (final JMException e) {
+                log.warn("Unable to unregister metrics MXBean {}: {}", objectName, e.getMessage());
+            }
+            objectName = null;
+        }
+    }
+
+    /**
+     * Returns the port of the metrics endpoint.
+     *
+     * @return port, or -1 if the endpoint is not started
+     */
+    public synchronized int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    /**
+     * Formats the metrics in the Prometheus text exposition format.
+     *
+     * @return metrics
+     */
+    public String format() {
+        final StringBuilder metrics = new StringBuilder();
+        append(metrics, "jetfuel_start_time_seconds", "gauge", "Start of the run in seconds since the epoch", runMetrics.getStartTime() / 1000);
+        append(metrics, "jetfuel_last_progress_time_seconds", "gauge", "Last time a query completed or reported progress, in seconds since the epoch",
+                runMetrics.getLastProgressTime() / 1000);
+        append(metrics, "jetfuel_queries_in_flight", "gauge", "Hive queries running on all sessions", runMetrics.getQueriesInFlight());
+        append(metrics, "jetfuel_groups_completed_total", "counter", "Partition group queries that succeeded", runMetrics.getGroupsCompleted());
+        append(metrics, "jetfuel_groups_failed_total", "counter", "Partition group queries that failed", runMetrics.getGroupsFailed());
+        append(metrics, "jetfuel_current_group_size", "gauge", "Partitions of the partition group query started last", runMetrics.getCurrentGroupSize());
+        append(metrics, "jetfuel_group_size_increases_total", "counter", "Times a session grew its dynamic partition group size", runMetrics.getGroupSizeIncreases());
+        append(metrics, "jetfuel_group_size_decreases_total", "counter", "Times a session shrank its dynamic partition group size", runMetrics.getGroupSizeDecreases());
+        append(metrics, "jetfuel_partitions_planned", "gauge", "Partitions to fuel with partition group queries", runMetrics.getPartitionsPlanned());
+        append(metrics, "jetfuel_partitions_fueled_total", "counter", "Partitions fueled", runMetrics.getPartitionsFueled());
+        append(metrics, "jetfuel_partitions_quarantined_total", "counter", "Partitions that failed and were quarantined", runMetrics.getPartitionsQuarantined());
+        append(metrics, "jetfuel_bytes_read_total", "counter", "Bytes read from HDFS by the MapReduce jobs of the queries", runMetrics.getBytesRead());
+        append(metrics, "jetfuel_bytes_written_total", "counter", "Bytes written to HDFS by the MapReduce jobs of the queries", runMetrics.getBytesWritten());
+        append(metrics, "jetfuel_estimated_seconds_remaining", "gauge", "Estimated seconds until all planned partitions are handled, -1 when unknown",
+                runMetrics.getEstimatedSecondsRemaining());
+        return metrics.toString();
+    }
+
+    /**
+     * Rewrites the textfile with the current metrics.  A textfile that cannot be written is logged and otherwise ignored.
+     */
+    void writeTextfile() {
+        final Path path = Paths.get(jetFuelConfiguration.getMetricsTextfilePath());
+        final Path tempPath = Paths.get(jetFuelConfiguration.getMetricsTextfilePath() + TEMP_SUFFIX);
+        try {
+            Files.write(tempPath, format().getBytes(StandardCharsets.UTF_8));
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            log.warn("Unable to write metrics textfile {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            final ObjectName name = new ObjectName(String.format("com.expediagroup.jetfuel:type=RunMetrics,source=%s,target=%s",
+                    ObjectName.quote(jetFuelConfiguration.getSourceDatabase() + "." + jetFuelConfiguration.getSourceTable()),
+                    ObjectName.quote(jetFuelConfiguration.getTargetDatabase() + "." + jetFuelConfiguration.getTargetTable())));
+            final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            mBeanServer.registerMBean(runMetrics, name);
+            objectName = name;
+            log.info("Registered metrics MXBean {}", name);
+        } catch (final JMException e) {
+            log.warn("Unable to register metrics MXBean: {}", e.getMessage());
+        }
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod()) || !METRICS_PATH.equals(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            final byte[] body = format().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (final OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void append(final StringBuilder metrics, final String name, final String type, final String help, final long value) {
+        metrics.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(' ').append(type).append('\n')
+                .append(name).append(labels).append(' ').append(value).append('\n');
+    }
+
+    /**
+     * Escapes a Prometheus label value.
+     *
+     * @param value label value
+     * @return escaped label value
+     */
+    private static String escape(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,307 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
+
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.internal.filter.PartitionFilter;
+import com.expediagroup.jetfuel.internal.filter.PartitionFilterParser;
+import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+import com.expediagroup.jetfuel.models.CompressionType;
+import com.expediagroup.jetfuel.models.FileFormat;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.expediagroup.jetfuel.models.PartitionSpec;
+import com.google.common.collect.ImmutableMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pre-flight analysis finding source partitions that fueling would not improve.
+ *
+ * A partition is optimal when it is stored in the target file format with the target compression and, when compaction
+ * is enabled, its files are at least smallFileAvgSize on average.  Only ORC, PARQUET and RCFILE record their compression
+ * in table properties, so partitions are never considered optimal for other target file formats.  RCFILE has no default
+ * compression; its partitions only match when the rc.compress property written by JetFuel is present.
+ */
+@Slf4j
+public class PartitionAnalyzer {
+
+    private static final Map<FileFormat, String> INPUT_FORMATS = ImmutableMap.of(
+            FileFormat.ORC, "org.apache.hadoop.hive.ql.io.orc.OrcInputFormat",
+            FileFormat.PARQUET, "org.apache.hadoop.hive.ql.io.parquet.MapredParquetInputFormat",
+            FileFormat.RC, "org.apache.hadoop.hive.ql.io.RCFileInputFormat");
+
+    private static final Map<String, FileFormat> OTHER_INPUT_FORMATS = ImmutableMap.of(
+            "org.apache.hadoop.mapred.TextInputFormat", FileFormat.TEXT,
+            "org.apache.hadoop.mapred.SequenceFileInputFormat", FileFormat.SEQ,
+            "org.apache.hadoop.hive.ql.io.avro.AvroContainerInputFormat", FileFormat.AVRO);
+
+    private static final Map<FileFormat, String> COMPRESSION_PROPERTIES = ImmutableMap.of(
+            FileFormat.ORC, "orc.compress",
+            FileFormat.PARQUET, "parquet.compression",
+            FileFormat.RC, "rc.compress");
+
+    private static final Map<FileFormat, String> DEFAULT_COMPRESSIONS = ImmutableMap.of(
+            FileFormat.ORC, CompressionType.ZLIB.toString(),
+            FileFormat.PARQUET, CompressionType.UNCOMPRESSED.toString());
+
+    private final JetFuelConfiguration jetFuelConfiguration;
+    private final HiveTableUtils hiveTableUtils;
+    private final Configuration configuration;
+
+    /**
+     * Constructor
+     *
+     * @param jetFuelConfiguration {@link JetFuelConfiguration}
+     * @param hiveTableUtils       {@link HiveTableUtils}
+     */
+    public PartitionAnalyzer(final JetFuelConfiguration jetFuelConfiguration, final HiveTableUtils hiveTableUtils) {
+        this(jetFuelConfiguration, hiveTableUtils, new Configuration());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param jetFuelConfiguration {@link JetFuelConfiguration}
+     * @param hiveTableUtils       {@link HiveTableUtils}
+     * @param configuration        Hadoop {@link Configuration} used to list partition files
+     */
+    PartitionAnalyzer(final JetFuelConfiguration jetFuelConfiguration, final HiveTableUtils hiveTableUtils, final Configuration configuration) {
+        Validate.notNull(jetFuelConfiguration, "jetFuelConfiguration cannot be null");
+        Validate.notNull(hiveTableUtils, "hiveTableUtils cannot be null");
+        Validate.notNull(configuration, "configuration cannot be null");
+
+        this.jetFuelConfiguration = jetFuelConfiguration;
+        this.hiveTableUtils = hiveTableUtils;
+        this.configuration = configuration;
+    }
+
+    /**
+     * Finds the partitions of the source table matching the partitionFilter that already meet the target format,
+     * compression and file size.
+     *
+     * @param sourceTable      source {@link Table}
+     * @param sourcePartitions partitions of the source table, as listed by {@link HiveTableUtils#getPartitionSpecs(Table)}
+     * @return optimal partitions, in metastore order; empty if the partitionFilter cannot be parsed
+     */
+    public List<PartitionSpec> getOptimalPartitions(final Table sourceTable, final List<PartitionSpec> sourcePartitions) {
+        Validate.notNull(sourceTable, "sourceTable cannot be null");
+        Validate.notNull(sourcePartitions, "sourcePartitions cannot be null");
+
+        if (!INPUT_FORMATS.containsKey(jetFuelConfiguration.getTargetFileFormat())) {
+            log.info("Optimal partitions are only detected for ORC, PARQUET and RCFILE target file formats");
+            return Collections.emptyList();
+        }
+
+        final List<PartitionSpec> partitionSpecs = getFilteredPartitions(sourceTable, sourcePartitions);
+        final List<PartitionSpec> optimalPartitions = partitionSpecs.stream()
+                .filter(partitionSpec -> isOptimal(sourceTable, partitionSpec.getPartition()))
+                .collect(Collectors.toList());
+
+        log.info("{} of {} partitions already meet the target file format, compression and file size", optimalPartitions.size(), partitionSpecs.size());
+        return optimalPartitions;
+    }
+
+    /**
+     * Finds the partitions of the source table matching the partitionFilter that are already stored in the target ORC
+     * or RCFILE format and compression, but have files smaller than smallFileAvgSize on average.  Their files can be
+     * merged with ALTER TABLE ... CONCATENATE without decoding rows.
+     *
+     * @param sourceTable      source {@link Table}
+     * @param sourcePartitions partitions of the source table, as listed by {@link HiveTableUtils#getPartitionSpecs(Table)}
+     * @return partitions to concatenate, in metastore order; empty if the partitionFilter cannot be parsed
+     */
+    public List<PartitionSpec> getConcatenatePartitions(final Table sourceTable, final List<PartitionSpec> sourcePartitions) {
+        Validate.notNull(sourceTable, "sourceTable cannot be null");
+        Validate.notNull(sourcePartitions, "sourcePartitions cannot be null");
+
+        final FileFormat targetFileFormat = jetFuelConfiguration.getTargetFileFormat();
+        if (targetFileFormat != FileFormat.ORC && targetFileFormat != FileFormat.RC) {
+            log.info("Partitions are only concatenated for ORC and RCFILE target file formats");
+            return Collections.emptyList();
+        }
+
+        final List<PartitionSpec> partitionSpecs = getFilteredPartitions(sourceTable, sourcePartitions);
+        final List<PartitionSpec> concatenatePartitions = partitionSpecs.stream()
+                .filter(partitionSpec -> isEncoded(sourceTable, partitionSpec.getPartition()) && !isCompacted(partitionSpec.getPartition()))
+                .collect(Collectors.toList());
+
+        log.info("{} of {} partitions already meet the target file format and compression but need compaction", concatenatePartitions.size(), partitionSpecs.size());
+        return concatenatePartitions;
+    }
+
+    /**
+     * Lists the partitions of the source table matching the partitionFilter
+     *
+     * @param sourceTable source {@link Table}
+     * @return matching partitions, in metastore order; empty if the partitionFilter cannot be parsed
+     */
+    List<PartitionSpec> getFilteredPartitions(final Table sourceTable) {
+        return getFilteredPartitions(sourceTable, hiveTableUtils.getPartitionSpecs(sourceTable));
+    }
+
+    /**
+     * Selects the partitions of the source table matching the partitionFilter
+     *
+     * @param sourceTable      source {@link Table}
+     * @param sourcePartitions partitions of the source table
+     * @return matching partitions, in metastore order; empty if the partitionFilter cannot be parsed
+     */
+    List<PartitionSpec> getFilteredPartitions(final Table sourceTable, final List<PartitionSpec> sourcePartitions) {
+        final PartitionFilter filter;
+        try {
+            filter = StringUtils.isBlank(jetFuelConfiguration.getPartitionFilter())
+                    ? values -> true
+                    : PartitionFilterParser.parse(jetFuelConfiguration.getPartitionFilter(), hiveTableUtils.getPartitionKeyNames(sourceTable));
+        } catch (final JetFuelException e) {
+            log.warn("Partitions are not analyzed: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+
+        return sourcePartitions.stream()
+                .filter(partitionSpec -> filter.matches(partitionSpec.getValues()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Determines if a partition already meets the target file format, compression and file size
+     *
+     * @param table     source {@link Table}
+     * @param partition source {@link Partition}
+     * @return true if fueling the partition would not change it
+     */
+    boolean isOptimal(final Table table, final Partition partition) {
+        return isEncoded(table, partition) && (!jetFuelConfiguration.getTargetCompaction() || isCompacted(partition));
+    }
+
+    /**
+     * Determines if a partition is already stored in the target file format with the target compression
+     *
+     * @param table     source {@link Table}
+     * @param partition source {@link Partition}
+     * @return true if the files of the partition can be used without re-encoding them
+     */
+    boolean isEncoded(final Table table, final Partition partition) {
+        final FileFormat targetFileFormat = jetFuelConfiguration.getTargetFileFormat();
+        if (getFileFormat(partition) != targetFileFormat) {
+            return false;
+        }
+
+        final String compression = getCompression(table, partition, targetFileFormat);
+        return compression != null && normalizeCompression(compression).equals(normalizeCompression(jetFuelConfiguration.getTargetCompression()));
+    }
+
+    /**
+     * Determines the file format a partition is stored in from its input format
+     *
+     * @param partition source {@link Partition}
+     * @return file format, or null when the input format is unknown
+     */
+    static FileFormat getFileFormat(final Partition partition) {
+        final StorageDescriptor storageDescriptor = partition.getSd();
+        if (storageDescriptor == null) {
+            return null;
+        }
+        return INPUT_FORMATS.entrySet().stream()
+                .filter(inputFormat -> inputFormat.getValue().equals(storageDescriptor.getInputFormat()))
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElse(OTHER_INPUT_FORMATS.get(storageDescriptor.getInputFormat()));
+    }
+
+    /**
+     * Determines the compression of a partition stored in ORC, PARQUET or RC from the partition and table properties,
+     * falling back to the default compression of the file format
+     *
+     * @param table      source {@link Table}
+     * @param partition  source {@link Partition}
+     * @param fileFormat file format of the partition
+     * @return compression type, or null when it is unknown
+     */
+    static String getCompression(final Table table, final Partition partition, final FileFormat fileFormat) {
+        final String compressionProperty = COMPRESSION_PROPERTIES.get(fileFormat);
+        if (compressionProperty == null) {
+            return null;
+        }
+        String compression = partition.getParameters() == null ? null : partition.getParameters().get(compressionProperty);
+        if (StringUtils.isBlank(compression) && table.getParameters() != null) {
+            compression = table.getParameters().get(compressionProperty);
+        }
+        if (StringUtils.isBlank(compression)) {
+            compression = DEFAULT_COMPRESSIONS.get(fileFormat);
+        }
+        return compression;
+    }
+
+    /**
+     * Determines if the files of a partition are at least smallFileAvgSize on average
+     *
+     * @param partition source {@link Partition}
+     * @return true if compacting the partition would not change it
+     */
+    boolean isCompacted(final Partition partition) {
+        long numFiles = hiveTableUtils.getNumFiles(partition);
+        long totalSize = hiveTableUtils.getTotalSize(partition);
+        if (numFiles < 0 || totalSize < 0) {
+            try {
+                numFiles = 0;
+                totalSize = 0;
+                final Path location = new Path(partition.getSd().getLocation());
+                final RemoteIterator<LocatedFileStatus> files = location.getFileSystem(configuration).listFiles(location, true);
+                while (files.hasNext()) {
+                    final LocatedFileStatus file = files.next();
+                    if (!file.getPath().getName().startsWith("_") && !file.getPath().getName().startsWith(".")) {
+                        numFiles++;
+                        totalSize += file.getLen();
+                    }
+                }
+            } catch (final IOException | IllegalArgumentException e) {
+                log.warn("Unable to list files of partition {}: {}", partition.getValues(), e.getMessage());
+                return false;
+            }
+        }
+
+        return numFiles <= 1 || totalSize / numFiles >= NumberUtils.toLong(jetFuelConfiguration.getSmallFileAvgSize(), Long.MAX_VALUE);
+    }
+
+    /**
+     * Maps the equivalent UNCOMPRESSED and NONE compression types to the same value
+     *
+     * @param compression compression type
+     * @return normalized compression type
+     */
+    static String normalizeCompression(final String compression) {
+        final String normalized = compression.toUpperCase();
+        return CompressionType.UNCOMPRESSED.toString().equals(normalized) ? CompressionType.NONE.toString() : normalized;
+    }
+}
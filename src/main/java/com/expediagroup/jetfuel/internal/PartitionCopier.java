@@ -0,0 +1,264 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.ContentSummary;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.StatsSetupConst;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
+
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.expediagroup.jetfuel.models.PartitionSpec;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Copies partition directories from the source table to the target table, without running any Hive query.
+ *
+ * Used for partitions that already meet the target file format, compression and file size.  Each partition is copied
+ * into a temporary directory next to its target directory, which is renamed over the target only once the copy has
+ * succeeded.  Existing target partitions keep their location and have their statistics refreshed; new partitions are
+ * created under the target table location and registered in batches.
+ */
+@Slf4j
+public class PartitionCopier {
+
+    /**
+     * Prefixes of the directories used while replacing a partition directory.  Hive ignores hidden directories, so any
+     * left behind by an interrupted copy are not read as partition data.
+     */
+    private static final String TEMPORARY_PREFIX = ".jetfuel-copy-";
+    private static final String REPLACED_PREFIX = ".jetfuel-replaced-";
+
+    private final JetFuelConfiguration jetFuelConfiguration;
+    private final HiveTableUtils hiveTableUtils;
+    private final Configuration configuration;
+
+    /**
+     * Constructor
+     *
+     * @param jetFuelConfiguration {@link JetFuelConfiguration}
+     * @param hiveTableUtils       {@link HiveTableUtils}
+     */
+    public PartitionCopier(final JetFuelConfiguration jetFuelConfiguration, final HiveTableUtils hiveTableUtils) {
+        this(jetFuelConfiguration, hiveTableUtils, new Configuration());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param jetFuelConfiguration {@link JetFuelConfiguration}
+     * @param hiveTableUtils       {@link HiveTableUtils}
+     * @param configuration        Hadoop {@link Configuration} used to access the partition directories
+     */
+    PartitionCopier(final JetFuelConfiguration jetFuelConfiguration, final HiveTableUtils hiveTableUtils, final Configuration configuration) {
+        Validate.notNull(jetFuelConfiguration, "jetFuelConfiguration cannot be null");
+        Validate.notNull(hiveTableUtils, "hiveTableUtils cannot be null");
+        Validate.notNull(configuration, "configuration cannot be null");
+
+        this.jetFuelConfiguration = jetFuelConfiguration;
+        this.hiveTableUtils = hiveTableUtils;
+        this.configuration = configuration;
+    }
+
+    /**
+     * Copies source partitions to the target table using copyThreads threads.
+     *
+     * @param targetTable    target {@link Table}
+     * @param partitionSpecs source partitions to copy
+     * @throws JetFuelException thrown if any partition cannot be copied or registered
+     */
+    public void copy(final Table targetTable, final List<PartitionSpec> partitionSpecs) throws JetFuelException {
+        Validate.notNull(targetTable, "targetTable cannot be null");
+        Validate.notNull(partitionSpecs, "partitionSpecs cannot be null");
+        if (partitionSpecs.isEmpty()) {
+            return;
+        }
+
+        final Map<Map<String, String>, Partition> targetPartitions = new HashMap<>();
+        for (final PartitionSpec partitionSpec : hiveTableUtils.getPartitionSpecs(targetTable)) {
+            targetPartitions.put(partitionSpec.getValues(), partitionSpec.getPartition());
+        }
+
+        log.info("Copying {} partitions on {} threads", partitionSpecs.size(), jetFuelConfiguration.getCopyThreads());
+        final ExecutorService executor = Executors.newFixedThreadPool(jetFuelConfiguration.getCopyThreads(),
+                new ThreadFactoryBuilder().setNameFormat("jetfuel-copy-%d").build());
+        final CompletionService<Partition> completionService = new ExecutorCompletionService<>(executor);
+        final Set<Future<Partition>> overwrites = new HashSet<>();
+        final List<Partition> newPartitions = new ArrayList<>();
+        final List<Partition> overwrittenPartitions = new ArrayList<>();
+        try {
+            for (final PartitionSpec partitionSpec : partitionSpecs) {
+                final Partition targetPartition = targetPartitions.get(partitionSpec.getValues());
+                final Future<Partition> future = completionService.submit(() -> copyPartition(targetTable, partitionSpec.getPartition(), targetPartition));
+                if (targetPartition != null) {
+                    overwrites.add(future);
+                }
+            }
+
+            for (int i = 0; i < partitionSpecs.size(); i++) {
+                final Future<Partition> future = completionService.take();
+                (overwrites.contains(future) ? overwrittenPartitions : newPartitions).add(future.get());
+            }
+        } catch (final ExecutionException e) {
+            throw new JetFuelException(String.format("Unable to copy partition: %s", e.getCause().getMessage()), e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JetFuelException("Interrupted while copying partitions", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        hiveTableUtils.addPartitions(newPartitions);
+        if (!overwrittenPartitions.isEmpty()) {
+            hiveTableUtils.alterPartitions(targetTable.getDbName(), targetTable.getTableName(), overwrittenPartitions);
+        }
+        log.info("Copied {} partitions, {} of them new", partitionSpecs.size(), newPartitions.size());
+    }
+
+    /**
+     * Copies the directory of a source partition, replacing any data of the target partition once the copy succeeds.
+     *
+     * @param targetTable     target {@link Table}
+     * @param sourcePartition source {@link Partition}
+     * @param targetPartition existing target {@link Partition}, or null
+     * @return new target partition to register, or the existing one with refreshed statistics to alter
+     * @throws IOException thrown if the directory cannot be copied
+     */
+    private Partition copyPartition(final Table targetTable, final Partition sourcePartition, final Partition targetPartition) throws IOException {
+        final Path source = new Path(sourcePartition.getSd().getLocation());
+        final Path target = targetPartition == null
+                ? new Path(targetTable.getSd().getLocation(), hiveTableUtils.getPartitionName(targetTable, sourcePartition))
+                : new Path(targetPartition.getSd().getLocation());
+
+        final FileSystem sourceFileSystem = source.getFileSystem(configuration);
+        final FileSystem targetFileSystem = target.getFileSystem(configuration);
+        final Path temporary = new Path(target.getParent(), TEMPORARY_PREFIX + target.getName());
+        deleteIfExists(targetFileSystem, temporary);
+        try {
+            if (!FileUtil.copy(sourceFileSystem, source, targetFileSystem, temporary, false, true, configuration)) {
+                throw new IOException(String.format("Unable to copy %s to %s", source, temporary));
+            }
+            replace(targetFileSystem, temporary, target);
+        } finally {
+            deleteIfExists(targetFileSystem, temporary);
+        }
+        log.info("Copied {} to {}", source, target);
+
+        if (targetPartition != null) {
+            return refreshStatistics(targetPartition, targetFileSystem.getContentSummary(target));
+        }
+
+        final Partition partition = new Partition();
+        partition.setDbName(targetTable.getDbName());
+        partition.setTableName(targetTable.getTableName());
+        partition.setValues(sourcePartition.getValues());
+        final StorageDescriptor storageDescriptor = new StorageDescriptor(targetTable.getSd());
+        storageDescriptor.setLocation(target.toString());
+        partition.setSd(storageDescriptor);
+        partition.setParameters(new HashMap<>());
+        if (sourcePartition.getParameters() != null) {
+            for (final String statistic : new String[] { StatsSetupConst.NUM_FILES, StatsSetupConst.TOTAL_SIZE }) {
+                if (sourcePartition.getParameters().containsKey(statistic)) {
+                    partition.putToParameters(statistic, sourcePartition.getParameters().get(statistic));
+                }
+            }
+        }
+        return partition;
+    }
+
+    /**
+     * Renames a copied directory over the target directory.  An existing target directory is first renamed aside, and
+     * restored if the copy cannot be renamed into its place, so the target data is only deleted once it is replaced.
+     *
+     * @param fileSystem {@link FileSystem} of both directories
+     * @param copy       copied directory
+     * @param target     target partition directory
+     * @throws IOException thrown if the directories cannot be renamed
+     */
+    private static void replace(final FileSystem fileSystem, final Path copy, final Path target) throws IOException {
+        if (!fileSystem.exists(target)) {
+            rename(fileSystem, copy, target);
+            return;
+        }
+
+        final Path replaced = new Path(target.getParent(), REPLACED_PREFIX + target.getName());
+        deleteIfExists(fileSystem, replaced);
+        rename(fileSystem, target, replaced);
+        try {
+            rename(fileSystem, copy, target);
+        } catch (final IOException e) {
+            rename(fileSystem, replaced, target);
+            throw e;
+        }
+        deleteIfExists(fileSystem, replaced);
+    }
+
+    private static void rename(final FileSystem fileSystem, final Path source, final Path target) throws IOException {
+        if (!fileSystem.rename(source, target)) {
+            throw new IOException(String.format("Unable to rename %s to %s", source, target));
+        }
+    }
+
+    private static void deleteIfExists(final FileSystem fileSystem, final Path path) throws IOException {
+        if (fileSystem.exists(path) && !fileSystem.delete(path, true)) {
+            throw new IOException(String.format("Unable to delete %s", path));
+        }
+    }
+
+    /**
+     * Replaces the statistics of an overwritten partition: file count and size are taken from the copied directory,
+     * row count, raw data size and column statistics are dropped as they described the replaced data.
+     *
+     * @param targetPartition existing target {@link Partition}
+     * @param contentSummary  {@link ContentSummary} of the copied directory
+     * @return copy of the partition with refreshed statistics
+     */
+    private static Partition refreshStatistics(final Partition targetPartition, final ContentSummary contentSummary) {
+        final Partition partition = new Partition(targetPartition);
+        final Map<String, String> parameters = partition.getParameters() == null ? new HashMap<>() : new HashMap<>(partition.getParameters());
+        parameters.put(StatsSetupConst.NUM_FILES, String.valueOf(contentSummary.getFileCount()));
+        parameters.put(StatsSetupConst.TOTAL_SIZE, String.valueOf(contentSummary.getLength()));
+        parameters.remove(StatsSetupConst.ROW_COUNT);
+        parameters.remove(StatsSetupConst.RAW_DATA_SIZE);
+        parameters.remove(StatsSetupConst.COLUMN_STATS_ACCURATE);
+        partition.setParameters(parameters);
+        return partition;
+    }
+}
@@ -0,0 +1,257 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.google.common.collect.ImmutableSet;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Journal of the partitions fueled so far, so an interrupted run can be resumed.
+ *
+ * The journal is a text file on any Hadoop filesystem (local disk, HDFS, ...) with a header identifying the
+ * source and target tables, followed by one partition filter fragment per line.  Each completed partition group is
+ * appended and synced; the journal is only rewritten through a temporary file when it is created or compacted on load,
+ * or after every group on filesystems without append.
+ */
+@Slf4j
+public class ProgressJournal {
+
+    private static final String HEADER_FORMAT = "# jetfuel %s";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final FileSystem fileSystem;
+    private final Path path;
+    private final Path tempPath;
+    private final String header;
+    private final Set<String> completedPartitions = new LinkedHashSet<>();
+    private FSDataOutputStream appender;
+    private boolean appendSupported = true;
+
+    /**
+     * Constructor
+     *
+     * @param fileSystem {@link FileSystem} holding the journal
+     * @param path       journal file
+     * @param name       name of the fuel run, used to reject journals of other runs
+     */
+    public ProgressJournal(final FileSystem fileSystem, final Path path, final String name) {
+        Validate.notNull(fileSystem, "fileSystem cannot be null");
+        Validate.notNull(path, "path cannot be null");
+        Validate.notBlank(name, "name cannot be null/empty/blank");
+
+        this.fileSystem = fileSystem;
+        this.path = path;
+        this.tempPath = path.suffix(TEMP_SUFFIX);
+        this.header = String.format(HEADER_FORMAT, name);
+    }
+
+    /**
+     * Creates the journal configured by journalPath, named after the source and target tables.
+     *
+     * @param jetFuelConfiguration {@link JetFuelConfiguration}
+     * @return new instance, or null if no journalPath is configured
+     */
+    public static ProgressJournal create(final JetFuelConfiguration jetFuelConfiguration) {
+        Validate.notNull(jetFuelConfiguration, "jetFuelConfiguration cannot be null");
+        if (isBlank(jetFuelConfiguration.getJournalPath())) {
+            return null;
+        }
+
+        final Path path = new Path(jetFuelConfiguration.getJournalPath());
+        final String name = String.format("%s.%s %s.%s", jetFuelConfiguration.getSourceDatabase(), jetFuelConfiguration.getSourceTable(),
+                jetFuelConfiguration.getTargetDatabase(), jetFuelConfiguration.getTargetTable());
+        try {
+            return new ProgressJournal(path.getFileSystem(new Configuration()), path, name);
+        } catch (final IOException e) {
+            throw new JetFuelException(String.format("Unable to access progress journal %s", path), e);
+        }
+    }
+
+    /**
+     * Loads the partitions recorded by a previous run.
+     *
+     * @return partition filter fragments of completed partitions; empty if there is no journal
+     * @throws JetFuelException thrown if the journal cannot be read or belongs to another fuel run
+     */
+    public synchronized Set<String> load() throws JetFuelException {
+        closeAppender();
+        completedPartitions.clear();
+        try {
+            // The temporary file is only left behind if a run died while replacing the journal
+            final Path journal = fileSystem.exists(path) ? path : tempPath;
+            if (!fileSystem.exists(journal)) {
+                log.info("No progress journal found at {}", path);
+                return ImmutableSet.of();
+            }
+
+            try (final BufferedReader reader = new BufferedReader(new InputStreamReader(fileSystem.open(journal), StandardCharsets.UTF_8))) {
+                final String firstLine = reader.readLine();
+                if (!header.equals(firstLine)) {
+                    throw new JetFuelException(String.format("Progress journal %s was not written by this fuel run (%s)", journal, firstLine));
+                }
+                final StringBuilder content = new StringBuilder();
+                final char[] buffer = new char[8192];
+                int read;
+                while ((read = reader.read(buffer)) != -1) {
+                    content.append(buffer, 0, read);
+                }
+                // A line without its newline was cut short by a run dying while appending
+                final String[] lines = content.toString().split("\n", -1);
+                for (int i = 0; i < lines.length - 1; i++) {
+                    if (!lines[i].isEmpty()) {
+                        completedPartitions.add(lines[i]);
+                    }
+                }
+            }
+        } catch (final IOException e) {
+            throw new JetFuelException(String.format("Unable to read progress journal %s", path), e);
+        }
+
+        try {
+            rewrite();
+        } catch (final IOException e) {
+            log.warn("Unable to compact progress journal {}: {}", path, e.getMessage());
+        }
+
+        log.info("Loaded {} completed partitions from progress journal {}", completedPartitions.size(), path);
+        return ImmutableSet.copyOf(completedPartitions);
+    }
+
+    /**
+     * Records partitions as completed.
+     *
+     * A journal that cannot be written is logged and otherwise ignored; resuming would only refuel those partitions.
+     *
+     * @param partitionFilterFragments partition filter fragments of the completed partitions
+     */
+    public synchronized void record(final Collection<String> partitionFilterFragments) {
+        Validate.notNull(partitionFilterFragments, "partitionFilterFragments cannot be null");
+        final List<String> newPartitions = new ArrayList<>();
+        for (final String partition : partitionFilterFragments) {
+            if (completedPartitions.add(partition)) {
+                newPartitions.add(partition);
+            }
+        }
+        if (newPartitions.isEmpty()) {
+            return;
+        }
+
+        try {
+            if (appender == null) {
+                rewrite();
+            } else {
+                final StringBuilder lines = new StringBuilder();
+                for (final String partition : newPartitions) {
+                    lines.append(partition).append('\n');
+                }
+                appender.write(lines.toString().getBytes(StandardCharsets.UTF_8));
+                appender.hsync();
+            }
+            log.info("Recorded {} completed partitions in progress journal", completedPartitions.size());
+        } catch (final IOException e) {
+            log.warn("Unable to write progress journal {}: {}", path, e.getMessage());
+            // Start over from a full rewrite, so the partitions of a partly written line are not lost
+            closeAppender();
+        }
+    }
+
+    /**
+     * Deletes the journal, so the next run starts from scratch.
+     *
+     * @throws JetFuelException thrown if the journal cannot be deleted
+     */
+    public synchronized void delete() throws JetFuelException {
+        closeAppender();
+        completedPartitions.clear();
+        try {
+            fileSystem.delete(path, false);
+            fileSystem.delete(tempPath, false);
+        } catch (final IOException e) {
+            throw new JetFuelException(String.format("Unable to delete progress journal %s", path), e);
+        }
+    }
+
+    /**
+     * Replaces the journal with all completed partitions through a temporary file, then opens it for appending.
+     *
+     * @throws IOException thrown if the journal cannot be written
+     */
+    private void rewrite() throws IOException {
+        closeAppender();
+        try (final Writer writer = new BufferedWriter(new OutputStreamWriter(fileSystem.create(tempPath, true), StandardCharsets.UTF_8))) {
+            writer.write(header);
+            writer.write('\n');
+            for (final String partition : completedPartitions) {
+                writer.write(partition);
+                writer.write('\n');
+            }
+        }
+        if (fileSystem.exists(path) && !fileSystem.delete(path, false)) {
+            throw new IOException(String.format("Unable to delete %s", path));
+        }
+        if (!fileSystem.rename(tempPath, path)) {
+            throw new IOException(String.format("Unable to rename %s to %s", tempPath, path));
+        }
+
+        if (appendSupported) {
+            try {
+                appender = fileSystem.append(path);
+            } catch (final IOException | UnsupportedOperationException e) {
+                log.info("Progress journal {} cannot be appended to, rewriting it after each partition group: {}", path, e.getMessage());
+                appendSupported = false;
+            }
+        }
+    }
+
+    /**
+     * Closes the journal opened for appending, if any.
+     */
+    private void closeAppender() {
+        if (appender == null) {
+            return;
+        }
+        try {
+            appender.close();
+        } catch (final IOException e) {
+            log.warn("Unable to close progress journal {}: {}", path, e.getMessage());
+        }
+        appender = null;
+    }
+}
@@ -20,17 +20,28 @@ import static org.apache.commons.lang3.StringUtils.isBlank;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.Validate;
 import org.apache.hadoop.hive.metastore.api.Table;
 
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.internal.filter.PartitionFilter;
+import com.expediagroup.jetfuel.internal.filter.PartitionFilterParser;
+import com.expediagroup.jetfuel.internal.filter.PartitionPredicates;
 import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+import com.expediagroup.jetfuel.models.ExecutionEngine;
 import com.expediagroup.jetfuel.models.FileFormatCompressor;
 import com.expediagroup.jetfuel.models.HiveProperty;
 import com.expediagroup.jetfuel.models.JetFuelConfiguration;
 import com.expediagroup.jetfuel.models.JetFuelRequest;
+import com.expediagroup.jetfuel.models.PartitionSpec;
 import com.google.common.collect.Lists;
 
 import lombok.extern.slf4j.Slf4j;
@@ -73,19 +84,72 @@ public class QueryGenerator {
      * @return {@link JetFuelRequest}
      */
     JetFuelRequest generateJetFuelRequest(final boolean isPartitioned, final Table table, final String tableColumnsAsString, final boolean isCompacted, final boolean dropTablePreFueling) {
+        return generateJetFuelRequest(isPartitioned, table, tableColumnsAsString, isCompacted, dropTablePreFueling, Collections.emptySet());
+    }
+
+    /**
+     * Generate {@link JetFuelRequest} to perform JetFuel Operations, skipping partitions fueled by a previous run
+     *
+     * @param isPartitioned        true when table is partitioned, false otherwise
+     * @param table                {@link Table}
+     * @param tableColumnsAsString the table columns as string
+     * @param isCompacted          true when the table should be compacted, false if not specified
+     * @param dropTablePreFueling  true when delete target table and create new table before fueling, false otherwise
+     * @param completedPartitions  partition filter fragments of the partitions already fueled
+     * @return {@link JetFuelRequest}
+     */
+    JetFuelRequest generateJetFuelRequest(final boolean isPartitioned, final Table table, final String tableColumnsAsString, final boolean isCompacted, final boolean dropTablePreFueling,
+                                          final Set<String> completedPartitions) {
+        return generateJetFuelRequest(isPartitioned, table, tableColumnsAsString, isCompacted, dropTablePreFueling, completedPartitions,
+                isPartitioned ? hiveTableUtils.getPartitionSpecs(table) : Collections.emptyList());
+    }
+
+    /**
+     * Generate {@link JetFuelRequest} to perform JetFuel Operations from the partitions already listed from the metastore,
+     * skipping partitions fueled by a previous run
+     *
+     * @param isPartitioned        true when table is partitioned, false otherwise
+     * @param table                {@link Table}
+     * @param tableColumnsAsString the table columns as string
+     * @param isCompacted          true when the table should be compacted, false if not specified
+     * @param dropTablePreFueling  true when delete target table and create new table before fueling, false otherwise
+     * @param completedPartitions  partition filter fragments of the partitions already fueled
+     * @param partitionSpecs       partitions of the table, as listed by {@link HiveTableUtils#getPartitionSpecs(Table)}
+     * @return {@link JetFuelRequest}
+     */
+    JetFuelRequest generateJetFuelRequest(final boolean isPartitioned, final Table table, final String tableColumnsAsString, final boolean isCompacted, final boolean dropTablePreFueling,
+                                          final Set<String> completedPartitions, final List<PartitionSpec> partitionSpecs) {
+        Validate.notNull(completedPartitions, "completedPartitions cannot be null");
+        Validate.notNull(partitionSpecs, "partitionSpecs cannot be null");
         final JetFuelRequest request = new JetFuelRequest();
-        request.addJetFuelQuery(HiveProperty.HIVE_MR_EXECUTION);
+        request.addCompletedPartitions(completedPartitions);
+        final boolean isTez = jetFuelConfiguration.getExecutionEngine() == ExecutionEngine.TEZ;
+        if (isTez) {
+            request.addJetFuelQuery(HiveProperty.HIVE_TEZ_EXECUTION);
+            request.addJetFuelQuery(HiveProperty.HIVE_TEZ_INPUT_FORMAT);
+        } else {
+            request.addJetFuelQuery(HiveProperty.HIVE_MR_EXECUTION);
+        }
         request.addJetFuelQuery(HiveProperty.DYNAMIC_PARTITION_MODE);
         request.addJetFuelQuery(HiveProperty.DYNAMIC_PARTITION);
 
         if (jetFuelConfiguration.getMapReduceMemoryInMB() != null && jetFuelConfiguration.getMapReduceMemoryInMB() > 0) {
-            request.addJetFuelQuery(new HiveProperty("mapreduce.map.memory.mb", jetFuelConfiguration.getMapReduceMemoryInMB()));
-            request.addJetFuelQuery(new HiveProperty("mapreduce.reduce.memory.mb", jetFuelConfiguration.getMapReduceMemoryInMB()));
+            if (isTez) {
+                request.addJetFuelQuery(new HiveProperty("hive.tez.container.size", jetFuelConfiguration.getMapReduceMemoryInMB()));
+            } else {
+                request.addJetFuelQuery(new HiveProperty("mapreduce.map.memory.mb", jetFuelConfiguration.getMapReduceMemoryInMB()));
+                request.addJetFuelQuery(new HiveProperty("mapreduce.reduce.memory.mb", jetFuelConfiguration.getMapReduceMemoryInMB()));
+            }
+            addMemoryEscalationQueries(request, isTez);
         }
 
         if (jetFuelConfiguration.getMapReduceJavaOptsInMB() != null && jetFuelConfiguration.getMapReduceJavaOptsInMB() > 0) {
-            request.addJetFuelQuery(new HiveProperty("mapreduce.map.java.opts", String.format("-Xmx%sm", jetFuelConfiguration.getMapReduceJavaOptsInMB())));
-            request.addJetFuelQuery(new HiveProperty("mapreduce.reduce.java.opts", String.format("-Xmx%sm", jetFuelConfiguration.getMapReduceJavaOptsInMB())));
+            if (isTez) {
+                request.addJetFuelQuery(new HiveProperty("hive.tez.java.opts", String.format("-Xmx%sm", jetFuelConfiguration.getMapReduceJavaOptsInMB())));
+            } else {
+                request.addJetFuelQuery(new HiveProperty("mapreduce.map.java.opts", String.format("-Xmx%sm", jetFuelConfiguration.getMapReduceJavaOptsInMB())));
+                request.addJetFuelQuery(new HiveProperty("mapreduce.reduce.java.opts", String.format("-Xmx%sm", jetFuelConfiguration.getMapReduceJavaOptsInMB())));
+            }
         }
 
         if (jetFuelConfiguration.getParquetBlockSize() != null && jetFuelConfiguration.getParquetBlockSize() > 0) {
@@ -96,10 +160,16 @@ public class QueryGenerator {
             request.addJetFuelQuery(new HiveProperty("parquet.page.size", jetFuelConfiguration.getParquetPageSize()));
         }
         if (isCompacted) {
-            request.addJetFuelQuery(new HiveProperty("mapred.max.split.size", jetFuelConfiguration.getMaxSplit()));
-            request.addJetFuelQuery(new HiveProperty("mapred.min.split.size", jetFuelConfiguration.getMinSplit()));
-            request.addJetFuelQuery(HiveProperty.MERGE_MAP_FILES);
-            request.addJetFuelQuery(HiveProperty.MERGE_MAPRED_FILES);
+            if (isTez) {
+                request.addJetFuelQuery(new HiveProperty("tez.grouping.max-size", jetFuelConfiguration.getMaxSplit()));
+                request.addJetFuelQuery(new HiveProperty("tez.grouping.min-size", jetFuelConfiguration.getMinSplit()));
+                request.addJetFuelQuery(HiveProperty.MERGE_TEZ_FILES);
+            } else {
+                request.addJetFuelQuery(new HiveProperty("mapred.max.split.size", jetFuelConfiguration.getMaxSplit()));
+                request.addJetFuelQuery(new HiveProperty("mapred.min.split.size", jetFuelConfiguration.getMinSplit()));
+                request.addJetFuelQuery(HiveProperty.MERGE_MAP_FILES);
+                request.addJetFuelQuery(HiveProperty.MERGE_MAPRED_FILES);
+            }
             request.addJetFuelQuery(new HiveProperty("hive.merge.smallfiles.avgsize", jetFuelConfiguration.getSmallFileAvgSize()));
             request.addJetFuelQuery(new HiveProperty("hive.merge.size.per.task", jetFuelConfiguration.getSizePerTask()));
         }
@@ -117,11 +187,116 @@ public class QueryGenerator {
                 request.addJetFuelQuery(query);
             }
         }
-        getInsertTableQuery(isPartitioned, table, tableColumnsAsString, request);
+        getInsertTableQuery(isPartitioned, table, tableColumnsAsString, partitionSpecs, request);
+
+        return request;
+    }
+
+    /**
+     * Generate a {@link JetFuelRequest} merging the files of target partitions with ALTER TABLE ... CONCATENATE
+     *
+     * Each partition is concatenated by its own statement, falling back to fueling the partition from the source
+     * table when the statement fails.
+     *
+     * @param sessionQueries       session SET queries of the fueling request
+     * @param table                source {@link Table}
+     * @param tableColumnsAsString the table columns as string
+     * @param partitionSpecs       source partitions, already copied to the target table
+     * @return {@link JetFuelRequest}
+     */
+    JetFuelRequest generateConcatenateRequest(final List<String> sessionQueries, final Table table, final String tableColumnsAsString, final List<PartitionSpec> partitionSpecs) {
+        Validate.notNull(sessionQueries, "sessionQueries cannot be null");
+        Validate.notNull(table, "Table cannot be null");
+        Validate.notBlank(tableColumnsAsString, "Table columns cannot be null/empty/blank");
+        Validate.notNull(partitionSpecs, "partitionSpecs cannot be null");
 
+        final JetFuelRequest request = new JetFuelRequest();
+        request.addJetFuelQueries(sessionQueries);
+        request.setFailureIsolation(jetFuelConfiguration.getFailureIsolation());
+
+        final String insertQuery = getPartitionedInsertQuery(table, tableColumnsAsString);
+        for (final PartitionSpec partitionSpec : partitionSpecs) {
+            final String concatenateQuery = String.format("ALTER TABLE %s.%s PARTITION %s CONCATENATE", jetFuelConfiguration.getTargetDatabase(),
+                    jetFuelConfiguration.getTargetTable(), hiveTableUtils.getPartitionClause(table, partitionSpec.getPartition()));
+            request.addInsertPartitionQuery(concatenateQuery, Collections.singletonMap(partitionSpec.getFilterFragment(),
+                    String.format("%s WHERE %s", insertQuery, partitionSpec.getFilterFragment())));
+        }
         return request;
     }
 
+    /**
+     * Retrieves the insert query fueling every partition of the target table from the source table
+     *
+     * @param table                source {@link Table}
+     * @param tableColumnsAsString the table columns as string
+     * @return insert query without a WHERE clause
+     */
+    private String getPartitionedInsertQuery(final Table table, final String tableColumnsAsString) {
+        final String partitions = hiveTableUtils.getPartitions(table);
+        return String.format("INSERT OVERWRITE TABLE %s.%s PARTITION %s SELECT %s, %s FROM %s.%s", jetFuelConfiguration.getTargetDatabase(), jetFuelConfiguration.getTargetTable(),
+                partitions, tableColumnsAsString, partitions.replace("(", "").replace(")", ""), jetFuelConfiguration.getSourceDatabase(), jetFuelConfiguration.getSourceTable());
+    }
+
+    /**
+     * Adds the memory ladder used to retry a query whose task ran out of memory, and the session SETs restoring the
+     * configured task memory afterwards.  Java opts are raised in proportion to the task memory.
+     *
+     * @param request {@link JetFuelRequest}
+     * @param isTez   true when running on Tez
+     */
+    private void addMemoryEscalationQueries(final JetFuelRequest request, final boolean isTez) {
+        final long memory = jetFuelConfiguration.getMapReduceMemoryInMB();
+        final Long javaOpts = jetFuelConfiguration.getMapReduceJavaOptsInMB() != null && jetFuelConfiguration.getMapReduceJavaOptsInMB() > 0
+                ? jetFuelConfiguration.getMapReduceJavaOptsInMB()
+                : null;
+        final List<String> memoryProperties = isTez ? Collections.singletonList("hive.tez.container.size") : Arrays.asList("mapreduce.map.memory.mb", "mapreduce.reduce.memory.mb");
+        final List<String> javaOptsProperties = isTez ? Collections.singletonList("hive.tez.java.opts") : Arrays.asList("mapreduce.map.java.opts", "mapreduce.reduce.java.opts");
+
+        for (final long step : getMemoryLadder(memory)) {
+            final List<HiveProperty> properties = new ArrayList<>();
+            memoryProperties.forEach(property -> properties.add(new HiveProperty(property, step)));
+            if (javaOpts != null) {
+                javaOptsProperties.forEach(property -> properties.add(new HiveProperty(property, String.format("-Xmx%sm", javaOpts * step / memory))));
+            }
+            request.addMemoryEscalationStep(properties);
+        }
+
+        memoryProperties.forEach(property -> request.addMemoryResetQuery(new HiveProperty(property, memory)));
+        if (javaOpts != null) {
+            javaOptsProperties.forEach(property -> request.addMemoryResetQuery(new HiveProperty(property, String.format("-Xmx%sm", javaOpts))));
+        }
+    }
+
+    /**
+     * Retrieves the task memory values to retry with, in ascending order, above the configured memory and up to
+     * maxMapReduceMemoryInMB.  Without a configured ladder the memory doubles until the ceiling, or once without one.
+     *
+     * @param memory configured task memory in MB
+     * @return List of task memory values in MB
+     */
+    private List<Long> getMemoryLadder(final long memory) {
+        final Long ceiling = jetFuelConfiguration.getMaxMapReduceMemoryInMB() != null && jetFuelConfiguration.getMaxMapReduceMemoryInMB() > 0
+                ? jetFuelConfiguration.getMaxMapReduceMemoryInMB()
+                : null;
+        final List<Long> ladder = jetFuelConfiguration.getMapReduceMemoryLadderInMB();
+        if (ladder != null && !ladder.isEmpty()) {
+            return ladder.stream()
+                    .filter(step -> step > memory && (ceiling == null || step <= ceiling))
+                    .distinct()
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        if (ceiling == null) {
+            return Collections.singletonList(memory * 2);
+        }
+
+        final List<Long> doubling = new ArrayList<>();
+        for (long step = memory * 2; step / 2 < ceiling; step *= 2) {
+            doubling.add(Math.min(step, ceiling));
+        }
+        return doubling;
+    }
+
     /**
      * Retrieves drop table query
      *
@@ -138,6 +313,18 @@ public class QueryGenerator {
      */
     void getInsertTableQuery(final boolean isPartitioned, final Table table, final String tableColumnsAsString, final JetFuelRequest request) {
         Validate.notNull(table, "Table cannot be null");
+        getInsertTableQuery(isPartitioned, table, tableColumnsAsString, isPartitioned ? hiveTableUtils.getPartitionSpecs(table) : Collections.emptyList(), request);
+    }
+
+    /**
+     * Retrieves insert table query from the partitions already listed from the metastore
+     *
+     * @param isPartitioned  true when table is partitioned, false otherwise
+     * @param partitionSpecs partitions of the table, as listed by {@link HiveTableUtils#getPartitionSpecs(Table)}
+     */
+    void getInsertTableQuery(final boolean isPartitioned, final Table table, final String tableColumnsAsString, final List<PartitionSpec> partitionSpecs,
+                             final JetFuelRequest request) {
+        Validate.notNull(table, "Table cannot be null");
         Validate.notBlank(tableColumnsAsString, "Table columns cannot be null/empty/blank");
 
 
@@ -147,19 +334,14 @@ public class QueryGenerator {
             return;
         }
 
-        final String partitions = hiveTableUtils.getPartitions(table);
-        final StringBuilder insertQuery = new StringBuilder();
-        insertQuery.append(String.format("INSERT OVERWRITE TABLE %s.%s PARTITION %s SELECT %s, %s FROM %s.%s", jetFuelConfiguration.getTargetDatabase(), jetFuelConfiguration.getTargetTable(),
-                partitions, tableColumnsAsString, partitions.replace("(", "").replace(")", ""), jetFuelConfiguration.getSourceDatabase(), jetFuelConfiguration.getSourceTable()));
+        final StringBuilder insertQuery = new StringBuilder(getPartitionedInsertQuery(table, tableColumnsAsString));
 
         switch (jetFuelConfiguration.getPartitionGroupingStrategy()) {
 
             case STATIC:
-                getStaticGroupInsertTableQueries(insertQuery.toString(), request);
-                return;
-
+            case SIZE:
             case DYNAMIC:
-                getDynamicGroupInsertTableQueries(insertQuery.toString(), request);
+                getGroupInsertTableQueries(insertQuery.toString(), table, partitionSpecs, request);
                 return;
 
             case NONE:
@@ -173,37 +355,215 @@ public class QueryGenerator {
     }
 
     /**
-     * Generates grouped insert partition table queries
+     * Generates grouped insert partition table queries using the configured partition grouping strategy
      *
-     * @param insertQuery base insert query
-     * @param request     {@link JetFuelRequest}
+     * The partition filter is parsed and evaluated against the partitions listed from the metastore, so each
+     * matching partition is grouped individually.  When no partition filter is provided every partition of the
+     * source table is grouped.  Filters that cannot be parsed are run as a single query.
+     *
+     * @param insertQuery       base insert query
+     * @param table             source {@link Table}
+     * @param allPartitionSpecs partitions of the source table
+     * @param request           {@link JetFuelRequest}
      */
-    private void getStaticGroupInsertTableQueries(final String insertQuery, final JetFuelRequest request) {
+    private void getGroupInsertTableQueries(final String insertQuery, final Table table, final List<PartitionSpec> allPartitionSpecs, final JetFuelRequest request) {
+
+        final String partitionFilter = jetFuelConfiguration.getPartitionFilter();
+        final List<PartitionSpec> partitionSpecs;
+        if (isBlank(partitionFilter)) {
+            partitionSpecs = allPartitionSpecs;
+            log.info("No partition filter provided, found {} partitions in the metastore", partitionSpecs.size());
+        } else {
+            final PartitionFilter filter;
+            try {
+                filter = PartitionFilterParser.parse(partitionFilter, hiveTableUtils.getPartitionKeyNames(table));
+            } catch (final JetFuelException e) {
+                // A single query would rewrite the partitions that must be left out
+                if (!request.getCompletedPartitions().isEmpty()) {
+                    final String errorMessage = String.format("Partition filter cannot be parsed, so %d partitions cannot be left out of fueling: %s",
+                            request.getCompletedPartitions().size(), e.getMessage());
+                    log.error(errorMessage);
+                    throw new JetFuelException(errorMessage, e);
+                }
+                log.warn("Partition grouping disabled: {}", e.getMessage());
+                request.addJetFuelQuery(String.format("%s WHERE %s", insertQuery, partitionFilter));
+                return;
+            }
+            partitionSpecs = allPartitionSpecs.stream()
+                    .filter(partitionSpec -> filter.matches(partitionSpec.getValues()))
+                    .collect(Collectors.toList());
+            log.info("Partition filter matched {} of {} partitions in the metastore", partitionSpecs.size(), allPartitionSpecs.size());
+        }
 
-        if (isBlank(jetFuelConfiguration.getPartitionFilter())) {
-            request.addJetFuelQuery(insertQuery);
+        if (partitionSpecs.isEmpty()) {
+            request.addJetFuelQuery(isBlank(partitionFilter) ? insertQuery : String.format("%s WHERE %s", insertQuery, partitionFilter));
             return;
         }
 
-        final String[] partitionKeys = jetFuelConfiguration.getPartitionFilter().split("OR");
-        if (partitionKeys.length == 1) {
-            request.addJetFuelQuery(String.format("%s WHERE %s", insertQuery, jetFuelConfiguration.getPartitionFilter()));
+        final List<PartitionSpec> pendingPartitionSpecs = partitionSpecs.stream()
+                .filter(partitionSpec -> !request.getCompletedPartitions().contains(partitionSpec.getFilterFragment()))
+                .collect(Collectors.toList());
+        if (pendingPartitionSpecs.size() < partitionSpecs.size()) {
+            log.info("Skipping {} of {} partitions already fueled", partitionSpecs.size() - pendingPartitionSpecs.size(), partitionSpecs.size());
+        }
+
+        if (pendingPartitionSpecs.isEmpty()) {
+            log.info("All partitions have already been fueled");
             return;
         }
 
+        request.setCompactPartitionPredicates(jetFuelConfiguration.isCompactPartitionPredicates());
+        request.getIntegerPartitionKeys().addAll(hiveTableUtils.getIntegerPartitionKeys(table));
+        request.getDatePartitionKeys().addAll(hiveTableUtils.getDatePartitionKeys(table));
+        request.setFailureIsolation(jetFuelConfiguration.getFailureIsolation());
+
+        switch (jetFuelConfiguration.getPartitionGroupingStrategy()) {
+
+            case SIZE:
+                getSizedGroupInsertTableQueries(insertQuery, pendingPartitionSpecs, request);
+                return;
+
+            case DYNAMIC:
+                getDynamicGroupInsertTableQueries(insertQuery, pendingPartitionSpecs, request);
+                return;
+
+            case STATIC:
+            default:
+                getStaticGroupInsertTableQueries(insertQuery, pendingPartitionSpecs, request);
+        }
+    }
+
+    /**
+     * Generates grouped insert partition table queries
+     *
+     * @param insertQuery    base insert query
+     * @param partitionSpecs partitions to fuel
+     * @param request        {@link JetFuelRequest}
+     */
+    private void getStaticGroupInsertTableQueries(final String insertQuery, final List<PartitionSpec> partitionSpecs, final JetFuelRequest request) {
+
         log.info("Using static partitioning...");
 
-        final List<List<String>> partitionGroups = Lists.partition(Arrays.asList(partitionKeys), jetFuelConfiguration.getInsertPartitionGroupSize().intValue());
+        final List<String> partitionKeys = partitionSpecs.stream().map(PartitionSpec::getFilterFragment).collect(Collectors.toList());
+        final List<List<String>> partitionGroups = Lists.partition(partitionKeys, jetFuelConfiguration.getInsertPartitionGroupSize().intValue());
+        addStaticGroupInsertTableQueries(insertQuery, partitionGroups, request);
+    }
+
+    /**
+     * Generates insert partition table queries grouped by partition size and file count
+     *
+     * Partitions are packed, largest first, into groups of at most insertPartitionGroupBytes and
+     * insertPartitionGroupFiles.  Partitions without a totalSize or numFiles statistic are assumed to be the average
+     * size or file count of the partitions that have one.
+     *
+     * @param insertQuery    base insert query
+     * @param partitionSpecs partitions to fuel
+     * @param request        {@link JetFuelRequest}
+     */
+    private void getSizedGroupInsertTableQueries(final String insertQuery, final List<PartitionSpec> partitionSpecs, final JetFuelRequest request) {
+
+        log.info("Using size-aware partitioning...");
+
+        final Map<String, Long> partitionSizes = new LinkedHashMap<>();
+        final Map<String, Long> partitionFiles = new LinkedHashMap<>();
+        long knownSize = 0;
+        int knownCount = 0;
+        long knownFiles = 0;
+        int knownFilesCount = 0;
+        for (final PartitionSpec partitionSpec : partitionSpecs) {
+            final long size = hiveTableUtils.getTotalSize(partitionSpec.getPartition());
+            partitionSizes.put(partitionSpec.getFilterFragment(), size);
+            if (size >= 0) {
+                knownSize += size;
+                knownCount++;
+            }
+            final long files = hiveTableUtils.getNumFiles(partitionSpec.getPartition());
+            partitionFiles.put(partitionSpec.getFilterFragment(), files);
+            if (files >= 0) {
+                knownFiles += files;
+                knownFilesCount++;
+            }
+        }
+
+        if (knownCount == 0) {
+            log.warn("No partition statistics available, grouping {} partitions by count", partitionSpecs.size());
+            getStaticGroupInsertTableQueries(insertQuery, partitionSpecs, request);
+            return;
+        }
+
+        final long averageSize = knownSize / knownCount;
+        partitionSizes.replaceAll((partitionKey, size) -> size < 0 ? averageSize : size);
+        final long averageFiles = knownFilesCount == 0 ? 1 : knownFiles / knownFilesCount;
+        partitionFiles.replaceAll((partitionKey, files) -> files < 0 ? averageFiles : files);
+
+        addStaticGroupInsertTableQueries(insertQuery, groupBySize(partitionSizes, partitionFiles, jetFuelConfiguration.getInsertPartitionGroupBytes(),
+                jetFuelConfiguration.getInsertPartitionGroupFiles()), request);
+    }
+
+    /**
+     * Packs partitions into groups using first-fit decreasing on their size.
+     *
+     * A partition goes into the first group that stays within both the byte and the file budget.  A partition larger
+     * than either budget is placed in a group of its own.
+     *
+     * @param partitionSizes partition filter fragments and their sizes in bytes
+     * @param partitionFiles partition filter fragments and their numbers of files
+     * @param maxGroupBytes  byte budget for each group
+     * @param maxGroupFiles  file budget for each group
+     * @return partition groups
+     */
+    static List<List<String>> groupBySize(final Map<String, Long> partitionSizes, final Map<String, Long> partitionFiles, final long maxGroupBytes,
+                                          final long maxGroupFiles) {
+        final List<String> partitionKeys = new ArrayList<>(partitionSizes.keySet());
+        partitionKeys.sort(Comparator.comparing(partitionSizes::get).reversed());
+
+        final List<List<String>> partitionGroups = new ArrayList<>();
+        final List<Long> groupSizes = new ArrayList<>();
+        final List<Long> groupFiles = new ArrayList<>();
+        for (final String partitionKey : partitionKeys) {
+            final long size = partitionSizes.get(partitionKey);
+            final long files = partitionFiles.getOrDefault(partitionKey, 0L);
+            int group = 0;
+            while (group < partitionGroups.size() && (groupSizes.get(group) + size > maxGroupBytes || groupFiles.get(group) + files > maxGroupFiles)) {
+                group++;
+            }
+            if (group == partitionGroups.size()) {
+                partitionGroups.add(new ArrayList<>());
+                groupSizes.add(0L);
+                groupFiles.add(0L);
+            }
+            partitionGroups.get(group).add(partitionKey);
+            groupSizes.set(group, groupSizes.get(group) + size);
+            groupFiles.set(group, groupFiles.get(group) + files);
+        }
 
+        for (int group = 0; group < partitionGroups.size(); group++) {
+            log.info("Partition group {} has {} partitions totalling {} bytes in {} files", group, partitionGroups.get(group).size(), groupSizes.get(group),
+                    groupFiles.get(group));
+        }
+        return partitionGroups;
+    }
+
+    /**
+     * Adds a grouped insert query for each partition group, with individual partition queries as fallback
+     *
+     * @param insertQuery     base insert query
+     * @param partitionGroups partition filter fragments grouped together
+     * @param request         {@link JetFuelRequest}
+     */
+    private void addStaticGroupInsertTableQueries(final String insertQuery, final List<List<String>> partitionGroups, final JetFuelRequest request) {
+        // Used to query parts of a failed group
+        request.setInsertPartitionTemplate(insertQuery);
         for (final List<String> partitionGroup : partitionGroups) {
-            final String key = String.format("%s WHERE %s", insertQuery, String.join(" OR ", partitionGroup));
-            final List<String> partitionQueries = new ArrayList<>();
+            final String key = String.format("%s WHERE %s", insertQuery, PartitionPredicates.join(partitionGroup, request.isCompactPartitionPredicates(),
+                    request.getIntegerPartitionKeys(), request.getDatePartitionKeys()));
+            final Map<String, String> partitionQueries = new LinkedHashMap<>();
             log.info("Query created for {} ", partitionGroup);
 
             // Create individual queries if group query fails
             for (final String partitionKey : partitionGroup) {
                 final String query = String.format("%s WHERE %s", insertQuery, partitionKey);
-                partitionQueries.add(query);
+                partitionQueries.put(partitionKey, query);
                 log.info("Query created for inner key {} ", partitionKey);
             }
             request.addInsertPartitionQuery(key, partitionQueries);
@@ -215,29 +575,20 @@ public class QueryGenerator {
     /**
      * Generates dynamically grouped insert partition table queries
      *
-     * @param insertQuery base insert query
-     * @param request     {@link JetFuelRequest}
+     * @param insertQuery    base insert query
+     * @param partitionSpecs partitions to fuel
+     * @param request        {@link JetFuelRequest}
      */
-    private void getDynamicGroupInsertTableQueries(final String insertQuery, final JetFuelRequest request) {
-
-        if (isBlank(jetFuelConfiguration.getPartitionFilter())) {
-            request.addJetFuelQuery(insertQuery);
-            return;
-        }
-
-        final String[] partitionFilterFragments = jetFuelConfiguration.getPartitionFilter().split("OR");
-        if (partitionFilterFragments.length == 1) {
-            request.addJetFuelQuery(String.format("%s WHERE %s", insertQuery, jetFuelConfiguration.getPartitionFilter()));
-            return;
-        }
+    private void getDynamicGroupInsertTableQueries(final String insertQuery, final List<PartitionSpec> partitionSpecs, final JetFuelRequest request) {
 
         log.info("Using dynamic partitioning...");
 
         request.setInsertPartitionTemplate(insertQuery);
         request.setPartitionGroupSize(jetFuelConfiguration.getInsertPartitionGroupSize());
+        request.setGroupSizeIncreaseAfter(jetFuelConfiguration.getGroupSizeIncreaseAfter());
 
-        Stream.of(partitionFilterFragments)
-                .map(String::trim)
+        partitionSpecs.stream()
+                .map(PartitionSpec::getFilterFragment)
                 .forEach(request::addPartitionFilterFragment);
     }
 }
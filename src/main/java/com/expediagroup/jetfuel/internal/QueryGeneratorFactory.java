@@ -44,7 +44,13 @@ public final class QueryGeneratorFactory {
         return new QueryGenerator(hiveTableUtils, jetFuelConfiguration, fileFormatCompressor);
     }
 
-    private static FileFormatCompressor getFileFormatCompressor (final String createFormat) {
+    /**
+     * Retrieves the {@link FileFormatCompressor} creating tables in a file format
+     *
+     * @param createFormat create format of the file format
+     * @return {@link FileFormatCompressor}
+     */
+    static FileFormatCompressor getFileFormatCompressor(final String createFormat) {
         switch (createFormat) {
             case "TEXTFILE":
                 return new TextFileFormatCompressorImpl();
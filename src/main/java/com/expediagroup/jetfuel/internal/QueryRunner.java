@@ -15,10 +15,39 @@
  */
 package com.expediagroup.jetfuel.internal;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
 import org.apache.commons.lang3.Validate;
 
+import com.expediagroup.jetfuel.exception.FailureType;
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.exception.JetFuelQueryException;
+import com.expediagroup.jetfuel.internal.filter.PartitionPredicates;
 import com.expediagroup.jetfuel.internal.hive.HiveDriverClient;
+import com.expediagroup.jetfuel.models.FailureIsolation;
 import com.expediagroup.jetfuel.models.JetFuelRequest;
+import com.expediagroup.jetfuel.models.QueryMetrics;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -27,11 +56,52 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 public abstract class QueryRunner {
+
+    /**
+     * Primary session; runs the setup queries and takes part in partition grouping.
+     */
     protected final HiveDriverClient hiveDriverClient;
 
-    QueryRunner(final HiveDriverClient hiveDriverClient) {
-        Validate.notNull(hiveDriverClient, "HiveDriverClient cannot be null");
-        this.hiveDriverClient = hiveDriverClient;
+    /**
+     * All sessions in the pool, starting with the primary session.
+     */
+    protected final List<HiveDriverClient> hiveDriverClients;
+
+    /**
+     * Journal of completed partitions (optional)
+     */
+    protected final ProgressJournal progressJournal;
+
+    /**
+     * Partition filter fragments of the partitions isolated as failing, in the order they were found
+     */
+    private final Set<String> quarantinedPartitions = Collections.synchronizedSet(new LinkedHashSet<>());
+
+    /**
+     * Metrics of the run, shared with the sessions
+     */
+    private final RunMetrics runMetrics;
+
+    /**
+     * Listeners notified of the partition groups that fall back to smaller groups
+     */
+    private final JetFuelListeners listeners;
+
+    /**
+     * Constructor
+     *
+     * @param hiveDriverClients one {@link HiveDriverClient} per session; the first one is the primary session
+     * @param runContext        {@link RunContext} providing the progress journal, metrics and listeners of the run
+     */
+    QueryRunner(final List<HiveDriverClient> hiveDriverClients, final RunContext runContext) {
+        Validate.notEmpty(hiveDriverClients, "hiveDriverClients cannot be null/empty");
+        Validate.noNullElements(hiveDriverClients, "hiveDriverClients cannot contain null");
+        Validate.notNull(runContext, "runContext cannot be null");
+        this.hiveDriverClient = hiveDriverClients.get(0);
+        this.hiveDriverClients = ImmutableList.copyOf(hiveDriverClients);
+        this.progressJournal = runContext.getProgressJournal();
+        this.runMetrics = runContext.getRunMetrics() == null ? new RunMetrics() : runContext.getRunMetrics();
+        this.listeners = runContext.getListeners();
     }
 
     /**
@@ -40,4 +110,366 @@ public abstract class QueryRunner {
      * @param request {@link JetFuelRequest}
      */
     abstract void execute(final JetFuelRequest request);
+
+    /**
+     * Sets the request on every session of the pool, so that the listeners of their queries know what they belong to.
+     *
+     * @param request {@link JetFuelRequest}
+     */
+    protected void setRequest(final JetFuelRequest request) {
+        hiveDriverClients.forEach(session -> session.setRequest(request));
+    }
+
+    /**
+     * Notifies the listeners that a failed partition group falls back to smaller groups or single partitions.
+     *
+     * @param request                  {@link JetFuelRequest}
+     * @param query                    failed Hive query
+     * @param partitionFilterFragments partition filter fragments of the failed group, copied only if there are listeners
+     * @param failure                  failure of the query
+     */
+    protected void notifyGroupFallback(final JetFuelRequest request, final String query, final List<String> partitionFilterFragments, final Exception failure) {
+        if (!listeners.isEmpty()) {
+            listeners.onGroupFallback(request, query, Collections.unmodifiableList(new ArrayList<>(partitionFilterFragments)), failure);
+        }
+    }
+
+    /**
+     * Records partitions as completed in the progress journal, if one is configured.
+     *
+     * @param partitionFilterFragments partition filter fragments of the completed partitions
+     */
+    protected void recordCompleted(final Collection<String> partitionFilterFragments) {
+        runMetrics.recordFueled(partitionFilterFragments);
+        if (progressJournal != null) {
+            progressJournal.record(partitionFilterFragments);
+        }
+    }
+
+    /**
+     * Runs a partition query, recovering from the failures that a smaller partition group would not fix, and records
+     * its metrics.
+     *
+     * An idle connection is validated first.  A query that lost its connection is retried once on a new connection
+     * primed with the request's session SETs, and a query that ran out of memory, in a task's heap or a container's
+     * limit, is retried up the request's memory ladder.  Other failures, and memory failures once the ladder is
+     * exhausted, are rethrown for the caller to recover from by splitting the group.
+     *
+     * @param session    session to run the query on
+     * @param request    {@link JetFuelRequest}
+     * @param query      Hive query
+     * @param partitions number of partitions written by the query
+     */
+    protected void runQuery(final HiveDriverClient session, final JetFuelRequest request, final String query, final int partitions) {
+        final Instant start = Instant.now();
+        final AtomicInteger retries = new AtomicInteger();
+        FailureType failureType = null;
+        runMetrics.startGroup(partitions);
+        try {
+            runWithRecovery(session, request, query, retries);
+        } catch (final JetFuelQueryException e) {
+            failureType = e.getFailureType();
+            throw e;
+        } catch (final RuntimeException e) {
+            failureType = FailureType.UNKNOWN;
+            throw e;
+        } finally {
+            runMetrics.record(new QueryMetrics(Thread.currentThread().getName(), start.toEpochMilli(), Duration.between(start, Instant.now()).toMillis(),
+                    partitions, retries.get(), failureType));
+        }
+    }
+
+    /**
+     * Runs a partition query with the recoveries described in {@link #runQuery}.
+     *
+     * @param session session to run the query on
+     * @param request {@link JetFuelRequest}
+     * @param query   Hive query
+     * @param retries count of retries of the query, incremented for every retry
+     */
+    private void runWithRecovery(final HiveDriverClient session, final JetFuelRequest request, final String query, final AtomicInteger retries) {
+        session.ensureConnection(request.getSessionQueries());
+        try {
+            session.runQuery(query);
+        } catch (final JetFuelQueryException e) {
+            switch (e.getFailureType()) {
+                case CONNECTION:
+                    log.warn("Connection lost, retrying the query on a new connection");
+                    session.reconnect(request.getSessionQueries());
+                    retries.incrementAndGet();
+                    session.runQuery(query);
+                    return;
+
+                case TASK_OOM:
+                case CONTAINER_MEMORY:
+                    if (request.getMemoryEscalationQueries().isEmpty()) {
+                        throw e;
+                    }
+                    runWithMoreMemory(session, request, query, e, retries);
+                    return;
+
+                default:
+                    throw e;
+            }
+        }
+    }
+
+    /**
+     * Retries a query that ran out of memory with each step of the request's memory ladder in turn, until it succeeds
+     * or fails for another reason, then restores the configured memory for the next query on the session.
+     *
+     * @param session session to run the query on
+     * @param request {@link JetFuelRequest}
+     * @param query   Hive query
+     * @param failure memory failure of the query
+     * @param retries count of retries of the query, incremented for every step
+     */
+    private void runWithMoreMemory(final HiveDriverClient session, final JetFuelRequest request, final String query, final JetFuelQueryException failure,
+                                   final AtomicInteger retries) {
+        final List<List<String>> ladder = request.getMemoryEscalationQueries();
+        JetFuelQueryException lastFailure = failure;
+        boolean connected = true;
+        try {
+            for (int step = 0; step < ladder.size(); step++) {
+                log.warn("Query ran out of memory ({}), retrying with memory step {} of {}: {}", lastFailure.getFailureType(), step + 1, ladder.size(), ladder.get(step));
+                ladder.get(step).forEach(session::runQuery);
+                retries.incrementAndGet();
+                try {
+                    session.runQuery(query);
+                    return;
+                } catch (final JetFuelQueryException e) {
+                    if (!isMemoryFailure(e.getFailureType())) {
+                        connected = e.getFailureType() != FailureType.CONNECTION;
+                        throw e;
+                    }
+                    lastFailure = e;
+                }
+            }
+            log.error("Query ran out of memory at the top of the memory ladder");
+            throw lastFailure;
+        } finally {
+            // A lost session has no memory SETs left to restore
+            if (connected) {
+                request.getMemoryResetQueries().forEach(session::runQuery);
+            }
+        }
+    }
+
+    private static boolean isMemoryFailure(final FailureType failureType) {
+        return failureType == FailureType.TASK_OOM || failureType == FailureType.CONTAINER_MEMORY;
+    }
+
+    /**
+     * Rethrows failures that no retry can fix, such as semantic or authorization errors or a spent run budget, to abort the run.
+     *
+     * @param failure failure of a partition query
+     */
+    protected static void abortOnUnrecoverableFailure(final Exception failure) {
+        if (failure instanceof JetFuelQueryException) {
+            final FailureType failureType = ((JetFuelQueryException) failure).getFailureType();
+            if (failureType == FailureType.SEMANTIC || failureType == FailureType.AUTHORIZATION || failureType == FailureType.BUDGET_EXHAUSTED) {
+                log.error("Query cannot be recovered ({}), aborting: {}", failureType, failure.getMessage());
+                throw (JetFuelQueryException) failure;
+            }
+        }
+    }
+
+    /**
+     * Returns the metrics of the run.
+     *
+     * @return {@link RunMetrics}
+     */
+    public RunMetrics getRunMetrics() {
+        return runMetrics;
+    }
+
+    /**
+     * Returns the partitions isolated as failing and left unfueled.
+     *
+     * @return partition filter fragments of the quarantined partitions
+     */
+    public Set<String> getQuarantinedPartitions() {
+        synchronized (quarantinedPartitions) {
+            return ImmutableSet.copyOf(quarantinedPartitions);
+        }
+    }
+
+    /**
+     * Leaves a failing partition unfueled and carries on with the others.
+     *
+     * @param partitionFilterFragment partition filter fragment of the failing partition
+     * @param failure                 failure of the partition's query
+     */
+    protected void quarantine(final String partitionFilterFragment, final Exception failure) {
+        log.error("Quarantining partition {}: {}", partitionFilterFragment, failure.getMessage());
+        quarantinedPartitions.add(partitionFilterFragment);
+        runMetrics.recordQuarantined(partitionFilterFragment);
+    }
+
+    /**
+     * Locates the failing partitions of a failed group by splitting it in halves until each failing part is a single
+     * partition, which is quarantined.  Parts that succeed are recorded as completed.
+     *
+     * @param session                  session to run the queries on
+     * @param request                  {@link JetFuelRequest} providing the INSERT PARTITION query template
+     * @param partitionFilterFragments partition filter fragments of the failed group
+     * @param failure                  failure of the group's query
+     */
+    protected void bisect(final HiveDriverClient session, final JetFuelRequest request, final List<String> partitionFilterFragments, final Exception failure) {
+        if (partitionFilterFragments.size() == 1) {
+            quarantine(partitionFilterFragments.get(0), failure);
+            return;
+        }
+
+        final int middle = partitionFilterFragments.size() / 2;
+        for (final List<String> half : ImmutableList.of(partitionFilterFragments.subList(0, middle), partitionFilterFragments.subList(middle, partitionFilterFragments.size()))) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            final String query = String.format("%s WHERE %s", request.getInsertPartitionTemplate(), PartitionPredicates.join(half, request.isCompactPartitionPredicates(),
+                    request.getIntegerPartitionKeys(), request.getDatePartitionKeys()));
+            try {
+                runQuery(session, request, query, half.size());
+                log.info("Successfully executed insert partition query for {} of {} partitions", half.size(), partitionFilterFragments.size());
+                recordCompleted(half);
+            } catch (final Exception e) {
+                abortOnUnrecoverableFailure(e);
+                log.warn("Insert partition query failed for {} of {} partitions", half.size(), partitionFilterFragments.size());
+                if (half.size() > 1) {
+                    notifyGroupFallback(request, query, half, e);
+                }
+                bisect(session, request, half, e);
+            }
+        }
+    }
+
+    /**
+     * Runs a unit of work on every session of the pool.
+     *
+     * The primary session must already be open.  With a single session the work runs on the calling thread;
+     * otherwise each additional session is opened, primed with the request's session SETs and the work
+     * runs concurrently on all sessions.  Additional sessions left without a connection by an exhausted session pool
+     * sit the work out.  The first failure stops the remaining workers and is rethrown.
+     *
+     * @param request {@link JetFuelRequest}
+     * @param work    work to run; receives the session it should use
+     */
+    protected void runOnSessions(final JetFuelRequest request, final Consumer<HiveDriverClient> work) {
+        if (hiveDriverClients.size() == 1) {
+            work.accept(hiveDriverClient);
+            return;
+        }
+
+        final List<String> sessionQueries = request.getSessionQueries();
+        log.info("Running partition groups on {} concurrent sessions", hiveDriverClients.size());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(hiveDriverClients.size(),
+                new ThreadFactoryBuilder().setNameFormat("jetfuel-session-%d").build());
+        final CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+        try {
+            for (final HiveDriverClient session : hiveDriverClients) {
+                completionService.submit(() -> {
+                    if (session != hiveDriverClient) {
+                        if (!session.tryOpenConnection()) {
+                            log.info("No free session in the session pool, running without this session");
+                            return null;
+                        }
+                        sessionQueries.forEach(session::runQuery);
+                    }
+                    work.accept(session);
+                    return null;
+                });
+            }
+
+            for (int i = 0; i < hiveDriverClients.size(); i++) {
+                completionService.take().get();
+            }
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new JetFuelException(cause);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JetFuelException("Interrupted while waiting for sessions to complete", e);
+        } finally {
+            executor.shutdownNow();
+            hiveDriverClients.stream()
+                    .filter(session -> session != hiveDriverClient)
+                    .forEach(HiveDriverClient::closeConnection);
+        }
+    }
+
+    /**
+     * Runs the grouped INSERT PARTITION queries of a request, spread across the session pool.
+     *
+     * @param request {@link JetFuelRequest}
+     */
+    protected void runInsertPartitionQueries(final JetFuelRequest request) {
+        if (!request.getInsertPartitionQueries().isEmpty()) {
+            runMetrics.addPartitionsPlanned(request.getInsertPartitionQueries().values().stream()
+                    .map(request.getInsertPartitionQueryFragments()::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()));
+            final Queue<String> groupQueries = new ConcurrentLinkedQueue<>(request.getInsertPartitionQueries().keySet());
+            runOnSessions(request, session -> runGroupQueries(session, request, groupQueries));
+        }
+    }
+
+    /**
+     * Runs grouped queries from the shared queue until it is empty,
+     * falling back to the individual partition queries of a group when it fails.
+     *
+     * @param session      session to run the queries on
+     * @param request      {@link JetFuelRequest}
+     * @param groupQueries shared queue of grouped queries
+     */
+    private void runGroupQueries(final HiveDriverClient session, final JetFuelRequest request, final Queue<String> groupQueries) {
+        String query;
+        while (!Thread.currentThread().isInterrupted() && (query = groupQueries.poll()) != null) {
+            try {
+                runQuery(session, request, query, request.getInsertPartitionQueries().get(query).size());
+                log.info("Successfully executed insert partition grouped query");
+                recordCompleted(request.getInsertPartitionQueries().get(query).stream()
+                        .map(request.getInsertPartitionQueryFragments()::get)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList()));
+            } catch (final Exception e) {
+                abortOnUnrecoverableFailure(e);
+                final Set<String> individualQueries = request.getInsertPartitionQueries().get(query);
+                final List<String> partitionFilters = individualQueries.stream()
+                        .map(request.getInsertPartitionQueryFragments()::get)
+                        .collect(Collectors.toList());
+                notifyGroupFallback(request, query, partitionFilters, e);
+                final boolean isolate = request.getFailureIsolation() == FailureIsolation.BISECT && !partitionFilters.contains(null);
+
+                if (isolate && request.getInsertPartitionTemplate() != null) {
+                    log.warn("Insert partition grouped query failed, bisecting group to isolate failing partitions");
+                    bisect(session, request, partitionFilters, e);
+                    continue;
+                }
+
+                log.warn("Insert partition grouped query failed, trying individual partitions for group");
+                individualQueries.forEach(individualQuery -> {
+                    log.info("Executing individual partition query");
+                    final String partitionFilter = request.getInsertPartitionQueryFragments().get(individualQuery);
+                    try {
+                        runQuery(session, request, individualQuery, 1);
+                    } catch (final RuntimeException individualFailure) {
+                        abortOnUnrecoverableFailure(individualFailure);
+                        if (!isolate) {
+                            throw individualFailure;
+                        }
+                        quarantine(partitionFilter, individualFailure);
+                        return;
+                    }
+                    log.info("Successfully executed individual partition query");
+                    if (partitionFilter != null) {
+                        recordCompleted(Collections.singletonList(partitionFilter));
+                    }
+                });
+            }
+        }
+    }
 }
@@ -15,6 +15,8 @@
  */
 package com.expediagroup.jetfuel.internal;
 
+import java.util.List;
+
 import org.apache.commons.lang3.Validate;
 
 import com.expediagroup.jetfuel.internal.hive.HiveDriverClient;
@@ -28,14 +30,21 @@ import com.expediagroup.jetfuel.models.PartitionGrouping;
  */
 public final class QueryRunnerFactory {
 
-    public static QueryRunner create(final JetFuelConfiguration jetFuelConfiguration, final HiveDriverClient hiveDriverClient) {
+    /**
+     * Creates a QueryRunner that spreads partition groups across a pool of sessions.
+     *
+     * @param jetFuelConfiguration {@link JetFuelConfiguration}
+     * @param hiveDriverClients    one {@link HiveDriverClient} per session; the first one is the primary session
+     * @param runContext           {@link RunContext} providing the progress journal, metrics and listeners of the run
+     * @return new instance
+     */
+    public static QueryRunner create(final JetFuelConfiguration jetFuelConfiguration, final List<HiveDriverClient> hiveDriverClients, final RunContext runContext) {
         Validate.notNull(jetFuelConfiguration, "jetFuelConfiguration cannot be null");
-        Validate.notNull(hiveDriverClient, "hiveDriverClient cannot be null");
 
         if (jetFuelConfiguration.isEnablePartitionGrouping() && jetFuelConfiguration.getPartitionGroupingStrategy() == PartitionGrouping.DYNAMIC) {
-            return new DynamicQueryRunner(hiveDriverClient);
+            return new DynamicQueryRunner(hiveDriverClients, runContext);
         }
 
-        return new StaticQueryRunner(hiveDriverClient);
+        return new StaticQueryRunner(hiveDriverClients, runContext);
     }
 }
@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import java.time.Instant;
+
+import org.apache.commons.lang3.Validate;
+
+import com.expediagroup.jetfuel.internal.hive.HiveSessionPool;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Collaborators shared by the components of one fuel run.  All of them are optional: without a progress journal no
+ * partitions are recorded, without run metrics no live metrics or run report are produced, and without a session pool
+ * connections are opened and closed directly.
+ *
+ * The context also keeps the start of the run, so that the run budget of every session is measured from the same
+ * instant.
+ */
+@Getter
+public final class RunContext {
+
+    /**
+     * Journal of completed partitions, or null
+     */
+    private final ProgressJournal progressJournal;
+
+    /**
+     * Metrics of the run, shared by the sessions and the query runner, or null
+     */
+    private final RunMetrics runMetrics;
+
+    /**
+     * Listeners notified of the requests, the queries and the end of the run
+     */
+    private final JetFuelListeners listeners;
+
+    /**
+     * Pool the sessions are acquired from, shared with other tables of a batch, or null
+     */
+    private final HiveSessionPool sessionPool;
+
+    /**
+     * Start of the run, or null until the clock is started
+     */
+    @Getter(AccessLevel.NONE)
+    private Instant startTime;
+
+    private RunContext(final Builder builder) {
+        progressJournal = builder.progressJournal;
+        runMetrics = builder.runMetrics;
+        listeners = builder.listeners;
+        sessionPool = builder.sessionPool;
+    }
+
+    /**
+     * Starts the clock of the run, unless it is already started.
+     *
+     * @return start of the run
+     */
+    public synchronized Instant startClock() {
+        if (startTime == null) {
+            startTime = Instant.now();
+        }
+        return startTime;
+    }
+
+    /**
+     * Builder class for the immutable {@link RunContext}
+     */
+    public static final class Builder {
+        private ProgressJournal progressJournal;
+        private RunMetrics runMetrics;
+        private JetFuelListeners listeners = JetFuelListeners.NONE;
+        private HiveSessionPool sessionPool;
+
+        public Builder withProgressJournal(final ProgressJournal progressJournal) {
+            this.progressJournal = progressJournal;
+            return this;
+        }
+
+        public Builder withRunMetrics(final RunMetrics runMetrics) {
+            this.runMetrics = runMetrics;
+            return this;
+        }
+
+        public Builder withListeners(final JetFuelListeners listeners) {
+            this.listeners = listeners;
+            return this;
+        }
+
+        public Builder withSessionPool(final HiveSessionPool sessionPool) {
+            this.sessionPool = sessionPool;
+            return this;
+        }
+
+        public RunContext build() {
+            Validate.notNull(listeners, "listeners cannot be null");
+            return new RunContext(this);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+
+import com.expediagroup.jetfuel.models.GroupSizeChange;
+import com.expediagroup.jetfuel.models.QueryMetrics;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Metrics of a run, recorded by the runner and its sessions as the queries run.
+ *
+ * The metrics of the partition queries feed the run report once the run ends, while the live counters are read over
+ * JMX and by the {@link MetricsExporter} while it runs.
+ */
+public class RunMetrics implements RunMetricsMXBean {
+
+    private final List<QueryMetrics> queryMetrics = new ArrayList<>();
+    private final List<GroupSizeChange> groupSizeChanges = new ArrayList<>();
+    private final Set<String> fueledPartitions = new LinkedHashSet<>();
+    private final Set<String> quarantinedPartitions = new LinkedHashSet<>();
+    private final Set<String> plannedPartitions = new LinkedHashSet<>();
+    private final Instant start = Instant.now();
+    private Instant lastProgress = start;
+    private int queriesInFlight;
+    private int groupsCompleted;
+    private int groupsFailed;
+    private int currentGroupSize;
+    private int groupSizeIncreases;
+    private int groupSizeDecreases;
+    private long bytesRead;
+    private long bytesWritten;
+
+    /**
+     * Records the metrics of a completed query.
+     *
+     * @param metrics {@link QueryMetrics}
+     */
+    public synchronized void record(final QueryMetrics metrics) {
+        Validate.notNull(metrics, "metrics cannot be null");
+        queryMetrics.add(metrics);
+        if (metrics.isSucceeded()) {
+            groupsCompleted++;
+        } else {
+            groupsFailed++;
+        }
+        lastProgress = Instant.now();
+    }
+
+    /**
+     * Records partitions as fueled.
+     *
+     * @param partitionFilterFragments partition filter fragments of the fueled partitions
+     */
+    public synchronized void recordFueled(final Collection<String> partitionFilterFragments) {
+        Validate.notNull(partitionFilterFragments, "partitionFilterFragments cannot be null");
+        fueledPartitions.addAll(partitionFilterFragments);
+    }
+
+    /**
+     * Records a partition as quarantined.
+     *
+     * @param partitionFilterFragment partition filter fragment of the quarantined partition
+     */
+    public synchronized void recordQuarantined(final String partitionFilterFragment) {
+        Validate.notNull(partitionFilterFragment, "partitionFilterFragment cannot be null");
+        quarantinedPartitions.add(partitionFilterFragment);
+    }
+
+    /**
+     * Adds partitions to the partitions to fuel, used to estimate the time remaining. A partition planned again, e.g. by
+     * the fallback of a failed concatenation, is counted once.
+     *
+     * @param partitionFilterFragments partition filter fragments of the planned partitions
+     */
+    public synchronized void addPartitionsPlanned(final Collection<String> partitionFilterFragments) {
+        Validate.notNull(partitionFilterFragments, "partitionFilterFragments cannot be null");
+        plannedPartitions.addAll(partitionFilterFragments);
+    }
+
+    /**
+     * Records the start of a partition group query.
+     *
+     * @param groupSize number of partitions written by the query
+     */
+    public synchronized void startGroup(final int groupSize) {
+        currentGroupSize = groupSize;
+    }
+
+    /**
+     * Records a change of the dynamic partition group size of the calling session.
+     *
+     * @param previousSize group size before the change
+     * @param newSize      group size after the change
+     */
+    public synchronized void recordGroupSizeChange(final int previousSize, final int newSize) {
+        groupSizeChanges.add(new GroupSizeChange(Thread.currentThread().getName(), System.currentTimeMillis(), previousSize, newSize));
+        if (newSize > previousSize) {
+            groupSizeIncreases++;
+        } else {
+            groupSizeDecreases++;
+        }
+    }
+
+    /**
+     * Records the start of a Hive query on a session.
+     */
+    public synchronized void startQuery() {
+        queriesInFlight++;
+    }
+
+    /**
+     * Records the end of a Hive query on a session, whatever its outcome.
+     */
+    public synchronized void endQuery() {
+        queriesInFlight--;
+        lastProgress = Instant.now();
+    }
+
+    /**
+     * Records progress reported by a running query.
+     */
+    public synchronized void recordProgress() {
+        lastProgress = Instant.now();
+    }
+
+    /**
+     * Adds the HDFS bytes read and written by a MapReduce job.
+     *
+     * @param read    bytes read
+     * @param written bytes written
+     */
+    public synchronized void addBytes(final long read, final long written) {
+        bytesRead += read;
+        bytesWritten += written;
+    }
+
+    /**
+     * Returns the metrics of the queries run so far, in completion order.
+     *
+     * @return List of {@link QueryMetrics}
+     */
+    public synchronized List<QueryMetrics> getQueryMetrics() {
+        return ImmutableList.copyOf(queryMetrics);
+    }
+
+    /**
+     * Returns the changes of the dynamic partition group size so far.
+     *
+     * @return List of {@link GroupSizeChange}, in the order they happened
+     */
+    public synchronized List<GroupSizeChange> getGroupSizeChanges() {
+        return ImmutableList.copyOf(groupSizeChanges);
+    }
+
+    /**
+     * Returns the partitions fueled so far.
+     *
+     * @return partition filter fragments of the fueled partitions
+     */
+    public synchronized Set<String> getFueledPartitions() {
+        return ImmutableSet.copyOf(fueledPartitions);
+    }
+
+    @Override
+    public long getStartTime() {
+        return start.toEpochMilli();
+    }
+
+    @Override
+    public synchronized long getLastProgressTime() {
+        return lastProgress.toEpochMilli();
+    }
+
+    @Override
+    public synchronized long getSecondsSinceLastProgress() {
+        return Duration.between(lastProgress, Instant.now()).getSeconds();
+    }
+
+    @Override
+    public synchronized int getQueriesInFlight() {
+        return queriesInFlight;
+    }
+
+    @Override
+    public synchronized int getGroupsCompleted() {
+        return groupsCompleted;
+    }
+
+    @Override
+    public synchronized int getGroupsFailed() {
+        return groupsFailed;
+    }
+
+    @Override
+    public synchronized int getCurrentGroupSize() {
+        return currentGroupSize;
+    }
+
+    @Override
+    public synchronized int getGroupSizeIncreases() {
+        return groupSizeIncreases;
+    }
+
+    @Override
+    public synchronized int getGroupSizeDecreases() {
+        return groupSizeDecreases;
+    }
+
+    @Override
+    public synchronized int getPartitionsPlanned() {
+        return plannedPartitions.size();
+    }
+
+    @Override
+    public synchronized int getPartitionsFueled() {
+        return fueledPartitions.size();
+    }
+
+    @Override
+    public synchronized int getPartitionsQuarantined() {
+        return quarantinedPartitions.size();
+    }
+
+    @Override
+    public synchronized long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Extrapolates the time spent on the partitions handled so far to the partitions remaining.
+     *
+     * @return estimated seconds remaining, or -1 until a partition is handled
+     */
+    @Override
+    public synchronized long getEstimatedSecondsRemaining() {
+        final int handled = fueledPartitions.size() + quarantinedPartitions.size();
+        if (handled == 0) {
+            return -1;
+        }
+        final long remaining = Math.max(plannedPartitions.size() - handled, 0);
+        return Duration.between(start, Instant.now()).toMillis() * remaining / handled / 1000;
+    }
+}
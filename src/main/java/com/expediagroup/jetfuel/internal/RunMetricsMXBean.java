@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+/**
+ * Live metrics of a fuel run, exposed over JMX.
+ */
+public interface RunMetricsMXBean {
+
+    /**
+     * @return start of the run, in milliseconds since the epoch
+     */
+    long getStartTime();
+
+    /**
+     * @return last time a query completed or reported progress, in milliseconds since the epoch
+     */
+    long getLastProgressTime();
+
+    /**
+     * @return seconds since a query last completed or reported progress
+     */
+    long getSecondsSinceLastProgress();
+
+    /**
+     * @return number of Hive queries running on all sessions
+     */
+    int getQueriesInFlight();
+
+    /**
+     * @return number of partition group queries that succeeded
+     */
+    int getGroupsCompleted();
+
+    /**
+     * @return number of partition group queries that failed
+     */
+    int getGroupsFailed();
+
+    /**
+     * @return number of partitions of the partition group query started last
+     */
+    int getCurrentGroupSize();
+
+    /**
+     * @return number of times a session grew its dynamic partition group size
+     */
+    int getGroupSizeIncreases();
+
+    /**
+     * @return number of times a session shrank its dynamic partition group size after a failure
+     */
+    int getGroupSizeDecreases();
+
+    /**
+     * @return number of partitions to fuel with partition group queries
+     */
+    int getPartitionsPlanned();
+
+    /**
+     * @return number of partitions fueled
+     */
+    int getPartitionsFueled();
+
+    /**
+     * @return number of partitions that failed and were quarantined
+     */
+    int getPartitionsQuarantined();
+
+    /**
+     * @return bytes read from HDFS by the MapReduce jobs of completed queries
+     */
+    long getBytesRead();
+
+    /**
+     * @return bytes written to HDFS by the MapReduce jobs of completed queries
+     */
+    long getBytesWritten();
+
+    /**
+     * @return estimated seconds until all planned partitions are handled, or -1 until a partition is handled
+     */
+    long getEstimatedSecondsRemaining();
+}
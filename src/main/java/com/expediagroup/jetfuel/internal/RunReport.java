@@ -0,0 +1,316 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.metastore.api.Partition;
+
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+import com.expediagroup.jetfuel.models.GroupSizeChange;
+import com.expediagroup.jetfuel.models.QueryMetrics;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Machine-readable report of a fuel run, with the totals and duration percentiles of its partition queries and the
+ * storage of the fueled partitions before and after fueling.  Under dynamic partition grouping it also lists every
+ * change of the group size.
+ */
+@Slf4j
+public class RunReport {
+
+    private static final Gson GSON = new GsonBuilder().serializeNulls().setPrettyPrinting().create();
+
+    private final String sourceTable;
+    private final String targetTable;
+    private final Instant start;
+    private final Instant end;
+    private final boolean succeeded;
+    private final List<QueryMetrics> queryMetrics;
+    private final List<GroupSizeChange> groupSizeChanges;
+    private final int fueledPartitions;
+    private final int quarantinedPartitions;
+    private final StorageStatistics before;
+    private final StorageStatistics after;
+
+    /**
+     * Constructor
+     *
+     * @param sourceTable           qualified name of the source table
+     * @param targetTable           qualified name of the target table
+     * @param start                 start of the run
+     * @param end                   end of the run
+     * @param succeeded             whether the run succeeded
+     * @param queryMetrics          List of {@link QueryMetrics} of the partition queries
+     * @param groupSizeChanges      List of {@link GroupSizeChange} of the dynamic partition group size
+     * @param fueledPartitions      number of partitions fueled
+     * @param quarantinedPartitions number of partitions that failed and were not fueled
+     * @param before                {@link StorageStatistics} of the source partitions that were fueled, or null if unknown
+     * @param after                 {@link StorageStatistics} of the target partitions, or null if unknown
+     */
+    public RunReport(final String sourceTable, final String targetTable, final Instant start, final Instant end, final boolean succeeded,
+                     final List<QueryMetrics> queryMetrics, final List<GroupSizeChange> groupSizeChanges, final int fueledPartitions, final int quarantinedPartitions,
+                     final StorageStatistics before, final StorageStatistics after) {
+        Validate.notNull(start, "start cannot be null");
+        Validate.notNull(end, "end cannot be null");
+        Validate.notNull(queryMetrics, "queryMetrics cannot be null");
+        Validate.notNull(groupSizeChanges, "groupSizeChanges cannot be null");
+
+        this.sourceTable = sourceTable;
+        this.targetTable = targetTable;
+        this.start = start;
+        this.end = end;
+        this.succeeded = succeeded;
+        this.queryMetrics = queryMetrics;
+        this.groupSizeChanges = groupSizeChanges;
+        this.fueledPartitions = fueledPartitions;
+        this.quarantinedPartitions = quarantinedPartitions;
+        this.before = before;
+        this.after = after;
+    }
+
+    /**
+     * Builds the JSON representation of the report.
+     *
+     * @return {@link JsonObject}
+     */
+    public JsonObject toJson() {
+        final JsonObject report = new JsonObject();
+        report.addProperty("sourceTable", sourceTable);
+        report.addProperty("targetTable", targetTable);
+        report.addProperty("start", start.toString());
+        report.addProperty("end", end.toString());
+        report.addProperty("durationMillis", end.toEpochMilli() - start.toEpochMilli());
+        report.addProperty("succeeded", succeeded);
+
+        final JsonObject queries = new JsonObject();
+        queries.addProperty("total", queryMetrics.size());
+        queries.addProperty("succeeded", queryMetrics.stream().filter(QueryMetrics::isSucceeded).count());
+        queries.addProperty("failed", queryMetrics.stream().filter(metrics -> !metrics.isSucceeded()).count());
+        queries.addProperty("retries", queryMetrics.stream().mapToInt(QueryMetrics::getRetries).sum());
+        report.add("queries", queries);
+
+        final JsonObject partitions = new JsonObject();
+        partitions.addProperty("fueled", fueledPartitions);
+        partitions.addProperty("quarantined", quarantinedPartitions);
+        report.add("partitions", partitions);
+
+        report.add("queryDurationMillis", getDurations(queryMetrics));
+
+        final Map<Integer, List<QueryMetrics>> groups = queryMetrics.stream()
+                .collect(Collectors.groupingBy(QueryMetrics::getGroupSize, TreeMap::new, Collectors.toList()));
+        final JsonArray groupSizes = new JsonArray();
+        for (final Map.Entry<Integer, List<QueryMetrics>> group : groups.entrySet()) {
+            final JsonObject groupSize = new JsonObject();
+            groupSize.addProperty("groupSize", group.getKey());
+            groupSize.addProperty("queries", group.getValue().size());
+            groupSize.addProperty("failed", group.getValue().stream().filter(metrics -> !metrics.isSucceeded()).count());
+            groupSize.add("durationMillis", getDurations(group.getValue()));
+            groupSizes.add(groupSize);
+        }
+        report.add("groupSizes", groupSizes);
+
+        final JsonArray groupSizeChangeArray = new JsonArray();
+        for (final GroupSizeChange groupSizeChange : groupSizeChanges) {
+            final JsonObject change = new JsonObject();
+            change.addProperty("session", groupSizeChange.getSession());
+            change.addProperty("time", Instant.ofEpochMilli(groupSizeChange.getTime()).toString());
+            change.addProperty("previousSize", groupSizeChange.getPreviousSize());
+            change.addProperty("newSize", groupSizeChange.getNewSize());
+            groupSizeChangeArray.add(change);
+        }
+        report.add("groupSizeChanges", groupSizeChangeArray);
+
+        if (before != null && after != null) {
+            final JsonObject storage = new JsonObject();
+            storage.add("before", before.toJson());
+            storage.add("after", after.toJson());
+            storage.addProperty("bytesSaved", before.getBytes() - after.getBytes());
+            storage.addProperty("filesSaved", before.getFiles() - after.getFiles());
+            report.add("storage", storage);
+        }
+
+        final JsonArray queryArray = new JsonArray();
+        for (final QueryMetrics metrics : queryMetrics) {
+            final JsonObject query = new JsonObject();
+            query.addProperty("session", metrics.getSession());
+            query.addProperty("start", Instant.ofEpochMilli(metrics.getStartTime()).toString());
+            query.addProperty("durationMillis", metrics.getDurationMillis());
+            query.addProperty("groupSize", metrics.getGroupSize());
+            query.addProperty("retries", metrics.getRetries());
+            query.addProperty("failureType", metrics.getFailureType() == null ? null : metrics.getFailureType().name());
+            queryArray.add(query);
+        }
+        report.add("queryMetrics", queryArray);
+        return report;
+    }
+
+    /**
+     * Builds the one line summary of the report.
+     *
+     * @return summary
+     */
+    public String getSummary() {
+        final StringBuilder summary = new StringBuilder(String.format("%s %d queries (%d failed, %d retries) fueling %d partitions (%d quarantined) in %ds",
+                succeeded ? "Succeeded" : "Failed", queryMetrics.size(), queryMetrics.stream().filter(metrics -> !metrics.isSucceeded()).count(),
+                queryMetrics.stream().mapToInt(QueryMetrics::getRetries).sum(), fueledPartitions, quarantinedPartitions,
+                (end.toEpochMilli() - start.toEpochMilli()) / 1000));
+        if (before != null && after != null) {
+            summary.append(String.format(", %d bytes in %d files became %d bytes in %d files", before.getBytes(), before.getFiles(), after.getBytes(), after.getFiles()));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Returns the report as pretty printed JSON.
+     *
+     * @return JSON document
+     */
+    @Override
+    public String toString() {
+        return GSON.toJson(toJson());
+    }
+
+    /**
+     * Writes the report to a file on local disk or any Hadoop filesystem, replacing an existing file.
+     *
+     * @param reportPath report file
+     * @throws JetFuelException thrown if the report cannot be written
+     */
+    public void write(final String reportPath) throws JetFuelException {
+        Validate.notBlank(reportPath, "reportPath cannot be null/empty/blank");
+        final Path path = new Path(reportPath);
+        try {
+            final FileSystem fileSystem = path.getFileSystem(new Configuration());
+            try (final Writer writer = new OutputStreamWriter(fileSystem.create(path, true), StandardCharsets.UTF_8)) {
+                writer.write(toString());
+                writer.write('\n');
+            }
+        } catch (final IOException e) {
+            throw new JetFuelException(String.format("Unable to write run report %s", path), e);
+        }
+        log.info("Wrote run report {}", path);
+    }
+
+    /**
+     * Summarizes the durations of queries with nearest-rank percentiles.
+     *
+     * @param metrics List of {@link QueryMetrics}
+     * @return {@link JsonObject} with the total, min, p50, p90, p99 and max durations in milliseconds
+     */
+    private static JsonObject getDurations(final List<QueryMetrics> metrics) {
+        final long[] durations = metrics.stream().mapToLong(QueryMetrics::getDurationMillis).sorted().toArray();
+        final JsonObject summary = new JsonObject();
+        summary.addProperty("total", metrics.stream().mapToLong(QueryMetrics::getDurationMillis).sum());
+        if (durations.length > 0) {
+            summary.addProperty("min", durations[0]);
+            summary.addProperty("p50", getPercentile(durations, 50));
+            summary.addProperty("p90", getPercentile(durations, 90));
+            summary.addProperty("p99", getPercentile(durations, 99));
+            summary.addProperty("max", durations[durations.length - 1]);
+        }
+        return summary;
+    }
+
+    /**
+     * Nearest-rank percentile: the smallest value such that at least percentile% of the values are less or equal.
+     *
+     * @param sortedValues non empty values in ascending order
+     * @param percentile   between 1 and 100
+     * @return percentile value
+     */
+    static long getPercentile(final long[] sortedValues, final int percentile) {
+        final int rank = (int) Math.ceil(percentile / 100.0 * sortedValues.length);
+        return sortedValues[Math.max(rank, 1) - 1];
+    }
+
+    /**
+     * Storage of a set of partitions, taken from the totalSize and numFiles statistics of the Hive Metastore.
+     */
+    @Data
+    public static final class StorageStatistics {
+
+        /**
+         * Number of partitions with statistics
+         */
+        private final int partitions;
+
+        /**
+         * Number of partitions without totalSize or numFiles statistics, which are not counted in bytes and files
+         */
+        private final int missingStatistics;
+
+        /**
+         * Total size in bytes
+         */
+        private final long bytes;
+
+        /**
+         * Total number of files
+         */
+        private final long files;
+
+        /**
+         * Sums the statistics of partitions.
+         *
+         * @param hiveTableUtils {@link HiveTableUtils}
+         * @param partitions     Collection of {@link Partition}
+         * @return new instance
+         */
+        public static StorageStatistics of(final HiveTableUtils hiveTableUtils, final Collection<Partition> partitions) {
+            Validate.notNull(hiveTableUtils, "hiveTableUtils cannot be null");
+            Validate.notNull(partitions, "partitions cannot be null");
+            final List<Partition> measured = new ArrayList<>();
+            for (final Partition partition : partitions) {
+                if (hiveTableUtils.getTotalSize(partition) >= 0 && hiveTableUtils.getNumFiles(partition) >= 0) {
+                    measured.add(partition);
+                }
+            }
+            return new StorageStatistics(measured.size(), partitions.size() - measured.size(),
+                    measured.stream().mapToLong(hiveTableUtils::getTotalSize).sum(), measured.stream().mapToLong(hiveTableUtils::getNumFiles).sum());
+        }
+
+        private JsonObject toJson() {
+            final JsonObject storage = new JsonObject();
+            storage.addProperty("partitions", partitions);
+            storage.addProperty("missingStatistics", missingStatistics);
+            storage.addProperty("bytes", bytes);
+            storage.addProperty("files", files);
+            return storage;
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.expediagroup.jetfuel.internal;
 
+import java.util.List;
+
 import org.apache.commons.lang3.Validate;
 
 import com.expediagroup.jetfuel.internal.hive.HiveDriverClient;
@@ -23,13 +25,17 @@ import com.expediagroup.jetfuel.models.JetFuelRequest;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Manager class to run JetFuel Queries
+ * Query Runner for Static Partition Grouping.
+ * The planned partition groups are put on a shared queue that is drained by one worker per session, so up to
+ * concurrency groups run at once.  Each additional session is primed with the request's session SETs before it takes
+ * its first group.  A group that fails is retried on the same session, partition by partition or, with BISECT
+ * failure isolation, in halves.
  */
 @Slf4j
 class StaticQueryRunner extends QueryRunner {
 
-    StaticQueryRunner(final HiveDriverClient hiveDriverClient) {
-        super(hiveDriverClient);
+    StaticQueryRunner(final List<HiveDriverClient> hiveDriverClients, final RunContext runContext) {
+        super(hiveDriverClients, runContext);
     }
 
     /**
@@ -39,32 +45,17 @@ class StaticQueryRunner extends QueryRunner {
      */
     void execute(final JetFuelRequest request) {
         Validate.notNull(request, "Request cannot be null");
+        setRequest(request);
         try {
             hiveDriverClient.openConnection();
 
             request.getJetFuelQueries().forEach(hiveDriverClient::runQuery);
 
-            // Partition Grouping
-            if (!request.getInsertPartitionQueries().isEmpty()) {
-                // Static Partition Grouping
-                request.getInsertPartitionQueries().keySet().forEach(query -> {
-                    try {
-                        hiveDriverClient.runQuery(query);
-                        log.info("Successfully executed insert partition grouped query");
-                    } catch (final Exception e) {
-                        log.warn("Insert partition grouped query failed, trying individual partitions for group");
-                        request.getInsertPartitionQueries().get(query).forEach(individualQuery -> {
-                            log.info("Executing individual partition query");
-                            hiveDriverClient.runQuery(individualQuery);
-                            log.info("Successfully executed individual partition query");
-                        });
-                    }
-                });
-            }
+            // Static Partition Grouping
+            runInsertPartitionQueries(request);
 
         } finally {
             hiveDriverClient.closeConnection();
         }
     }
-
 }
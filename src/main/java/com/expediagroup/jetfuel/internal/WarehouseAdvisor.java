@@ -0,0 +1,337 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import static org.apache.commons.io.FileUtils.byteCountToDisplaySize;
+import static org.apache.commons.lang3.StringUtils.defaultIfBlank;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.Charsets;
+import org.apache.commons.lang3.Validate;
+import org.apache.hadoop.hive.metastore.TableType;
+import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.representer.Representer;
+
+import com.expediagroup.jetfuel.JetFuelManagerFactory;
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+import com.expediagroup.jetfuel.models.AdvisorConfiguration;
+import com.expediagroup.jetfuel.models.CompressionType;
+import com.expediagroup.jetfuel.models.FileFormat;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.expediagroup.jetfuel.models.TableAdvice;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Scans databases through the metastore for the tables most in need of fueling, and writes a JetFuel configuration
+ * YAML file for each of the worst ones.
+ *
+ * Tables and partitions are listed by name and retrieved a page at a time, with the pages scanned in parallel, each
+ * thread using its own metastore client.  Only metastore statistics are read: partitions without totalSize and numFiles
+ * statistics are left out.  A table is ranked by its bytes stored as TEXT, SEQ, AVRO or without compression, plus an
+ * HDFS block worth of bytes for every file above what its data needs, in partitions whose files average less than half
+ * a block.  Views are skipped.
+ */
+@Slf4j
+public class WarehouseAdvisor {
+
+    private static final Set<FileFormat> ROW_FILE_FORMATS = ImmutableSet.of(FileFormat.TEXT, FileFormat.SEQ, FileFormat.AVRO);
+
+    private final AdvisorConfiguration advisorConfiguration;
+    private final Supplier<HiveTableUtils> metastoreClientFactory;
+
+    /**
+     * Constructor
+     *
+     * @param advisorConfiguration {@link AdvisorConfiguration}
+     */
+    public WarehouseAdvisor(final AdvisorConfiguration advisorConfiguration) {
+        this(advisorConfiguration, () -> {
+            try {
+                return JetFuelManagerFactory.createHiveTableUtils(advisorConfiguration.getHiveMetastoreUri());
+            } catch (final MetaException e) {
+                throw new JetFuelException(String.format("Unable to connect to metastore %s", advisorConfiguration.getHiveMetastoreUri()), e);
+            }
+        });
+    }
+
+    /**
+     * Constructor
+     *
+     * @param advisorConfiguration   {@link AdvisorConfiguration}
+     * @param metastoreClientFactory creates a metastore client for each scanning thread
+     */
+    WarehouseAdvisor(final AdvisorConfiguration advisorConfiguration, final Supplier<HiveTableUtils> metastoreClientFactory) {
+        Validate.notNull(advisorConfiguration, "advisorConfiguration cannot be null");
+        Validate.notNull(metastoreClientFactory, "metastoreClientFactory cannot be null");
+        this.advisorConfiguration = advisorConfiguration;
+        this.metastoreClientFactory = metastoreClientFactory;
+    }
+
+    /**
+     * Scans the databases, and writes a configuration file for each of the maxTables worst tables to the
+     * outputDirectory.
+     *
+     * @return advice for every table worth fueling, worst first
+     * @throws JetFuelException thrown when unable to list the tables or write the configuration files
+     */
+    public List<TableAdvice> advise() throws JetFuelException {
+        final List<HiveTableUtils> metastoreClients = Collections.synchronizedList(new ArrayList<>());
+        final ThreadLocal<HiveTableUtils> metastoreClient = ThreadLocal.withInitial(() -> {
+            final HiveTableUtils hiveTableUtils = metastoreClientFactory.get();
+            metastoreClients.add(hiveTableUtils);
+            return hiveTableUtils;
+        });
+        final ExecutorService executor = Executors.newFixedThreadPool(advisorConfiguration.getThreads(),
+                new ThreadFactoryBuilder().setNameFormat("jetfuel-advisor-%d").build());
+
+        final List<TableAdvice> advice = new ArrayList<>();
+        try {
+            final List<Future<List<TableAdvice>>> futures = new ArrayList<>();
+            for (final String database : advisorConfiguration.getDatabases()) {
+                final List<String> tableNames = metastoreClient.get().getTableNames(database);
+                log.info("Scanning {} tables of {}", tableNames.size(), database);
+                for (final List<String> page : Lists.partition(tableNames, advisorConfiguration.getPageSize())) {
+                    futures.add(executor.submit(() -> scanTables(metastoreClient.get(), database, page)));
+                }
+            }
+            for (final Future<List<TableAdvice>> future : futures) {
+                advice.addAll(future.get());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JetFuelException("Interrupted while scanning the metastore", e);
+        } catch (final ExecutionException e) {
+            throw new JetFuelException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            closeMetastoreClients(metastoreClients);
+        }
+
+        final List<TableAdvice> ranked = advice.stream()
+                .filter(tableAdvice -> tableAdvice.getScore() > 0)
+                .sorted(Comparator.comparingLong(TableAdvice::getScore).reversed())
+                .collect(Collectors.toList());
+        log.info("{} of {} scanned tables are worth fueling", ranked.size(), advice.size());
+
+        final List<TableAdvice> worst = ranked.subList(0, Math.min(ranked.size(), advisorConfiguration.getMaxTables()));
+        for (int i = 0; i < worst.size(); i++) {
+            final TableAdvice tableAdvice = worst.get(i);
+            log.info("{}. {}.{}: {} in {} files, {} excess files, {} stored as text or uncompressed; suggesting {} {}{}", i + 1,
+                    tableAdvice.getDatabase(), tableAdvice.getTable(), byteCountToDisplaySize(tableAdvice.getTotalSize()), tableAdvice.getNumFiles(),
+                    tableAdvice.getExcessFiles(), byteCountToDisplaySize(tableAdvice.getInefficientBytes()), tableAdvice.getTargetFileFormat(),
+                    tableAdvice.getTargetCompression(), tableAdvice.isTargetCompaction() ? " with compaction" : "");
+            write(tableAdvice);
+        }
+        return ranked;
+    }
+
+    /**
+     * Scans a page of tables of a database.  Tables that cannot be scanned are logged and left out.
+     *
+     * @param hiveTableUtils metastore client of the thread
+     * @param database       database name
+     * @param tableNames     page of table names
+     * @return advice for the tables of the page
+     */
+    private List<TableAdvice> scanTables(final HiveTableUtils hiveTableUtils, final String database, final List<String> tableNames) {
+        final List<TableAdvice> advice = new ArrayList<>();
+        for (final Table table : hiveTableUtils.getTables(database, tableNames)) {
+            if (TableType.VIRTUAL_VIEW.toString().equals(table.getTableType())) {
+                continue;
+            }
+            try {
+                advice.add(scanTable(hiveTableUtils, table));
+            } catch (final RuntimeException e) {
+                log.warn("Unable to scan {}.{}: {}", database, table.getTableName(), e.getMessage());
+            }
+        }
+        return advice;
+    }
+
+    /**
+     * Measures the storage problems of a table from the statistics of its partitions, and suggests how to fuel it.
+     *
+     * @param hiveTableUtils metastore client of the thread
+     * @param table          {@link Table} to scan
+     * @return {@link TableAdvice}
+     */
+    TableAdvice scanTable(final HiveTableUtils hiveTableUtils, final Table table) {
+        final boolean isTablePartitioned = hiveTableUtils.isPartitioned(table);
+        final Partition tablePartition = asPartition(table);
+        final List<Partition> partitions = new ArrayList<>();
+        if (isTablePartitioned) {
+            final List<String> partitionNames = hiveTableUtils.getPartitionNames(table.getDbName(), table.getTableName());
+            for (final List<String> page : Lists.partition(partitionNames, advisorConfiguration.getPageSize())) {
+                partitions.addAll(hiveTableUtils.getPartitions(table.getDbName(), table.getTableName(), page));
+            }
+        } else {
+            partitions.add(tablePartition);
+        }
+
+        final long blockSize = advisorConfiguration.getBlockSize();
+        long totalSize = 0;
+        long numFiles = 0;
+        long excessFiles = 0;
+        long inefficientBytes = 0;
+        boolean isWholeTable = true;
+        final List<String> fragments = new ArrayList<>();
+        for (final Partition partition : partitions) {
+            final long partitionSize = hiveTableUtils.getTotalSize(partition);
+            final long partitionFiles = hiveTableUtils.getNumFiles(partition);
+            if (partitionSize < 0 || partitionFiles < 0) {
+                isWholeTable = false;
+                continue;
+            }
+
+            final long partitionExcessFiles = partitionFiles > 1 && partitionSize / partitionFiles < blockSize / 2
+                    ? Math.max(0, partitionFiles - Math.max(1, (partitionSize + blockSize - 1) / blockSize))
+                    : 0;
+            final long partitionInefficientBytes = isInefficient(table, partition) ? partitionSize : 0;
+            totalSize += partitionSize;
+            numFiles += partitionFiles;
+            excessFiles += partitionExcessFiles;
+            inefficientBytes += partitionInefficientBytes;
+            if (partitionExcessFiles > 0 || partitionInefficientBytes > 0) {
+                if (isTablePartitioned) {
+                    fragments.add(hiveTableUtils.getPartitionFilterFragment(table, partition));
+                }
+            } else {
+                isWholeTable = false;
+            }
+        }
+
+        final FileFormat sourceFileFormat = PartitionAnalyzer.getFileFormat(tablePartition);
+        final FileFormat targetFileFormat = sourceFileFormat == FileFormat.PARQUET ? FileFormat.PARQUET : FileFormat.ORC;
+        final String sourceCompression = sourceFileFormat == targetFileFormat ? PartitionAnalyzer.getCompression(table, tablePartition, sourceFileFormat) : null;
+        final String targetCompression = sourceCompression != null && !isUncompressed(sourceCompression)
+                ? sourceCompression.toUpperCase()
+                : targetFileFormat == FileFormat.ORC ? CompressionType.ZLIB.toString() : CompressionType.SNAPPY.toString();
+
+        return new TableAdvice(table.getDbName(), table.getTableName(), totalSize, numFiles, excessFiles, inefficientBytes,
+                isWholeTable ? Collections.emptyList() : fragments, inefficientBytes + excessFiles * blockSize,
+                targetFileFormat, targetCompression, excessFiles > 0);
+    }
+
+    /**
+     * Determines if a partition is stored in a row file format, or in a columnar file format without compression
+     */
+    private static boolean isInefficient(final Table table, final Partition partition) {
+        final FileFormat fileFormat = PartitionAnalyzer.getFileFormat(partition);
+        if (fileFormat == null) {
+            return false;
+        }
+        if (ROW_FILE_FORMATS.contains(fileFormat)) {
+            return true;
+        }
+        final String compression = PartitionAnalyzer.getCompression(table, partition, fileFormat);
+        return compression == null || isUncompressed(compression);
+    }
+
+    private static boolean isUncompressed(final String compression) {
+        return CompressionType.NONE.toString().equals(PartitionAnalyzer.normalizeCompression(compression));
+    }
+
+    private static Partition asPartition(final Table table) {
+        return new Partition(Collections.emptyList(), table.getDbName(), table.getTableName(), 0, 0, table.getSd(), table.getParameters());
+    }
+
+    /**
+     * Writes the configuration file of a table, checking that it builds a valid {@link JetFuelConfiguration}.
+     *
+     * @param tableAdvice {@link TableAdvice} of the table
+     * @throws JetFuelException thrown when unable to write the file
+     */
+    private void write(final TableAdvice tableAdvice) throws JetFuelException {
+        final Map<String, Object> settings = new LinkedHashMap<>(advisorConfiguration.getDefaults());
+        settings.put("sourceDatabase", tableAdvice.getDatabase());
+        settings.put("sourceTable", tableAdvice.getTable());
+        settings.put("targetDatabase", defaultIfBlank(advisorConfiguration.getTargetDatabase(), tableAdvice.getDatabase()));
+        settings.put("targetTable", tableAdvice.getTable() + advisorConfiguration.getTargetTableSuffix());
+        settings.put("hiveMetastoreUri", advisorConfiguration.getHiveMetastoreUri());
+        settings.put("targetFileFormat", tableAdvice.getTargetFileFormat().toString());
+        settings.put("targetCompression", tableAdvice.getTargetCompression());
+        settings.put("targetCompaction", tableAdvice.isTargetCompaction());
+        if (!tableAdvice.getPartitionFilterFragments().isEmpty()) {
+            settings.put("partitionFilter", String.join(" OR ", tableAdvice.getPartitionFilterFragments()));
+            settings.put("compactPartitionPredicates", true);
+        }
+
+        final Representer representer = new Representer();
+        representer.getPropertyUtils().setSkipMissingProperties(true);
+        final DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        final Yaml yaml = new Yaml(representer, options);
+        final String content = yaml.dump(settings);
+        try {
+            yaml.loadAs(content, JetFuelConfiguration.Builder.class).build();
+        } catch (final RuntimeException e) {
+            throw new JetFuelException(String.format("Invalid configuration for %s.%s: %s", tableAdvice.getDatabase(), tableAdvice.getTable(), e.getMessage()), e);
+        }
+
+        final File directory = new File(advisorConfiguration.getOutputDirectory());
+        final File file = new File(directory, String.format("%s.%s.yml", tableAdvice.getDatabase(), tableAdvice.getTable()));
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException(String.format("Unable to create directory %s", directory));
+            }
+            try (final Writer writer = new OutputStreamWriter(new FileOutputStream(file), Charsets.UTF_8)) {
+                writer.write(content);
+            }
+        } catch (final IOException e) {
+            throw new JetFuelException(String.format("Unable to write %s: %s", file, e.getMessage()), e);
+        }
+        log.info("Wrote {}", file);
+    }
+
+    private static void closeMetastoreClients(final List<HiveTableUtils> metastoreClients) {
+        synchronized (metastoreClients) {
+            for (final HiveTableUtils hiveTableUtils : metastoreClients) {
+                try {
+                    hiveTableUtils.close();
+                } catch (final RuntimeException e) {
+                    log.warn("Error closing metastore client: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal.filter;
+
+import java.util.Map;
+
+/**
+ * A parsed partition filter, evaluated against the values of a single partition.
+ */
+@FunctionalInterface
+public interface PartitionFilter {
+
+    /**
+     * @param partitionValues partition values keyed by lower-case partition key name
+     * @return true when the partition matches the filter, false otherwise
+     */
+    boolean matches(Map<String, String> partitionValues);
+}
@@ -0,0 +1,419 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal.filter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.Validate;
+
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+
+/**
+ * Recursive-descent parser for partition filters.
+ *
+ * Supports OR, AND, NOT, parentheses, comparisons (=, ==, !=, &lt;&gt;, &lt;, &lt;=, &gt;, &gt;=), [NOT] IN lists,
+ * [NOT] BETWEEN ranges and IS [NOT] NULL on partition keys, with single- or double-quoted strings and numeric
+ * literals, e.g.
+ * <pre>
+ * dt BETWEEN '2019-01-01' AND '2019-03-31' AND country IN ('US', 'OR')
+ * </pre>
+ * Values are compared numerically when both sides are numbers, and as strings otherwise.  The default partition holds
+ * the rows whose partition value is null, so it only matches IS NULL; like in Hive, any comparison with it is unknown
+ * and the partition does not match unless the unknown result is ruled out by OR or AND.
+ */
+public final class PartitionFilterParser {
+
+    private enum TokenType {
+        IDENTIFIER, STRING, NUMBER, OPERATOR, LEFT_PAREN, RIGHT_PAREN, COMMA, END
+    }
+
+    /**
+     * Result of a predicate on the values of a partition: TRUE, FALSE or null when unknown
+     */
+    @FunctionalInterface
+    private interface Condition {
+        Boolean evaluate(Map<String, String> values);
+    }
+
+    private final String filter;
+    private final List<Token> tokens;
+    private final Set<String> keys = new LinkedHashSet<>();
+    private int position;
+
+    private PartitionFilterParser(final String filter) {
+        this.filter = filter;
+        this.tokens = tokenize();
+    }
+
+    /**
+     * Parses a partition filter
+     *
+     * @param filter        partition filter
+     * @param partitionKeys names of the partition keys of the table
+     * @return {@link PartitionFilter}
+     * @throws JetFuelException thrown when the filter is not valid or refers to a column that is not a partition key
+     */
+    public static PartitionFilter parse(final String filter, final Collection<String> partitionKeys) throws JetFuelException {
+        Validate.notBlank(filter, "filter cannot be null/empty/blank");
+        Validate.notNull(partitionKeys, "partitionKeys cannot be null");
+        final PartitionFilterParser parser = new PartitionFilterParser(filter);
+        final Condition condition = parser.parseOr();
+        parser.expect(TokenType.END);
+
+        final Set<String> knownKeys = partitionKeys.stream().map(String::toLowerCase).collect(Collectors.toSet());
+        final List<String> unknownKeys = parser.keys.stream().filter(key -> !knownKeys.contains(key)).collect(Collectors.toList());
+        if (!unknownKeys.isEmpty()) {
+            throw new JetFuelException(String.format("Unknown partition keys %s in partitionFilter, partition keys are %s: %s", unknownKeys, knownKeys, filter));
+        }
+        return values -> Boolean.TRUE.equals(condition.evaluate(values));
+    }
+
+    private Condition parseOr() {
+        Condition condition = parseAnd();
+        while (acceptKeyword("OR")) {
+            final Condition left = condition;
+            final Condition right = parseAnd();
+            condition = values -> {
+                final Boolean leftResult = left.evaluate(values);
+                final Boolean rightResult = right.evaluate(values);
+                if (Boolean.TRUE.equals(leftResult) || Boolean.TRUE.equals(rightResult)) {
+                    return true;
+                }
+                return leftResult == null || rightResult == null ? null : false;
+            };
+        }
+        return condition;
+    }
+
+    private Condition parseAnd() {
+        Condition condition = parseNot();
+        while (acceptKeyword("AND")) {
+            final Condition left = condition;
+            final Condition right = parseNot();
+            condition = values -> {
+                final Boolean leftResult = left.evaluate(values);
+                final Boolean rightResult = right.evaluate(values);
+                if (Boolean.FALSE.equals(leftResult) || Boolean.FALSE.equals(rightResult)) {
+                    return false;
+                }
+                return leftResult == null || rightResult == null ? null : true;
+            };
+        }
+        return condition;
+    }
+
+    private Condition parseNot() {
+        if (acceptKeyword("NOT")) {
+            final Condition negated = parseNot();
+            return values -> {
+                final Boolean result = negated.evaluate(values);
+                return result == null ? null : !result;
+            };
+        }
+        if (accept(TokenType.LEFT_PAREN)) {
+            final Condition condition = parseOr();
+            expect(TokenType.RIGHT_PAREN);
+            return condition;
+        }
+        return parsePredicate();
+    }
+
+    private Condition parsePredicate() {
+        final Token keyToken = expect(TokenType.IDENTIFIER);
+        if (isKeyword(keyToken)) {
+            throw error(keyToken, "expected a partition key");
+        }
+        final String key = keyToken.text.toLowerCase();
+        keys.add(key);
+
+        if (acceptKeyword("IS")) {
+            final boolean negated = acceptKeyword("NOT");
+            if (!acceptKeyword("NULL")) {
+                throw error(peek(), "expected NULL");
+            }
+            return values -> negated != (getValue(values, key) == null);
+        }
+
+        final boolean negated = acceptKeyword("NOT");
+
+        if (acceptKeyword("IN")) {
+            expect(TokenType.LEFT_PAREN);
+            final List<Literal> literals = new ArrayList<>();
+            do {
+                literals.add(parseLiteral());
+            } while (accept(TokenType.COMMA));
+            expect(TokenType.RIGHT_PAREN);
+            return values -> {
+                final String value = getValue(values, key);
+                return value == null ? null : negated != literals.stream().anyMatch(literal -> literal.compareTo(value) == 0);
+            };
+        }
+
+        if (acceptKeyword("BETWEEN")) {
+            final Literal lower = parseLiteral();
+            if (!acceptKeyword("AND")) {
+                throw error(peek(), "expected AND");
+            }
+            final Literal upper = parseLiteral();
+            return values -> {
+                final String value = getValue(values, key);
+                return value == null ? null : negated != (lower.compareTo(value) <= 0 && upper.compareTo(value) >= 0);
+            };
+        }
+
+        if (negated) {
+            throw error(peek(), "expected IN or BETWEEN");
+        }
+
+        final Token operator = expect(TokenType.OPERATOR);
+        final Literal literal = parseLiteral();
+        switch (operator.text) {
+            case "=":
+            case "==":
+                return compare(key, literal, comparison -> comparison == 0);
+            case "!=":
+            case "<>":
+                return compare(key, literal, comparison -> comparison != 0);
+            case "<":
+                return compare(key, literal, comparison -> comparison > 0);
+            case "<=":
+                return compare(key, literal, comparison -> comparison >= 0);
+            case ">":
+                return compare(key, literal, comparison -> comparison < 0);
+            case ">=":
+                return compare(key, literal, comparison -> comparison <= 0);
+            default:
+                throw error(operator, "unsupported operator");
+        }
+    }
+
+    /**
+     * Builds a comparison of a partition key with a literal, unknown for the default partition
+     *
+     * @param key     partition key
+     * @param literal literal
+     * @param test    test of the result of comparing the literal with the partition value
+     * @return {@link Condition}
+     */
+    private static Condition compare(final String key, final Literal literal, final IntPredicate test) {
+        return values -> {
+            final String value = getValue(values, key);
+            return value == null ? null : test.test(literal.compareTo(value));
+        };
+    }
+
+    private Literal parseLiteral() {
+        final Token token = peek();
+        if (token.type != TokenType.STRING && token.type != TokenType.NUMBER) {
+            throw error(token, "expected a quoted string or a number");
+        }
+        position++;
+        try {
+            return new Literal(token.text, token.type == TokenType.NUMBER);
+        } catch (final NumberFormatException e) {
+            throw error(token, "invalid number " + token.text);
+        }
+    }
+
+    /**
+     * Retrieves the value of a partition key
+     *
+     * @return partition value, or null for the default partition
+     */
+    private static String getValue(final Map<String, String> values, final String key) {
+        final String value = values.get(key);
+        return HiveTableUtils.DEFAULT_PARTITION_NAME.equals(value) ? null : value;
+    }
+
+    private Token peek() {
+        return tokens.get(position);
+    }
+
+    private Token expect(final TokenType type) {
+        final Token token = peek();
+        if (token.type != type) {
+            throw error(token, "expected " + type.name().toLowerCase().replace('_', ' '));
+        }
+        position++;
+        return token;
+    }
+
+    private boolean accept(final TokenType type) {
+        if (peek().type == type) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean acceptKeyword(final String keyword) {
+        final Token token = peek();
+        if (token.type == TokenType.IDENTIFIER && token.text.equalsIgnoreCase(keyword)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isKeyword(final Token token) {
+        switch (token.text.toUpperCase()) {
+            case "AND":
+            case "OR":
+            case "NOT":
+            case "IN":
+            case "BETWEEN":
+            case "IS":
+            case "NULL":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private JetFuelException error(final Token token, final String message) {
+        return new JetFuelException(String.format("Unable to parse partitionFilter at position %d, %s: %s", token.offset, message, filter));
+    }
+
+    private List<Token> tokenize() {
+        final List<Token> result = new ArrayList<>();
+        int i = 0;
+        while (i < filter.length()) {
+            final char c = filter.charAt(i);
+            final int start = i;
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(') {
+                result.add(new Token(TokenType.LEFT_PAREN, "(", start));
+                i++;
+            } else if (c == ')') {
+                result.add(new Token(TokenType.RIGHT_PAREN, ")", start));
+                i++;
+            } else if (c == ',') {
+                result.add(new Token(TokenType.COMMA, ",", start));
+                i++;
+            } else if (c == '\'' || c == '"') {
+                final StringBuilder text = new StringBuilder();
+                i++;
+                while (true) {
+                    if (i >= filter.length()) {
+                        throw error(new Token(TokenType.STRING, "", start), "unterminated string");
+                    }
+                    final char next = filter.charAt(i);
+                    if (next == '\\' && i + 1 < filter.length()) {
+                        text.append(filter.charAt(i + 1));
+                        i += 2;
+                    } else if (next == c && i + 1 < filter.length() && filter.charAt(i + 1) == c) {
+                        text.append(c);
+                        i += 2;
+                    } else if (next == c) {
+                        i++;
+                        break;
+                    } else {
+                        text.append(next);
+                        i++;
+                    }
+                }
+                result.add(new Token(TokenType.STRING, text.toString(), start));
+            } else if (c == '`') {
+                final int end = filter.indexOf('`', i + 1);
+                if (end < 0) {
+                    throw error(new Token(TokenType.IDENTIFIER, "", start), "unterminated identifier");
+                }
+                result.add(new Token(TokenType.IDENTIFIER, filter.substring(i + 1, end), start));
+                i = end + 1;
+            } else if ("=!<>".indexOf(c) >= 0) {
+                final String twoChars = i + 1 < filter.length() ? filter.substring(i, i + 2) : "";
+                final String operator = "<=".equals(twoChars) || ">=".equals(twoChars) || "<>".equals(twoChars) || "!=".equals(twoChars) || "==".equals(twoChars)
+                        ? twoChars
+                        : String.valueOf(c);
+                if ("!".equals(operator)) {
+                    throw error(new Token(TokenType.OPERATOR, operator, start), "unexpected character");
+                }
+                result.add(new Token(TokenType.OPERATOR, operator, start));
+                i += operator.length();
+            } else if (Character.isDigit(c) || ((c == '-' || c == '.') && i + 1 < filter.length() && Character.isDigit(filter.charAt(i + 1)))) {
+                i++;
+                while (i < filter.length() && (Character.isDigit(filter.charAt(i)) || filter.charAt(i) == '.')) {
+                    i++;
+                }
+                result.add(new Token(TokenType.NUMBER, filter.substring(start, i), start));
+            } else if (Character.isLetter(c) || c == '_') {
+                while (i < filter.length() && (Character.isLetterOrDigit(filter.charAt(i)) || filter.charAt(i) == '_')) {
+                    i++;
+                }
+                result.add(new Token(TokenType.IDENTIFIER, filter.substring(start, i), start));
+            } else {
+                throw error(new Token(TokenType.END, "", start), "unexpected character '" + c + "'");
+            }
+        }
+        result.add(new Token(TokenType.END, "", filter.length()));
+        return result;
+    }
+
+    /**
+     * Lexical token of a partition filter
+     */
+    private static final class Token {
+        private final TokenType type;
+        private final String text;
+        private final int offset;
+
+        private Token(final TokenType type, final String text, final int offset) {
+            this.type = type;
+            this.text = text;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Literal value of a partition filter
+     */
+    private static final class Literal {
+        private final String text;
+        private final BigDecimal number;
+
+        private Literal(final String text, final boolean isNumber) {
+            this.text = text;
+            this.number = isNumber ? new BigDecimal(text) : null;
+        }
+
+        /**
+         * Compares this literal with a partition value, numerically when both are numbers
+         *
+         * @param value partition value
+         * @return negative, zero or positive as this literal is less than, equal to or greater than the value
+         */
+        private int compareTo(final String value) {
+            if (number != null) {
+                try {
+                    return number.compareTo(new BigDecimal(value));
+                } catch (final NumberFormatException e) {
+                    // Not a number, compare as strings
+                }
+            }
+            return text.compareTo(value);
+        }
+    }
+}
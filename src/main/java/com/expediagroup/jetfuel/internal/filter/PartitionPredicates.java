@@ -0,0 +1,216 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal.filter;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.Validate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Combines partition filter fragments into the predicate of a grouped INSERT query.
+ *
+ * Fragments are normally joined with OR.  In compact mode, fragments of the form (k1 = v1 AND k2 = v2) that share
+ * the same partition keys are rewritten using IN lists, and runs of at least {@value #MIN_RANGE_LENGTH} consecutive
+ * integers or dates are rewritten as BETWEEN ranges, e.g.
+ * <pre>
+ * (dt = '2019-01-01' AND hour = 0) OR (dt = '2019-01-01' AND hour = 1) OR ... OR (dt = '2019-01-03' AND hour = 23)
+ * (dt BETWEEN '2019-01-01' AND '2019-01-03' AND hour BETWEEN 0 AND 23)
+ * </pre>
+ * Integer ranges are only built for keys of an integer type, since a range over a decimal, float or double key would also
+ * match fractional values between the partitions.  Date ranges are only built for keys of the date type, since Hive
+ * compares string keys lexicographically and a range over dates stored as strings would also match any other value
+ * sorting between its bounds.
+ */
+@Slf4j
+public final class PartitionPredicates {
+
+    static final int MIN_RANGE_LENGTH = 3;
+
+    private static final Pattern PREDICATE = Pattern.compile("\\G(?: AND )?(\\w+) = ('(?:[^'\\\\]|\\\\.)*'|-?\\d+)");
+    private static final Pattern INTEGER = Pattern.compile("-?\\d+");
+    private static final Pattern ISO_DATE = Pattern.compile("'\\d{4}-\\d{2}-\\d{2}'");
+
+    private PartitionPredicates() {
+    }
+
+    /**
+     * Combines partition filter fragments into a single predicate
+     *
+     * @param partitionFilterFragments fragments, e.g. (trans_month = '2012-09')
+     * @param compact                  true to use IN lists and ranges where possible, false to join with OR
+     * @param integerKeys              lower case names of the partition keys of an integer type
+     * @param dateKeys                 lower case names of the partition keys of the date type
+     * @return predicate matching exactly the partitions of the fragments
+     */
+    public static String join(final Collection<String> partitionFilterFragments, final boolean compact, final Set<String> integerKeys, final Set<String> dateKeys) {
+        Validate.notEmpty(partitionFilterFragments, "partitionFilterFragments cannot be null/empty");
+        final String predicate = String.join(" OR ", partitionFilterFragments);
+        if (!compact || partitionFilterFragments.size() == 1) {
+            return predicate;
+        }
+
+        List<String> keys = null;
+        final List<List<String>> rows = new ArrayList<>();
+        for (final String partitionFilterFragment : partitionFilterFragments) {
+            final List<String> fragmentKeys = new ArrayList<>();
+            final List<String> values = new ArrayList<>();
+            if (!parseFragment(partitionFilterFragment, fragmentKeys, values) || (keys != null && !keys.equals(fragmentKeys))) {
+                return predicate;
+            }
+            keys = fragmentKeys;
+            rows.add(values);
+        }
+
+        final String compactPredicate = compact(keys, rows, 0, integerKeys, dateKeys);
+        log.info("Compacted partition predicate for {} partitions from {} to {} characters", rows.size(), predicate.length(), compactPredicate.length());
+        return compactPredicate;
+    }
+
+    /**
+     * Parses a fragment of the form (k1 = v1 AND k2 = v2)
+     *
+     * @return true when the fragment has this form, false otherwise
+     */
+    private static boolean parseFragment(final String partitionFilterFragment, final List<String> keys, final List<String> values) {
+        if (!partitionFilterFragment.startsWith("(") || !partitionFilterFragment.endsWith(")")) {
+            return false;
+        }
+        final String body = partitionFilterFragment.substring(1, partitionFilterFragment.length() - 1);
+        final Matcher matcher = PREDICATE.matcher(body);
+        int end = 0;
+        while (matcher.find()) {
+            keys.add(matcher.group(1));
+            values.add(matcher.group(2));
+            end = matcher.end();
+        }
+        return !keys.isEmpty() && end == body.length();
+    }
+
+    /**
+     * Builds a predicate for the rows from the partition key at the given depth onwards.
+     *
+     * Rows are grouped by their value for this key.  Values whose remaining keys compact to the same predicate are
+     * combined, so e.g. several days with the same hours become a single day range.
+     */
+    private static String compact(final List<String> keys, final List<List<String>> rows, final int depth, final Set<String> integerKeys,
+                                  final Set<String> dateKeys) {
+        final String key = keys.get(depth);
+        final boolean integerKey = integerKeys.contains(key.toLowerCase());
+        final boolean dateKey = dateKeys.contains(key.toLowerCase());
+        if (depth == keys.size() - 1) {
+            return getValuesPredicate(key, integerKey, dateKey, rows.stream().map(row -> row.get(depth)).collect(Collectors.toCollection(LinkedHashSet::new)));
+        }
+
+        final Map<String, List<List<String>>> rowsByValue = new LinkedHashMap<>();
+        rows.forEach(row -> rowsByValue.computeIfAbsent(row.get(depth), value -> new ArrayList<>()).add(row));
+
+        final Map<String, Set<String>> valuesByRemainder = new LinkedHashMap<>();
+        rowsByValue.forEach((value, valueRows) ->
+                valuesByRemainder.computeIfAbsent(compact(keys, valueRows, depth + 1, integerKeys, dateKeys), remainder -> new LinkedHashSet<>()).add(value));
+
+        final List<String> predicates = new ArrayList<>();
+        valuesByRemainder.forEach((remainder, values) -> predicates.add(String.format("(%s AND %s)", getValuesPredicate(key, integerKey, dateKey, values), remainder)));
+        return predicates.size() == 1 ? predicates.get(0) : "(" + String.join(" OR ", predicates) + ")";
+    }
+
+    /**
+     * Builds a predicate matching a set of values of one partition key
+     */
+    private static String getValuesPredicate(final String key, final boolean integerKey, final boolean dateKey, final Set<String> values) {
+        if (values.size() == 1) {
+            return String.format("%s = %s", key, values.iterator().next());
+        }
+
+        final List<List<String>> runs = getRuns(values, integerKey, dateKey);
+        final List<String> predicates = new ArrayList<>();
+        final List<String> singles = new ArrayList<>();
+        for (final List<String> run : runs) {
+            if (run.size() >= MIN_RANGE_LENGTH) {
+                predicates.add(String.format("%s BETWEEN %s AND %s", key, run.get(0), run.get(run.size() - 1)));
+            } else {
+                singles.addAll(run);
+            }
+        }
+        if (singles.size() == 1) {
+            predicates.add(String.format("%s = %s", key, singles.get(0)));
+        } else if (!singles.isEmpty()) {
+            predicates.add(String.format("%s IN (%s)", key, String.join(", ", singles)));
+        }
+        return predicates.size() == 1 ? predicates.get(0) : "(" + String.join(" OR ", predicates) + ")";
+    }
+
+    /**
+     * Splits values into runs of consecutive integers of an integer key or consecutive dates of a date key, in
+     * ascending order.  Any other values are returned as runs of one value in their original order.
+     */
+    private static List<List<String>> getRuns(final Set<String> values, final boolean integerKey, final boolean dateKey) {
+        try {
+            if (integerKey && values.stream().allMatch(value -> INTEGER.matcher(value).matches())) {
+                return getRuns(values, Long::valueOf, (first, second) -> second - first == 1);
+            }
+            if (dateKey && values.stream().allMatch(value -> ISO_DATE.matcher(value).matches())) {
+                return getRuns(values, value -> LocalDate.parse(unquote(value)), (first, second) -> first.until(second, ChronoUnit.DAYS) == 1);
+            }
+        } catch (final NumberFormatException | DateTimeParseException e) {
+            // Not valid integers or dates, use an IN list
+        }
+        final List<List<String>> runs = new ArrayList<>();
+        values.forEach(value -> runs.add(Collections.singletonList(value)));
+        return runs;
+    }
+
+    private static <T extends Comparable<T>> List<List<String>> getRuns(final Set<String> values, final Function<String, T> parser, final BiPredicate<T, T> isNext) {
+        final Map<String, T> parsed = new LinkedHashMap<>();
+        values.forEach(value -> parsed.put(value, parser.apply(value)));
+
+        final List<String> sorted = new ArrayList<>(values);
+        sorted.sort(Comparator.comparing(parsed::get));
+
+        final List<List<String>> runs = new ArrayList<>();
+        List<String> run = new ArrayList<>();
+        for (final String value : sorted) {
+            if (!run.isEmpty() && !isNext.test(parsed.get(run.get(run.size() - 1)), parsed.get(value))) {
+                runs.add(run);
+                run = new ArrayList<>();
+            }
+            run.add(value);
+        }
+        runs.add(run);
+        return runs;
+    }
+
+    private static String unquote(final String value) {
+        return value.substring(1, value.length() - 1);
+    }
+}
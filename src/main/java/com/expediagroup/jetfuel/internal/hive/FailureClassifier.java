@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal.hive;
+
+import java.net.SocketException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.thrift.transport.TTransportException;
+
+import com.expediagroup.jetfuel.exception.FailureType;
+
+/**
+ * Classifies failed Hive queries from the exception chain and the HiveServer2 query log.
+ */
+public final class FailureClassifier {
+
+    private static final Pattern CONNECTION = Pattern.compile(
+            "TTransportException|Connection reset|Broken pipe|Connection refused|Invalid SessionHandle|Invalid OperationHandle|Socket closed");
+    private static final Pattern SEMANTIC = Pattern.compile(
+            "Error while compiling statement|SemanticException|ParseException");
+    private static final Pattern AUTHORIZATION = Pattern.compile(
+            "AuthorizationException|HiveAccessControlException|Permission denied|does not have \\[\\w+\\] privilege");
+    private static final Pattern TASK_OOM = Pattern.compile(
+            "java\\.lang\\.OutOfMemoryError|Java heap space|GC overhead limit exceeded");
+    private static final Pattern CONTAINER_MEMORY = Pattern.compile(
+            "running beyond (physical|virtual) memory limits|Container killed on request\\. Exit code is 143");
+    private static final Pattern TIMEOUT = Pattern.compile(
+            "Timed out after \\d+ secs|failed to report status for \\d+ seconds");
+
+    private FailureClassifier() {
+    }
+
+    /**
+     * Classifies a failed query.
+     *
+     * Connection losses are recognized from the exception chain first, since the query log of a lost session cannot
+     * be read.  Authorization errors are recognized before semantic errors, since Hive reports both with SQL state
+     * class 42.  Semantic errors are recognized from the SQL state or the compiler's messages; the other failure types
+     * come from the messages of the exception chain and the query log.
+     *
+     * @param failure  exception thrown by the query
+     * @param queryLog HiveServer2 query log lines, possibly empty
+     * @return {@link FailureType}
+     */
+    public static FailureType classify(final Throwable failure, final List<String> queryLog) {
+        final List<Throwable> causes = ExceptionUtils.getThrowableList(failure);
+        for (final Throwable cause : causes) {
+            if (cause instanceof TTransportException || cause instanceof SocketException) {
+                return FailureType.CONNECTION;
+            }
+        }
+
+        final StringBuilder messages = new StringBuilder();
+        boolean invalidQuery = false;
+        for (final Throwable cause : causes) {
+            invalidQuery |= cause instanceof SQLException && StringUtils.startsWith(((SQLException) cause).getSQLState(), "42");
+            messages.append(cause.getMessage()).append('\n');
+        }
+        final String text = messages.toString();
+        final String details = text + String.join("\n", queryLog);
+
+        if (AUTHORIZATION.matcher(details).find()) {
+            return FailureType.AUTHORIZATION;
+        }
+        if (invalidQuery) {
+            return FailureType.SEMANTIC;
+        }
+        if (CONNECTION.matcher(text).find()) {
+            return FailureType.CONNECTION;
+        }
+        if (SEMANTIC.matcher(text).find()) {
+            return FailureType.SEMANTIC;
+        }
+        if (TASK_OOM.matcher(details).find()) {
+            return FailureType.TASK_OOM;
+        }
+        if (CONTAINER_MEMORY.matcher(details).find()) {
+            return FailureType.CONTAINER_MEMORY;
+        }
+        if (TIMEOUT.matcher(details).find()) {
+            return FailureType.TIMEOUT;
+        }
+        return FailureType.UNKNOWN;
+    }
+}
@@ -20,11 +20,29 @@ import java.sql.DriverManager;
 import java.sql.Statement;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.lang3.Validate;
+import org.apache.hive.jdbc.HiveStatement;
 
+import com.expediagroup.jetfuel.exception.FailureType;
 import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.exception.JetFuelQueryException;
+import com.expediagroup.jetfuel.internal.JetFuelListeners;
+import com.expediagroup.jetfuel.internal.RunContext;
+import com.expediagroup.jetfuel.internal.RunMetrics;
 import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.expediagroup.jetfuel.models.JetFuelRequest;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -35,27 +53,96 @@ import lombok.extern.slf4j.Slf4j;
 public class HiveDriverClient {
 
     private static final String DRIVER_NAME = "org.apache.hive.jdbc.HiveDriver";
+    private static final String VALIDATION_QUERY = "SELECT 1";
+
+    /**
+     * Connections idle for longer are validated before they run a query
+     */
+    private static final Duration VALIDATION_IDLE_TIME = Duration.ofMinutes(1);
+    private static final ScheduledExecutorService DEADLINES = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("jetfuel-query-deadline-%d").setDaemon(true).build());
+
+    /**
+     * Polling threads of idle sessions stop after this time and are started again by the next query
+     */
+    private static final long POLLER_KEEP_ALIVE_IN_SECONDS = 60;
+    private static final ThreadFactory POLLER_THREADS = new ThreadFactoryBuilder().setNameFormat("jetfuel-query-log-%d").setDaemon(true).build();
     private final JetFuelConfiguration jetFuelConfiguration;
+
+    /**
+     * Live metrics of the run, fed with the queries in flight and the progress they report, or null
+     */
+    private final RunMetrics runMetrics;
+
+    /**
+     * Listeners notified of every query run on the connection
+     */
+    private final JetFuelListeners listeners;
+
+    /**
+     * Pool the connection is acquired from and released to, or null to open and close connections directly
+     */
+    private final HiveSessionPool sessionPool;
+
+    /**
+     * Thread polling the query log of the running query, so that a slow log read only delays this session
+     */
+    private final ScheduledThreadPoolExecutor progressPoller;
+
+    /**
+     * Request whose queries the client is running, passed to the listeners
+     */
+    private JetFuelRequest request;
+
+    /**
+     * Context of the run, whose clock the run budget is measured from
+     */
+    private final RunContext runContext;
     private Connection connection;
 
+    /**
+     * When the connection was opened or last ran a query successfully, to tell whether it has been idle
+     */
+    private Instant lastUsed;
+
     /**
      * Constructor
      *
      * @param jetFuelConfiguration {@link JetFuelConfiguration}
+     * @param runContext           {@link RunContext} providing the metrics, listeners and session pool of the run
      * @throws ClassNotFoundException Thrown if the Hive driver cannot be loaded
      */
-    public HiveDriverClient(final JetFuelConfiguration jetFuelConfiguration) throws ClassNotFoundException {
+    public HiveDriverClient(final JetFuelConfiguration jetFuelConfiguration, final RunContext runContext) throws ClassNotFoundException {
         Validate.notNull(jetFuelConfiguration, "jetFuelConfiguration cannot be null");
+        Validate.notNull(runContext, "runContext cannot be null");
         this.jetFuelConfiguration = jetFuelConfiguration;
+        this.runMetrics = runContext.getRunMetrics();
+        this.listeners = runContext.getListeners();
+        this.sessionPool = runContext.getSessionPool();
+        this.progressPoller = new ScheduledThreadPoolExecutor(1, POLLER_THREADS);
+        this.progressPoller.setKeepAliveTime(POLLER_KEEP_ALIVE_IN_SECONDS, TimeUnit.SECONDS);
+        this.progressPoller.allowCoreThreadTimeOut(true);
+        this.progressPoller.setRemoveOnCancelPolicy(true);
+        this.runContext = runContext;
 
         Class.forName(DRIVER_NAME);
     }
 
+    /**
+     * Sets the request whose queries the client runs next, passed to the listeners of those queries.
+     *
+     * @param request {@link JetFuelRequest}, or null outside of a request
+     */
+    public void setRequest(final JetFuelRequest request) {
+        this.request = request;
+    }
+
     /**
      * Runs Hive query.
      *
      * @param query Hive query
-     * @throws JetFuelException thrown if any exception happens while running the query
+     * @throws JetFuelException thrown if the connection is not open
+     * @throws JetFuelQueryException thrown if any exception happens while running the query, classified by its cause
      */
     public void runQuery(final String query) throws JetFuelException {
         Validate.notBlank(query, "Query cannot be null/empty/blank");
@@ -65,30 +152,315 @@ public class HiveDriverClient {
         }
 
         final Instant start = Instant.now();
+        final Duration timeout = getTimeout(start);
+        if (timeout != null && timeout.isZero()) {
+            final String errorMessage = String.format("Run budget of %s minutes is spent, not running query %s", jetFuelConfiguration.getRunBudgetInMinutes(), query);
+            log.error(errorMessage);
+            throw new JetFuelQueryException(errorMessage, null, FailureType.BUDGET_EXHAUSTED);
+        }
 
-        try (final Statement statement = connection.createStatement()) {
+        Statement statement = null;
+        QueryProgressMonitor monitor = null;
+        ScheduledFuture<?> deadline = null;
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        if (runMetrics != null) {
+            runMetrics.startQuery();
+        }
+        listeners.onQueryStart(request, query);
+        try {
+            statement = connection.createStatement();
+            monitor = startProgressMonitor(statement);
+            deadline = scheduleCancel(statement, timeout, cancelled);
 
             log.info("Running query {}", query);
             statement.execute(query);
 
-            log.info("Query Successful ({})", Formatter.formatDuration(Duration.between(start, Instant.now())));
+            closeProgressMonitor(monitor);
+            lastUsed = Instant.now();
+            notifyQueryEnd(query, start, null);
+            log.info("Query Successful ({}){}", Formatter.formatDuration(Duration.between(start, Instant.now())), getRemainingBudget());
         } catch (final Exception e) {
-            final String errorMessage = String.format("Query Failed (%s): %s",
+            closeProgressMonitor(monitor);
+            final FailureType failureType = cancelled.get()
+                    ? FailureType.TIMEOUT
+                    : FailureClassifier.classify(e, monitor == null ? getQueryLog(statement) : monitor.getQueryLog());
+            final String errorMessage = String.format("Query Failed (%s, %s): %s",
                     Formatter.formatDuration(Duration.between(start, Instant.now())),
-                    e.getMessage());
-            log.info(errorMessage);
-            throw new JetFuelException(errorMessage, e);
+                    failureType,
+                    cancelled.get() ? String.format("cancelled after its deadline of %s", Formatter.formatDuration(timeout)) : e.getMessage());
+            log.info("{}{}", errorMessage, getRemainingBudget());
+            notifyQueryEnd(query, start, failureType);
+            throw new JetFuelQueryException(errorMessage, e, failureType);
+        } finally {
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+            closeStatement(statement);
+            if (runMetrics != null) {
+                runMetrics.endQuery();
+            }
         }
     }
 
     /**
-     * Open Hive JDBC connection.
+     * Notifies the listeners that a query ended, without computing its duration when there is no listener.
+     *
+     * @param query       Hive query
+     * @param start       start of the query
+     * @param failureType cause of the failure, or null if the query succeeded
      */
-    public void openConnection() throws JetFuelException {
+    private void notifyQueryEnd(final String query, final Instant start, final FailureType failureType) {
+        if (!listeners.isEmpty()) {
+            listeners.onQueryEnd(request, query, Duration.between(start, Instant.now()).toMillis(), failureType);
+        }
+    }
+
+    /**
+     * Retrieves how long a query starting now may run: the lower of queryTimeoutInMinutes and the rest of the run budget.
+     *
+     * @param start start of the query
+     * @return time the query may run, zero once the run budget is spent, or null without a limit
+     */
+    private Duration getTimeout(final Instant start) {
+        Duration timeout = isPositive(jetFuelConfiguration.getQueryTimeoutInMinutes()) ? Duration.ofMinutes(jetFuelConfiguration.getQueryTimeoutInMinutes()) : null;
+        final Instant runDeadline = getRunDeadline();
+        if (runDeadline != null) {
+            final Duration remaining = Duration.between(start, runDeadline);
+            if (remaining.isNegative() || remaining.isZero()) {
+                return Duration.ZERO;
+            }
+            if (timeout == null || remaining.compareTo(timeout) < 0) {
+                timeout = remaining;
+            }
+        }
+        return timeout;
+    }
+
+    /**
+     * Cancels a statement once its query has run for the given time.
+     *
+     * @param statement statement about to run a query
+     * @param timeout   time the query may run, or null without a limit
+     * @param cancelled set when the statement is cancelled
+     * @return the scheduled cancellation, or null without a limit
+     */
+    private static ScheduledFuture<?> scheduleCancel(final Statement statement, final Duration timeout, final AtomicBoolean cancelled) {
+        if (timeout == null) {
+            return null;
+        }
+        return DEADLINES.schedule(() -> {
+            log.warn("Query exceeded its deadline of {}, cancelling it", Formatter.formatDuration(timeout));
+            cancelled.set(true);
+            try {
+                statement.cancel();
+            } catch (final Exception e) {
+                log.warn("Error cancelling query: {}", e.getMessage());
+            }
+        }, timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Describes the rest of the run budget for the query logs.
+     *
+     * @return remaining run budget, or an empty String without a budget
+     */
+    private String getRemainingBudget() {
+        final Instant runDeadline = getRunDeadline();
+        if (runDeadline == null) {
+            return "";
+        }
+        final Duration remaining = Duration.between(Instant.now(), runDeadline);
+        return String.format(", run budget remaining %s", Formatter.formatDuration(remaining.isNegative() ? Duration.ZERO : remaining));
+    }
+
+    /**
+     * Retrieves the end of the run budget, measured from the start of the run shared by every session.
+     *
+     * @return end of the run budget, or null without a budget
+     */
+    private Instant getRunDeadline() {
+        if (!isPositive(jetFuelConfiguration.getRunBudgetInMinutes())) {
+            return null;
+        }
+        return runContext.startClock().plus(Duration.ofMinutes(jetFuelConfiguration.getRunBudgetInMinutes()));
+    }
+
+    private static boolean isPositive(final Long value) {
+        return value != null && value > 0;
+    }
+
+    /**
+     * Starts following the query log of a statement, unless progressIntervalInSeconds disables it.
+     *
+     * @param statement statement about to run a query
+     * @return the started monitor, or null if progress is not followed
+     */
+    private QueryProgressMonitor startProgressMonitor(final Statement statement) {
+        final Integer interval = jetFuelConfiguration.getProgressIntervalInSeconds();
+        if (!(statement instanceof HiveStatement) || interval == null || interval < 1) {
+            return null;
+        }
+        final QueryProgressMonitor monitor = new QueryProgressMonitor((HiveStatement) statement, runMetrics);
+        monitor.start(progressPoller, interval);
+        return monitor;
+    }
+
+    /**
+     * Stops following the query log of a statement, if it was followed.
+     *
+     * @param monitor monitor, or null if progress is not followed
+     */
+    private static void closeProgressMonitor(final QueryProgressMonitor monitor) {
+        if (monitor != null) {
+            monitor.close();
+        }
+    }
+
+    /**
+     * Reads the HiveServer2 log of the last query run by a statement.
+     *
+     * @param statement statement, or null if it could not be created
+     * @return query log lines, empty if the log is not available
+     */
+    private static List<String> getQueryLog(final Statement statement) {
+        if (!(statement instanceof HiveStatement)) {
+            return Collections.emptyList();
+        }
         try {
-            if (connection == null) {
-                connection = DriverManager.getConnection(jetFuelConfiguration.getHiveServer2Url(), jetFuelConfiguration.getHiveServer2Username(), jetFuelConfiguration.getHiveServer2Password());
+            return ((HiveStatement) statement).getQueryLog();
+        } catch (final Exception e) {
+            log.debug("Unable to read the query log: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Closes a statement, logging failures.
+     *
+     * @param statement statement, or null if it could not be created
+     */
+    private static void closeStatement(final Statement statement) {
+        if (statement == null) {
+            return;
+        }
+        try {
+            statement.close();
+        } catch (final Exception e) {
+            log.warn("Error closing statement: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reconnects when the connection was closed, or has been idle for a while and no longer answers a validation
+     * query, such as after a HiveServer2 failover or an idle timeout.
+     *
+     * @param sessionQueries session SET queries to replay on a new connection
+     */
+    public void ensureConnection(final List<String> sessionQueries) {
+        if (connection != null && lastUsed != null && Duration.between(lastUsed, Instant.now()).compareTo(VALIDATION_IDLE_TIME) < 0) {
+            return;
+        }
+        if (!isConnectionValid()) {
+            log.warn("Connection is no longer valid, reconnecting");
+            reconnect(sessionQueries);
+        }
+    }
+
+    /**
+     * Checks that the connection is open and answers a validation query.  Hive JDBC does not support
+     * {@link Connection#isValid(int)}, so a trivial query is run instead.
+     *
+     * @return true if the connection can run queries
+     */
+    boolean isConnectionValid() {
+        if (connection == null) {
+            return false;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(VALIDATION_QUERY);
+            lastUsed = Instant.now();
+            return true;
+        } catch (final Exception e) {
+            log.warn("Connection validation failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Opens a new connection and replays the session SET queries on it, retrying with exponential backoff and jitter
+     * up to reconnectAttempts times.
+     *
+     * @param sessionQueries session SET queries to replay on the new connection
+     * @throws JetFuelQueryException thrown with {@link FailureType#CONNECTION} if no attempt succeeds, or as thrown by
+     *                               a replayed query failing for another reason
+     */
+    public void reconnect(final List<String> sessionQueries) {
+        Validate.notNull(sessionQueries, "sessionQueries cannot be null");
+        final int attempts = jetFuelConfiguration.getReconnectAttempts();
+        JetFuelException lastFailure = null;
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            closeConnection();
+            try {
+                openConnection();
+                sessionQueries.forEach(this::runQuery);
+                log.info("Reconnected on attempt {} of {}", attempt, attempts);
+                return;
+            } catch (final JetFuelQueryException e) {
+                if (e.getFailureType() != FailureType.CONNECTION) {
+                    throw e;
+                }
+                lastFailure = e;
+            } catch (final JetFuelException e) {
+                lastFailure = e;
             }
+
+            if (attempt < attempts) {
+                final long backoff = getBackoffInMillis(attempt);
+                log.warn("Reconnect attempt {} of {} failed, retrying in {} ms: {}", attempt, attempts, backoff, lastFailure.getMessage());
+                sleep(backoff);
+            }
+        }
+        final String errorMessage = String.format("Unable to reconnect after %d attempts", attempts);
+        log.error(errorMessage);
+        throw new JetFuelQueryException(errorMessage, lastFailure, FailureType.CONNECTION);
+    }
+
+    /**
+     * Retrieves the wait before the next reconnect attempt: reconnectBackoffInSeconds doubled after every failed
+     * attempt, of which a random half is waited so that sessions dropped together do not reconnect together.
+     *
+     * @param attempt number of the failed attempt, starting at 1
+     * @return wait in milliseconds
+     */
+    private long getBackoffInMillis(final int attempt) {
+        final long backoff = TimeUnit.SECONDS.toMillis(jetFuelConfiguration.getReconnectBackoffInSeconds()) << Math.min(attempt - 1, 20);
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JetFuelException("Interrupted while reconnecting", e);
+        }
+    }
+
+    /**
+     * Open Hive JDBC connection, waiting for a free session when the connection comes from a session pool.
+     */
+    public void openConnection() throws JetFuelException {
+        if (connection != null) {
+            return;
+        }
+        if (sessionPool != null) {
+            connection = sessionPool.acquire(jetFuelConfiguration);
+            lastUsed = Instant.now();
+            return;
+        }
+        try {
+            connection = DriverManager.getConnection(jetFuelConfiguration.getHiveServer2Url(), jetFuelConfiguration.getHiveServer2Username(), jetFuelConfiguration.getHiveServer2Password());
+            lastUsed = Instant.now();
         } catch (final Exception e) {
             final String errorMessage = String.format("Error opening connection: %s ", e.getMessage());
             throw new JetFuelException(errorMessage, e);
@@ -96,17 +468,40 @@ public class HiveDriverClient {
     }
 
     /**
-     * Close Hive JDBC connection.
+     * Open Hive JDBC connection unless the session pool has no free session, for sessions the run can do without.
+     *
+     * @return true if the connection is open
+     */
+    public boolean tryOpenConnection() throws JetFuelException {
+        if (connection == null && sessionPool != null) {
+            connection = sessionPool.tryAcquire(jetFuelConfiguration);
+            if (connection == null) {
+                return false;
+            }
+            lastUsed = Instant.now();
+            return true;
+        }
+        openConnection();
+        return true;
+    }
+
+    /**
+     * Close Hive JDBC connection, or release it to the session pool it came from.
      */
     public void closeConnection() {
         try {
-            if (connection != null && !connection.isClosed()) {
+            if (connection != null && sessionPool != null) {
+                sessionPool.release(connection);
+            } else if (connection != null && !connection.isClosed()) {
                 connection.close();
-                connection = null;
             }
         } catch (final Exception e) {
             final String errorMessage = String.format("Error closing connection: %s ", e.getMessage());
             log.warn(errorMessage);
+        } finally {
+            // A connection that failed or was closed by the server cannot be reused
+            connection = null;
+            lastUsed = null;
         }
     }
 }
@@ -0,0 +1,211 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal.hive;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+import org.apache.commons.lang3.Validate;
+
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pool of HiveServer2 connections shared by the tables of a batch, capping the sessions open at once.
+ *
+ * Released connections are kept open for the next table with the same HiveServer2 URL and user, after a Hive RESET
+ * restores their session configuration, since every table sets its own compression and memory settings.  A connection
+ * that cannot be reset is closed.
+ */
+@Slf4j
+public class HiveSessionPool implements AutoCloseable {
+
+    private static final String RESET_QUERY = "RESET";
+
+    private final int maxSessions;
+    private final Semaphore permits;
+
+    /**
+     * Open connections not in use, by HiveServer2 URL and user
+     */
+    private final Map<String, Deque<Connection>> idleConnections = new HashMap<>();
+
+    /**
+     * Connections in use, with the key they are kept under once released
+     */
+    private final Map<Connection, String> borrowedConnections = new IdentityHashMap<>();
+
+    private boolean closed;
+
+    /**
+     * Constructor
+     *
+     * @param maxSessions maximum number of sessions in use at once across the batch
+     */
+    public HiveSessionPool(final int maxSessions) {
+        Validate.isTrue(maxSessions > 0, "maxSessions must be positive");
+        this.maxSessions = maxSessions;
+        this.permits = new Semaphore(maxSessions, true);
+    }
+
+    /**
+     * Returns the maximum number of sessions in use at once.
+     *
+     * @return maximum number of sessions
+     */
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    /**
+     * Acquires a connection, waiting for a session to be released if the pool is exhausted.
+     *
+     * @param jetFuelConfiguration {@link JetFuelConfiguration} holding the HiveServer2 URL and credentials
+     * @return open connection
+     * @throws JetFuelException thrown if interrupted while waiting, or if a new connection cannot be opened
+     */
+    public Connection acquire(final JetFuelConfiguration jetFuelConfiguration) throws JetFuelException {
+        Validate.notNull(jetFuelConfiguration, "jetFuelConfiguration cannot be null");
+        try {
+            permits.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JetFuelException("Interrupted while waiting for a HiveServer2 session", e);
+        }
+        return borrow(jetFuelConfiguration);
+    }
+
+    /**
+     * Acquires a connection if a session is free, without waiting.
+     *
+     * @param jetFuelConfiguration {@link JetFuelConfiguration} holding the HiveServer2 URL and credentials
+     * @return open connection, or null if the pool is exhausted
+     * @throws JetFuelException thrown if a new connection cannot be opened
+     */
+    public Connection tryAcquire(final JetFuelConfiguration jetFuelConfiguration) throws JetFuelException {
+        Validate.notNull(jetFuelConfiguration, "jetFuelConfiguration cannot be null");
+        return permits.tryAcquire() ? borrow(jetFuelConfiguration) : null;
+    }
+
+    /**
+     * Takes an idle connection for the configured HiveServer2 URL and user, or opens a new one, once a permit is held.
+     *
+     * @param jetFuelConfiguration {@link JetFuelConfiguration}
+     * @return open connection
+     */
+    private Connection borrow(final JetFuelConfiguration jetFuelConfiguration) {
+        final String key = String.format("%s %s", jetFuelConfiguration.getHiveServer2Url(), jetFuelConfiguration.getHiveServer2Username());
+        synchronized (this) {
+            if (closed) {
+                permits.release();
+                throw new JetFuelException("Session pool is closed");
+            }
+            final Deque<Connection> idle = idleConnections.get(key);
+            if (idle != null && !idle.isEmpty()) {
+                final Connection connection = idle.pop();
+                borrowedConnections.put(connection, key);
+                return connection;
+            }
+        }
+
+        final Connection connection;
+        try {
+            connection = DriverManager.getConnection(jetFuelConfiguration.getHiveServer2Url(), jetFuelConfiguration.getHiveServer2Username(),
+                    jetFuelConfiguration.getHiveServer2Password());
+        } catch (final SQLException e) {
+            permits.release();
+            throw new JetFuelException(String.format("Error opening connection: %s ", e.getMessage()), e);
+        }
+        synchronized (this) {
+            borrowedConnections.put(connection, key);
+        }
+        return connection;
+    }
+
+    /**
+     * Releases a connection acquired from the pool, keeping it open for reuse if it can be reset.
+     *
+     * @param connection connection acquired from the pool
+     */
+    public void release(final Connection connection) {
+        Validate.notNull(connection, "connection cannot be null");
+        final String key;
+        synchronized (this) {
+            key = borrowedConnections.remove(connection);
+        }
+        Validate.isTrue(key != null, "connection was not acquired from the pool");
+
+        try {
+            if (reset(connection)) {
+                synchronized (this) {
+                    if (!closed) {
+                        idleConnections.computeIfAbsent(key, k -> new ArrayDeque<>()).push(connection);
+                        return;
+                    }
+                }
+            }
+            close(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Restores the default session configuration of a connection.
+     *
+     * @param connection connection
+     * @return true if the connection is open and was reset
+     */
+    private static boolean reset(final Connection connection) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(RESET_QUERY);
+            return true;
+        } catch (final Exception e) {
+            log.warn("Unable to reset connection, closing it: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static void close(final Connection connection) {
+        try {
+            connection.close();
+        } catch (final Exception e) {
+            log.warn("Error closing connection: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the idle connections; connections still in use are closed when released.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            idleConnections.values().forEach(idle -> idle.forEach(HiveSessionPool::close));
+            idleConnections.clear();
+        }
+    }
+}
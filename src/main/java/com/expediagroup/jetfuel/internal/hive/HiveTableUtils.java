@@ -15,16 +15,32 @@
  */
 package com.expediagroup.jetfuel.internal.hive;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.hadoop.hive.common.StatsSetupConst;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.metastore.HiveMetaStoreClient;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.Warehouse;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.metastore.api.hive_metastoreConstants;
 
 import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.models.PartitionSpec;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -32,9 +48,21 @@ import lombok.extern.slf4j.Slf4j;
  * Hive Metastore client to retrive metadata information for tables
  */
 @Slf4j
-public class HiveTableUtils {
+public class HiveTableUtils implements AutoCloseable {
 
-    private final HiveMetaStoreClient client;
+    /**
+     * Partition value Hive stores the rows with a null partition key in
+     */
+    public static final String DEFAULT_PARTITION_NAME = "__HIVE_DEFAULT_PARTITION__";
+
+    private static final Set<String> INTEGER_TYPES = ImmutableSet.of("tinyint", "smallint", "int", "bigint");
+    private static final Set<String> NUMERIC_TYPES = ImmutableSet.<String>builder().addAll(INTEGER_TYPES).add("float", "double").build();
+    private static final int ADD_PARTITIONS_BATCH_SIZE = 100;
+
+    /**
+     * Synchronized, so that the tables of a batch can share the client
+     */
+    private final IMetaStoreClient client;
 
     /**
      * Constructor
@@ -44,7 +72,15 @@ public class HiveTableUtils {
      */
     public HiveTableUtils(final HiveConf hiveConf) throws MetaException {
         Validate.notNull(hiveConf, "HiveConf cannot be null");
-        client = new HiveMetaStoreClient(hiveConf);
+        client = HiveMetaStoreClient.newSynchronizedClient(new HiveMetaStoreClient(hiveConf));
+    }
+
+    /**
+     * Closes the metastore client.
+     */
+    @Override
+    public void close() {
+        client.close();
     }
 
     /**
@@ -116,4 +152,409 @@ public class HiveTableUtils {
             throw new JetFuelException(errorMessage, e);
         }
     }
+
+    /**
+     * Retrieves the totalSize statistic of a partition
+     *
+     * @param partition {@link Partition}
+     * @return size of the partition in bytes, or -1 when the statistic is missing
+     */
+    public long getTotalSize(final Partition partition) {
+        Validate.notNull(partition, "partition cannot be null");
+        if (partition.getParameters() == null) {
+            return -1;
+        }
+        return NumberUtils.toLong(partition.getParameters().get(StatsSetupConst.TOTAL_SIZE), -1);
+    }
+
+    /**
+     * Retrieves the totalSize statistic of an unpartitioned table
+     *
+     * @param table {@link Table}
+     * @return size of the table in bytes, or -1 when the statistic is missing
+     */
+    public long getTableTotalSize(final Table table) {
+        Validate.notNull(table, "table cannot be null");
+        if (table.getParameters() == null) {
+            return -1;
+        }
+        return NumberUtils.toLong(table.getParameters().get(StatsSetupConst.TOTAL_SIZE), -1);
+    }
+
+    /**
+     * Retrieves the numFiles statistic of a partition
+     *
+     * @param partition {@link Partition}
+     * @return number of files in the partition, or -1 when the statistic is missing
+     */
+    public long getNumFiles(final Partition partition) {
+        Validate.notNull(partition, "partition cannot be null");
+        if (partition.getParameters() == null) {
+            return -1;
+        }
+        return NumberUtils.toLong(partition.getParameters().get(StatsSetupConst.NUM_FILES), -1);
+    }
+
+    /**
+     * Retrieves the rawDataSize statistic of a partition
+     *
+     * @param partition {@link Partition}
+     * @return uncompressed size of the partition data in bytes, or -1 when the statistic is missing
+     */
+    public long getRawDataSize(final Partition partition) {
+        Validate.notNull(partition, "partition cannot be null");
+        if (partition.getParameters() == null) {
+            return -1;
+        }
+        return NumberUtils.toLong(partition.getParameters().get(StatsSetupConst.RAW_DATA_SIZE), -1);
+    }
+
+    /**
+     * Retrieves the time a partition was last created or altered
+     *
+     * @param partition {@link Partition}
+     * @return transient_lastDdlTime in seconds since the epoch, or -1 when the parameter is missing
+     */
+    public long getLastDdlTime(final Partition partition) {
+        Validate.notNull(partition, "partition cannot be null");
+        if (partition.getParameters() == null) {
+            return -1;
+        }
+        return NumberUtils.toLong(partition.getParameters().get(hive_metastoreConstants.DDL_TIME), -1);
+    }
+
+    /**
+     * Finds the source partitions that do not need to be fueled again
+     *
+     * A source partition is up to date when the target partition with the same values exists, was last written after
+     * the source partition and is not empty while the source partition has data.  Partitions without a
+     * transient_lastDdlTime are never considered up to date.
+     *
+     * @param sourcePartitions partitions of the source table, as listed by {@link #getPartitionSpecs(Table)}
+     * @param targetTable      target {@link Table}
+     * @return partition filter fragments of the up to date source partitions
+     * @throws JetFuelException thrown when unable to retrieve partitions
+     */
+    public Set<String> getUpToDatePartitions(final List<PartitionSpec> sourcePartitions, final Table targetTable) throws JetFuelException {
+        Validate.notNull(sourcePartitions, "sourcePartitions cannot be null");
+        Validate.notNull(targetTable, "targetTable cannot be null");
+
+        final Map<Map<String, String>, Partition> targetPartitions = new HashMap<>();
+        for (final PartitionSpec partitionSpec : getPartitionSpecs(targetTable)) {
+            targetPartitions.put(partitionSpec.getValues(), partitionSpec.getPartition());
+        }
+
+        final Set<String> upToDatePartitions = new HashSet<>();
+        for (final PartitionSpec partitionSpec : sourcePartitions) {
+            final Partition targetPartition = targetPartitions.get(partitionSpec.getValues());
+            if (targetPartition != null && isUpToDate(partitionSpec.getPartition(), targetPartition)) {
+                upToDatePartitions.add(partitionSpec.getFilterFragment());
+            }
+        }
+
+        log.info("{} of {} target partitions are up to date", upToDatePartitions.size(), targetPartitions.size());
+        return upToDatePartitions;
+    }
+
+    /**
+     * Determines if a target partition still matches its source partition
+     *
+     * @param sourcePartition source {@link Partition}
+     * @param targetPartition target {@link Partition}
+     * @return true when the target partition was written after the last change to the source partition
+     */
+    private boolean isUpToDate(final Partition sourcePartition, final Partition targetPartition) {
+        final long sourceDdlTime = getLastDdlTime(sourcePartition);
+        final long targetDdlTime = getLastDdlTime(targetPartition);
+        if (sourceDdlTime < 0 || targetDdlTime < sourceDdlTime) {
+            return false;
+        }
+        return getTotalSize(targetPartition) != 0 || getTotalSize(sourcePartition) == 0;
+    }
+
+    /**
+     * Retrieves all partitions of a table
+     *
+     * @param databaseName database name
+     * @param tableName    table name
+     * @return list of {@link Partition}
+     * @throws JetFuelException thrown when unable to retrieve partitions
+     */
+    public List<Partition> getAllPartitions(final String databaseName, final String tableName) throws JetFuelException {
+        Validate.notBlank(databaseName, "DatabaseName cannot be null/empty/blank");
+        Validate.notBlank(tableName, "TableName cannot be null/empty/blank");
+        try {
+            return client.listPartitions(databaseName, tableName, (short) -1);
+        } catch (final Exception e) {
+            final String errorMessage = String.format("Error retrieving partitions %s.%s: %s ", databaseName, tableName, e.getMessage());
+            throw new JetFuelException(errorMessage, e);
+        }
+    }
+
+    /**
+     * Retrieves the names of all tables of a database
+     *
+     * @param databaseName database name
+     * @return table names
+     * @throws JetFuelException thrown when unable to retrieve the table names
+     */
+    public List<String> getTableNames(final String databaseName) throws JetFuelException {
+        Validate.notBlank(databaseName, "DatabaseName cannot be null/empty/blank");
+        try {
+            return client.getAllTables(databaseName);
+        } catch (final Exception e) {
+            final String errorMessage = String.format("Error retrieving tables of %s: %s ", databaseName, e.getMessage());
+            throw new JetFuelException(errorMessage, e);
+        }
+    }
+
+    /**
+     * Retrieves tables of a database by name, in one metastore call
+     *
+     * @param databaseName database name
+     * @param tableNames   table names
+     * @return list of {@link Table}, without the tables that do not exist
+     * @throws JetFuelException thrown when unable to retrieve the tables
+     */
+    public List<Table> getTables(final String databaseName, final List<String> tableNames) throws JetFuelException {
+        Validate.notBlank(databaseName, "DatabaseName cannot be null/empty/blank");
+        Validate.notNull(tableNames, "tableNames cannot be null");
+        try {
+            return client.getTableObjectsByName(databaseName, tableNames);
+        } catch (final Exception e) {
+            final String errorMessage = String.format("Error retrieving tables of %s: %s ", databaseName, e.getMessage());
+            throw new JetFuelException(errorMessage, e);
+        }
+    }
+
+    /**
+     * Retrieves the names of all partitions of a table
+     *
+     * @param databaseName database name
+     * @param tableName    table name
+     * @return partition names, such as p1=a/p2=b
+     * @throws JetFuelException thrown when unable to retrieve the partition names
+     */
+    public List<String> getPartitionNames(final String databaseName, final String tableName) throws JetFuelException {
+        Validate.notBlank(databaseName, "DatabaseName cannot be null/empty/blank");
+        Validate.notBlank(tableName, "TableName cannot be null/empty/blank");
+        try {
+            return client.listPartitionNames(databaseName, tableName, (short) -1);
+        } catch (final Exception e) {
+            final String errorMessage = String.format("Error retrieving partition names %s.%s: %s ", databaseName, tableName, e.getMessage());
+            throw new JetFuelException(errorMessage, e);
+        }
+    }
+
+    /**
+     * Retrieves partitions of a table by name, in one metastore call
+     *
+     * @param databaseName   database name
+     * @param tableName      table name
+     * @param partitionNames partition names, such as p1=a/p2=b
+     * @return list of {@link Partition}
+     * @throws JetFuelException thrown when unable to retrieve the partitions
+     */
+    public List<Partition> getPartitions(final String databaseName, final String tableName, final List<String> partitionNames) throws JetFuelException {
+        Validate.notBlank(databaseName, "DatabaseName cannot be null/empty/blank");
+        Validate.notBlank(tableName, "TableName cannot be null/empty/blank");
+        Validate.notNull(partitionNames, "partitionNames cannot be null");
+        try {
+            return client.getPartitionsByNames(databaseName, tableName, partitionNames);
+        } catch (final Exception e) {
+            final String errorMessage = String.format("Error retrieving partitions %s.%s: %s ", databaseName, tableName, e.getMessage());
+            throw new JetFuelException(errorMessage, e);
+        }
+    }
+
+    /**
+     * Registers partitions in the metastore, skipping the ones that already exist
+     *
+     * @param partitions {@link Partition}s to add, all of the same table
+     * @throws JetFuelException thrown when unable to add the partitions
+     */
+    public void addPartitions(final List<Partition> partitions) throws JetFuelException {
+        Validate.notNull(partitions, "partitions cannot be null");
+        for (final List<Partition> batch : Lists.partition(partitions, ADD_PARTITIONS_BATCH_SIZE)) {
+            try {
+                client.add_partitions(batch, true, false);
+                log.info("Added {} partitions", batch.size());
+            } catch (final Exception e) {
+                final String errorMessage = String.format("Error adding partitions: %s ", e.getMessage());
+                throw new JetFuelException(errorMessage, e);
+            }
+        }
+    }
+
+    /**
+     * Replaces the metadata of existing partitions in the metastore
+     *
+     * @param databaseName database name
+     * @param tableName    table name
+     * @param partitions   {@link Partition}s to alter, all of the table
+     * @throws JetFuelException thrown when unable to alter the partitions
+     */
+    public void alterPartitions(final String databaseName, final String tableName, final List<Partition> partitions) throws JetFuelException {
+        Validate.notNull(partitions, "partitions cannot be null");
+        for (final List<Partition> batch : Lists.partition(partitions, ADD_PARTITIONS_BATCH_SIZE)) {
+            try {
+                client.alter_partitions(databaseName, tableName, batch);
+                log.info("Altered {} partitions", batch.size());
+            } catch (final Exception e) {
+                final String errorMessage = String.format("Error altering partitions: %s ", e.getMessage());
+                throw new JetFuelException(errorMessage, e);
+            }
+        }
+    }
+
+    /**
+     * Builds the directory name of a partition, e.g. trans_month=2012-09/region=3
+     *
+     * @param table     {@link Table}
+     * @param partition {@link Partition} of the table
+     * @return partition name
+     * @throws JetFuelException thrown when the partition values do not match the partition keys
+     */
+    public String getPartitionName(final Table table, final Partition partition) throws JetFuelException {
+        Validate.notNull(table, "table cannot be null");
+        Validate.notNull(partition, "partition cannot be null");
+        try {
+            return Warehouse.makePartName(table.getPartitionKeys(), partition.getValues());
+        } catch (final MetaException e) {
+            throw new JetFuelException(String.format("Error building partition name: %s", e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Retrieves the names of the partition keys of a table
+     *
+     * @param table {@link Table}
+     * @return lower case partition key names
+     */
+    public Set<String> getPartitionKeyNames(final Table table) {
+        Validate.notNull(table, "table cannot be null");
+        return table.getPartitionKeys().stream()
+                .map(partitionKey -> partitionKey.getName().toLowerCase())
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Retrieves the names of the partition keys of an integer type (tinyint, smallint, int or bigint)
+     *
+     * @param table {@link Table}
+     * @return lower case partition key names
+     */
+    public Set<String> getIntegerPartitionKeys(final Table table) {
+        Validate.notNull(table, "table cannot be null");
+        return table.getPartitionKeys().stream()
+                .filter(partitionKey -> INTEGER_TYPES.contains(partitionKey.getType().toLowerCase()))
+                .map(partitionKey -> partitionKey.getName().toLowerCase())
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Retrieves the names of the partition keys of the date type
+     *
+     * @param table {@link Table}
+     * @return lower case partition key names
+     */
+    public Set<String> getDatePartitionKeys(final Table table) {
+        Validate.notNull(table, "table cannot be null");
+        return table.getPartitionKeys().stream()
+                .filter(partitionKey -> "date".equalsIgnoreCase(partitionKey.getType()))
+                .map(partitionKey -> partitionKey.getName().toLowerCase())
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Retrieves all partitions of a table with their values and a filter matching each of them
+     *
+     * @param table {@link Table}
+     * @return list of {@link PartitionSpec}, in metastore order
+     * @throws JetFuelException thrown when unable to retrieve partitions
+     */
+    public List<PartitionSpec> getPartitionSpecs(final Table table) throws JetFuelException {
+        Validate.notNull(table, "table cannot be null");
+        final List<FieldSchema> partitionKeys = table.getPartitionKeys();
+        final List<PartitionSpec> partitionSpecs = new ArrayList<>();
+        for (final Partition partition : getAllPartitions(table.getDbName(), table.getTableName())) {
+            final String filterFragment = getPartitionFilterFragment(table, partition);
+            final Map<String, String> values = new LinkedHashMap<>();
+            for (int i = 0; i < partitionKeys.size(); i++) {
+                values.put(partitionKeys.get(i).getName().toLowerCase(), partition.getValues().get(i));
+            }
+            partitionSpecs.add(new PartitionSpec(values, filterFragment, partition));
+        }
+        return partitionSpecs;
+    }
+
+    /**
+     * Builds a partition filter matching exactly one partition, e.g. (trans_month = '2012-09' AND region = 3)
+     *
+     * Values of numeric partition keys are left unquoted, all other values are quoted and escaped. The default partition
+     * holds the rows whose partition value is null, so it is matched with key IS NULL.
+     *
+     * @param table     {@link Table}
+     * @param partition {@link Partition} of the table
+     * @return partition filter fragment
+     */
+    public String getPartitionFilterFragment(final Table table, final Partition partition) {
+        return joinPartitionValues(table, partition, " AND ", true);
+    }
+
+    /**
+     * Builds the partition clause addressing one partition in DDL statements, e.g. (trans_month = '2012-09', region = 3)
+     *
+     * The default partition is addressed by its quoted name, whatever the partition key type.
+     *
+     * @param table     {@link Table}
+     * @param partition {@link Partition} of the table
+     * @return partition clause
+     */
+    public String getPartitionClause(final Table table, final Partition partition) {
+        return joinPartitionValues(table, partition, ", ", false);
+    }
+
+    /**
+     * Joins the key = value pairs of a partition, leaving values of numeric partition keys unquoted
+     *
+     * @param table     {@link Table}
+     * @param partition {@link Partition} of the table
+     * @param separator separator between the pairs
+     * @param filter    whether the pairs form a filter, matching the default partition with key IS NULL
+     * @return key = value pairs in parentheses
+     */
+    private String joinPartitionValues(final Table table, final Partition partition, final String separator, final boolean filter) {
+        Validate.notNull(table, "table cannot be null");
+        Validate.notNull(partition, "partition cannot be null");
+        final List<FieldSchema> partitionKeys = table.getPartitionKeys();
+        final List<String> values = partition.getValues();
+        Validate.isTrue(partitionKeys.size() == values.size(), "Partition values %s do not match partition keys of %s.%s", values, table.getDbName(), table.getTableName());
+
+        final List<String> predicates = new ArrayList<>();
+        for (int i = 0; i < partitionKeys.size(); i++) {
+            final FieldSchema partitionKey = partitionKeys.get(i);
+            final String value = values.get(i);
+            if (DEFAULT_PARTITION_NAME.equals(value)) {
+                predicates.add(filter ? String.format("%s IS NULL", partitionKey.getName()) : String.format("%s = '%s'", partitionKey.getName(), value));
+            } else {
+                predicates.add(String.format("%s = %s", partitionKey.getName(), formatValue(partitionKey.getType(), value)));
+            }
+        }
+        return "(" + String.join(separator, predicates) + ")";
+    }
+
+    /**
+     * Formats a partition value as a HiveQL literal
+     *
+     * @param type  partition key type
+     * @param value partition value
+     * @return literal
+     */
+    private static String formatValue(final String type, final String value) {
+        if (NUMERIC_TYPES.contains(type.toLowerCase()) || type.toLowerCase().startsWith("decimal")) {
+            return value;
+        }
+        return "'" + value.replace("\\", "\\\\").replace("'", "\\'") + "'";
+    }
 }
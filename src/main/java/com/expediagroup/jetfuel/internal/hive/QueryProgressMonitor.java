@@ -0,0 +1,242 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal.hive;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.hive.jdbc.HiveStatement;
+
+import com.expediagroup.jetfuel.internal.RunMetrics;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Follows a running Hive query by polling the HiveServer2 query log of its statement, and logs the MapReduce job and
+ * YARN application ids, stage progress and per-stage timings while the query runs.
+ *
+ * Hive JDBC 1.2 has no asynchronous execute, so the statement is executed on the calling thread while this monitor
+ * reads the log from a background thread, as Beeline does.  Each {@link HiveDriverClient} polls on its own thread, as
+ * reading the log is a blocking Thrift call and a slow session must not delay the progress of the others.
+ */
+@Slf4j
+final class QueryProgressMonitor implements AutoCloseable {
+
+    /**
+     * Query log lines kept for failure classification
+     */
+    private static final int MAX_LOG_LINES = 1000;
+
+    private static final Pattern JOB_PATTERN = Pattern.compile("Starting Job = (job_\\d+_\\d+), Tracking URL = (\\S+)");
+    private static final Pattern APPLICATION_PATTERN = Pattern.compile("application_\\d+_\\d+");
+    private static final Pattern STAGE_PATTERN = Pattern.compile("Hadoop job information for (Stage-\\d+)");
+    private static final Pattern MR_PROGRESS_PATTERN = Pattern.compile("(Stage-\\d+) map = (\\d+)%,\\s+reduce = (\\d+)%");
+    private static final Pattern TEZ_PROGRESS_PATTERN = Pattern.compile("^(?:(?:Map|Reducer) \\d+: \\S+\\s*)+$");
+    private static final Pattern JOB_END_PATTERN = Pattern.compile("Ended Job = (job_\\d+_\\d+)");
+    private static final Pattern HDFS_PATTERN = Pattern.compile("HDFS Read: (\\d+) HDFS Write: (\\d+)");
+    private static final String TEZ_STAGE = "DAG";
+
+    private final HiveStatement statement;
+    private final RunMetrics runMetrics;
+    private final Deque<String> queryLog = new ArrayDeque<>();
+    private final Set<String> jobIds = new LinkedHashSet<>();
+    private final Set<String> applicationIds = new LinkedHashSet<>();
+    private final Map<String, String> stageProgress = new HashMap<>();
+    private final Map<String, Instant> stageStarts = new LinkedHashMap<>();
+    private final Map<String, Instant> stageEnds = new HashMap<>();
+    private ScheduledFuture<?> polling;
+    private String currentStage;
+    private boolean closed;
+
+    /**
+     * Constructor
+     *
+     * @param statement statement running the query
+     */
+    QueryProgressMonitor(final HiveStatement statement) {
+        this(statement, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param statement  statement running the query
+     * @param runMetrics {@link RunMetrics} fed with the progress and HDFS bytes of the query, or null
+     */
+    QueryProgressMonitor(final HiveStatement statement, final RunMetrics runMetrics) {
+        Validate.notNull(statement, "Statement cannot be null");
+        this.statement = statement;
+        this.runMetrics = runMetrics;
+    }
+
+    /**
+     * Starts polling the query log in the background.
+     *
+     * @param poller            executor of the session polling the log
+     * @param intervalInSeconds seconds between two polls
+     */
+    synchronized void start(final ScheduledExecutorService poller, final long intervalInSeconds) {
+        Validate.notNull(poller, "poller cannot be null");
+        Validate.isTrue(intervalInSeconds > 0, "intervalInSeconds must be positive");
+        polling = poller.scheduleWithFixedDelay(this::poll, intervalInSeconds, intervalInSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Reads the query log lines written since the last poll.
+     */
+    synchronized void poll() {
+        if (closed) {
+            return;
+        }
+        try {
+            statement.getQueryLog().forEach(this::parse);
+        } catch (final Exception e) {
+            log.debug("Unable to read the query log: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stops polling, reads the rest of the query log and logs the stage timings.  Closing twice has no effect.
+     */
+    @Override
+    public synchronized void close() {
+        // A poll already waiting for the lock finds the monitor closed and returns
+        if (polling != null) {
+            polling.cancel(false);
+            polling = null;
+        }
+        if (closed) {
+            return;
+        }
+        poll();
+        closed = true;
+
+        final Instant end = Instant.now();
+        if (!stageStarts.isEmpty()) {
+            log.info("Stage timings: {}", stageStarts.entrySet().stream()
+                    .map(stage -> String.format("%s %s", stage.getKey(), Formatter.formatDuration(Duration.between(stage.getValue(), stageEnds.getOrDefault(stage.getKey(), end)))))
+                    .collect(Collectors.joining(", ")));
+        }
+    }
+
+    /**
+     * Returns the most recent query log lines read.
+     *
+     * @return query log lines
+     */
+    synchronized List<String> getQueryLog() {
+        return ImmutableList.copyOf(queryLog);
+    }
+
+    /**
+     * Returns the ids of the MapReduce jobs launched by the query.
+     *
+     * @return MapReduce job ids
+     */
+    synchronized Set<String> getJobIds() {
+        return ImmutableSet.copyOf(jobIds);
+    }
+
+    /**
+     * Returns the ids of the YARN applications running the query.
+     *
+     * @return YARN application ids
+     */
+    synchronized Set<String> getApplicationIds() {
+        return ImmutableSet.copyOf(applicationIds);
+    }
+
+    /**
+     * Records a query log line and logs the job ids, progress and stage changes it reports.
+     *
+     * @param line query log line
+     */
+    private void parse(final String line) {
+        queryLog.addLast(line);
+        if (queryLog.size() > MAX_LOG_LINES) {
+            queryLog.removeFirst();
+        }
+
+        Matcher matcher = JOB_PATTERN.matcher(line);
+        if (matcher.find() && jobIds.add(matcher.group(1))) {
+            log.info("Query launched job {}, tracking URL {}", matcher.group(1), matcher.group(2));
+        }
+
+        matcher = APPLICATION_PATTERN.matcher(line);
+        while (matcher.find()) {
+            if (applicationIds.add(matcher.group())) {
+                log.info("Query running as YARN application {}", matcher.group());
+            }
+        }
+
+        matcher = STAGE_PATTERN.matcher(line);
+        if (matcher.find()) {
+            startStage(matcher.group(1));
+        }
+
+        matcher = MR_PROGRESS_PATTERN.matcher(line);
+        if (matcher.find()) {
+            startStage(matcher.group(1));
+            logProgress(matcher.group(1), String.format("map = %s%%, reduce = %s%%", matcher.group(2), matcher.group(3)));
+        } else if (TEZ_PROGRESS_PATTERN.matcher(line.trim()).matches()) {
+            startStage(TEZ_STAGE);
+            logProgress(TEZ_STAGE, line.trim().replaceAll("\\s+", " "));
+        }
+
+        if (JOB_END_PATTERN.matcher(line).find() && currentStage != null) {
+            stageEnds.putIfAbsent(currentStage, Instant.now());
+        }
+
+        // Summary line of each MapReduce job, e.g. Stage-Stage-1: Map: 2   Cumulative CPU: 5.6 sec   HDFS Read: 1234 HDFS Write: 567 SUCCESS
+        matcher = HDFS_PATTERN.matcher(line);
+        if (matcher.find() && runMetrics != null) {
+            runMetrics.addBytes(Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2)));
+        }
+    }
+
+    private void startStage(final String stage) {
+        if (!stageStarts.containsKey(stage)) {
+            stageStarts.put(stage, Instant.now());
+        }
+        currentStage = stage;
+    }
+
+    private void logProgress(final String stage, final String progress) {
+        if (!progress.equals(stageProgress.put(stage, progress))) {
+            log.info("Query progress: {} {}", stage, progress);
+            if (runMetrics != null) {
+                runMetrics.recordProgress();
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.models;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.commons.io.Charsets;
+import org.apache.commons.lang3.Validate;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.representer.Representer;
+
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Configuration of the warehouse advisor, which scans databases for the tables most in need of fueling and writes a
+ * JetFuel configuration YAML file for each of them.
+ *
+ * Immutable.
+ */
+@Data
+@Slf4j
+public final class AdvisorConfiguration {
+
+    private static final String CONF_PATH = "config.properties";
+
+    /**
+     * Metastore to scan
+     */
+    private final String hiveMetastoreUri;
+
+    /**
+     * Databases to scan
+     */
+    private final List<String> databases;
+
+    /**
+     * Directory the configuration files are written to, one per table, which can be fueled as a batch
+     */
+    private final String outputDirectory;
+
+    /**
+     * Settings copied into every configuration file, such as hiveServer2Url and hiveServer2Username
+     */
+    private final Map<String, Object> defaults;
+
+    /**
+     * Database of the target tables, or null for the source database
+     */
+    private final String targetDatabase;
+
+    /**
+     * Suffix appended to the source table name to name the target table
+     */
+    private final String targetTableSuffix;
+
+    /**
+     * Maximum number of tables a configuration file is written for, worst first
+     */
+    private final int maxTables;
+
+    /**
+     * HDFS block size in bytes, which files smaller than half of are considered small
+     */
+    private final long blockSize;
+
+    /**
+     * Number of threads scanning the metastore, each with its own metastore client
+     */
+    private final int threads;
+
+    /**
+     * Number of tables or partitions retrieved by one metastore call
+     */
+    private final int pageSize;
+
+    private AdvisorConfiguration(final Builder builder) {
+        hiveMetastoreUri = builder.hiveMetastoreUri;
+        databases = ImmutableList.copyOf(builder.databases);
+        outputDirectory = builder.outputDirectory;
+        defaults = builder.defaults == null ? ImmutableMap.of() : ImmutableMap.copyOf(builder.defaults);
+        targetDatabase = builder.targetDatabase;
+        targetTableSuffix = builder.targetTableSuffix;
+        maxTables = builder.maxTables;
+        blockSize = builder.blockSize;
+        threads = builder.threads;
+        pageSize = builder.pageSize;
+    }
+
+    /**
+     * Deserialize a YAML file into an instance of this class.
+     *
+     * @param yamlFileName YAML file name
+     * @return Instance of {@link AdvisorConfiguration}
+     * @throws IOException thrown when unable to load the input YAML file
+     */
+    public static AdvisorConfiguration loadFromYaml(final String yamlFileName) throws IOException {
+        log.info("Reading YAML File {}", yamlFileName);
+        try (final InputStream stream = new FileInputStream(yamlFileName);
+             final Reader file = new InputStreamReader(stream, Charsets.UTF_8)) {
+
+            final Representer representer = new Representer();
+            representer.getPropertyUtils().setSkipMissingProperties(true);
+
+            return new Yaml(representer).loadAs(file, Builder.class).build();
+        }
+    }
+
+    /**
+     * Builder class for the immutable {@link AdvisorConfiguration}
+     */
+    @NoArgsConstructor
+    public static final class Builder {
+        public String hiveMetastoreUri;
+        public List<String> databases;
+        public String outputDirectory;
+        public Map<String, Object> defaults;
+        public String targetDatabase;
+        public String targetTableSuffix;
+        public Integer maxTables;
+        public Long blockSize;
+        public Integer threads;
+        public Integer pageSize;
+
+        public AdvisorConfiguration build() {
+            validate();
+            return new AdvisorConfiguration(this);
+        }
+
+        private void validate() {
+            final PropertiesConfiguration config;
+            try {
+                config = new PropertiesConfiguration(CONF_PATH);
+            } catch (final ConfigurationException e) {
+                throw new JetFuelException("Unable to load configurations", e);
+            }
+
+            targetTableSuffix = targetTableSuffix == null ? config.getString("advisorTargetTableSuffix") : targetTableSuffix;
+            maxTables = maxTables == null ? config.getInt("advisorMaxTables") : maxTables;
+            blockSize = blockSize == null ? config.getLong("advisorBlockSize") : blockSize;
+            threads = threads == null ? config.getInt("advisorThreads") : threads;
+            pageSize = pageSize == null ? config.getInt("advisorPageSize") : pageSize;
+
+            Validate.notBlank(hiveMetastoreUri, "hiveMetastoreUri cannot be null or blank");
+            Validate.notEmpty(databases, "databases cannot be null or empty");
+            Validate.noNullElements(databases, "databases cannot contain null");
+            Validate.notBlank(outputDirectory, "outputDirectory cannot be null or blank");
+            Validate.isTrue(!isBlank(targetTableSuffix) || !isBlank(targetDatabase) && !databases.contains(targetDatabase),
+                    "targetTableSuffix is required when the target tables are in a scanned database");
+            Validate.isTrue(maxTables > 0, "maxTables must be positive");
+            Validate.isTrue(blockSize > 0, "blockSize must be positive");
+            Validate.isTrue(threads > 0, "threads must be positive");
+            Validate.isTrue(pageSize > 0, "pageSize must be positive");
+        }
+
+        public Builder withHiveMetastoreUri(final String hiveMetastoreUri) {
+            this.hiveMetastoreUri = hiveMetastoreUri;
+            return this;
+        }
+
+        public Builder withDatabases(final List<String> databases) {
+            this.databases = databases;
+            return this;
+        }
+
+        public Builder withOutputDirectory(final String outputDirectory) {
+            this.outputDirectory = outputDirectory;
+            return this;
+        }
+
+        public Builder withDefaults(final Map<String, Object> defaults) {
+            this.defaults = defaults;
+            return this;
+        }
+
+        public Builder withTargetDatabase(final String targetDatabase) {
+            this.targetDatabase = targetDatabase;
+            return this;
+        }
+
+        public Builder withTargetTableSuffix(final String targetTableSuffix) {
+            this.targetTableSuffix = targetTableSuffix;
+            return this;
+        }
+
+        public Builder withMaxTables(final Integer maxTables) {
+            this.maxTables = maxTables;
+            return this;
+        }
+
+        public Builder withBlockSize(final Long blockSize) {
+            this.blockSize = blockSize;
+            return this;
+        }
+
+        public Builder withThreads(final Integer threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        public Builder withPageSize(final Integer pageSize) {
+            this.pageSize = pageSize;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.models;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.commons.io.Charsets;
+import org.apache.commons.lang3.Validate;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.representer.Representer;
+
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.google.common.collect.ImmutableList;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Configuration of a batch of tables fueled by one process.
+ *
+ * A batch is either a YAML file with a tables list and optional shared defaults and maxSessions:
+ * <pre>
+ * maxSessions: 8
+ * timeBudgetInMinutes: 360
+ * defaults:
+ *   hiveServer2Url: jdbc:hive2://hiveserver2:10001
+ * tables:
+ *   - sourceDatabase: db
+ *     sourceTable: table
+ * </pre>
+ * or a directory of single table YAML files, with the shared defaults and batch settings in defaults.yml.  Table
+ * settings override the defaults key by key.
+ *
+ * Immutable.
+ */
+@Data
+@Slf4j
+public final class BatchConfiguration {
+
+    private static final String CONF_PATH = "config.properties";
+    private static final String MAX_SESSIONS = "maxSessions";
+    private static final String TIME_BUDGET_IN_MINUTES = "timeBudgetInMinutes";
+    private static final String REWRITE_BYTES_PER_SECOND = "rewriteBytesPerSecond";
+    private static final List<String> BATCH_SETTINGS = ImmutableList.of(MAX_SESSIONS, TIME_BUDGET_IN_MINUTES, REWRITE_BYTES_PER_SECOND);
+    private static final String DEFAULTS = "defaults";
+    private static final String TABLES = "tables";
+    private static final List<String> DEFAULTS_FILES = ImmutableList.of("defaults.yml", "defaults.yaml");
+
+    private final List<JetFuelConfiguration> tables;
+
+    /**
+     * Maximum number of HiveServer2 sessions in use at once across the batch, which also caps the tables fueled at once
+     */
+    private final int maxSessions;
+
+    /**
+     * Minutes the batch may take.  Tables whose estimated rewrite does not fit in the budget are skipped, or null to
+     * fuel every table.
+     *
+     * @since 1.3.0
+     */
+    private final Long timeBudgetInMinutes;
+
+    /**
+     * Bytes a HiveServer2 session is expected to rewrite per second, used to fit tables in the timeBudgetInMinutes
+     *
+     * @since 1.3.0
+     */
+    private final long rewriteBytesPerSecond;
+
+    /**
+     * Constructor
+     *
+     * @param tables      configurations of the tables to fuel
+     * @param maxSessions maximum number of HiveServer2 sessions in use at once, or null for the default
+     */
+    public BatchConfiguration(final List<JetFuelConfiguration> tables, final Integer maxSessions) {
+        this(tables, maxSessions, null, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param tables                configurations of the tables to fuel
+     * @param maxSessions           maximum number of HiveServer2 sessions in use at once, or null for the default
+     * @param timeBudgetInMinutes   minutes the batch may take, or null to fuel every table
+     * @param rewriteBytesPerSecond bytes a session is expected to rewrite per second, or null for the default
+     */
+    public BatchConfiguration(final List<JetFuelConfiguration> tables, final Integer maxSessions, final Long timeBudgetInMinutes, final Long rewriteBytesPerSecond) {
+        Validate.notEmpty(tables, "tables cannot be null/empty");
+        Validate.noNullElements(tables, "tables cannot contain null");
+        Validate.isTrue(maxSessions == null || maxSessions > 0, "maxSessions must be positive");
+        Validate.isTrue(timeBudgetInMinutes == null || timeBudgetInMinutes > 0, "timeBudgetInMinutes must be positive");
+        Validate.isTrue(rewriteBytesPerSecond == null || rewriteBytesPerSecond > 0, "rewriteBytesPerSecond must be positive");
+        validateUnique(tables, table -> String.format("%s.%s", table.getTargetDatabase(), table.getTargetTable()).toLowerCase(), "target table");
+        validateUnique(tables, JetFuelConfiguration::getJournalPath, "journalPath");
+        validateUnique(tables, JetFuelConfiguration::getReportPath, "reportPath");
+        validateUnique(tables, JetFuelConfiguration::getMetricsTextfilePath, "metricsTextfilePath");
+        validateUnique(tables, JetFuelConfiguration::getMetricsPort, "metricsPort");
+
+        this.tables = ImmutableList.copyOf(tables);
+        this.maxSessions = maxSessions == null ? (int) getDefault(MAX_SESSIONS) : maxSessions;
+        this.timeBudgetInMinutes = timeBudgetInMinutes;
+        this.rewriteBytesPerSecond = rewriteBytesPerSecond == null ? getDefault(REWRITE_BYTES_PER_SECOND) : rewriteBytesPerSecond;
+    }
+
+    /**
+     * Rejects settings that tables running side by side cannot share.
+     *
+     * @param tables  table configurations
+     * @param setting setting of a table, or null if it is not set
+     * @param name    name of the setting
+     */
+    private static void validateUnique(final List<JetFuelConfiguration> tables, final Function<JetFuelConfiguration, Object> setting, final String name) {
+        final Set<Object> seen = new HashSet<>();
+        for (final JetFuelConfiguration table : tables) {
+            final Object value = setting.apply(table);
+            if (value != null && !isBlank(value.toString()) && !seen.add(value)) {
+                throw new IllegalArgumentException(String.format("%s %s is used by more than one table", name, value));
+            }
+        }
+    }
+
+    private static long getDefault(final String key) {
+        try {
+            return new PropertiesConfiguration(CONF_PATH).getLong(key);
+        } catch (final ConfigurationException e) {
+            throw new JetFuelException("Unable to load configurations", e);
+        }
+    }
+
+    /**
+     * Tells whether a path holds a batch rather than a single table configuration.
+     *
+     * @param path YAML file or directory
+     * @return true for a directory, or a YAML file with a tables list
+     * @throws IOException thrown when unable to read the YAML file
+     */
+    public static boolean isBatch(final String path) throws IOException {
+        Validate.notBlank(path, "path cannot be null/empty/blank");
+        final File file = new File(path);
+        if (file.isDirectory()) {
+            return true;
+        }
+        final Object yaml = load(file);
+        return yaml instanceof Map && ((Map<?, ?>) yaml).containsKey(TABLES);
+    }
+
+    /**
+     * Loads a batch from a multi-table YAML file or a directory of YAML files.
+     *
+     * @param path YAML file or directory
+     * @return Instance of {@link BatchConfiguration}
+     * @throws IOException thrown when unable to read the YAML files
+     */
+    public static BatchConfiguration loadFromYaml(final String path) throws IOException {
+        Validate.notBlank(path, "path cannot be null/empty/blank");
+        final File file = new File(path);
+        return file.isDirectory() ? loadFromDirectory(file) : loadFromFile(file);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BatchConfiguration loadFromFile(final File file) throws IOException {
+        final Map<String, Object> batch = loadMap(file);
+        final Object defaults = batch.getOrDefault(DEFAULTS, new HashMap<>());
+        final Object tables = batch.get(TABLES);
+        Validate.isTrue(defaults instanceof Map, "defaults must be a mapping of settings");
+        Validate.isTrue(tables instanceof List, "tables must be a list of table settings");
+
+        final List<JetFuelConfiguration> configurations = new ArrayList<>();
+        for (final Object table : (List<Object>) tables) {
+            Validate.isTrue(table instanceof Map, "every table must be a mapping of settings");
+            configurations.add(build((Map<String, Object>) defaults, (Map<String, Object>) table, String.format("%s table %d", file, configurations.size() + 1)));
+        }
+        return create(configurations, batch);
+    }
+
+    private static BatchConfiguration loadFromDirectory(final File directory) throws IOException {
+        final File[] files = directory.listFiles((dir, name) -> name.endsWith(".yml") || name.endsWith(".yaml"));
+        Validate.notNull(files, "Unable to list directory %s", directory);
+        Arrays.sort(files);
+
+        Map<String, Object> defaults = new HashMap<>();
+        final List<File> tableFiles = new ArrayList<>();
+        for (final File file : files) {
+            if (DEFAULTS_FILES.contains(file.getName())) {
+                defaults = loadMap(file);
+            } else {
+                tableFiles.add(file);
+            }
+        }
+
+        final List<JetFuelConfiguration> configurations = new ArrayList<>();
+        for (final File file : tableFiles) {
+            configurations.add(build(defaults, loadMap(file), file.toString()));
+        }
+        return create(configurations, defaults);
+    }
+
+    private static BatchConfiguration create(final List<JetFuelConfiguration> configurations, final Map<String, Object> settings) {
+        final Long maxSessions = getNumber(settings, MAX_SESSIONS);
+        Validate.isTrue(maxSessions == null || maxSessions <= Integer.MAX_VALUE, "maxSessions is too large");
+        return new BatchConfiguration(configurations, maxSessions == null ? null : maxSessions.intValue(),
+                getNumber(settings, TIME_BUDGET_IN_MINUTES), getNumber(settings, REWRITE_BYTES_PER_SECOND));
+    }
+
+    private static Long getNumber(final Map<String, Object> settings, final String key) {
+        final Object value = settings.get(key);
+        Validate.isTrue(value == null || value instanceof Integer || value instanceof Long, "%s must be a number", key);
+        return value == null ? null : ((Number) value).longValue();
+    }
+
+    /**
+     * Builds the configuration of a table from the shared defaults overridden by its own settings.
+     *
+     * @param defaults shared defaults
+     * @param table    settings of the table
+     * @param source   file and position of the table, for error messages
+     * @return Instance of {@link JetFuelConfiguration}
+     */
+    private static JetFuelConfiguration build(final Map<String, Object> defaults, final Map<String, Object> table, final String source) {
+        final Map<String, Object> settings = new LinkedHashMap<>(defaults);
+        settings.putAll(table);
+        settings.keySet().removeAll(BATCH_SETTINGS);
+        try {
+            return createYaml().loadAs(createYaml().dump(settings), JetFuelConfiguration.Builder.class).build();
+        } catch (final RuntimeException e) {
+            throw new IllegalArgumentException(String.format("Invalid configuration in %s: %s", source, e.getMessage()), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> loadMap(final File file) throws IOException {
+        log.info("Reading YAML File {}", file);
+        final Object yaml = load(file);
+        Validate.isTrue(yaml == null || yaml instanceof Map, "%s is not a mapping of settings", file);
+        return yaml == null ? new HashMap<>() : (Map<String, Object>) yaml;
+    }
+
+    private static Object load(final File file) throws IOException {
+        try (final InputStream stream = new FileInputStream(file);
+             final Reader reader = new InputStreamReader(stream, Charsets.UTF_8)) {
+            return createYaml().load(reader);
+        }
+    }
+
+    private static Yaml createYaml() {
+        final Representer representer = new Representer();
+        representer.getPropertyUtils().setSkipMissingProperties(true);
+        return new Yaml(representer);
+    }
+
+    /**
+     * Describes a table of the batch, as source to target.
+     *
+     * @param table table configuration
+     * @return description of the table
+     */
+    public static String getTableName(final JetFuelConfiguration table) {
+        Validate.notNull(table, "table cannot be null");
+        return String.format("%s.%s -> %s.%s", table.getSourceDatabase(), table.getSourceTable(), table.getTargetDatabase(), table.getTargetTable());
+    }
+}
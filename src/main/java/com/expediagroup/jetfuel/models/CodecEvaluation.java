@@ -0,0 +1,60 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.models;
+
+import java.util.List;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JetFuelConfiguration object containing options for evaluating the combinations of file format and compression on a
+ * sample of the source table (optional).
+ */
+@Data
+@Slf4j
+public final class CodecEvaluation {
+
+    /**
+     * File formats whose valid compressions are evaluated.  Defaults to the targetFileFormat.
+     */
+    List<String> fileFormats;
+
+    /**
+     * Number of the latest partitions matching the partitionFilter rewritten for each combination of a partitioned table
+     */
+    Integer samplePartitions;
+
+    /**
+     * Percentage of an unpartitioned table rewritten for each combination with TABLESAMPLE
+     */
+    Integer samplePercent;
+
+    /**
+     * Query timed against each sample table, referenced as ${table} (optional)
+     */
+    String scanQuery;
+
+    /**
+     * STORAGE ranks the combinations by sample size, READ_SPEED by the time of the scanQuery.  Defaults to STORAGE.
+     */
+    EvaluationObjective objective;
+
+    /**
+     * Fuels the table with the best combination instead of only recommending it
+     */
+    boolean apply;
+}
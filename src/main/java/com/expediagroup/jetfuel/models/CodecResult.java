@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.models;
+
+import lombok.Data;
+
+/**
+ * Outcome of rewriting the sample of a source table with one combination of file format and compression.
+ */
+@Data
+public final class CodecResult {
+
+    private final FileFormat fileFormat;
+
+    private final String compression;
+
+    /**
+     * Total size of the sample table in bytes, from the statistics gathered when writing it
+     */
+    private final long sampleBytes;
+
+    /**
+     * Time spent writing the sample table in milliseconds
+     */
+    private final long writeMillis;
+
+    /**
+     * Time spent running the scan query against the sample table in milliseconds, or null without a scan query
+     */
+    private final Long scanMillis;
+}
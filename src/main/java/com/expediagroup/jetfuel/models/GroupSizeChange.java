@@ -0,0 +1,45 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.models;
+
+import lombok.Data;
+
+/**
+ * Change of the partition group size of a session under dynamic partition grouping.
+ */
+@Data
+public final class GroupSizeChange {
+
+    /**
+     * Name of the thread running the session, as in {@link QueryMetrics}
+     */
+    private final String session;
+
+    /**
+     * Time of the change, in milliseconds since the epoch
+     */
+    private final long time;
+
+    /**
+     * Group size before the change
+     */
+    private final int previousSize;
+
+    /**
+     * Group size after the change
+     */
+    private final int newSize;
+}
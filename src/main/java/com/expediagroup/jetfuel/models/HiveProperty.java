@@ -25,6 +25,7 @@ public final class HiveProperty {
 
     public static final HiveProperty MERGE_MAP_FILES = new HiveProperty("hive.merge.mapfiles", "true");
     public static final HiveProperty MERGE_MAPRED_FILES = new HiveProperty("hive.merge.mapredfiles", "true");
+    public static final HiveProperty MERGE_TEZ_FILES = new HiveProperty("hive.merge.tezfiles", "true");
 
     private final String name;
     private final Object value;
@@ -23,12 +23,14 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.commons.io.Charsets;
+import org.apache.commons.lang3.EnumUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.yaml.snakeyaml.Yaml;
@@ -71,9 +73,54 @@ public final class JetFuelConfiguration {
     private final String sizePerTask;
     private final Long mapReduceMemoryInMB;
     private final Long mapReduceJavaOptsInMB;
+
+    /**
+     * Task memory values in MB tried, in order, when a query fails because a task ran out of memory.
+     * Defaults to doubling {@link #mapReduceMemoryInMB} up to {@link #maxMapReduceMemoryInMB}.
+     * @since 1.3.0
+     */
+    private final List<Long> mapReduceMemoryLadderInMB;
+
+    /**
+     * Ceiling in MB for the task memory of a retried query.
+     * @since 1.3.0
+     */
+    private final Long maxMapReduceMemoryInMB;
+
     private final Long parquetBlockSize;
     private final Long parquetPageSize;
     private final Long mapReduceTaskTimeout;
+
+    /**
+     * Seconds between two reads of the query log of a running query, to log its jobs and progress.  Zero disables it.
+     * @since 1.3.0
+     */
+    private final Integer progressIntervalInSeconds;
+
+    /**
+     * Minutes a single query may run before it is cancelled.  Unset or zero never cancels a query.
+     * @since 1.3.0
+     */
+    private final Long queryTimeoutInMinutes;
+
+    /**
+     * Minutes the whole run may take.  A running query is cancelled when the budget is spent, and no other query starts.
+     * Unset or zero never limits the run.
+     * @since 1.3.0
+     */
+    private final Long runBudgetInMinutes;
+
+    /**
+     * Number of attempts to open a new HiveServer2 connection after the connection is lost.
+     * @since 1.3.0
+     */
+    private final Integer reconnectAttempts;
+
+    /**
+     * Seconds to wait after the first failed reconnect attempt, doubled after every further failed attempt.
+     * @since 1.3.0
+     */
+    private final Integer reconnectBackoffInSeconds;
     /**
      * Determines the size of partition groupings (if needed).
      * If {@link #partitionGroupingStrategy} is set to DYNAMIC, this will be used as the starting value.
@@ -81,6 +128,27 @@ public final class JetFuelConfiguration {
      */
     private final Long insertPartitionGroupSize;
 
+    /**
+     * Maximum total size in bytes of the partitions in a group.
+     * Used when {@link #partitionGroupingStrategy} is set to SIZE.
+     * @since 1.3.0
+     */
+    private final Long insertPartitionGroupBytes;
+
+    /**
+     * Maximum total number of files of the partitions in a group.
+     * Used when {@link #partitionGroupingStrategy} is set to SIZE.
+     * @since 1.3.0
+     */
+    private final Long insertPartitionGroupFiles;
+
+    /**
+     * Number of consecutive successful queries after which the DYNAMIC partition group size grows by one partition,
+     * up to {@link #insertPartitionGroupSize}.  Zero never grows the group size again after a failure.
+     * @since 1.3.0
+     */
+    private final Integer groupSizeIncreaseAfter;
+
     /**
      * Enables partition grouping.
      *
@@ -105,6 +173,107 @@ public final class JetFuelConfiguration {
      */
     private final PartitionGrouping partitionGroupingStrategy;
 
+    /**
+     * Uses IN lists and ranges instead of OR chains in grouped partition queries.
+     *
+     * @since 1.3.0
+     */
+    private final boolean compactPartitionPredicates;
+
+    /**
+     * Handling of partition groups whose query fails.  FALLBACK runs the partitions of a failed STATIC group one by one
+     * and shrinks DYNAMIC groups; BISECT splits the failed group in halves to quarantine the failing partitions.
+     * Defaults to FALLBACK.
+     *
+     * @since 1.3.0
+     */
+    private final FailureIsolation failureIsolation;
+
+    /**
+     * Number of HiveServer2 sessions used to run partition groups concurrently.
+     *
+     * @since 1.3.0
+     */
+    private final Integer concurrency;
+
+    /**
+     * Hive execution engine used for fueling.  Defaults to MR.
+     *
+     * @since 1.3.0
+     */
+    private final ExecutionEngine executionEngine;
+
+    /**
+     * Location of the progress journal, on local disk or any Hadoop filesystem (optional)
+     *
+     * @since 1.3.0
+     */
+    private final String journalPath;
+
+    /**
+     * Skips partitions recorded as completed in the progress journal.
+     *
+     * @since 1.3.0
+     */
+    private final boolean resume;
+
+    /**
+     * Location of the JSON run report, on local disk or any Hadoop filesystem (optional)
+     *
+     * @since 1.3.0
+     */
+    private final String reportPath;
+
+    /**
+     * Port of the local HTTP endpoint serving live metrics in the Prometheus text format (optional)
+     *
+     * @since 1.3.0
+     */
+    private final Integer metricsPort;
+
+    /**
+     * File rewritten with live metrics in the Prometheus text format, e.g. for the node exporter textfile collector (optional)
+     *
+     * @since 1.3.0
+     */
+    private final String metricsTextfilePath;
+
+    /**
+     * Fuels only the partitions that are missing from the target table or changed in the source since they were fueled.
+     *
+     * @since 1.3.0
+     */
+    private final boolean incremental;
+
+    /**
+     * Handling of source partitions that already meet the target format, compression and file size.  Defaults to FUEL.
+     *
+     * @since 1.3.0
+     */
+    private final OptimalPartitions optimalPartitions;
+
+    /**
+     * Number of threads copying partition directories when optimalPartitions is COPY.
+     *
+     * @since 1.3.0
+     */
+    private final Integer copyThreads;
+
+    /**
+     * Compacts partitions already stored in the target ORC or RCFILE format and compression by merging their files
+     * with ALTER TABLE ... CONCATENATE instead of rewriting them.
+     *
+     * @since 1.3.0
+     */
+    private final boolean concatenate;
+
+    /**
+     * Evaluates the combinations of file format and compression on a sample of the source table before fueling.
+     *
+     * @since 1.3.0
+     */
+    private final CodecEvaluation codecEvaluation;
+
     /**
      * List of additional Hive queries to be executed (optional)
      */
@@ -134,13 +303,39 @@ public final class JetFuelConfiguration {
         sizePerTask = builder.sizePerTask;
         mapReduceMemoryInMB = builder.mapReduceMemoryInMB;
         mapReduceJavaOptsInMB = builder.mapReduceJavaOptsInMB;
+        mapReduceMemoryLadderInMB = builder.mapReduceMemoryLadderInMB == null
+                ? null
+                : ImmutableList.copyOf(builder.mapReduceMemoryLadderInMB);
+        maxMapReduceMemoryInMB = builder.maxMapReduceMemoryInMB;
         parquetBlockSize = builder.parquetBlockSize;
         parquetPageSize = builder.parquetPageSize;
         insertPartitionGroupSize = builder.insertPartitionGroupSize;
+        insertPartitionGroupBytes = builder.insertPartitionGroupBytes;
+        insertPartitionGroupFiles = builder.insertPartitionGroupFiles;
+        groupSizeIncreaseAfter = builder.groupSizeIncreaseAfter;
         groupPartitionOverride = builder.groupPartitionOverride;
         enablePartitionGrouping = builder.enablePartitionGrouping;
         partitionGroupingStrategy = builder.partitionGrouping;
+        compactPartitionPredicates = builder.compactPartitionPredicates;
+        failureIsolation = builder.failureIsolation;
+        concurrency = builder.concurrency;
+        executionEngine = builder.executionEngine;
+        journalPath = builder.journalPath;
+        resume = builder.resume;
+        reportPath = builder.reportPath;
+        metricsPort = builder.metricsPort;
+        metricsTextfilePath = builder.metricsTextfilePath;
+        incremental = builder.incremental;
+        optimalPartitions = builder.optimalPartitions;
+        copyThreads = builder.copyThreads;
+        concatenate = builder.concatenate;
+        codecEvaluation = builder.codecEvaluation;
         mapReduceTaskTimeout = builder.mapReduceTaskTimeout;
+        progressIntervalInSeconds = builder.progressIntervalInSeconds;
+        queryTimeoutInMinutes = builder.queryTimeoutInMinutes;
+        runBudgetInMinutes = builder.runBudgetInMinutes;
+        reconnectAttempts = builder.reconnectAttempts;
+        reconnectBackoffInSeconds = builder.reconnectBackoffInSeconds;
         configQueries = builder.configQueries == null
                 ? null
                 : ImmutableList.copyOf(builder.configQueries);
@@ -169,6 +364,67 @@ public final class JetFuelConfiguration {
         }
     }
 
+    /**
+     * Creates a Builder holding the options of this configuration, to build a variation of it.
+     *
+     * @return new Builder
+     */
+    public Builder toBuilder() {
+        final Builder builder = new Builder();
+        builder.sourceTable = sourceTable;
+        builder.sourceDatabase = sourceDatabase;
+        builder.targetTable = targetTable;
+        builder.targetDatabase = targetDatabase;
+        builder.targetFileFormat = targetFileFormat;
+        builder.targetCompression = targetCompression;
+        builder.targetCompaction = targetCompaction;
+        builder.hiveMetastoreUri = hiveMetastoreUri;
+        builder.hiveServer2Url = hiveServer2Url;
+        builder.hiveServer2Username = hiveServer2Username;
+        builder.hiveServer2Password = hiveServer2Password;
+        builder.partitionFilter = partitionFilter;
+        builder.maxSplit = maxSplit;
+        builder.minSplit = minSplit;
+        builder.smallFileAvgSize = smallFileAvgSize;
+        builder.sizePerTask = sizePerTask;
+        builder.mapReduceMemoryInMB = mapReduceMemoryInMB;
+        builder.mapReduceJavaOptsInMB = mapReduceJavaOptsInMB;
+        builder.mapReduceMemoryLadderInMB = mapReduceMemoryLadderInMB;
+        builder.maxMapReduceMemoryInMB = maxMapReduceMemoryInMB;
+        builder.parquetBlockSize = parquetBlockSize;
+        builder.parquetPageSize = parquetPageSize;
+        builder.insertPartitionGroupSize = insertPartitionGroupSize;
+        builder.insertPartitionGroupBytes = insertPartitionGroupBytes;
+        builder.insertPartitionGroupFiles = insertPartitionGroupFiles;
+        builder.groupSizeIncreaseAfter = groupSizeIncreaseAfter;
+        builder.groupPartitionOverride = groupPartitionOverride;
+        builder.enablePartitionGrouping = enablePartitionGrouping;
+        builder.partitionGrouping = partitionGroupingStrategy;
+        builder.compactPartitionPredicates = compactPartitionPredicates;
+        builder.failureIsolation = failureIsolation;
+        builder.concurrency = concurrency;
+        builder.executionEngine = executionEngine;
+        builder.journalPath = journalPath;
+        builder.resume = resume;
+        builder.reportPath = reportPath;
+        builder.metricsPort = metricsPort;
+        builder.metricsTextfilePath = metricsTextfilePath;
+        builder.incremental = incremental;
+        builder.optimalPartitions = optimalPartitions;
+        builder.copyThreads = copyThreads;
+        builder.concatenate = concatenate;
+        builder.codecEvaluation = codecEvaluation;
+        builder.configQueries = configQueries;
+        builder.preFueling = preFueling;
+        builder.mapReduceTaskTimeout = mapReduceTaskTimeout;
+        builder.progressIntervalInSeconds = progressIntervalInSeconds;
+        builder.queryTimeoutInMinutes = queryTimeoutInMinutes;
+        builder.runBudgetInMinutes = runBudgetInMinutes;
+        builder.reconnectAttempts = reconnectAttempts;
+        builder.reconnectBackoffInSeconds = reconnectBackoffInSeconds;
+        return builder;
+    }
+
     /**
      * Builder class for the immutable {@link JetFuelConfiguration}
      */
@@ -191,15 +447,39 @@ public final class JetFuelConfiguration {
         public String smallFileAvgSize;
         public String sizePerTask;
         public Long mapReduceTaskTimeout;
+        public Integer progressIntervalInSeconds;
+        public Long queryTimeoutInMinutes;
+        public Long runBudgetInMinutes;
+        public Integer reconnectAttempts;
+        public Integer reconnectBackoffInSeconds;
         public Long mapReduceMemoryInMB;
         public Long mapReduceJavaOptsInMB;
+        public List<Long> mapReduceMemoryLadderInMB;
+        public Long maxMapReduceMemoryInMB;
         public Long parquetBlockSize;
         public Long parquetPageSize;
         public Long insertPartitionGroupSize;
+        public Long insertPartitionGroupBytes;
+        public Long insertPartitionGroupFiles;
+        public Integer groupSizeIncreaseAfter;
         @Deprecated
         public boolean groupPartitionOverride;
         public boolean enablePartitionGrouping;
         protected PartitionGrouping partitionGrouping;
+        public boolean compactPartitionPredicates;
+        protected FailureIsolation failureIsolation;
+        public Integer concurrency;
+        protected ExecutionEngine executionEngine;
+        public String journalPath;
+        public boolean resume;
+        public String reportPath;
+        public Integer metricsPort;
+        public String metricsTextfilePath;
+        public boolean incremental;
+        protected OptimalPartitions optimalPartitions;
+        public Integer copyThreads;
+        public boolean concatenate;
+        public CodecEvaluation codecEvaluation;
         public List<String> configQueries;
         public PreFueling preFueling;
 
@@ -222,15 +502,39 @@ public final class JetFuelConfiguration {
             sizePerTask = builder.sizePerTask;
             mapReduceMemoryInMB = builder.mapReduceMemoryInMB;
             mapReduceJavaOptsInMB = builder.mapReduceJavaOptsInMB;
+            mapReduceMemoryLadderInMB = builder.mapReduceMemoryLadderInMB;
+            maxMapReduceMemoryInMB = builder.maxMapReduceMemoryInMB;
             parquetBlockSize = builder.parquetBlockSize;
             parquetPageSize = builder.parquetPageSize;
             insertPartitionGroupSize = builder.insertPartitionGroupSize;
+            insertPartitionGroupBytes = builder.insertPartitionGroupBytes;
+            insertPartitionGroupFiles = builder.insertPartitionGroupFiles;
+            groupSizeIncreaseAfter = builder.groupSizeIncreaseAfter;
             groupPartitionOverride = builder.groupPartitionOverride;
             enablePartitionGrouping = builder.enablePartitionGrouping;
             partitionGrouping = builder.partitionGrouping;
+            compactPartitionPredicates = builder.compactPartitionPredicates;
+            failureIsolation = builder.failureIsolation;
+            concurrency = builder.concurrency;
+            executionEngine = builder.executionEngine;
+            journalPath = builder.journalPath;
+            resume = builder.resume;
+            reportPath = builder.reportPath;
+            metricsPort = builder.metricsPort;
+            metricsTextfilePath = builder.metricsTextfilePath;
+            incremental = builder.incremental;
+            optimalPartitions = builder.optimalPartitions;
+            copyThreads = builder.copyThreads;
+            concatenate = builder.concatenate;
+            codecEvaluation = builder.codecEvaluation;
             configQueries = builder.configQueries;
             preFueling = builder.preFueling;
             mapReduceTaskTimeout = builder.mapReduceTaskTimeout;
+            progressIntervalInSeconds = builder.progressIntervalInSeconds;
+            queryTimeoutInMinutes = builder.queryTimeoutInMinutes;
+            runBudgetInMinutes = builder.runBudgetInMinutes;
+            reconnectAttempts = builder.reconnectAttempts;
+            reconnectBackoffInSeconds = builder.reconnectBackoffInSeconds;
         }
 
         public JetFuelConfiguration build() {
@@ -254,6 +558,23 @@ public final class JetFuelConfiguration {
             Validate.notBlank(hiveMetastoreUri, "hiveMetastoreUri cannot be null or blank");
             Validate.notBlank(hiveServer2Url, "hiveServer2Url cannot be null or blank");
             Validate.notNull(hiveServer2Username, "hiveServer2Username cannot be null");
+            Validate.isTrue(!resume || !isBlank(journalPath), "journalPath is required when resume is enabled");
+            Validate.isTrue(metricsPort == null || metricsPort > 0 && metricsPort <= 65535, "metricsPort must be between 1 and 65535");
+            Validate.isTrue(mapReduceMemoryLadderInMB == null || mapReduceMemoryLadderInMB.stream().allMatch(memory -> memory != null && memory > 0),
+                    "mapReduceMemoryLadderInMB values must be positive");
+            Validate.isTrue(!incremental || partitionGrouping != PartitionGrouping.NONE, "incremental requires partition grouping");
+            Validate.isTrue(optimalPartitions == OptimalPartitions.FUEL || partitionGrouping != PartitionGrouping.NONE,
+                    "optimalPartitions SKIP and COPY require partition grouping");
+            Validate.isTrue(!concatenate || partitionGrouping != PartitionGrouping.NONE, "concatenate requires partition grouping");
+            if (codecEvaluation != null) {
+                Validate.isTrue(codecEvaluation.getFileFormats().stream()
+                                .allMatch(fileFormat -> fileFormat != null && EnumUtils.isValidEnum(FileFormat.class, fileFormat.toUpperCase())
+                                        && !FileFormat.valueOf(fileFormat.toUpperCase()).getValidCompressions().isEmpty()),
+                        "codecEvaluation fileFormats must be file formats supporting compressions");
+                Validate.isTrue(codecEvaluation.getSamplePercent() <= 100, "codecEvaluation samplePercent must be between 1 and 100");
+                Validate.isTrue(codecEvaluation.getObjective() != EvaluationObjective.READ_SPEED || !isBlank(codecEvaluation.getScanQuery()),
+                        "codecEvaluation scanQuery is required when the objective is READ_SPEED");
+            }
 
             // Set to Uncompressed if no target compression is provided
             if (isBlank(targetCompression)) {
@@ -289,6 +610,9 @@ public final class JetFuelConfiguration {
             }
 
             insertPartitionGroupSize = insertPartitionGroupSize == null || insertPartitionGroupSize < 1 ? config.getLong("insertPartitionGroupSize") : insertPartitionGroupSize;
+            insertPartitionGroupBytes = insertPartitionGroupBytes == null || insertPartitionGroupBytes < 1 ? config.getLong("insertPartitionGroupBytes") : insertPartitionGroupBytes;
+            insertPartitionGroupFiles = insertPartitionGroupFiles == null || insertPartitionGroupFiles < 1 ? config.getLong("insertPartitionGroupFiles") : insertPartitionGroupFiles;
+            groupSizeIncreaseAfter = groupSizeIncreaseAfter == null || groupSizeIncreaseAfter < 0 ? config.getInt("groupSizeIncreaseAfter") : groupSizeIncreaseAfter;
 
             // Map deprecated field
             if (groupPartitionOverride) {
@@ -313,8 +637,45 @@ public final class JetFuelConfiguration {
             } else {
                 partitionGrouping = PartitionGrouping.NONE;
             }
+            concurrency = concurrency == null || concurrency < 1 ? config.getInt("concurrency") : concurrency;
+            copyThreads = copyThreads == null || copyThreads < 1 ? config.getInt("copyThreads") : copyThreads;
+
+            // Use MapReduce unless Tez is requested
+            if (executionEngine == null) {
+                executionEngine = ExecutionEngine.MR;
+            }
+
+            // Retry failed groups partition by partition unless told otherwise
+            if (failureIsolation == null) {
+                failureIsolation = FailureIsolation.FALLBACK;
+            }
+
+            // Fuel every partition unless told otherwise
+            if (optimalPartitions == null) {
+                optimalPartitions = OptimalPartitions.FUEL;
+            }
+
             // Add mapReduceTaskTimeout for map-reduce jobs
             mapReduceTaskTimeout = mapReduceTaskTimeout == null ? config.getLong("mapReduceTaskTimeout") : mapReduceTaskTimeout;
+            reconnectAttempts = reconnectAttempts == null || reconnectAttempts < 1 ? config.getInt("reconnectAttempts") : reconnectAttempts;
+            reconnectBackoffInSeconds = reconnectBackoffInSeconds == null || reconnectBackoffInSeconds < 0 ? config.getInt("reconnectBackoffInSeconds") : reconnectBackoffInSeconds;
+            progressIntervalInSeconds = progressIntervalInSeconds == null || progressIntervalInSeconds < 0 ? config.getInt("progressIntervalInSeconds") : progressIntervalInSeconds;
+
+            // Evaluate the compressions of the target file format on the storage objective unless told otherwise
+            if (codecEvaluation != null) {
+                if (codecEvaluation.getFileFormats() == null || codecEvaluation.getFileFormats().isEmpty()) {
+                    codecEvaluation.setFileFormats(Collections.singletonList(targetFileFormat == null ? FileFormat.NULL.toString() : targetFileFormat.toString()));
+                }
+                if (codecEvaluation.getSamplePartitions() == null || codecEvaluation.getSamplePartitions() < 1) {
+                    codecEvaluation.setSamplePartitions(config.getInt("evaluationSamplePartitions"));
+                }
+                if (codecEvaluation.getSamplePercent() == null || codecEvaluation.getSamplePercent() < 1) {
+                    codecEvaluation.setSamplePercent(config.getInt("evaluationSamplePercent"));
+                }
+                if (codecEvaluation.getObjective() == null) {
+                    codecEvaluation.setObjective(EvaluationObjective.STORAGE);
+                }
+            }
         }
 
         //
@@ -333,6 +694,22 @@ public final class JetFuelConfiguration {
             }
         }
 
+        public void setOptimalPartitions(final String optimalPartitions) {
+            try {
+                this.optimalPartitions = isBlank(optimalPartitions) ? OptimalPartitions.FUEL : OptimalPartitions.valueOf(optimalPartitions.toUpperCase());
+            } catch (final Exception e) {
+                throw new JetFuelException("Unrecognized optimalPartitions provided.", e);
+            }
+        }
+
+        public void setFailureIsolation(final String failureIsolation) {
+            try {
+                this.failureIsolation = isBlank(failureIsolation) ? FailureIsolation.FALLBACK : FailureIsolation.valueOf(failureIsolation.toUpperCase());
+            } catch (final Exception e) {
+                throw new JetFuelException("Unrecognized failureIsolation provided.", e);
+            }
+        }
+
         public void setPartitionGrouping(final String partitionGrouping) {
             try {
                 this.partitionGrouping = isBlank(partitionGrouping) ? PartitionGrouping.NONE : PartitionGrouping.valueOf(partitionGrouping.toUpperCase());
@@ -341,6 +718,14 @@ public final class JetFuelConfiguration {
             }
         }
 
+        public void setExecutionEngine(final String executionEngine) {
+            try {
+                this.executionEngine = isBlank(executionEngine) ? ExecutionEngine.MR : ExecutionEngine.valueOf(executionEngine.toUpperCase());
+            } catch (final Exception e) {
+                throw new JetFuelException("Unrecognized executionEngine provided.", e);
+            }
+        }
+
         //
         // with Methods -- modify and return a new Builder
         //
@@ -440,6 +825,16 @@ public final class JetFuelConfiguration {
             return new Builder(this);
         }
 
+        public Builder withMapReduceMemoryLadderInMB(final List<Long> mapReduceMemoryLadderInMB) {
+            this.mapReduceMemoryLadderInMB = mapReduceMemoryLadderInMB;
+            return new Builder(this);
+        }
+
+        public Builder withMaxMapReduceMemoryInMB(final Long maxMapReduceMemoryInMB) {
+            this.maxMapReduceMemoryInMB = maxMapReduceMemoryInMB;
+            return new Builder(this);
+        }
+
         public Builder withParquetBlockSize(final Long parquetBlockSize) {
             this.parquetBlockSize = parquetBlockSize;
             return new Builder(this);
@@ -455,6 +850,21 @@ public final class JetFuelConfiguration {
             return new Builder(this);
         }
 
+        public Builder withInsertPartitionGroupBytes(final Long insertPartitionGroupBytes) {
+            this.insertPartitionGroupBytes = insertPartitionGroupBytes;
+            return new Builder(this);
+        }
+
+        public Builder withInsertPartitionGroupFiles(final Long insertPartitionGroupFiles) {
+            this.insertPartitionGroupFiles = insertPartitionGroupFiles;
+            return new Builder(this);
+        }
+
+        public Builder withGroupSizeIncreaseAfter(final Integer groupSizeIncreaseAfter) {
+            this.groupSizeIncreaseAfter = groupSizeIncreaseAfter;
+            return new Builder(this);
+        }
+
         public Builder withGroupPartitionOverride(final boolean groupPartitionOverride) {
             this.groupPartitionOverride = groupPartitionOverride;
             return new Builder(this);
@@ -475,6 +885,116 @@ public final class JetFuelConfiguration {
             return new Builder(this);
         }
 
+        public Builder withCompactPartitionPredicates(final boolean compactPartitionPredicates) {
+            this.compactPartitionPredicates = compactPartitionPredicates;
+            return new Builder(this);
+        }
+
+        public Builder withFailureIsolation(final String failureIsolation) {
+            setFailureIsolation(failureIsolation);
+            return new Builder(this);
+        }
+
+        public Builder withFailureIsolation(final FailureIsolation failureIsolation) {
+            this.failureIsolation = failureIsolation;
+            return new Builder(this);
+        }
+
+        public Builder withConcurrency(final Integer concurrency) {
+            this.concurrency = concurrency;
+            return new Builder(this);
+        }
+
+        public Builder withExecutionEngine(final String executionEngine) {
+            setExecutionEngine(executionEngine);
+            return new Builder(this);
+        }
+
+        public Builder withExecutionEngine(final ExecutionEngine executionEngine) {
+            this.executionEngine = executionEngine;
+            return new Builder(this);
+        }
+
+        public Builder withJournalPath(final String journalPath) {
+            this.journalPath = journalPath;
+            return new Builder(this);
+        }
+
+        public Builder withResume(final boolean resume) {
+            this.resume = resume;
+            return new Builder(this);
+        }
+
+        public Builder withReportPath(final String reportPath) {
+            this.reportPath = reportPath;
+            return new Builder(this);
+        }
+
+        public Builder withMetricsPort(final Integer metricsPort) {
+            this.metricsPort = metricsPort;
+            return new Builder(this);
+        }
+
+        public Builder withMetricsTextfilePath(final String metricsTextfilePath) {
+            this.metricsTextfilePath = metricsTextfilePath;
+            return new Builder(this);
+        }
+
+        public Builder withIncremental(final boolean incremental) {
+            this.incremental = incremental;
+            return new Builder(this);
+        }
+
+        public Builder withOptimalPartitions(final String optimalPartitions) {
+            setOptimalPartitions(optimalPartitions);
+            return new Builder(this);
+        }
+
+        public Builder withOptimalPartitions(final OptimalPartitions optimalPartitions) {
+            this.optimalPartitions = optimalPartitions;
+            return new Builder(this);
+        }
+
+        public Builder withCopyThreads(final Integer copyThreads) {
+            this.copyThreads = copyThreads;
+            return new Builder(this);
+        }
+
+        public Builder withConcatenate(final boolean concatenate) {
+            this.concatenate = concatenate;
+            return new Builder(this);
+        }
+
+        public Builder withCodecEvaluation(final CodecEvaluation codecEvaluation) {
+            this.codecEvaluation = codecEvaluation;
+            return new Builder(this);
+        }
+
+        public Builder withProgressIntervalInSeconds(final Integer progressIntervalInSeconds) {
+            this.progressIntervalInSeconds = progressIntervalInSeconds;
+            return new Builder(this);
+        }
+
+        public Builder withQueryTimeoutInMinutes(final Long queryTimeoutInMinutes) {
+            this.queryTimeoutInMinutes = queryTimeoutInMinutes;
+            return new Builder(this);
+        }
+
+        public Builder withRunBudgetInMinutes(final Long runBudgetInMinutes) {
+            this.runBudgetInMinutes = runBudgetInMinutes;
+            return new Builder(this);
+        }
+
+        public Builder withReconnectAttempts(final Integer reconnectAttempts) {
+            this.reconnectAttempts = reconnectAttempts;
+            return new Builder(this);
+        }
+
+        public Builder withReconnectBackoffInSeconds(final Integer reconnectBackoffInSeconds) {
+            this.reconnectBackoffInSeconds = reconnectBackoffInSeconds;
+            return new Builder(this);
+        }
+
         public Builder withConfigQueries(final List<String> configQueries) {
             this.configQueries = configQueries;
             return new Builder(this);
@@ -17,9 +17,16 @@ package com.expediagroup.jetfuel.models;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 
 import com.google.common.collect.LinkedHashMultimap;
@@ -42,6 +49,36 @@ public final class JetFuelRequest {
      */
     private final SetMultimap<String, String> insertPartitionQueries = LinkedHashMultimap.create();
 
+    /**
+     * Partition filter fragment of each individual INSERT PARTITION query (for static partitioning)
+     */
+    private final Map<String, String> insertPartitionQueryFragments = new HashMap<>();
+
+    /**
+     * Partition filter fragments already fueled by a previous run
+     */
+    private final Set<String> completedPartitions = new HashSet<>();
+
+    /**
+     * Lower case names of the source table's partition keys of an integer type, compacted into ranges
+     */
+    private final Set<String> integerPartitionKeys = new HashSet<>();
+
+    /**
+     * Lower case names of the source table's partition keys of the date type, compacted into ranges
+     */
+    private final Set<String> datePartitionKeys = new HashSet<>();
+
+    /**
+     * Session SETs for each step of the memory ladder, run in turn while a query keeps running out of memory
+     */
+    private final List<List<String>> memoryEscalationQueries = new ArrayList<>();
+
+    /**
+     * Session SETs restoring the configured task memory after an escalated retry
+     */
+    private final List<String> memoryResetQueries = new ArrayList<>();
+
     /**
      * Stack of partition filter fragments (for dynamic partitioning)
      */
@@ -56,6 +93,24 @@ public final class JetFuelRequest {
     @Setter
     private long partitionGroupSize;
 
+    /**
+     * Consecutive successful queries after which the partition group size grows again (for dynamic partitioning)
+     */
+    @Setter
+    private int groupSizeIncreaseAfter;
+
+    /**
+     * Combine partition filter fragments with IN lists and ranges instead of OR
+     */
+    @Setter
+    private boolean compactPartitionPredicates;
+
+    /**
+     * Handling of partition groups whose query fails
+     */
+    @Setter
+    private FailureIsolation failureIsolation = FailureIsolation.FALLBACK;
+
     /**
      * Adds a Hive query to run during Fueling
      *
@@ -91,6 +146,38 @@ public final class JetFuelRequest {
         jetFuelQueries.add(query);
     }
 
+    /**
+     * Adds a step to the memory ladder used when retrying a query whose task ran out of memory
+     *
+     * @param properties Hive Properties raising the task memory for this step
+     */
+    public void addMemoryEscalationStep(final List<HiveProperty> properties) {
+        Validate.notEmpty(properties, "Properties cannot be empty");
+        memoryEscalationQueries.add(properties.stream().map(HiveProperty::getQuery).collect(Collectors.toList()));
+    }
+
+    /**
+     * Adds a Hive Property restoring the configured task memory after an escalated retry
+     *
+     * @param property Hive Property with the configured value
+     */
+    public void addMemoryResetQuery(final HiveProperty property) {
+        Validate.notNull(property, "Property cannot be null");
+        memoryResetQueries.add(property.getQuery());
+    }
+
+    /**
+     * Returns the session-level SET queries, in the order they were added.
+     * These are replayed on every additional HiveServer2 session before it runs partition groups.
+     *
+     * @return List of SET queries
+     */
+    public List<String> getSessionQueries() {
+        return jetFuelQueries.stream()
+                .filter(query -> StringUtils.startsWithIgnoreCase(query.trim(), "SET "))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Adds a Partition Key Query group (Static Partition Grouping)
      *
@@ -104,6 +191,37 @@ public final class JetFuelRequest {
         insertPartitionQueries.putAll(queryKey, queryValue);
     }
 
+    /**
+     * Adds a Partition Key Query group (Static Partition Grouping), remembering which partition each individual query fuels
+     *
+     * @param queryKey         Hive query that INSERTs a group of partitions
+     * @param partitionQueries Hive queries that INSERT each partition individually, keyed by partition filter fragment
+     */
+    public void addInsertPartitionQuery(final String queryKey, final Map<String, String> partitionQueries) {
+        Validate.notNull(partitionQueries, "PartitionQueries cannot be null");
+        addInsertPartitionQuery(queryKey, new ArrayList<>(partitionQueries.values()));
+        partitionQueries.forEach((partitionFilter, query) -> insertPartitionQueryFragments.put(query, partitionFilter));
+    }
+
+    /**
+     * Retrieves the number of partitions fueled by the grouped queries, summed over the partition queries of every group
+     *
+     * @return number of partitions
+     */
+    public int getInsertPartitionCount() {
+        return insertPartitionQueries.asMap().values().stream().mapToInt(Collection::size).sum();
+    }
+
+    /**
+     * Adds partitions fueled by a previous run, to be skipped when generating queries
+     *
+     * @param partitionFilters partition filter fragments
+     */
+    public void addCompletedPartitions(final Collection<String> partitionFilters) {
+        Validate.notNull(partitionFilters, "PartitionFilters cannot be null");
+        completedPartitions.addAll(partitionFilters);
+    }
+
     /**
      * Adds a PartitionFilterFragment (Dynamic Partition Grouping)
      * (e.g. "(partitionKey = 'value')")
@@ -27,6 +27,7 @@ public enum PartitionGrouping {
 
     NONE,
     STATIC,
-    DYNAMIC
+    DYNAMIC,
+    SIZE
 
 }
@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.models;
+
+import java.util.Map;
+
+import org.apache.hadoop.hive.metastore.api.Partition;
+
+import lombok.Data;
+
+/**
+ * A single partition of a table, as listed from the Hive Metastore.
+ */
+@Data
+public final class PartitionSpec {
+
+    /**
+     * Partition values keyed by lower-case partition key name, in partition key order
+     */
+    private final Map<String, String> values;
+
+    /**
+     * Partition filter matching exactly this partition, e.g. (trans_month = '2012-09')
+     */
+    private final String filterFragment;
+
+    /**
+     * The metastore partition
+     */
+    private final Partition partition;
+}
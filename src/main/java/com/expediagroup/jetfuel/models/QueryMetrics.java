@@ -0,0 +1,66 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.models;
+
+import com.expediagroup.jetfuel.exception.FailureType;
+
+import lombok.Data;
+
+/**
+ * Metrics of a single partition query, including its retries.
+ */
+@Data
+public final class QueryMetrics {
+
+    /**
+     * Name of the thread running the query, which identifies its session
+     */
+    private final String session;
+
+    /**
+     * Start of the query, in milliseconds since the epoch
+     */
+    private final long startTime;
+
+    /**
+     * Duration of the query and its retries, in milliseconds
+     */
+    private final long durationMillis;
+
+    /**
+     * Number of partitions written by the query
+     */
+    private final int groupSize;
+
+    /**
+     * Number of times the query was retried after a lost connection or an out of memory failure
+     */
+    private final int retries;
+
+    /**
+     * Cause of the failure, or null if the query succeeded
+     */
+    private final FailureType failureType;
+
+    /**
+     * Returns whether the query succeeded.
+     *
+     * @return true if the query succeeded
+     */
+    public boolean isSucceeded() {
+        return failureType == null;
+    }
+}
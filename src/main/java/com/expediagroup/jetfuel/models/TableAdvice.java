@@ -0,0 +1,64 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.models;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Storage problems of a table found by the warehouse advisor, and the settings suggested to fuel it.
+ */
+@Data
+public final class TableAdvice {
+
+    private final String database;
+    private final String table;
+
+    /**
+     * Bytes of the table, over the partitions with statistics
+     */
+    private final long totalSize;
+
+    /**
+     * Files of the table, over the partitions with statistics
+     */
+    private final long numFiles;
+
+    /**
+     * Files above what the data needs at one file per HDFS block, in partitions whose files are small on average
+     */
+    private final long excessFiles;
+
+    /**
+     * Bytes stored as TEXT, SEQ or AVRO, or without compression
+     */
+    private final long inefficientBytes;
+
+    /**
+     * Filter fragments of the partitions worth fueling, or empty to fuel the whole table
+     */
+    private final List<String> partitionFilterFragments;
+
+    /**
+     * Ranking of the table, as the inefficient bytes plus an HDFS block worth of bytes per excess file
+     */
+    private final long score;
+
+    private final FileFormat targetFileFormat;
+    private final String targetCompression;
+    private final boolean targetCompaction;
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.models;
+
+import lombok.Data;
+
+/**
+ * Estimated cost and benefit of fueling a table, from its metastore statistics.
+ */
+@Data
+public final class TableEstimate {
+
+    /**
+     * Configuration of the table
+     */
+    private final JetFuelConfiguration table;
+
+    /**
+     * Bytes read and rewritten by fueling the table
+     */
+    private final long rewriteBytes;
+
+    /**
+     * Bytes the table is expected to shrink by
+     */
+    private final long savedBytes;
+
+    /**
+     * Number of files the table is expected to lose
+     */
+    private final long removedFiles;
+
+    /**
+     * Number of partitions without a totalSize statistic, left out of the estimate
+     */
+    private final int partitionsWithoutStats;
+
+    /**
+     * Benefit of fueling the table, as the saved bytes plus a fixed number of bytes per removed file
+     */
+    private final long benefit;
+
+    /**
+     * Returns the benefit per rewritten byte, which orders the tables of a batch.
+     *
+     * @return benefit per rewritten byte; 0 when there is no benefit
+     */
+    public double getBenefitPerCost() {
+        return benefit / (double) Math.max(rewriteBytes, 1);
+    }
+}
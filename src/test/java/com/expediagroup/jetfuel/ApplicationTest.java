@@ -40,9 +40,13 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import com.expediagroup.jetfuel.internal.JetFuelManagerImpl;
+import com.expediagroup.jetfuel.internal.WarehouseAdvisor;
 import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+import com.expediagroup.jetfuel.models.AdvisorConfiguration;
+import com.expediagroup.jetfuel.models.BatchConfiguration;
 import com.expediagroup.jetfuel.models.FileFormat;
 import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.google.common.collect.ImmutableList;
 
 /**
  * Tests for {@link Application}
@@ -51,7 +55,8 @@ import com.expediagroup.jetfuel.models.JetFuelConfiguration;
 @PrepareForTest({ JetFuelManagerFactory.class, JetFuelManagerImpl.class, HiveTableUtils.class })
 public final class ApplicationTest {
 
-    private static final String usageText = "usage: java -jar jetfuel.jar\n -yamlFile <FILE>   YAML configuration file\n";
+    private static final String usageText = "usage: java -jar jetfuel.jar\n -advise <FILE>     YAML configuration file of the warehouse advisor\n"
+            + " -yamlFile <FILE>   YAML configuration file or directory of YAML files\n";
 
     private static final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
     private static final ByteArrayOutputStream errContent = new ByteArrayOutputStream();
@@ -124,4 +129,50 @@ public final class ApplicationTest {
         assertNull(jetFuelConfiguration.getPartitionFilter());
         assertFalse(jetFuelConfiguration.isEnablePartitionGrouping());
     }
+
+    @Test
+    public void testMainBatchFueling() {
+        final JetFuelManager mock = mock(JetFuelManager.class);
+        mockStatic(JetFuelManagerFactory.class);
+        when(JetFuelManagerFactory.createBatch(any())).thenReturn(mock);
+
+        Application.main(new String[] { "-yamlFile", "./src/test/resources/jetFuelBatch.yml" });
+        verify(mock, times(1)).fuel();
+
+        final ArgumentCaptor<BatchConfiguration> configurationCaptor = ArgumentCaptor.forClass(BatchConfiguration.class);
+        verifyStatic(JetFuelManagerFactory.class);
+        JetFuelManagerFactory.createBatch(configurationCaptor.capture());
+
+        assertEquals(3, configurationCaptor.getValue().getMaxSessions());
+        assertEquals(2, configurationCaptor.getValue().getTables().size());
+    }
+
+    @Test
+    public void testMainAdvise() {
+        final WarehouseAdvisor mock = mock(WarehouseAdvisor.class);
+        mockStatic(JetFuelManagerFactory.class);
+        when(JetFuelManagerFactory.createAdvisor(any())).thenReturn(mock);
+
+        Application.main(new String[] { "-advise", "./src/test/resources/jetFuelAdvisor.yml" });
+        verify(mock, times(1)).advise();
+
+        final ArgumentCaptor<AdvisorConfiguration> configurationCaptor = ArgumentCaptor.forClass(AdvisorConfiguration.class);
+        verifyStatic(JetFuelManagerFactory.class);
+        JetFuelManagerFactory.createAdvisor(configurationCaptor.capture());
+
+        assertEquals(ImmutableList.of("jetfuel_test", "clickstream"), configurationCaptor.getValue().getDatabases());
+        assertEquals("jetfuel", configurationCaptor.getValue().getTargetDatabase());
+    }
+
+    @Test
+    public void testMainAdviseMissingFile() {
+        Application.main(new String[] { "-advise", "missing.yml" });
+        assertTrue(outContent.toString().contains("Unable to load YAML configuration file."));
+    }
+
+    @Test
+    public void testMainAdviseInvalidYaml() {
+        Application.main(new String[] { "-advise", "./src/test/resources/invalid.yml" });
+        assertTrue(outContent.toString().contains("Error parsing YAML file"));
+    }
 }
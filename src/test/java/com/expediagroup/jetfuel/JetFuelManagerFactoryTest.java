@@ -21,6 +21,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.whenNew;
 
+import java.util.Collections;
+
 import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -28,8 +30,14 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.internal.BatchManagerImpl;
+import com.expediagroup.jetfuel.internal.CodecEvaluator;
 import com.expediagroup.jetfuel.internal.JetFuelManagerImpl;
+import com.expediagroup.jetfuel.internal.hive.HiveSessionPool;
 import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+import com.expediagroup.jetfuel.models.AdvisorConfiguration;
+import com.expediagroup.jetfuel.models.BatchConfiguration;
+import com.expediagroup.jetfuel.models.CodecEvaluation;
 import com.expediagroup.jetfuel.models.FileFormat;
 import com.expediagroup.jetfuel.models.JetFuelConfiguration;
 
@@ -62,7 +70,7 @@ public final class JetFuelManagerFactoryTest {
 
     @Test
     public void testCreate() throws Exception {
-        whenNew(JetFuelManagerImpl.class).withArguments(any(), any(), any(), any()).thenReturn(mock(JetFuelManagerImpl.class));
+        whenNew(JetFuelManagerImpl.class).withArguments(any(), any(), any(), any(), any()).thenReturn(mock(JetFuelManagerImpl.class));
         whenNew(HiveTableUtils.class).withAnyArguments().thenReturn(hiveTableUtils);
 
         final JetFuelManager jetFuelManager = JetFuelManagerFactory.create(jetFuelConfiguration);
@@ -72,8 +80,48 @@ public final class JetFuelManagerFactoryTest {
 
     @Test(expected = JetFuelException.class)
     public void testConstructorMetaException() throws Exception {
-        whenNew(HiveTableUtils.class).withAnyArguments().thenReturn(hiveTableUtils);
-        whenNew(JetFuelManagerImpl.class).withArguments(any(), any(), any(), any()).thenThrow(new MetaException());
+        whenNew(HiveTableUtils.class).withAnyArguments().thenThrow(new MetaException());
         JetFuelManagerFactory.create(jetFuelConfiguration);
     }
+
+    @Test(expected = NullPointerException.class)
+    public void testCreateBatchNullConfiguration() {
+        JetFuelManagerFactory.createBatch(null);
+    }
+
+    @Test
+    public void testCreateBatch() {
+        final JetFuelManager jetFuelManager = JetFuelManagerFactory.createBatch(new BatchConfiguration(Collections.singletonList(jetFuelConfiguration), 1));
+        assertTrue(jetFuelManager instanceof BatchManagerImpl);
+    }
+
+    @Test
+    public void testCreateWithSessionPool() throws Exception {
+        whenNew(JetFuelManagerImpl.class).withArguments(any(), any(), any(), any(), any()).thenReturn(mock(JetFuelManagerImpl.class));
+
+        final JetFuelManager jetFuelManager = JetFuelManagerFactory.create(jetFuelConfiguration, hiveTableUtils, new HiveSessionPool(1));
+        assertTrue(jetFuelManager instanceof JetFuelManagerImpl);
+    }
+
+    @Test
+    public void testCreateCodecEvaluator() {
+        final JetFuelManager jetFuelManager = JetFuelManagerFactory.create(jetFuelConfiguration.toBuilder().withCodecEvaluation(new CodecEvaluation()).build(),
+                hiveTableUtils, null);
+        assertTrue(jetFuelManager instanceof CodecEvaluator);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testCreateAdvisorNullConfiguration() {
+        JetFuelManagerFactory.createAdvisor(null);
+    }
+
+    @Test
+    public void testCreateAdvisor() {
+        final AdvisorConfiguration advisorConfiguration = new AdvisorConfiguration.Builder()
+                .withHiveMetastoreUri("hiveMetastoreUri")
+                .withDatabases(Collections.singletonList("db"))
+                .withOutputDirectory("advice")
+                .build();
+        assertNotNull(JetFuelManagerFactory.createAdvisor(advisorConfiguration));
+    }
 }
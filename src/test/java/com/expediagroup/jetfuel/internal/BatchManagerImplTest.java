@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.verifyStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import com.expediagroup.jetfuel.JetFuelManager;
+import com.expediagroup.jetfuel.JetFuelManagerFactory;
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.internal.hive.HiveSessionPool;
+import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+import com.expediagroup.jetfuel.models.BatchConfiguration;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Tests for {@link BatchManagerImpl}
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ JetFuelManagerFactory.class })
+public final class BatchManagerImplTest {
+
+    private final HiveTableUtils hiveTableUtils = mock(HiveTableUtils.class);
+    private final JetFuelManager manager1 = mock(JetFuelManager.class);
+    private final JetFuelManager manager2 = mock(JetFuelManager.class);
+    private final JetFuelConfiguration.Builder builder = new JetFuelConfiguration.Builder()
+            .withSourceDatabase("sourceDb")
+            .withSourceTable("sourceTable1")
+            .withTargetDatabase("targetDb")
+            .withTargetTable("targetTable1")
+            .withHiveMetastoreUri("hiveMetastoreUri")
+            .withHiveServer2Url("hiveUrl")
+            .withHiveServer2Username("username")
+            .withTargetFileFormat("ORC");
+    private final JetFuelConfiguration table1 = builder.build();
+    private final JetFuelConfiguration table2 = builder.withSourceTable("sourceTable2").withTargetTable("targetTable2").build();
+
+    @Before
+    public void setup() throws Exception {
+        mockStatic(JetFuelManagerFactory.class);
+        when(JetFuelManagerFactory.createHiveTableUtils(anyString())).thenReturn(hiveTableUtils);
+        when(JetFuelManagerFactory.create(eq(table1), eq(hiveTableUtils), any(HiveSessionPool.class))).thenReturn(manager1);
+        when(JetFuelManagerFactory.create(eq(table2), eq(hiveTableUtils), any(HiveSessionPool.class))).thenReturn(manager2);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullBatchConfiguration() {
+        new BatchManagerImpl(null);
+    }
+
+    @Test
+    public void testFuel() throws Exception {
+        final AtomicReference<String> threadName = new AtomicReference<>();
+        doAnswer(invocation -> {
+            threadName.set(Thread.currentThread().getName());
+            return null;
+        }).when(manager1).fuel();
+
+        new BatchManagerImpl(new BatchConfiguration(Arrays.asList(table1, table2), 2)).fuel();
+
+        verify(manager1).fuel();
+        verify(manager2).fuel();
+        assertEquals("jetfuel-targetDb.targetTable1", threadName.get());
+        verifyStatic(JetFuelManagerFactory.class, times(1));
+        JetFuelManagerFactory.createHiveTableUtils("hiveMetastoreUri");
+        verify(hiveTableUtils).close();
+    }
+
+    @Test
+    public void testFuelIsolatesTableFailures() {
+        doThrow(new JetFuelException("Query failed")).when(manager1).fuel();
+
+        try {
+            new BatchManagerImpl(new BatchConfiguration(Arrays.asList(table1, table2), 1)).fuel();
+            fail("Expected JetFuelException");
+        } catch (final JetFuelException e) {
+            assertEquals("1 of 2 tables failed: [sourceDb.sourceTable1 -> targetDb.targetTable1]", e.getMessage());
+        }
+        verify(manager2).fuel();
+        verify(hiveTableUtils).close();
+    }
+
+    @Test
+    public void testFuelMetastoreFailure() throws Exception {
+        when(JetFuelManagerFactory.createHiveTableUtils(anyString())).thenThrow(new MetaException("Unreachable"));
+
+        try {
+            new BatchManagerImpl(new BatchConfiguration(Collections.singletonList(table1), 1)).fuel();
+            fail("Expected JetFuelException");
+        } catch (final JetFuelException e) {
+            assertEquals("1 of 1 tables failed: [sourceDb.sourceTable1 -> targetDb.targetTable1]", e.getMessage());
+        }
+        verify(manager1, times(0)).fuel();
+    }
+
+    @Test
+    public void testFuelMetastoreClientCloseFailureIgnored() {
+        doThrow(new IllegalStateException("Already closed")).when(hiveTableUtils).close();
+
+        new BatchManagerImpl(new BatchConfiguration(Collections.singletonList(table1), 1)).fuel();
+
+        verify(manager1).fuel();
+    }
+
+    @Test
+    public void testFuelSkipsTablesOutsideTimeBudget() {
+        final Table sourceTable1 = new Table();
+        sourceTable1.setParameters(ImmutableMap.of("totalSize", "1000"));
+        final Table sourceTable2 = new Table();
+        sourceTable2.setParameters(ImmutableMap.of("totalSize", "100000"));
+        when(hiveTableUtils.getTable("sourceDb", "sourceTable1")).thenReturn(sourceTable1);
+        when(hiveTableUtils.getTable("sourceDb", "sourceTable2")).thenReturn(sourceTable2);
+        when(hiveTableUtils.getTotalSize(any())).thenAnswer(invocation -> Long.valueOf(((Partition) invocation.getArgument(0)).getParameters().get("totalSize")));
+
+        new BatchManagerImpl(new BatchConfiguration(Arrays.asList(table2, table1), 1, 1L, 100L)).fuel();
+
+        verify(manager1).fuel();
+        verify(manager2, times(0)).fuel();
+        verify(hiveTableUtils).close();
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+import com.expediagroup.jetfuel.models.BatchConfiguration;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.expediagroup.jetfuel.models.OptimalPartitions;
+import com.expediagroup.jetfuel.models.PartitionSpec;
+import com.expediagroup.jetfuel.models.TableEstimate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Tests for {@link BatchPlanner}
+ */
+public final class BatchPlannerTest {
+
+    private static final String TEXT_INPUT_FORMAT = "org.apache.hadoop.mapred.TextInputFormat";
+    private static final String ORC_INPUT_FORMAT = "org.apache.hadoop.hive.ql.io.orc.OrcInputFormat";
+
+    private final HiveTableUtils hiveTableUtils = mock(HiveTableUtils.class);
+    private final JetFuelConfiguration.Builder builder = new JetFuelConfiguration.Builder()
+            .withSourceDatabase("sourceDb")
+            .withSourceTable("sourceTable")
+            .withTargetDatabase("targetDb")
+            .withTargetTable("targetTable")
+            .withHiveMetastoreUri("hiveMetastoreUri")
+            .withHiveServer2Url("hiveUrl")
+            .withHiveServer2Username("username")
+            .withTargetFileFormat("ORC")
+            .withTargetCompression("SNAPPY")
+            .withTargetCompaction(false);
+    private final JetFuelConfiguration configuration = builder.build();
+    private final BatchPlanner planner = new BatchPlanner(new BatchConfiguration(ImmutableList.of(configuration), 1));
+
+    @Before
+    public void setup() {
+        when(hiveTableUtils.getTotalSize(any())).thenAnswer(invocation -> getStatistic(invocation.getArgument(0), "totalSize"));
+        when(hiveTableUtils.getNumFiles(any())).thenAnswer(invocation -> getStatistic(invocation.getArgument(0), "numFiles"));
+        when(hiveTableUtils.getRawDataSize(any())).thenAnswer(invocation -> getStatistic(invocation.getArgument(0), "rawDataSize"));
+        when(hiveTableUtils.isPartitioned(any())).thenAnswer(invocation -> ((Table) invocation.getArgument(0)).getPartitionKeysSize() != 0);
+    }
+
+    private static long getStatistic(final Partition partition, final String name) {
+        return partition.getParameters() == null ? -1 : NumberUtils.toLong(partition.getParameters().get(name), -1);
+    }
+
+    private static StorageDescriptor createStorageDescriptor(final String inputFormat) {
+        final StorageDescriptor storageDescriptor = new StorageDescriptor();
+        storageDescriptor.setInputFormat(inputFormat);
+        return storageDescriptor;
+    }
+
+    private void mockTable(final String name, final String inputFormat, final Map<String, String> parameters) {
+        final Table table = new Table();
+        table.setDbName("sourceDb");
+        table.setTableName(name);
+        table.setSd(createStorageDescriptor(inputFormat));
+        table.setParameters(parameters);
+        when(hiveTableUtils.getTable("sourceDb", name)).thenReturn(table);
+    }
+
+    private static Partition createPartition(final String inputFormat, final Map<String, String> parameters) {
+        final Partition partition = new Partition();
+        partition.setSd(createStorageDescriptor(inputFormat));
+        partition.setParameters(parameters);
+        return partition;
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullBatchConfiguration() {
+        new BatchPlanner(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testScheduleNullMetastoreClients() {
+        planner.schedule(null);
+    }
+
+    @Test
+    public void testEstimateFormatChange() {
+        mockTable("sourceTable", TEXT_INPUT_FORMAT, ImmutableMap.of("totalSize", "1000", "numFiles", "10"));
+        final JetFuelConfiguration compacted = builder.withTargetCompaction(true).withSmallFileAvgSize("100").build();
+
+        final TableEstimate estimate = planner.estimate(compacted, hiveTableUtils);
+
+        assertEquals(1000, estimate.getRewriteBytes());
+        assertEquals(750, estimate.getSavedBytes());
+        assertEquals(7, estimate.getRemovedFiles());
+        assertEquals(750 + 7 * BatchPlanner.REMOVED_FILE_BENEFIT_BYTES, estimate.getBenefit());
+    }
+
+    @Test
+    public void testEstimateRawDataSize() {
+        mockTable("sourceTable", TEXT_INPUT_FORMAT, ImmutableMap.of("totalSize", "1000", "rawDataSize", "2000"));
+
+        final TableEstimate estimate = planner.estimate(configuration, hiveTableUtils);
+
+        assertEquals(1000, estimate.getRewriteBytes());
+        assertEquals(500, estimate.getSavedBytes());
+        assertEquals(0, estimate.getRemovedFiles());
+    }
+
+    @Test
+    public void testEstimateUnknownFileFormat() {
+        mockTable("sourceTable", "com.example.CustomInputFormat", ImmutableMap.of("totalSize", "1000"));
+
+        final TableEstimate estimate = planner.estimate(configuration, hiveTableUtils);
+
+        assertEquals(1000, estimate.getRewriteBytes());
+        assertEquals(0, estimate.getSavedBytes());
+        assertEquals(0, estimate.getBenefitPerCost(), 0);
+    }
+
+    @Test
+    public void testEstimateOtherCompression() {
+        mockTable("sourceTable", ORC_INPUT_FORMAT, ImmutableMap.of("totalSize", "1000", "orc.compress", "NONE"));
+
+        final TableEstimate estimate = planner.estimate(configuration, hiveTableUtils);
+
+        assertEquals(500, estimate.getSavedBytes());
+    }
+
+    @Test
+    public void testEstimatePartitions() {
+        final Table table = new Table();
+        table.setPartitionKeys(ImmutableList.of(new FieldSchema("p", "string", null)));
+        table.setParameters(ImmutableMap.of("orc.compress", "SNAPPY"));
+        when(hiveTableUtils.getTable("sourceDb", "sourceTable")).thenReturn(table);
+        when(hiveTableUtils.getPartitionSpecs(table)).thenReturn(ImmutableList.of(
+                new PartitionSpec(ImmutableMap.of("p", "a"), "(p = 'a')", createPartition(ORC_INPUT_FORMAT, ImmutableMap.of("totalSize", "1000"))),
+                new PartitionSpec(ImmutableMap.of("p", "b"), "(p = 'b')", createPartition(TEXT_INPUT_FORMAT, ImmutableMap.of("totalSize", "400"))),
+                new PartitionSpec(ImmutableMap.of("p", "c"), "(p = 'c')", createPartition(TEXT_INPUT_FORMAT, null))));
+
+        final TableEstimate estimate = planner.estimate(builder.withEnablePartitionGrouping(true).withOptimalPartitions(OptimalPartitions.SKIP).build(), hiveTableUtils);
+        assertEquals(400, estimate.getRewriteBytes());
+        assertEquals(300, estimate.getSavedBytes());
+        assertEquals(1, estimate.getPartitionsWithoutStats());
+
+        final TableEstimate fuelEstimate = planner.estimate(builder.withOptimalPartitions(OptimalPartitions.FUEL).build(), hiveTableUtils);
+        assertEquals(1400, fuelEstimate.getRewriteBytes());
+        assertEquals(300, fuelEstimate.getSavedBytes());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testEstimateMissingTable() {
+        planner.estimate(configuration, hiveTableUtils);
+    }
+
+    @Test
+    public void testSchedule() {
+        mockTable("encodedTable", ORC_INPUT_FORMAT, ImmutableMap.of("totalSize", "1000", "orc.compress", "SNAPPY"));
+        mockTable("textTable", TEXT_INPUT_FORMAT, ImmutableMap.of("totalSize", "1000"));
+        when(hiveTableUtils.getTable("sourceDb", "missingTable")).thenThrow(new JetFuelException("Not found"));
+        final JetFuelConfiguration encodedTable = builder.withSourceTable("encodedTable").withTargetTable("encodedTable").build();
+        final JetFuelConfiguration textTable = builder.withSourceTable("textTable").withTargetTable("textTable").build();
+        final JetFuelConfiguration missingTable = builder.withSourceTable("missingTable").withTargetTable("missingTable").build();
+        final List<JetFuelConfiguration> tables = Arrays.asList(missingTable, encodedTable, textTable);
+
+        assertEquals(Arrays.asList(textTable, encodedTable, missingTable),
+                new BatchPlanner(new BatchConfiguration(tables, 1)).schedule(uri -> hiveTableUtils));
+        assertEquals(Arrays.asList(textTable, missingTable),
+                new BatchPlanner(new BatchConfiguration(tables, 1, 1L, 20L)).schedule(uri -> hiveTableUtils));
+        assertEquals(Arrays.asList(textTable, encodedTable, missingTable),
+                new BatchPlanner(new BatchConfiguration(tables, 2, 1L, 20L)).schedule(uri -> hiveTableUtils));
+    }
+}
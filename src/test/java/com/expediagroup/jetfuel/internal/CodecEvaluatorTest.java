@@ -0,0 +1,259 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.verifyStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import com.expediagroup.jetfuel.JetFuelManager;
+import com.expediagroup.jetfuel.JetFuelManagerFactory;
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.internal.hive.HiveDriverClient;
+import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+import com.expediagroup.jetfuel.models.CodecEvaluation;
+import com.expediagroup.jetfuel.models.CodecResult;
+import com.expediagroup.jetfuel.models.EvaluationObjective;
+import com.expediagroup.jetfuel.models.FileFormat;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.expediagroup.jetfuel.models.PartitionSpec;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Tests for {@link CodecEvaluator}
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ JetFuelManagerFactory.class })
+public final class CodecEvaluatorTest {
+
+    private static final ImmutableMap<String, String> SAMPLE_SIZES = ImmutableMap.of(
+            "zlib", "100",
+            "gzip", "150",
+            "snappy", "200",
+            "uncompressed", "400");
+
+    private final HiveTableUtils hiveTableUtils = mock(HiveTableUtils.class);
+    private final HiveDriverClient hiveDriverClient = mock(HiveDriverClient.class);
+    private final Table sourceTable = new Table();
+    private final List<String> queries = new ArrayList<>();
+    private final CodecEvaluation codecEvaluation = new CodecEvaluation();
+    private final JetFuelConfiguration.Builder builder = new JetFuelConfiguration.Builder()
+            .withSourceDatabase("sourceDb")
+            .withSourceTable("sourceTable")
+            .withTargetDatabase("targetDb")
+            .withTargetTable("targetTable")
+            .withHiveMetastoreUri("hiveMetastoreUri")
+            .withHiveServer2Url("hiveUrl")
+            .withHiveServer2Username("username")
+            .withTargetFileFormat(FileFormat.ORC);
+
+    @Before
+    public void setup() {
+        when(hiveTableUtils.getTable("sourceDb", "sourceTable")).thenReturn(sourceTable);
+        when(hiveTableUtils.isPartitioned(sourceTable)).thenReturn(true);
+        when(hiveTableUtils.getPartitions(sourceTable)).thenReturn("(p)");
+        when(hiveTableUtils.getTableColumnsAsString(sourceTable)).thenReturn("a, b");
+        when(hiveTableUtils.getPartitionSpecs(sourceTable)).thenReturn(Arrays.asList(
+                createPartitionSpec("a"), createPartitionSpec("b"), createPartitionSpec("c")));
+        when(hiveTableUtils.getAllPartitions(eq("targetDb"), anyString())).thenAnswer(invocation -> {
+            final Partition partition = new Partition();
+            partition.setParameters(ImmutableMap.of("totalSize", getSampleSize(invocation.getArgument(1))));
+            return Arrays.asList(partition, partition);
+        });
+        when(hiveTableUtils.getTotalSize(any(Partition.class))).thenAnswer(invocation -> Long.parseLong(((Partition) invocation.getArgument(0)).getParameters().get("totalSize")));
+        doAnswer(invocation -> queries.add(invocation.getArgument(0))).when(hiveDriverClient).runQuery(anyString());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullJetFuelConfiguration() {
+        new CodecEvaluator(null, hiveTableUtils, hiveDriverClient, null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullCodecEvaluation() {
+        new CodecEvaluator(builder.build(), hiveTableUtils, hiveDriverClient, null);
+    }
+
+    @Test
+    public void testGetCandidates() {
+        codecEvaluation.setFileFormats(Arrays.asList("orc", "PARQUET"));
+        final List<JetFuelConfiguration> candidates = createEvaluator().getCandidates();
+
+        assertEquals(Arrays.asList("targettable_eval_orc_snappy", "targettable_eval_orc_uncompressed", "targettable_eval_orc_zlib",
+                "targettable_eval_parquet_gzip", "targettable_eval_parquet_snappy", "targettable_eval_parquet_uncompressed"),
+                candidates.stream().map(JetFuelConfiguration::getTargetTable).collect(Collectors.toList()));
+        assertEquals(FileFormat.PARQUET, candidates.get(3).getTargetFileFormat());
+        assertEquals("GZIP", candidates.get(3).getTargetCompression());
+        assertNull(candidates.get(3).getCodecEvaluation());
+    }
+
+    @Test
+    public void testEvaluatePartitioned() {
+        final List<CodecResult> results = createEvaluator().evaluate();
+
+        assertEquals(Arrays.asList("ZLIB", "SNAPPY", "UNCOMPRESSED"), results.stream().map(CodecResult::getCompression).collect(Collectors.toList()));
+        assertEquals(200, results.get(0).getSampleBytes());
+        assertNull(results.get(0).getScanMillis());
+        assertTrue(queries.contains("SET hive.stats.autogather=true"));
+        assertTrue(queries.contains("INSERT OVERWRITE TABLE targetDb.targettable_eval_orc_zlib PARTITION (p) SELECT a, b, p FROM sourceDb.sourceTable WHERE (p = 'b') OR (p = 'c')"));
+        assertTrue(queries.contains("CREATE TABLE targetDb.targettable_eval_orc_zlib LIKE sourceDb.sourceTable STORED AS ORC tblProperties(\"orc.compress\"=\"ZLIB\")"));
+        assertEquals(6, Collections.frequency(queries.stream().map(query -> query.startsWith("DROP TABLE IF EXISTS targetDb.targettable_eval_orc_")).collect(Collectors.toList()), true));
+        verify(hiveDriverClient).openConnection();
+        verify(hiveDriverClient).closeConnection();
+    }
+
+    @Test
+    public void testEvaluateUnpartitioned() {
+        when(hiveTableUtils.isPartitioned(sourceTable)).thenReturn(false);
+        when(hiveTableUtils.getTable(eq("targetDb"), anyString())).thenAnswer(invocation -> {
+            final Table table = new Table();
+            table.setParameters(ImmutableMap.of("totalSize", getSampleSize(invocation.getArgument(1))));
+            return table;
+        });
+        when(hiveTableUtils.getTableTotalSize(any(Table.class))).thenAnswer(invocation -> Long.parseLong(((Table) invocation.getArgument(0)).getParameters().get("totalSize")));
+        codecEvaluation.setFileFormats(Collections.singletonList("PARQUET"));
+        codecEvaluation.setSamplePercent(5);
+
+        final List<CodecResult> results = createEvaluator().evaluate();
+
+        assertEquals(Arrays.asList("GZIP", "SNAPPY", "UNCOMPRESSED"), results.stream().map(CodecResult::getCompression).collect(Collectors.toList()));
+        assertEquals(FileFormat.PARQUET, results.get(0).getFileFormat());
+        assertEquals(150, results.get(0).getSampleBytes());
+        assertTrue(queries.contains("INSERT OVERWRITE TABLE targetDb.targettable_eval_parquet_gzip SELECT * FROM sourceDb.sourceTable TABLESAMPLE(5 PERCENT) sample"));
+    }
+
+    @Test
+    public void testEvaluateReadSpeed() {
+        codecEvaluation.setObjective(EvaluationObjective.READ_SPEED);
+        codecEvaluation.setScanQuery("SELECT COUNT(*) FROM ${table}");
+        doAnswer(invocation -> {
+            final String query = invocation.getArgument(0);
+            if (query.equals("SELECT COUNT(*) FROM targetDb.targettable_eval_orc_zlib")) {
+                Thread.sleep(200);
+            }
+            return queries.add(query);
+        }).when(hiveDriverClient).runQuery(anyString());
+
+        final List<CodecResult> results = createEvaluator().evaluate();
+
+        assertEquals("ZLIB", results.get(2).getCompression());
+        assertTrue(results.get(2).getScanMillis() >= 200);
+        assertTrue(results.get(0).getScanMillis() < 200);
+    }
+
+    @Test
+    public void testEvaluateSkipsFailedCombination() {
+        doAnswer(invocation -> {
+            final String query = invocation.getArgument(0);
+            if (query.startsWith("INSERT OVERWRITE TABLE targetDb.targettable_eval_orc_snappy")) {
+                throw new JetFuelException("Query failed");
+            }
+            return queries.add(query);
+        }).when(hiveDriverClient).runQuery(anyString());
+
+        final List<CodecResult> results = createEvaluator().evaluate();
+
+        assertEquals(Arrays.asList("ZLIB", "UNCOMPRESSED"), results.stream().map(CodecResult::getCompression).collect(Collectors.toList()));
+        assertEquals(2, Collections.frequency(queries, "DROP TABLE IF EXISTS targetDb.targettable_eval_orc_snappy"));
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testEvaluateNoPartitions() {
+        when(hiveTableUtils.getPartitionSpecs(sourceTable)).thenReturn(Collections.emptyList());
+        createEvaluator().evaluate();
+    }
+
+    @Test
+    public void testFuelMissingStatistics() {
+        when(hiveTableUtils.getAllPartitions(eq("targetDb"), anyString())).thenReturn(Collections.singletonList(new Partition()));
+        when(hiveTableUtils.getTotalSize(any(Partition.class))).thenReturn(-1L);
+
+        try {
+            createEvaluator().fuel();
+            fail("Expected JetFuelException");
+        } catch (final JetFuelException e) {
+            assertEquals("No combination of file format and compression could be evaluated for sourceDb.sourceTable", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testFuelRecommends() {
+        mockStatic(JetFuelManagerFactory.class);
+
+        createEvaluator().fuel();
+
+        verifyStatic(JetFuelManagerFactory.class, never());
+        JetFuelManagerFactory.create(any(JetFuelConfiguration.class), any(HiveTableUtils.class), any());
+    }
+
+    @Test
+    public void testFuelApplies() {
+        final JetFuelManager jetFuelManager = mock(JetFuelManager.class);
+        mockStatic(JetFuelManagerFactory.class);
+        when(JetFuelManagerFactory.create(any(JetFuelConfiguration.class), eq(hiveTableUtils), isNull())).thenReturn(jetFuelManager);
+        codecEvaluation.setApply(true);
+
+        createEvaluator().fuel();
+
+        final ArgumentCaptor<JetFuelConfiguration> captor = ArgumentCaptor.forClass(JetFuelConfiguration.class);
+        verifyStatic(JetFuelManagerFactory.class);
+        JetFuelManagerFactory.create(captor.capture(), eq(hiveTableUtils), isNull());
+        assertEquals(FileFormat.ORC, captor.getValue().getTargetFileFormat());
+        assertEquals("ZLIB", captor.getValue().getTargetCompression());
+        assertEquals("targetTable", captor.getValue().getTargetTable());
+        assertNull(captor.getValue().getCodecEvaluation());
+        verify(jetFuelManager).fuel();
+    }
+
+    private CodecEvaluator createEvaluator() {
+        return new CodecEvaluator(builder.withCodecEvaluation(codecEvaluation).build(), hiveTableUtils, hiveDriverClient, null);
+    }
+
+    private static String getSampleSize(final String sampleTable) {
+        return SAMPLE_SIZES.get(sampleTable.substring(sampleTable.lastIndexOf('_') + 1));
+    }
+
+    private static PartitionSpec createPartitionSpec(final String value) {
+        return new PartitionSpec(ImmutableMap.of("p", value), String.format("(p = '%s')", value), new Partition());
+    }
+}
@@ -15,11 +15,18 @@
  */
 package com.expediagroup.jetfuel.internal;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.times;
 import static org.powermock.api.mockito.PowerMockito.doThrow;
 import static org.powermock.api.mockito.PowerMockito.mock;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -27,9 +34,17 @@ import org.mockito.Mockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import com.expediagroup.jetfuel.JetFuelListener;
+import com.expediagroup.jetfuel.exception.FailureType;
 import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.exception.JetFuelQueryException;
 import com.expediagroup.jetfuel.internal.hive.HiveDriverClient;
+import com.expediagroup.jetfuel.models.FailureIsolation;
 import com.expediagroup.jetfuel.models.JetFuelRequest;
+import com.expediagroup.jetfuel.models.QueryMetrics;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * Tests for {@link DynamicQueryRunner}
@@ -39,18 +54,19 @@ import com.expediagroup.jetfuel.models.JetFuelRequest;
 public final class DynamicQueryRunnerTest {
 
     private final HiveDriverClient client = mock(HiveDriverClient.class);
+    private final RunContext runContext = new RunContext.Builder().build();
     private DynamicQueryRunner queryRunner;
     private JetFuelRequest request = new JetFuelRequest();
 
     @Before
     public void setup() {
-        queryRunner = new DynamicQueryRunner(client);
+        queryRunner = new DynamicQueryRunner(Collections.singletonList(client), runContext);
         request.addJetFuelQuery("query1");
     }
 
     @Test(expected = NullPointerException.class)
     public void testConstructorNullHiveDriverClient() {
-        new DynamicQueryRunner(null);
+        new DynamicQueryRunner(null, runContext);
     }
 
     @Test(expected = NullPointerException.class)
@@ -94,6 +110,44 @@ public final class DynamicQueryRunnerTest {
         Mockito.verify(client).closeConnection();
     }
 
+    @Test
+    public void testExecuteRecordsCompletedPartitions() {
+        final ProgressJournal progressJournal = mock(ProgressJournal.class);
+        queryRunner = new DynamicQueryRunner(Collections.singletonList(client), new RunContext.Builder().withProgressJournal(progressJournal).build());
+        request.setInsertPartitionTemplate("INSERT");
+        request.setPartitionGroupSize(2L);
+        request.addPartitionFilterFragment("(p = 'a')");
+        request.addPartitionFilterFragment("(p = 'b')");
+        request.addPartitionFilterFragment("(p = 'c')");
+        doThrow(new IllegalArgumentException("Error")).when(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+
+        queryRunner.execute(request);
+
+        Mockito.verify(progressJournal).record(ImmutableList.of("(p = 'a')"));
+        Mockito.verify(progressJournal).record(ImmutableList.of("(p = 'b')"));
+        Mockito.verify(progressJournal).record(ImmutableList.of("(p = 'c')"));
+    }
+
+    @Test
+    public void testExecuteWithCompactPartitionPredicates() {
+        request.setInsertPartitionTemplate("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable");
+        request.setPartitionGroupSize(5L);
+        request.setCompactPartitionPredicates(true);
+        request.getDatePartitionKeys().add("dt");
+        request.addPartitionFilterFragment("(dt = '2018-01-01')");
+        request.addPartitionFilterFragment("(dt = '2018-01-02')");
+        request.addPartitionFilterFragment("(dt = '2018-01-03')");
+        request.addPartitionFilterFragment("(dt = '2018-01-06')");
+        doThrow(new IllegalArgumentException("Error"))
+                .when(client)
+                .runQuery("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (dt BETWEEN '2018-01-01' AND '2018-01-03' OR dt = '2018-01-06')");
+
+        queryRunner.execute(request);
+
+        Mockito.verify(client, times(1)).runQuery("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE dt IN ('2018-01-01', '2018-01-02')");
+        Mockito.verify(client, times(1)).runQuery("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE dt IN ('2018-01-03', '2018-01-06')");
+    }
+
     @Test
     public void testExecuteWithDynamicPartitionGrouping2() {
         request.setInsertPartitionTemplate("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable");
@@ -125,6 +179,12 @@ public final class DynamicQueryRunnerTest {
         Mockito.verify(client, times(1)).runQuery("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2018-06') OR (trans_month = '2018-07')");
         Mockito.verify(client, times(1)).runQuery("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2018-08') OR (trans_month = '2018-09')");
         Mockito.verify(client).closeConnection();
+
+        assertEquals(ImmutableList.of("6 -> 3", "3 -> 2"), queryRunner.getRunMetrics().getGroupSizeChanges().stream()
+                .map(change -> change.getPreviousSize() + " -> " + change.getNewSize())
+                .collect(Collectors.toList()));
+        assertEquals(0, queryRunner.getRunMetrics().getGroupSizeIncreases());
+        assertEquals(2, queryRunner.getRunMetrics().getGroupSizeDecreases());
     }
 
     @Test
@@ -187,4 +247,153 @@ public final class DynamicQueryRunnerTest {
         Mockito.verify(client, times(1)).runQuery("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2018-01')");
         Mockito.verify(client).closeConnection();
     }
+
+    @Test
+    public void testExecuteWithSessionPool() {
+        final HiveDriverClient client2 = mock(HiveDriverClient.class);
+        Mockito.when(client2.tryOpenConnection()).thenReturn(true);
+        queryRunner = new DynamicQueryRunner(Arrays.asList(client, client2), runContext);
+        request.addJetFuelQuery("SET hive.exec.dynamic.partition=true");
+        request.setInsertPartitionTemplate("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable");
+        request.setPartitionGroupSize(2L);
+        request.addPartitionFilterFragment("(trans_month = '2018-01')");
+        request.addPartitionFilterFragment("(trans_month = '2018-02')");
+        request.addPartitionFilterFragment("(trans_month = '2018-03')");
+        request.addPartitionFilterFragment("(trans_month = '2018-04')");
+
+        queryRunner.execute(request);
+
+        Mockito.verify(client).openConnection();
+        Mockito.verify(client, times(1)).runQuery("query1");
+        Mockito.verify(client2).tryOpenConnection();
+        Mockito.verify(client2, times(0)).runQuery("query1");
+        Mockito.verify(client2, times(1)).runQuery("SET hive.exec.dynamic.partition=true");
+        assertEquals(2, countInsertQueries(client) + countInsertQueries(client2));
+        assertEquals(0, request.getPartitionFilterFragments().size());
+        Mockito.verify(client).closeConnection();
+        Mockito.verify(client2).closeConnection();
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testExecuteWithSessionPoolAllFailed() {
+        final HiveDriverClient client2 = mock(HiveDriverClient.class);
+        Mockito.when(client2.tryOpenConnection()).thenReturn(true);
+        queryRunner = new DynamicQueryRunner(Arrays.asList(client, client2), runContext);
+        request.setInsertPartitionTemplate("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable");
+        request.setPartitionGroupSize(1L);
+        request.addPartitionFilterFragment("(trans_month = '2018-01')");
+        request.addPartitionFilterFragment("(trans_month = '2018-02')");
+        doThrow(new IllegalArgumentException("Error")).when(client).runQuery(startsWith("INSERT"));
+        doThrow(new IllegalArgumentException("Error")).when(client2).runQuery(startsWith("INSERT"));
+
+        queryRunner.execute(request);
+    }
+
+    private static long countInsertQueries(final HiveDriverClient session) {
+        return Mockito.mockingDetails(session).getInvocations().stream()
+                .filter(invocation -> invocation.getArguments().length == 1 && String.valueOf(invocation.getArguments()[0]).startsWith("INSERT"))
+                .count();
+    }
+
+    @Test
+    public void testExecuteWithInsertPartitionQueries() {
+        request.addInsertPartitionQuery("ALTER TABLE t PARTITION (p = 'a') CONCATENATE", ImmutableMap.of("(p = 'a')", "INSERT WHERE (p = 'a')"));
+        doThrow(new IllegalArgumentException("Error")).when(client).runQuery("ALTER TABLE t PARTITION (p = 'a') CONCATENATE");
+
+        queryRunner.execute(request);
+
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'a')");
+    }
+
+    @Test
+    public void testExecuteIncreasesGroupSizeAfterSuccesses() {
+        request.setInsertPartitionTemplate("INSERT");
+        request.setPartitionGroupSize(4L);
+        request.setGroupSizeIncreaseAfter(1);
+        for (final String partition : ImmutableList.of("a", "b", "c", "d", "e", "f", "g", "h", "i")) {
+            request.addPartitionFilterFragment(String.format("(p = '%s')", partition));
+        }
+        doThrow(new IllegalArgumentException("Error")).when(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b') OR (p = 'c') OR (p = 'd')");
+
+        queryRunner.execute(request);
+
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'c') OR (p = 'd') OR (p = 'e')");
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'f') OR (p = 'g') OR (p = 'h') OR (p = 'i')");
+        Mockito.verify(client, times(4)).runQuery(startsWith("INSERT"));
+        assertEquals(ImmutableList.of(4, 2, 3, 4),
+                queryRunner.getRunMetrics().getQueryMetrics().stream().map(QueryMetrics::getGroupSize).collect(Collectors.toList()));
+        assertEquals(9, queryRunner.getRunMetrics().getFueledPartitions().size());
+        assertEquals(9, queryRunner.getRunMetrics().getPartitionsPlanned());
+        assertEquals(4, queryRunner.getRunMetrics().getCurrentGroupSize());
+    }
+
+    @Test
+    public void testExecuteWaitsForConsecutiveSuccesses() {
+        request.setInsertPartitionTemplate("INSERT");
+        request.setPartitionGroupSize(2L);
+        request.setGroupSizeIncreaseAfter(2);
+        for (final String partition : ImmutableList.of("a", "b", "c", "d", "e")) {
+            request.addPartitionFilterFragment(String.format("(p = '%s')", partition));
+        }
+        doThrow(new IllegalArgumentException("Error")).when(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+
+        queryRunner.execute(request);
+
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'a')");
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'b')");
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'c') OR (p = 'd')");
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'e')");
+    }
+
+    @Test
+    public void testExecuteBisectsFailedGroup() {
+        request.setInsertPartitionTemplate("INSERT");
+        request.setPartitionGroupSize(4L);
+        request.setFailureIsolation(FailureIsolation.BISECT);
+        for (final String partition : ImmutableList.of("a", "b", "c", "d", "e", "f", "g", "h")) {
+            request.addPartitionFilterFragment(String.format("(p = '%s')", partition));
+        }
+        doThrow(new IllegalArgumentException("Error")).when(client).runQuery(contains("(p = 'a')"));
+
+        queryRunner.execute(request);
+
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b') OR (p = 'c') OR (p = 'd')");
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'c') OR (p = 'd')");
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'a')");
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'b')");
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'e') OR (p = 'f') OR (p = 'g') OR (p = 'h')");
+        assertEquals(ImmutableSet.of("(p = 'a')"), queryRunner.getQuarantinedPartitions());
+    }
+
+    @Test
+    public void testExecuteNotifiesGroupFallbacks() {
+        final JetFuelListener listener = mock(JetFuelListener.class);
+        queryRunner = new DynamicQueryRunner(Collections.singletonList(client),
+                new RunContext.Builder().withRunMetrics(new RunMetrics()).withListeners(new JetFuelListeners(Collections.singletonList(listener))).build());
+        request.setInsertPartitionTemplate("INSERT");
+        request.setPartitionGroupSize(2L);
+        request.addPartitionFilterFragment("(p = 'a')");
+        request.addPartitionFilterFragment("(p = 'b')");
+        final IllegalArgumentException failure = new IllegalArgumentException("Error");
+        doThrow(failure).when(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+
+        queryRunner.execute(request);
+
+        Mockito.verify(client).setRequest(request);
+        Mockito.verify(listener).onGroupFallback(request, "INSERT WHERE (p = 'a') OR (p = 'b')", ImmutableList.of("(p = 'a')", "(p = 'b')"), failure);
+        Mockito.verifyNoMoreInteractions(listener);
+    }
+
+    @Test(expected = JetFuelQueryException.class)
+    public void testExecuteAbortsOnSemanticFailure() {
+        request.setInsertPartitionTemplate("INSERT");
+        request.setPartitionGroupSize(2L);
+        request.addPartitionFilterFragment("(p = 'a')");
+        request.addPartitionFilterFragment("(p = 'b')");
+        doThrow(new JetFuelQueryException("Error", null, FailureType.SEMANTIC)).when(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+
+        queryRunner.execute(request);
+    }
 }
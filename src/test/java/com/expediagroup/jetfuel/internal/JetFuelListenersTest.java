@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import com.expediagroup.jetfuel.JetFuelListener;
+import com.expediagroup.jetfuel.exception.FailureType;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.expediagroup.jetfuel.models.JetFuelRequest;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests for {@link JetFuelListeners}
+ */
+public final class JetFuelListenersTest {
+
+    private final JetFuelConfiguration jetFuelConfiguration = mock(JetFuelConfiguration.class);
+    private final JetFuelRequest request = new JetFuelRequest();
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullListeners() {
+        new JetFuelListeners(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorNullListener() {
+        new JetFuelListeners(Collections.singletonList(null));
+    }
+
+    @Test
+    public void testNone() {
+        assertTrue(JetFuelListeners.NONE.isEmpty());
+
+        JetFuelListeners.NONE.onPlanGenerated(jetFuelConfiguration, request);
+        JetFuelListeners.NONE.onQueryStart(request, "query");
+        JetFuelListeners.NONE.onQueryEnd(request, "query", 1L, null);
+        JetFuelListeners.NONE.onGroupFallback(request, "query", ImmutableList.of("(p = 'a')"), new IllegalStateException());
+        JetFuelListeners.NONE.onRunComplete(jetFuelConfiguration, true, 1L);
+    }
+
+    @Test
+    public void testLoad() {
+        final JetFuelListeners listeners = JetFuelListeners.load();
+
+        assertFalse(listeners.isEmpty());
+        final JetFuelListener[] loaded = Whitebox.getInternalState(listeners, "listeners");
+        assertEquals(1, loaded.length);
+        assertEquals(TestListener.class, loaded[0].getClass());
+    }
+
+    @Test
+    public void testDefaultMethods() {
+        final JetFuelListeners listeners = new JetFuelListeners(Collections.singletonList(new TestListener()));
+
+        listeners.onPlanGenerated(jetFuelConfiguration, request);
+        listeners.onQueryStart(request, "query");
+        listeners.onQueryEnd(request, "query", 1L, FailureType.TIMEOUT);
+        listeners.onGroupFallback(request, "query", ImmutableList.of("(p = 'a')"), new IllegalStateException());
+        listeners.onRunComplete(jetFuelConfiguration, false, 1L);
+    }
+
+    @Test
+    public void testEventsDispatched() {
+        final JetFuelListener first = mock(JetFuelListener.class);
+        final JetFuelListener second = mock(JetFuelListener.class);
+        final JetFuelListeners listeners = new JetFuelListeners(Arrays.asList(first, second));
+        final List<String> partitions = ImmutableList.of("(p = 'a')");
+        final Exception failure = new IllegalStateException();
+
+        listeners.onPlanGenerated(jetFuelConfiguration, request);
+        listeners.onQueryStart(request, "query");
+        listeners.onQueryEnd(request, "query", 5L, FailureType.TIMEOUT);
+        listeners.onGroupFallback(request, "query", partitions, failure);
+        listeners.onRunComplete(jetFuelConfiguration, true, 10L);
+
+        for (final JetFuelListener listener : ImmutableList.of(first, second)) {
+            verify(listener).onPlanGenerated(jetFuelConfiguration, request);
+            verify(listener).onQueryStart(request, "query");
+            verify(listener).onQueryEnd(request, "query", 5L, FailureType.TIMEOUT);
+            verify(listener).onGroupFallback(request, "query", partitions, failure);
+            verify(listener).onRunComplete(jetFuelConfiguration, true, 10L);
+        }
+    }
+
+    @Test
+    public void testListenerFailuresIgnored() {
+        final JetFuelListener failing = mock(JetFuelListener.class);
+        final JetFuelListener listener = mock(JetFuelListener.class);
+        final JetFuelListeners listeners = new JetFuelListeners(Arrays.asList(failing, listener));
+        final IllegalStateException failure = new IllegalStateException("Listener failed");
+        doThrow(failure).when(failing).onPlanGenerated(any(), any());
+        doThrow(failure).when(failing).onQueryStart(any(), anyString());
+        doThrow(failure).when(failing).onQueryEnd(any(), anyString(), anyLong(), any());
+        doThrow(failure).when(failing).onGroupFallback(any(), anyString(), any(), any());
+        doThrow(failure).when(failing).onRunComplete(any(), anyBoolean(), anyLong());
+
+        listeners.onPlanGenerated(jetFuelConfiguration, request);
+        listeners.onQueryStart(request, "query");
+        listeners.onQueryEnd(request, "query", 5L, null);
+        listeners.onGroupFallback(request, "query", ImmutableList.of(), failure);
+        listeners.onRunComplete(jetFuelConfiguration, true, 10L);
+
+        verify(listener).onPlanGenerated(jetFuelConfiguration, request);
+        verify(listener).onQueryStart(request, "query");
+        verify(listener).onQueryEnd(request, "query", 5L, null);
+        verify(listener).onGroupFallback(request, "query", ImmutableList.of(), failure);
+        verify(listener).onRunComplete(jetFuelConfiguration, true, 10L);
+    }
+
+    /**
+     * Listener registered for the tests with {@link java.util.ServiceLoader}, relying on the default methods
+     */
+    public static final class TestListener implements JetFuelListener {
+    }
+}
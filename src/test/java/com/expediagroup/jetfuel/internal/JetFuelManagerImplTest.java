@@ -15,25 +15,54 @@
  */
 package com.expediagroup.jetfuel.internal;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.powermock.api.mockito.PowerMockito.doNothing;
+import static org.powermock.api.mockito.PowerMockito.doThrow;
 import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.verifyNew;
+import static org.powermock.api.mockito.PowerMockito.whenNew;
 
 import java.sql.DriverManager;
+import java.time.Instant;
+import java.util.List;
+
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import com.expediagroup.jetfuel.JetFuelListener;
 import com.expediagroup.jetfuel.JetFuelManager;
+import com.expediagroup.jetfuel.exception.JetFuelException;
 import com.expediagroup.jetfuel.internal.hive.HiveDriverClient;
 import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
 import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.expediagroup.jetfuel.models.JetFuelRequest;
+import com.expediagroup.jetfuel.models.PartitionSpec;
+import com.expediagroup.jetfuel.models.PreFueling;
+import com.expediagroup.jetfuel.models.QueryMetrics;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * Tests for {@link JetFuelManagerImpl}
@@ -45,6 +74,8 @@ public final class JetFuelManagerImplTest {
     private final HiveTableUtils hiveTableUtils = mock(HiveTableUtils.class);
     private final QueryGenerator queryGenerator = mock(QueryGenerator.class);
     private final StaticQueryRunner queryRunner = mock(StaticQueryRunner.class);
+    private final MetricsExporter metricsExporter = mock(MetricsExporter.class);
+    private final RunContext runContext = new RunContext.Builder().build();
     private final JetFuelConfiguration.Builder builder = new JetFuelConfiguration.Builder()
             .withSourceDatabase("sourceDb")
             .withSourceTable("sourceTable")
@@ -57,8 +88,9 @@ public final class JetFuelManagerImplTest {
             .withTargetCompaction(false);
 
     @Before
-    public void setup() {
+    public void setup() throws Exception {
         mockStatic(DriverManager.class);
+        whenNew(MetricsExporter.class).withAnyArguments().thenReturn(metricsExporter);
 
         queryGenerator.getInsertTableQuery(anyBoolean(), any(), anyString(), any());
         doNothing().when(queryGenerator).getInsertTableQuery(anyBoolean(), any(), anyString(), any());
@@ -66,27 +98,27 @@ public final class JetFuelManagerImplTest {
 
     @Test(expected = NullPointerException.class)
     public void testConstructorNullJetFuelConfiguration() {
-        new JetFuelManagerImpl(null, hiveTableUtils, queryGenerator, queryRunner);
+        new JetFuelManagerImpl(null, hiveTableUtils, queryGenerator, queryRunner, runContext);
     }
 
     @Test(expected = NullPointerException.class)
     public void testConstructorNullHiveConf() {
-        new JetFuelManagerImpl(builder.build(), null, queryGenerator, queryRunner);
+        new JetFuelManagerImpl(builder.build(), null, queryGenerator, queryRunner, runContext);
     }
 
     @Test(expected = NullPointerException.class)
     public void testConstructorNullQueryGenerator() {
-        new JetFuelManagerImpl(builder.build(), hiveTableUtils, null, queryRunner);
+        new JetFuelManagerImpl(builder.build(), hiveTableUtils, null, queryRunner, runContext);
     }
 
     @Test(expected = NullPointerException.class)
     public void testConstructorNullQueryRunner() {
-        new JetFuelManagerImpl(builder.build(), hiveTableUtils, queryGenerator, null);
+        new JetFuelManagerImpl(builder.build(), hiveTableUtils, queryGenerator, null, runContext);
     }
 
     @Test
     public void testStart() {
-        final JetFuelManager jetFuelManager = new JetFuelManagerImpl(builder.build(), hiveTableUtils, queryGenerator, queryRunner);
+        final JetFuelManager jetFuelManager = new JetFuelManagerImpl(builder.build(), hiveTableUtils, queryGenerator, queryRunner, runContext);
         jetFuelManager.fuel();
     }
 
@@ -95,7 +127,7 @@ public final class JetFuelManagerImplTest {
         final JetFuelConfiguration jetFuelConfiguration = builder
                 .withTargetCompaction(true)
                 .build();
-        final JetFuelManager jetFuelManager = new JetFuelManagerImpl(jetFuelConfiguration, hiveTableUtils, queryGenerator, queryRunner);
+        final JetFuelManager jetFuelManager = new JetFuelManagerImpl(jetFuelConfiguration, hiveTableUtils, queryGenerator, queryRunner, runContext);
         jetFuelManager.fuel();
     }
 
@@ -104,7 +136,350 @@ public final class JetFuelManagerImplTest {
         final JetFuelConfiguration jetFuelConfiguration = builder
                 .withTargetCompaction(false)
                 .build();
-        final JetFuelManager jetFuelManager = new JetFuelManagerImpl(jetFuelConfiguration, hiveTableUtils, queryGenerator, queryRunner);
+        final JetFuelManager jetFuelManager = new JetFuelManagerImpl(jetFuelConfiguration, hiveTableUtils, queryGenerator, queryRunner, runContext);
         jetFuelManager.fuel();
     }
+
+    @Test
+    public void testResume() {
+        final ProgressJournal progressJournal = mock(ProgressJournal.class);
+        final PreFueling preFueling = new PreFueling();
+        preFueling.setDropTarget(true);
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withJournalPath("journal")
+                .withResume(true)
+                .withPreFueling(preFueling)
+                .build();
+        when(hiveTableUtils.getTable("targetDb", "targetTable")).thenReturn(new Table());
+        when(progressJournal.load()).thenReturn(ImmutableSet.of("(p = 'a')"));
+
+        new JetFuelManagerImpl(jetFuelConfiguration, hiveTableUtils, queryGenerator, queryRunner, new RunContext.Builder().withProgressJournal(progressJournal).build()).fuel();
+
+        verify(queryGenerator).generateJetFuelRequest(anyBoolean(), any(), any(), anyBoolean(), eq(false), eq(ImmutableSet.of("(p = 'a')")), any());
+        verify(progressJournal).delete();
+    }
+
+    @Test
+    public void testResumeWithoutTargetTable() {
+        final ProgressJournal progressJournal = mock(ProgressJournal.class);
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withJournalPath("journal")
+                .withResume(true)
+                .build();
+        when(hiveTableUtils.getTable("targetDb", "targetTable")).thenThrow(new JetFuelException("Not found"));
+
+        new JetFuelManagerImpl(jetFuelConfiguration, hiveTableUtils, queryGenerator, queryRunner, new RunContext.Builder().withProgressJournal(progressJournal).build()).fuel();
+
+        verify(progressJournal, never()).load();
+        verify(queryGenerator).generateJetFuelRequest(anyBoolean(), any(), any(), anyBoolean(), eq(true), eq(ImmutableSet.of()), any());
+    }
+
+    @Test
+    public void testJournalClearedWithoutResume() {
+        final ProgressJournal progressJournal = mock(ProgressJournal.class);
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withJournalPath("journal")
+                .build();
+
+        new JetFuelManagerImpl(jetFuelConfiguration, hiveTableUtils, queryGenerator, queryRunner, new RunContext.Builder().withProgressJournal(progressJournal).build()).fuel();
+
+        verify(progressJournal, never()).load();
+        verify(progressJournal, times(2)).delete();
+    }
+
+    @Test
+    public void testIncremental() {
+        final Table sourceTable = new Table();
+        final Table targetTable = new Table();
+        targetTable.setTableName("target");
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withIncremental(true)
+                .withEnablePartitionGrouping(true)
+                .build();
+        when(hiveTableUtils.getTable("sourceDb", "sourceTable")).thenReturn(sourceTable);
+        when(hiveTableUtils.getTable("targetDb", "targetTable")).thenReturn(targetTable);
+        final List<PartitionSpec> sourcePartitions = ImmutableList.of(new PartitionSpec(ImmutableMap.of("p", "a"), "(p = 'a')", new Partition()),
+                new PartitionSpec(ImmutableMap.of("p", "b"), "(p = 'b')", new Partition()));
+        when(hiveTableUtils.isPartitioned(sourceTable)).thenReturn(true);
+        when(hiveTableUtils.getPartitionSpecs(sourceTable)).thenReturn(sourcePartitions);
+        when(hiveTableUtils.getUpToDatePartitions(sourcePartitions, targetTable)).thenReturn(ImmutableSet.of("(p = 'a')"));
+
+        new JetFuelManagerImpl(jetFuelConfiguration, hiveTableUtils, queryGenerator, queryRunner, runContext).fuel();
+
+        verify(queryGenerator).generateJetFuelRequest(eq(true), eq(sourceTable), any(), anyBoolean(), eq(false), eq(ImmutableSet.of("(p = 'a')")), eq(sourcePartitions));
+        verify(hiveTableUtils, times(1)).getPartitionSpecs(sourceTable);
+    }
+
+    @Test
+    public void testIncrementalWithDropTarget() {
+        final PreFueling preFueling = new PreFueling();
+        preFueling.setDropTarget(true);
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withIncremental(true)
+                .withEnablePartitionGrouping(true)
+                .withPreFueling(preFueling)
+                .build();
+        when(hiveTableUtils.getTable("targetDb", "targetTable")).thenReturn(new Table());
+
+        new JetFuelManagerImpl(jetFuelConfiguration, hiveTableUtils, queryGenerator, queryRunner, runContext).fuel();
+
+        verify(hiveTableUtils, never()).getUpToDatePartitions(any(), any());
+        verify(queryGenerator).generateJetFuelRequest(anyBoolean(), any(), any(), anyBoolean(), eq(true), eq(ImmutableSet.of()), any());
+    }
+
+    @Test
+    public void testIncrementalUnpartitioned() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withIncremental(true)
+                .withEnablePartitionGrouping(true)
+                .build();
+        when(hiveTableUtils.getTable("targetDb", "targetTable")).thenReturn(new Table());
+
+        new JetFuelManagerImpl(jetFuelConfiguration, hiveTableUtils, queryGenerator, queryRunner, runContext).fuel();
+
+        verify(hiveTableUtils, never()).getUpToDatePartitions(any(), any());
+    }
+
+    @Test
+    public void testSkipOptimalPartitions() {
+        final Table sourceTable = new Table();
+        sourceTable.setParameters(ImmutableMap.of("orc.compress", "SNAPPY"));
+        final Partition partition = new Partition();
+        partition.setSd(new StorageDescriptor());
+        partition.getSd().setInputFormat("org.apache.hadoop.hive.ql.io.orc.OrcInputFormat");
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withTargetFileFormat("ORC")
+                .withTargetCompression("SNAPPY")
+                .withOptimalPartitions("SKIP")
+                .withEnablePartitionGrouping(true)
+                .build();
+        when(hiveTableUtils.getTable("sourceDb", "sourceTable")).thenReturn(sourceTable);
+        when(hiveTableUtils.isPartitioned(sourceTable)).thenReturn(true);
+        when(hiveTableUtils.getPartitionSpecs(sourceTable)).thenReturn(ImmutableList.of(new PartitionSpec(ImmutableMap.of("p", "a"), "(p = 'a')", partition)));
+
+        new JetFuelManagerImpl(jetFuelConfiguration, hiveTableUtils, queryGenerator, queryRunner, runContext).fuel();
+
+        verify(queryGenerator).generateJetFuelRequest(eq(true), eq(sourceTable), any(), anyBoolean(), anyBoolean(), eq(ImmutableSet.of("(p = 'a')")), any());
+    }
+
+    @Test
+    public void testCopyOptimalPartitions() throws Exception {
+        final Table sourceTable = new Table();
+        final Table targetTable = new Table();
+        targetTable.setTableName("target");
+        final PartitionSpec optimalPartition = new PartitionSpec(ImmutableMap.of("p", "a"), "(p = 'a')", new Partition());
+        final PartitionAnalyzer partitionAnalyzer = mock(PartitionAnalyzer.class);
+        final PartitionCopier partitionCopier = mock(PartitionCopier.class);
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withOptimalPartitions("COPY")
+                .withIncremental(true)
+                .withEnablePartitionGrouping(true)
+                .build();
+        whenNew(PartitionAnalyzer.class).withAnyArguments().thenReturn(partitionAnalyzer);
+        whenNew(PartitionCopier.class).withAnyArguments().thenReturn(partitionCopier);
+        when(partitionAnalyzer.getOptimalPartitions(eq(sourceTable), any())).thenReturn(ImmutableList.of(optimalPartition,
+                new PartitionSpec(ImmutableMap.of("p", "b"), "(p = 'b')", new Partition())));
+        when(hiveTableUtils.getTable("sourceDb", "sourceTable")).thenReturn(sourceTable);
+        when(hiveTableUtils.getTable("targetDb", "targetTable")).thenReturn(targetTable);
+        when(hiveTableUtils.isPartitioned(sourceTable)).thenReturn(true);
+        when(hiveTableUtils.getUpToDatePartitions(any(), eq(targetTable))).thenReturn(ImmutableSet.of("(p = 'b')"));
+
+        new JetFuelManagerImpl(jetFuelConfiguration, hiveTableUtils, queryGenerator, queryRunner, runContext).fuel();
+
+        verify(queryGenerator).generateJetFuelRequest(eq(true), eq(sourceTable), any(), anyBoolean(), anyBoolean(), eq(ImmutableSet.of("(p = 'a')", "(p = 'b')")), any());
+        verify(partitionCopier).copy(targetTable, ImmutableList.of(optimalPartition));
+    }
+
+    @Test
+    public void testConcatenatePartitions() throws Exception {
+        final Table sourceTable = new Table();
+        final Table targetTable = new Table();
+        targetTable.setTableName("target");
+        final PartitionSpec concatenatePartition = new PartitionSpec(ImmutableMap.of("p", "a"), "(p = 'a')", new Partition());
+        final PartitionAnalyzer partitionAnalyzer = mock(PartitionAnalyzer.class);
+        final PartitionCopier partitionCopier = mock(PartitionCopier.class);
+        final JetFuelRequest request = new JetFuelRequest();
+        request.addJetFuelQuery("SET hive.execution.engine=mr");
+        final JetFuelRequest concatenateRequest = new JetFuelRequest();
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withTargetCompaction(true)
+                .withConcatenate(true)
+                .withEnablePartitionGrouping(true)
+                .build();
+        whenNew(PartitionAnalyzer.class).withAnyArguments().thenReturn(partitionAnalyzer);
+        whenNew(PartitionCopier.class).withAnyArguments().thenReturn(partitionCopier);
+        when(partitionAnalyzer.getConcatenatePartitions(eq(sourceTable), any())).thenReturn(ImmutableList.of(concatenatePartition));
+        when(hiveTableUtils.getTable("sourceDb", "sourceTable")).thenReturn(sourceTable);
+        when(hiveTableUtils.getTable("targetDb", "targetTable")).thenReturn(targetTable);
+        when(hiveTableUtils.isPartitioned(sourceTable)).thenReturn(true);
+        when(hiveTableUtils.getTableColumnsAsString(sourceTable)).thenReturn("cols");
+        when(queryGenerator.generateJetFuelRequest(anyBoolean(), any(), any(), anyBoolean(), anyBoolean(), any(), any())).thenReturn(request);
+        when(queryGenerator.generateConcatenateRequest(ImmutableList.of("SET hive.execution.engine=mr"), sourceTable, "cols", ImmutableList.of(concatenatePartition)))
+                .thenReturn(concatenateRequest);
+
+        new JetFuelManagerImpl(jetFuelConfiguration, hiveTableUtils, queryGenerator, queryRunner, runContext).fuel();
+
+        verify(queryGenerator).generateJetFuelRequest(eq(true), eq(sourceTable), any(), eq(true), anyBoolean(), eq(ImmutableSet.of("(p = 'a')")), any());
+        verify(partitionCopier).copy(targetTable, ImmutableList.of(concatenatePartition));
+        verify(queryRunner).execute(request);
+        verify(queryRunner).execute(concatenateRequest);
+    }
+
+    @Test
+    public void testConcatenateWithoutCompaction() throws Exception {
+        final PartitionAnalyzer partitionAnalyzer = mock(PartitionAnalyzer.class);
+        whenNew(PartitionAnalyzer.class).withAnyArguments().thenReturn(partitionAnalyzer);
+        when(hiveTableUtils.isPartitioned(any())).thenReturn(true);
+
+        new JetFuelManagerImpl(builder.withConcatenate(true).withEnablePartitionGrouping(true).build(), hiveTableUtils, queryGenerator, queryRunner, runContext).fuel();
+
+        verify(partitionAnalyzer, never()).getConcatenatePartitions(any(), any());
+        verify(queryRunner, times(1)).execute(any());
+    }
+
+    @Test
+    public void testQuarantinedPartitions() {
+        final ProgressJournal progressJournal = mock(ProgressJournal.class);
+        when(queryRunner.getQuarantinedPartitions()).thenReturn(ImmutableSet.of("(p = 'a')"));
+
+        try {
+            new JetFuelManagerImpl(builder.build(), hiveTableUtils, queryGenerator, queryRunner, new RunContext.Builder().withProgressJournal(progressJournal).build()).fuel();
+            fail("Expected JetFuelException");
+        } catch (final JetFuelException e) {
+            assertEquals("1 partitions failed and were not fueled: [(p = 'a')]", e.getMessage());
+        }
+        verify(progressJournal, times(1)).delete();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullRunContext() {
+        new JetFuelManagerImpl(builder.build(), hiveTableUtils, queryGenerator, queryRunner, null);
+    }
+
+    @Test
+    public void testListenersNotified() {
+        final JetFuelListener listener = mock(JetFuelListener.class);
+        final JetFuelConfiguration jetFuelConfiguration = builder.build();
+        final JetFuelRequest request = new JetFuelRequest();
+        when(queryGenerator.generateJetFuelRequest(anyBoolean(), any(), any(), anyBoolean(), anyBoolean(), any(), any())).thenReturn(request);
+
+        new JetFuelManagerImpl(jetFuelConfiguration, hiveTableUtils, queryGenerator, queryRunner,
+                new RunContext.Builder().withListeners(new JetFuelListeners(ImmutableList.of(listener))).build()).fuel();
+
+        final InOrder inOrder = inOrder(listener, queryRunner);
+        inOrder.verify(listener).onPlanGenerated(jetFuelConfiguration, request);
+        inOrder.verify(queryRunner).execute(request);
+        inOrder.verify(listener).onRunComplete(eq(jetFuelConfiguration), eq(true), anyLong());
+    }
+
+    @Test
+    public void testListenersNotifiedOfFailedRun() {
+        final JetFuelListener listener = mock(JetFuelListener.class);
+        final JetFuelConfiguration jetFuelConfiguration = builder.build();
+        when(queryRunner.getQuarantinedPartitions()).thenReturn(ImmutableSet.of("(p = 'a')"));
+
+        try {
+            new JetFuelManagerImpl(jetFuelConfiguration, hiveTableUtils, queryGenerator, queryRunner,
+                    new RunContext.Builder().withListeners(new JetFuelListeners(ImmutableList.of(listener))).build()).fuel();
+            fail("Expected JetFuelException");
+        } catch (final JetFuelException e) {
+            verify(listener).onRunComplete(eq(jetFuelConfiguration), eq(false), anyLong());
+        }
+    }
+
+    @Test
+    public void testRunReport() throws Exception {
+        final Table sourceTable = new Table();
+        sourceTable.setTableName("sourceTable");
+        final Table targetTable = new Table();
+        targetTable.setTableName("targetTable");
+        final Partition sourcePartition = new Partition();
+        sourcePartition.setTableName("sourceTable");
+        final Partition targetPartition = new Partition();
+        targetPartition.setTableName("targetTable");
+        when(hiveTableUtils.getTable("sourceDb", "sourceTable")).thenReturn(sourceTable);
+        when(hiveTableUtils.getTable("targetDb", "targetTable")).thenReturn(targetTable);
+        when(hiveTableUtils.isPartitioned(sourceTable)).thenReturn(true);
+        when(hiveTableUtils.getPartitionSpecs(sourceTable)).thenReturn(ImmutableList.of(new PartitionSpec(ImmutableMap.of("p", "a"), "(p = 'a')", sourcePartition)));
+        when(hiveTableUtils.getAllPartitions("targetDb", "targetTable")).thenReturn(ImmutableList.of(targetPartition));
+        when(hiveTableUtils.getPartitionFilterFragment(any(), any())).thenReturn("(p = 'a')");
+        when(hiveTableUtils.getTotalSize(sourcePartition)).thenReturn(1000L);
+        when(hiveTableUtils.getNumFiles(sourcePartition)).thenReturn(20L);
+        when(hiveTableUtils.getTotalSize(targetPartition)).thenReturn(300L);
+        when(hiveTableUtils.getNumFiles(targetPartition)).thenReturn(2L);
+        final RunMetrics runMetrics = new RunMetrics();
+        runMetrics.record(new QueryMetrics("session", 0L, 1000L, 1, 0, null));
+        runMetrics.recordFueled(ImmutableList.of("(p = 'a')"));
+        final RunReport runReport = mock(RunReport.class);
+        whenNew(RunReport.class).withAnyArguments().thenReturn(runReport);
+
+        new JetFuelManagerImpl(builder.withReportPath("report.json").build(), hiveTableUtils, queryGenerator, queryRunner, new RunContext.Builder().withRunMetrics(runMetrics).build()).fuel();
+
+        verifyNew(RunReport.class).withArguments(eq("sourceDb.sourceTable"), eq("targetDb.targetTable"), any(Instant.class), any(Instant.class), eq(true),
+                eq(runMetrics.getQueryMetrics()), eq(runMetrics.getGroupSizeChanges()), eq(1), eq(0),
+                eq(new RunReport.StorageStatistics(1, 0, 1000L, 20L)), eq(new RunReport.StorageStatistics(1, 0, 300L, 2L)));
+        verify(runReport).write("report.json");
+        verify(hiveTableUtils, never()).getAllPartitions("sourceDb", "sourceTable");
+        verify(metricsExporter).start();
+        verify(metricsExporter).close();
+    }
+
+    @Test
+    public void testRunReportOfFailedRun() throws Exception {
+        when(queryRunner.getQuarantinedPartitions()).thenReturn(ImmutableSet.of("(p = 'a')"));
+        final RunReport runReport = mock(RunReport.class);
+        whenNew(RunReport.class).withAnyArguments().thenReturn(runReport);
+
+        try {
+            new JetFuelManagerImpl(builder.build(), hiveTableUtils, queryGenerator, queryRunner, new RunContext.Builder().withRunMetrics(new RunMetrics()).build()).fuel();
+            fail("Expected JetFuelException");
+        } catch (final JetFuelException e) {
+            assertEquals("1 partitions failed and were not fueled: [(p = 'a')]", e.getMessage());
+        }
+
+        verifyNew(RunReport.class).withArguments(eq("sourceDb.sourceTable"), eq("targetDb.targetTable"), any(Instant.class), any(Instant.class), eq(false),
+                eq(ImmutableList.of()), eq(ImmutableList.of()), eq(0), eq(1), isNull(), isNull());
+        verify(runReport, never()).write(anyString());
+        verify(metricsExporter).close();
+    }
+
+    @Test
+    public void testMetricsExporterStartFailure() throws Exception {
+        final JetFuelListener listener = mock(JetFuelListener.class);
+        final JetFuelConfiguration jetFuelConfiguration = builder.build();
+        doThrow(new JetFuelException("port in use")).when(metricsExporter).start();
+        whenNew(RunReport.class).withAnyArguments().thenReturn(mock(RunReport.class));
+
+        try {
+            new JetFuelManagerImpl(jetFuelConfiguration, hiveTableUtils, queryGenerator, queryRunner, new RunContext.Builder()
+                    .withRunMetrics(new RunMetrics())
+                    .withListeners(new JetFuelListeners(ImmutableList.of(listener)))
+                    .build()).fuel();
+            fail("Expected JetFuelException");
+        } catch (final JetFuelException e) {
+            assertEquals("port in use", e.getMessage());
+        }
+
+        verify(metricsExporter).close();
+        verify(listener).onRunComplete(eq(jetFuelConfiguration), eq(false), anyLong());
+        verify(queryRunner, never()).execute(any());
+    }
+
+    @Test
+    public void testMetricsExporterNotStartedWithoutRunMetrics() throws Exception {
+        new JetFuelManagerImpl(builder.build(), hiveTableUtils, queryGenerator, queryRunner, runContext).fuel();
+
+        verifyNew(MetricsExporter.class, never()).withArguments(any(), any());
+    }
+
+    @Test
+    public void testRunReportFailureIgnored() {
+        when(hiveTableUtils.getAllPartitions(anyString(), anyString())).thenThrow(new JetFuelException("Metastore unavailable"));
+        final RunMetrics runMetrics = new RunMetrics();
+        runMetrics.recordFueled(ImmutableList.of("(p = 'a')"));
+
+        new JetFuelManagerImpl(builder.build(), hiveTableUtils, queryGenerator, queryRunner, new RunContext.Builder().withRunMetrics(runMetrics).build()).fuel();
+
+        verify(hiveTableUtils).getAllPartitions("targetDb", "targetTable");
+    }
 }
@@ -0,0 +1,224 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.internal.hive.HiveDriverClient;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.expediagroup.jetfuel.models.JetFuelRequest;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Tests for {@link MetricsExporter}
+ */
+public final class MetricsExporterTest {
+
+    private static final String OBJECT_NAME = "com.expediagroup.jetfuel:type=RunMetrics,source=\"sourceDb.sourceTable\",target=\"targetDb.targetTable\"";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final JetFuelConfiguration.Builder builder = new JetFuelConfiguration.Builder()
+            .withSourceDatabase("sourceDb")
+            .withSourceTable("sourceTable")
+            .withTargetDatabase("targetDb")
+            .withTargetTable("targetTable")
+            .withHiveMetastoreUri("hiveMetastoreUri")
+            .withHiveServer2Url("hiveUrl")
+            .withHiveServer2Username("username")
+            .withHiveServer2Password("password");
+    private final RunMetrics runMetrics = new RunMetrics();
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullConfiguration() {
+        new MetricsExporter(null, runMetrics);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullRunMetrics() {
+        new MetricsExporter(builder.build(), null);
+    }
+
+    @Test
+    public void testFormat() {
+        runMetrics.addPartitionsPlanned(ImmutableList.of("(p = 'a')", "(p = 'b')", "(p = 'c')", "(p = 'd')"));
+        runMetrics.recordFueled(ImmutableList.of("(p = 'a')"));
+        runMetrics.addBytes(1024L, 256L);
+        runMetrics.recordGroupSizeChange(4, 2);
+
+        final String metrics = new MetricsExporter(builder.build(), runMetrics).format();
+
+        assertTrue(metrics.contains("# HELP jetfuel_partitions_planned Partitions to fuel with partition group queries\n"
+                + "# TYPE jetfuel_partitions_planned gauge\n"
+                + "jetfuel_partitions_planned{source_table=\"sourceDb.sourceTable\",target_table=\"targetDb.targetTable\"} 4\n"));
+        assertTrue(metrics.contains("# TYPE jetfuel_partitions_fueled_total counter\n"
+                + "jetfuel_partitions_fueled_total{source_table=\"sourceDb.sourceTable\",target_table=\"targetDb.targetTable\"} 1\n"));
+        assertTrue(metrics.contains("jetfuel_bytes_read_total{source_table=\"sourceDb.sourceTable\",target_table=\"targetDb.targetTable\"} 1024\n"));
+        assertTrue(metrics.contains("jetfuel_start_time_seconds{source_table=\"sourceDb.sourceTable\",target_table=\"targetDb.targetTable\"} "
+                + runMetrics.getStartTime() / 1000 + "\n"));
+        assertTrue(metrics.contains("# TYPE jetfuel_group_size_decreases_total counter\n"
+                + "jetfuel_group_size_decreases_total{source_table=\"sourceDb.sourceTable\",target_table=\"targetDb.targetTable\"} 1\n"));
+        assertEquals(15, metrics.split("\n# TYPE ").length);
+    }
+
+    @Test
+    public void testExportsPartitionsOfGroupQueries() throws Exception {
+        final JetFuelRequest request = new JetFuelRequest();
+        request.addInsertPartitionQuery("group1", ImmutableMap.of("(p = 'a')", "query a", "(p = 'b')", "query b", "(p = 'c')", "query c"));
+        request.addInsertPartitionQuery("group2", ImmutableMap.of("(p = 'd')", "query d", "(p = 'e')", "query e"));
+        new StaticQueryRunner(Collections.singletonList(mock(HiveDriverClient.class)), new RunContext.Builder().withRunMetrics(runMetrics).build()).execute(request);
+
+        try (final MetricsExporter metricsExporter = new MetricsExporter(builder.build(), runMetrics)) {
+            metricsExporter.start();
+
+            assertTrue(metricsExporter.format().contains(
+                    "jetfuel_partitions_planned{source_table=\"sourceDb.sourceTable\",target_table=\"targetDb.targetTable\"} 5\n"));
+            assertEquals(5, ManagementFactory.getPlatformMBeanServer().getAttribute(new ObjectName(OBJECT_NAME), "PartitionsPlanned"));
+            assertEquals(0L, ManagementFactory.getPlatformMBeanServer().getAttribute(new ObjectName(OBJECT_NAME), "EstimatedSecondsRemaining"));
+        }
+    }
+
+    @Test
+    public void testFormatEscapesLabels() {
+        final String metrics = new MetricsExporter(builder.withSourceTable("source\"table").build(), runMetrics).format();
+
+        assertTrue(metrics.contains("{source_table=\"sourceDb.source\\\"table\","));
+    }
+
+    @Test
+    public void testMXBean() throws Exception {
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        runMetrics.startGroup(8);
+
+        try (final MetricsExporter metricsExporter = new MetricsExporter(builder.build(), runMetrics)) {
+            metricsExporter.start();
+
+            assertEquals(8, mBeanServer.getAttribute(new ObjectName(OBJECT_NAME), "CurrentGroupSize"));
+            assertEquals(-1L, mBeanServer.getAttribute(new ObjectName(OBJECT_NAME), "EstimatedSecondsRemaining"));
+            assertEquals(-1, metricsExporter.getPort());
+        }
+
+        assertFalse(mBeanServer.isRegistered(new ObjectName(OBJECT_NAME)));
+    }
+
+    @Test
+    public void testMXBeanAlreadyRegistered() throws Exception {
+        try (final MetricsExporter first = new MetricsExporter(builder.build(), runMetrics);
+             final MetricsExporter second = new MetricsExporter(builder.build(), new RunMetrics())) {
+            first.start();
+            second.start();
+
+            assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(OBJECT_NAME)));
+        }
+    }
+
+    @Test
+    public void testEndpoint() throws IOException {
+        runMetrics.startGroup(5);
+
+        try (final MetricsExporter metricsExporter = new MetricsExporter(builder.withMetricsPort(getFreePort()).build(), runMetrics)) {
+            metricsExporter.start();
+
+            final HttpURLConnection connection = (HttpURLConnection) new URL(
+                    String.format("http://localhost:%d/metrics", metricsExporter.getPort())).openConnection();
+            assertEquals(200, connection.getResponseCode());
+            assertEquals("text/plain; version=0.0.4; charset=utf-8", connection.getContentType());
+            try (final InputStream inputStream = connection.getInputStream()) {
+                assertTrue(IOUtils.toString(inputStream, StandardCharsets.UTF_8).contains(
+                        "jetfuel_current_group_size{source_table=\"sourceDb.sourceTable\",target_table=\"targetDb.targetTable\"} 5\n"));
+            }
+
+            final HttpURLConnection unknown = (HttpURLConnection) new URL(
+                    String.format("http://localhost:%d/unknown", metricsExporter.getPort())).openConnection();
+            assertEquals(404, unknown.getResponseCode());
+        }
+    }
+
+    @Test
+    public void testEndpointPortInUse() throws Exception {
+        try (final ServerSocket serverSocket = new ServerSocket(0)) {
+            final MetricsExporter metricsExporter = new MetricsExporter(builder.withMetricsPort(serverSocket.getLocalPort()).build(), runMetrics);
+            try {
+                metricsExporter.start();
+                fail("Expected JetFuelException");
+            } catch (final JetFuelException e) {
+                assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(OBJECT_NAME)));
+            }
+
+            metricsExporter.close();
+
+            assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(OBJECT_NAME)));
+        }
+    }
+
+    @Test
+    public void testTextfile() throws IOException {
+        final File textfile = new File(folder.getRoot(), "jetfuel.prom");
+        final MetricsExporter metricsExporter = new MetricsExporter(builder.withMetricsTextfilePath(textfile.getPath()).build(), runMetrics);
+        metricsExporter.start();
+        runMetrics.recordQuarantined("(p = 'a')");
+
+        metricsExporter.close();
+        metricsExporter.close();
+
+        final String metrics = new String(Files.readAllBytes(textfile.toPath()), StandardCharsets.UTF_8);
+        assertEquals(metricsExporter.format(), metrics);
+        assertTrue(metrics.contains("jetfuel_partitions_quarantined_total{source_table=\"sourceDb.sourceTable\",target_table=\"targetDb.targetTable\"} 1\n"));
+        assertFalse(new File(folder.getRoot(), "jetfuel.prom.tmp").exists());
+    }
+
+    @Test
+    public void testTextfileUnwritable() {
+        final File textfile = new File(new File(folder.getRoot(), "missing"), "jetfuel.prom");
+        final MetricsExporter metricsExporter = new MetricsExporter(builder.withMetricsTextfilePath(textfile.getPath()).build(), runMetrics);
+
+        metricsExporter.writeTextfile();
+
+        assertFalse(textfile.exists());
+    }
+
+    private static int getFreePort() throws IOException {
+        try (final ServerSocket serverSocket = new ServerSocket(0)) {
+            return serverSocket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+import com.expediagroup.jetfuel.models.FileFormat;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.expediagroup.jetfuel.models.PartitionSpec;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests for {@link PartitionAnalyzer}
+ */
+public final class PartitionAnalyzerTest {
+
+    private static final String ORC_INPUT_FORMAT = "org.apache.hadoop.hive.ql.io.orc.OrcInputFormat";
+    private static final String RC_INPUT_FORMAT = "org.apache.hadoop.hive.ql.io.RCFileInputFormat";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final HiveTableUtils hiveTableUtils = mock(HiveTableUtils.class);
+    private final JetFuelConfiguration.Builder builder = new JetFuelConfiguration.Builder()
+            .withSourceDatabase("sourceDb")
+            .withSourceTable("sourceTable")
+            .withTargetDatabase("targetDb")
+            .withTargetTable("targetTable")
+            .withHiveMetastoreUri("hiveMetastoreUri")
+            .withHiveServer2Url("hiveUrl")
+            .withHiveServer2Username("username")
+            .withHiveServer2Password("password")
+            .withTargetFileFormat("ORC")
+            .withTargetCompression("SNAPPY")
+            .withTargetCompaction(false);
+
+    private final Table table = new Table();
+
+    @Before
+    public void setup() {
+        table.setParameters(ImmutableMap.of("orc.compress", "SNAPPY"));
+        when(hiveTableUtils.getNumFiles(any())).thenReturn(-1L);
+        when(hiveTableUtils.getTotalSize(any())).thenReturn(-1L);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullJetFuelConfiguration() {
+        new PartitionAnalyzer(null, hiveTableUtils);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullHiveTableUtils() {
+        new PartitionAnalyzer(builder.build(), null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testGetOptimalPartitionsNullTable() {
+        new PartitionAnalyzer(builder.build(), hiveTableUtils).getOptimalPartitions(null, Collections.emptyList());
+    }
+
+    @Test
+    public void testGetOptimalPartitions() {
+        final Partition optimal = createPartition("a", ORC_INPUT_FORMAT);
+        final Partition text = createPartition("b", "org.apache.hadoop.mapred.TextInputFormat");
+        final PartitionSpec optimalSpec = new PartitionSpec(ImmutableMap.of("p", "a"), "(p = 'a')", optimal);
+        final List<PartitionSpec> partitionSpecs = ImmutableList.of(optimalSpec, new PartitionSpec(ImmutableMap.of("p", "b"), "(p = 'b')", text));
+
+        assertEquals(ImmutableList.of(optimalSpec), new PartitionAnalyzer(builder.build(), hiveTableUtils).getOptimalPartitions(table, partitionSpecs));
+        verify(hiveTableUtils, never()).getPartitionSpecs(any());
+    }
+
+    @Test
+    public void testGetOptimalPartitionsUnsupportedFileFormat() {
+        final JetFuelConfiguration jetFuelConfiguration = builder.withTargetFileFormat("TEXT").withTargetCompression("GZIP").build();
+        assertTrue(new PartitionAnalyzer(jetFuelConfiguration, hiveTableUtils).getOptimalPartitions(table, Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    public void testIsOptimalWithoutStorageDescriptor() {
+        assertFalse(new PartitionAnalyzer(builder.build(), hiveTableUtils).isOptimal(table, new Partition()));
+    }
+
+    @Test
+    public void testIsOptimalCompression() {
+        final PartitionAnalyzer analyzer = new PartitionAnalyzer(builder.build(), hiveTableUtils);
+        final Partition partition = createPartition("a", ORC_INPUT_FORMAT);
+        assertTrue(analyzer.isOptimal(table, partition));
+
+        partition.setParameters(ImmutableMap.of("orc.compress", "ZLIB"));
+        assertFalse(analyzer.isOptimal(table, partition));
+
+        table.setParameters(null);
+        partition.setParameters(null);
+        assertFalse(analyzer.isOptimal(table, partition));
+        assertTrue(new PartitionAnalyzer(builder.withTargetCompression("zlib").build(), hiveTableUtils).isOptimal(table, partition));
+
+        table.setParameters(ImmutableMap.of("orc.compress", "NONE"));
+        assertTrue(new PartitionAnalyzer(builder.withTargetCompression("UNCOMPRESSED").build(), hiveTableUtils).isOptimal(table, partition));
+    }
+
+    @Test
+    public void testIsOptimalParquet() {
+        final JetFuelConfiguration jetFuelConfiguration = builder.withTargetFileFormat("PARQUET").withTargetCompression("UNCOMPRESSED").build();
+        table.setParameters(new HashMap<>());
+        assertTrue(new PartitionAnalyzer(jetFuelConfiguration, hiveTableUtils)
+                .isOptimal(table, createPartition("a", "org.apache.hadoop.hive.ql.io.parquet.MapredParquetInputFormat")));
+    }
+
+    @Test
+    public void testIsOptimalFileSizeStatistics() {
+        final PartitionAnalyzer analyzer = new PartitionAnalyzer(builder.withTargetCompaction(true).withSmallFileAvgSize("100").build(), hiveTableUtils);
+        final Partition partition = createPartition("a", ORC_INPUT_FORMAT);
+
+        when(hiveTableUtils.getNumFiles(partition)).thenReturn(4L);
+        when(hiveTableUtils.getTotalSize(partition)).thenReturn(400L);
+        assertTrue(analyzer.isOptimal(table, partition));
+
+        when(hiveTableUtils.getTotalSize(partition)).thenReturn(399L);
+        assertFalse(analyzer.isOptimal(table, partition));
+
+        when(hiveTableUtils.getNumFiles(partition)).thenReturn(1L);
+        assertTrue(analyzer.isOptimal(table, partition));
+    }
+
+    @Test
+    public void testIsOptimalFileListing() throws IOException {
+        final PartitionAnalyzer analyzer = new PartitionAnalyzer(builder.withTargetCompaction(true).withSmallFileAvgSize("15").build(), hiveTableUtils, new Configuration());
+        final File location = folder.newFolder("p=a");
+        final Partition partition = createPartition("a", ORC_INPUT_FORMAT);
+        partition.getSd().setLocation(location.toURI().toString());
+
+        Files.write(new File(location, "000000_0").toPath(), new byte[20]);
+        Files.write(new File(location, "_SUCCESS").toPath(), new byte[0]);
+        assertTrue(analyzer.isOptimal(table, partition));
+
+        Files.write(new File(location, "000001_0").toPath(), new byte[2]);
+        assertFalse(analyzer.isOptimal(table, partition));
+    }
+
+    @Test
+    public void testIsOptimalMissingLocation() {
+        final PartitionAnalyzer analyzer = new PartitionAnalyzer(builder.withTargetCompaction(true).build(), hiveTableUtils);
+        final Partition partition = createPartition("a", ORC_INPUT_FORMAT);
+        partition.getSd().setLocation(new File(folder.getRoot(), "missing").toURI().toString());
+        assertFalse(analyzer.isOptimal(table, partition));
+    }
+
+    @Test
+    public void testGetOptimalPartitionsWithPartitionFilter() {
+        final PartitionSpec optimalSpec = new PartitionSpec(ImmutableMap.of("p", "a"), "(p = 'a')", createPartition("a", ORC_INPUT_FORMAT));
+        final List<PartitionSpec> partitionSpecs = ImmutableList.of(optimalSpec,
+                new PartitionSpec(ImmutableMap.of("p", "b"), "(p = 'b')", createPartition("b", ORC_INPUT_FORMAT)));
+
+        when(hiveTableUtils.getPartitionKeyNames(table)).thenReturn(ImmutableSet.of("p"));
+
+        assertEquals(ImmutableList.of(optimalSpec), new PartitionAnalyzer(builder.withPartitionFilter("p < 'b'").build(), hiveTableUtils).getOptimalPartitions(table, partitionSpecs));
+        assertTrue(new PartitionAnalyzer(builder.withPartitionFilter("p LIKE 'a%'").build(), hiveTableUtils).getOptimalPartitions(table, partitionSpecs).isEmpty());
+    }
+
+    @Test
+    public void testGetConcatenatePartitions() {
+        final Partition small = createPartition("a", ORC_INPUT_FORMAT);
+        final Partition large = createPartition("b", ORC_INPUT_FORMAT);
+        final Partition zlib = createPartition("c", ORC_INPUT_FORMAT);
+        zlib.setParameters(ImmutableMap.of("orc.compress", "ZLIB"));
+        final PartitionSpec smallSpec = new PartitionSpec(ImmutableMap.of("p", "a"), "(p = 'a')", small);
+        final List<PartitionSpec> partitionSpecs = ImmutableList.of(smallSpec,
+                new PartitionSpec(ImmutableMap.of("p", "b"), "(p = 'b')", large),
+                new PartitionSpec(ImmutableMap.of("p", "c"), "(p = 'c')", zlib));
+        when(hiveTableUtils.getNumFiles(any())).thenReturn(10L);
+        when(hiveTableUtils.getTotalSize(small)).thenReturn(100L);
+        when(hiveTableUtils.getTotalSize(large)).thenReturn(1000L);
+        when(hiveTableUtils.getTotalSize(zlib)).thenReturn(100L);
+
+        final JetFuelConfiguration jetFuelConfiguration = builder.withTargetCompaction(true).withSmallFileAvgSize("50").build();
+        assertEquals(ImmutableList.of(smallSpec), new PartitionAnalyzer(jetFuelConfiguration, hiveTableUtils).getConcatenatePartitions(table, partitionSpecs));
+    }
+
+    @Test
+    public void testGetConcatenatePartitionsUnsupportedFileFormat() {
+        final JetFuelConfiguration jetFuelConfiguration = builder.withTargetFileFormat("PARQUET").withTargetCompression("SNAPPY").build();
+        assertTrue(new PartitionAnalyzer(jetFuelConfiguration, hiveTableUtils).getConcatenatePartitions(table, Collections.emptyList()).isEmpty());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testGetConcatenatePartitionsNullTable() {
+        new PartitionAnalyzer(builder.build(), hiveTableUtils).getConcatenatePartitions(null, Collections.emptyList());
+    }
+
+    @Test
+    public void testIsEncodedRcFile() {
+        final PartitionAnalyzer analyzer = new PartitionAnalyzer(builder.withTargetFileFormat("RC").withTargetCompression("GZIP").build(), hiveTableUtils);
+        final Partition partition = createPartition("a", RC_INPUT_FORMAT);
+        assertFalse(analyzer.isEncoded(table, partition));
+
+        partition.setParameters(ImmutableMap.of("rc.compress", "GZIP"));
+        assertTrue(analyzer.isEncoded(table, partition));
+
+        partition.setParameters(ImmutableMap.of("rc.compress", "SNAPPY"));
+        assertFalse(analyzer.isEncoded(table, partition));
+    }
+
+    private static Partition createPartition(final String value, final String inputFormat) {
+        final Partition partition = new Partition();
+        partition.setValues(ImmutableList.of(value));
+        final StorageDescriptor storageDescriptor = new StorageDescriptor();
+        storageDescriptor.setInputFormat(inputFormat);
+        partition.setSd(storageDescriptor);
+        return partition;
+    }
+
+    @Test
+    public void testGetFileFormat() {
+        assertEquals(FileFormat.ORC, PartitionAnalyzer.getFileFormat(createPartition("a", ORC_INPUT_FORMAT)));
+        assertEquals(FileFormat.TEXT, PartitionAnalyzer.getFileFormat(createPartition("a", "org.apache.hadoop.mapred.TextInputFormat")));
+        assertNull(PartitionAnalyzer.getFileFormat(createPartition("a", "com.example.CustomInputFormat")));
+        assertNull(PartitionAnalyzer.getFileFormat(new Partition()));
+    }
+
+    @Test
+    public void testGetCompression() {
+        final Partition partition = createPartition("a", ORC_INPUT_FORMAT);
+        assertEquals("SNAPPY", PartitionAnalyzer.getCompression(table, partition, FileFormat.ORC));
+        assertEquals("ZLIB", PartitionAnalyzer.getCompression(new Table(), partition, FileFormat.ORC));
+        assertNull(PartitionAnalyzer.getCompression(table, partition, FileFormat.TEXT));
+    }
+}
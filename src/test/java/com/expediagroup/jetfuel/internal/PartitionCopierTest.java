@@ -0,0 +1,208 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.expediagroup.jetfuel.models.PartitionSpec;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Tests for {@link PartitionCopier}
+ */
+public final class PartitionCopierTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final HiveTableUtils hiveTableUtils = mock(HiveTableUtils.class);
+    private final JetFuelConfiguration jetFuelConfiguration = new JetFuelConfiguration.Builder()
+            .withSourceDatabase("sourceDb")
+            .withSourceTable("sourceTable")
+            .withTargetDatabase("targetDb")
+            .withTargetTable("targetTable")
+            .withHiveMetastoreUri("hiveMetastoreUri")
+            .withHiveServer2Url("hiveUrl")
+            .withHiveServer2Username("username")
+            .withHiveServer2Password("password")
+            .withCopyThreads(2)
+            .build();
+
+    private final Table targetTable = new Table();
+    private PartitionCopier copier;
+    private File targetLocation;
+
+    @Before
+    public void setup() throws IOException {
+        targetLocation = folder.newFolder("target");
+        targetTable.setDbName("targetDb");
+        targetTable.setTableName("targetTable");
+        targetTable.setSd(new StorageDescriptor());
+        targetTable.getSd().setInputFormat("org.apache.hadoop.hive.ql.io.orc.OrcInputFormat");
+        targetTable.getSd().setLocation(targetLocation.toURI().toString());
+        copier = new PartitionCopier(jetFuelConfiguration, hiveTableUtils, new Configuration());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullJetFuelConfiguration() {
+        new PartitionCopier(null, hiveTableUtils);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullHiveTableUtils() {
+        new PartitionCopier(jetFuelConfiguration, null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testCopyNullTargetTable() {
+        copier.copy(null, ImmutableList.of());
+    }
+
+    @Test
+    public void testCopyNothing() {
+        copier.copy(targetTable, ImmutableList.of());
+        verify(hiveTableUtils, never()).addPartitions(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCopy() throws IOException {
+        final Partition newPartition = createSourcePartition("a");
+        newPartition.setParameters(ImmutableMap.of("numFiles", "1", "totalSize", "3", "transient_lastDdlTime", "1"));
+        final Partition existingSourcePartition = createSourcePartition("b");
+        final Partition existingTargetPartition = new Partition();
+        final File existingLocation = folder.newFolder("existing");
+        Files.write(new File(existingLocation, "stale").toPath(), new byte[1]);
+        existingTargetPartition.setValues(ImmutableList.of("b"));
+        existingTargetPartition.setSd(new StorageDescriptor());
+        existingTargetPartition.getSd().setLocation(existingLocation.toURI().toString());
+        existingTargetPartition.setParameters(ImmutableMap.<String, String>builder()
+                .put("numFiles", "1").put("totalSize", "1").put("rawDataSize", "8").put("numRows", "2")
+                .put("COLUMN_STATS_ACCURATE", "true").put("transient_lastDdlTime", "1").build());
+        when(hiveTableUtils.getPartitionSpecs(targetTable)).thenReturn(ImmutableList.of(new PartitionSpec(ImmutableMap.of("p", "b"), "(p = 'b')", existingTargetPartition)));
+        when(hiveTableUtils.getPartitionName(targetTable, newPartition)).thenReturn("p=a");
+
+        copier.copy(targetTable, ImmutableList.of(
+                new PartitionSpec(ImmutableMap.of("p", "a"), "(p = 'a')", newPartition),
+                new PartitionSpec(ImmutableMap.of("p", "b"), "(p = 'b')", existingSourcePartition)));
+
+        assertTrue(new File(targetLocation, "p=a/000000_0").exists());
+        assertTrue(new File(existingLocation, "000000_0").exists());
+        assertFalse(new File(existingLocation, "stale").exists());
+
+        final ArgumentCaptor<List<Partition>> captor = ArgumentCaptor.forClass(List.class);
+        verify(hiveTableUtils).addPartitions(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        final Partition registered = captor.getValue().get(0);
+        assertEquals("targetDb", registered.getDbName());
+        assertEquals("targetTable", registered.getTableName());
+        assertEquals(ImmutableList.of("a"), registered.getValues());
+        assertEquals("org.apache.hadoop.hive.ql.io.orc.OrcInputFormat", registered.getSd().getInputFormat());
+        assertTrue(registered.getSd().getLocation().endsWith("target/p=a"));
+        assertEquals(ImmutableMap.of("numFiles", "1", "totalSize", "3"), registered.getParameters());
+
+        verify(hiveTableUtils).alterPartitions(eq("targetDb"), eq("targetTable"), captor.capture());
+        assertEquals(1, captor.getValue().size());
+        final Partition altered = captor.getValue().get(0);
+        assertEquals(ImmutableList.of("b"), altered.getValues());
+        assertEquals(ImmutableMap.of("numFiles", "1", "totalSize", "3", "transient_lastDdlTime", "1"), altered.getParameters());
+    }
+
+    @Test
+    public void testCopyNewPartitionsOnly() throws IOException {
+        final Partition newPartition = createSourcePartition("a");
+        when(hiveTableUtils.getPartitionName(targetTable, newPartition)).thenReturn("p=a");
+
+        copier.copy(targetTable, ImmutableList.of(new PartitionSpec(ImmutableMap.of("p", "a"), "(p = 'a')", newPartition)));
+
+        verify(hiveTableUtils).addPartitions(any());
+        verify(hiveTableUtils, never()).alterPartitions(any(), any(), any());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testCopyMissingSource() {
+        final Partition partition = new Partition();
+        partition.setValues(ImmutableList.of("a"));
+        partition.setSd(new StorageDescriptor());
+        partition.getSd().setLocation(new File(folder.getRoot(), "missing").toURI().toString());
+        when(hiveTableUtils.getPartitionName(targetTable, partition)).thenReturn("p=a");
+
+        copier.copy(targetTable, ImmutableList.of(new PartitionSpec(ImmutableMap.of("p", "a"), "(p = 'a')", partition)));
+    }
+
+    @Test
+    public void testCopyMissingSourceKeepsTargetData() throws IOException {
+        final Partition sourcePartition = new Partition();
+        sourcePartition.setValues(ImmutableList.of("b"));
+        sourcePartition.setSd(new StorageDescriptor());
+        sourcePartition.getSd().setLocation(new File(folder.getRoot(), "missing").toURI().toString());
+        final File existingLocation = new File(targetLocation, "p=b");
+        assertTrue(existingLocation.mkdirs());
+        Files.write(new File(existingLocation, "000000_0").toPath(), new byte[1]);
+        final Partition existingTargetPartition = new Partition();
+        existingTargetPartition.setValues(ImmutableList.of("b"));
+        existingTargetPartition.setSd(new StorageDescriptor());
+        existingTargetPartition.getSd().setLocation(existingLocation.toURI().toString());
+        when(hiveTableUtils.getPartitionSpecs(targetTable)).thenReturn(ImmutableList.of(new PartitionSpec(ImmutableMap.of("p", "b"), "(p = 'b')", existingTargetPartition)));
+
+        try {
+            copier.copy(targetTable, ImmutableList.of(new PartitionSpec(ImmutableMap.of("p", "b"), "(p = 'b')", sourcePartition)));
+            fail("Expected JetFuelException");
+        } catch (final JetFuelException e) {
+            assertTrue(new File(existingLocation, "000000_0").exists());
+            assertEquals(ImmutableList.of("p=b"), ImmutableList.copyOf(targetLocation.list()));
+            verify(hiveTableUtils, never()).alterPartitions(any(), any(), any());
+        }
+    }
+
+    private Partition createSourcePartition(final String value) throws IOException {
+        final File location = folder.newFolder("source", "p=" + value);
+        Files.write(new File(location, "000000_0").toPath(), new byte[3]);
+        final Partition partition = new Partition();
+        partition.setValues(ImmutableList.of(value));
+        partition.setSd(new StorageDescriptor());
+        partition.getSd().setLocation(location.toURI().toString());
+        return partition;
+    }
+}
@@ -0,0 +1,238 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests for {@link ProgressJournal}
+ */
+public final class ProgressJournalTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final JetFuelConfiguration.Builder builder = new JetFuelConfiguration.Builder()
+            .withSourceDatabase("sourceDb")
+            .withSourceTable("sourceTable")
+            .withTargetDatabase("targetDb")
+            .withTargetTable("targetTable")
+            .withHiveMetastoreUri("hiveMetastoreUri")
+            .withHiveServer2Url("hiveUrl")
+            .withHiveServer2Username("username")
+            .withHiveServer2Password("password");
+
+    private FileSystem fileSystem;
+    private File journalFile;
+    private ProgressJournal journal;
+
+    @Before
+    public void setup() throws IOException {
+        fileSystem = FileSystem.getLocal(new Configuration());
+        journalFile = new File(folder.getRoot(), "journal");
+        journal = new ProgressJournal(fileSystem, new Path(journalFile.toURI()), "run");
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullFileSystem() {
+        new ProgressJournal(null, new Path(journalFile.toURI()), "run");
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullPath() {
+        new ProgressJournal(fileSystem, null, "run");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorBlankName() {
+        new ProgressJournal(fileSystem, new Path(journalFile.toURI()), " ");
+    }
+
+    @Test
+    public void testCreateWithoutJournalPath() {
+        assertNull(ProgressJournal.create(builder.build()));
+    }
+
+    @Test
+    public void testCreate() {
+        final ProgressJournal created = ProgressJournal.create(builder.withJournalPath(journalFile.getAbsolutePath()).build());
+        created.record(ImmutableList.of("(p = 'a')"));
+
+        assertTrue(journalFile.exists());
+        assertEquals(ImmutableSet.of("(p = 'a')"), created.load());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testCreateUnknownFileSystem() {
+        ProgressJournal.create(builder.withJournalPath("unknown://journal").build());
+    }
+
+    @Test
+    public void testLoadWithoutJournal() {
+        assertTrue(journal.load().isEmpty());
+    }
+
+    @Test
+    public void testRecordAndLoad() throws IOException {
+        journal.record(ImmutableList.of("(p = 'a')", "(p = 'b')"));
+        journal.record(ImmutableList.of("(p = 'c')"));
+
+        assertEquals(ImmutableList.of("# jetfuel run", "(p = 'a')", "(p = 'b')", "(p = 'c')"), Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8));
+        assertFalse(new File(folder.getRoot(), "journal.tmp").exists());
+
+        final ProgressJournal resumed = new ProgressJournal(fileSystem, new Path(journalFile.toURI()), "run");
+        assertEquals(ImmutableSet.of("(p = 'a')", "(p = 'b')", "(p = 'c')"), resumed.load());
+
+        resumed.record(ImmutableList.of("(p = 'd')"));
+        assertEquals(5, Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    public void testRecordAppendsAfterFirstGroup() throws IOException {
+        final FileSystem appendingFileSystem = mock(FileSystem.class);
+        final ByteArrayOutputStream created = new ByteArrayOutputStream();
+        final ByteArrayOutputStream appended = new ByteArrayOutputStream();
+        when(appendingFileSystem.create(any(Path.class), anyBoolean())).thenReturn(new FSDataOutputStream(created, null));
+        when(appendingFileSystem.rename(any(), any())).thenReturn(true);
+        when(appendingFileSystem.append(any(Path.class))).thenReturn(new FSDataOutputStream(appended, null));
+        final ProgressJournal appendingJournal = new ProgressJournal(appendingFileSystem, new Path("/journal"), "run");
+
+        appendingJournal.record(ImmutableList.of("(p = 'a')", "(p = 'b')"));
+        appendingJournal.record(ImmutableList.of("(p = 'b')", "(p = 'c')"));
+        appendingJournal.record(ImmutableList.of("(p = 'd')"));
+
+        verify(appendingFileSystem, times(1)).create(any(Path.class), anyBoolean());
+        verify(appendingFileSystem, times(1)).append(any(Path.class));
+        assertEquals("# jetfuel run\n(p = 'a')\n(p = 'b')\n", new String(created.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals("(p = 'c')\n(p = 'd')\n", new String(appended.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRecordWithoutAppend() throws IOException {
+        final FileSystem rewritingFileSystem = mock(FileSystem.class);
+        when(rewritingFileSystem.create(any(Path.class), anyBoolean())).thenAnswer(invocation -> new FSDataOutputStream(new ByteArrayOutputStream(), null));
+        when(rewritingFileSystem.rename(any(), any())).thenReturn(true);
+        when(rewritingFileSystem.append(any(Path.class))).thenThrow(new IOException("Not supported"));
+        final ProgressJournal rewritingJournal = new ProgressJournal(rewritingFileSystem, new Path("/journal"), "run");
+
+        rewritingJournal.record(ImmutableList.of("(p = 'a')"));
+        rewritingJournal.record(ImmutableList.of("(p = 'b')"));
+        rewritingJournal.record(ImmutableList.of("(p = 'c')"));
+
+        verify(rewritingFileSystem, times(3)).create(any(Path.class), anyBoolean());
+        verify(rewritingFileSystem, times(1)).append(any(Path.class));
+    }
+
+    @Test
+    public void testLoadCompactsTruncatedJournal() throws IOException {
+        Files.write(journalFile.toPath(), "# jetfuel run\n(p = 'a')\n(p = 'a')\n(p = 'b".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(ImmutableSet.of("(p = 'a')"), journal.load());
+        assertEquals(ImmutableList.of("# jetfuel run", "(p = 'a')"), Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8));
+
+        journal.record(ImmutableList.of("(p = 'b')"));
+        assertEquals(ImmutableList.of("# jetfuel run", "(p = 'a')", "(p = 'b')"), Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRecordNothingNew() {
+        journal.record(ImmutableList.of());
+        assertFalse(journalFile.exists());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testRecordNull() {
+        journal.record(null);
+    }
+
+    @Test
+    public void testLoadInterruptedReplace() throws IOException {
+        Files.write(new File(folder.getRoot(), "journal.tmp").toPath(), ImmutableList.of("# jetfuel run", "", "(p = 'a')"), StandardCharsets.UTF_8);
+        assertEquals(ImmutableSet.of("(p = 'a')"), journal.load());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testLoadOtherRun() throws IOException {
+        Files.write(journalFile.toPath(), ImmutableList.of("# jetfuel other", "(p = 'a')"), StandardCharsets.UTF_8);
+        journal.load();
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testLoadFailure() throws IOException {
+        final FileSystem failingFileSystem = mock(FileSystem.class);
+        when(failingFileSystem.exists(any())).thenThrow(new IOException("Error"));
+        new ProgressJournal(failingFileSystem, new Path("/journal"), "run").load();
+    }
+
+    @Test
+    public void testRecordFailure() throws IOException {
+        final FileSystem failingFileSystem = mock(FileSystem.class);
+        when(failingFileSystem.create(any(Path.class), anyBoolean())).thenThrow(new IOException("Error"));
+        new ProgressJournal(failingFileSystem, new Path("/journal"), "run").record(ImmutableList.of("(p = 'a')"));
+    }
+
+    @Test
+    public void testRecordUnwritableLocation() throws IOException {
+        final ProgressJournal unwritableJournal = new ProgressJournal(fileSystem, new Path(new File(folder.newFile("file"), "journal").toURI()), "run");
+        unwritableJournal.record(ImmutableList.of("(p = 'a')"));
+        assertTrue(unwritableJournal.load().isEmpty());
+    }
+
+    @Test
+    public void testDelete() {
+        journal.record(ImmutableList.of("(p = 'a')"));
+        journal.delete();
+
+        assertFalse(journalFile.exists());
+        assertTrue(journal.load().isEmpty());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testDeleteFailure() throws IOException {
+        final FileSystem failingFileSystem = mock(FileSystem.class);
+        when(failingFileSystem.delete(any(Path.class), anyBoolean())).thenThrow(new IOException("Error"));
+        new ProgressJournal(failingFileSystem, new Path("/journal"), "run").delete();
+    }
+}
@@ -23,6 +23,7 @@ import static org.powermock.api.mockito.PowerMockito.when;
 
 import java.util.List;
 
+import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.junit.Before;
 import org.junit.Test;
@@ -34,7 +35,10 @@ import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
 import com.expediagroup.jetfuel.models.FileFormat;
 import com.expediagroup.jetfuel.models.JetFuelConfiguration;
 import com.expediagroup.jetfuel.models.JetFuelRequest;
+import com.expediagroup.jetfuel.models.PartitionSpec;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * Tests for {@link QueryGeneratorFactory}
@@ -470,17 +474,18 @@ public final class QueryGeneratorFactoryTest {
                 .withPartitionFilter("(trans_month = '2000-01') OR (trans_month = '2010-03')")
                 .withInsertPartitionGroupSize(5L)
                 .build();
+        mockPartitionSpecs("2000-01", "2010-03");
         final QueryGenerator queryGenerator = QueryGeneratorFactory.create(jetFuelConfiguration, client);
 
         queryGenerator.getInsertTableQuery(true, table, "cols", request);
         assertFalse(request.getInsertPartitionQueries().isEmpty());
 
         assertEquals(1, request.getInsertPartitionQueries().keySet().size());
-        assertTrue(request.getInsertPartitionQueries().keySet().contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2000-01')  OR  (trans_month = '2010-03')"));
+        assertTrue(request.getInsertPartitionQueries().keySet().contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2000-01') OR (trans_month = '2010-03')"));
 
         assertEquals(2, request.getInsertPartitionQueries().values().size());
-        assertTrue(request.getInsertPartitionQueries().values().contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2000-01') "));
-        assertTrue(request.getInsertPartitionQueries().values().contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE  (trans_month = '2010-03')"));
+        assertTrue(request.getInsertPartitionQueries().values().contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2000-01')"));
+        assertTrue(request.getInsertPartitionQueries().values().contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2010-03')"));
     }
 
     @Test
@@ -490,14 +495,15 @@ public final class QueryGeneratorFactoryTest {
                 .withPartitionFilter("(trans_month = '2000-01') OR (trans_month = '2010-03') OR (trans_month = '2011-03')")
                 .withInsertPartitionGroupSize(2L)
                 .build();
+        mockPartitionSpecs("2000-01", "2010-03", "2011-03");
         final QueryGenerator queryGenerator = QueryGeneratorFactory.create(jetFuelConfiguration, client);
 
         queryGenerator.getInsertTableQuery(true, table, "cols", request);
         assertFalse(request.getInsertPartitionQueries().isEmpty());
 
         assertEquals(2, request.getInsertPartitionQueries().keySet().size());
-        final String groupQuery1 = "INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2000-01')  OR  (trans_month = '2010-03') ";
-        final String groupQuery2 = "INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE  (trans_month = '2011-03')";
+        final String groupQuery1 = "INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2000-01') OR (trans_month = '2010-03')";
+        final String groupQuery2 = "INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2011-03')";
 
         assertTrue(request.getInsertPartitionQueries().keySet().contains(groupQuery1));
         assertEquals(2, request.getInsertPartitionQueries().get(groupQuery1).size());
@@ -506,9 +512,9 @@ public final class QueryGeneratorFactoryTest {
         assertEquals(1, request.getInsertPartitionQueries().get(groupQuery2).size());
 
         assertEquals(3, request.getInsertPartitionQueries().values().size());
-        assertTrue(request.getInsertPartitionQueries().get(groupQuery1).contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2000-01') "));
-        assertTrue(request.getInsertPartitionQueries().get(groupQuery1).contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE  (trans_month = '2010-03') "));
-        assertTrue(request.getInsertPartitionQueries().get(groupQuery2).contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE  (trans_month = '2011-03')"));
+        assertTrue(request.getInsertPartitionQueries().get(groupQuery1).contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2000-01')"));
+        assertTrue(request.getInsertPartitionQueries().get(groupQuery1).contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2010-03')"));
+        assertTrue(request.getInsertPartitionQueries().get(groupQuery2).contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2011-03')"));
     }
 
     @Test
@@ -519,6 +525,7 @@ public final class QueryGeneratorFactoryTest {
                 .withPartitionGrouping("DYNAMIC")
                 .withInsertPartitionGroupSize(5L)
                 .build();
+        mockPartitionSpecs("2000-01", "2010-03");
         final QueryGenerator queryGenerator = QueryGeneratorFactory.create(jetFuelConfiguration, client);
 
         queryGenerator.getInsertTableQuery(true, table, "cols", request);
@@ -530,4 +537,13 @@ public final class QueryGeneratorFactoryTest {
         assertEquals("(trans_month = '2000-01')", request.getPartitionFilterFragments().pop());
         assertEquals("(trans_month = '2010-03')", request.getPartitionFilterFragments().pop());
     }
+
+    private void mockPartitionSpecs(final String... months) {
+        final ImmutableList.Builder<PartitionSpec> partitionSpecs = ImmutableList.builder();
+        for (final String month : months) {
+            partitionSpecs.add(new PartitionSpec(ImmutableMap.of("trans_month", month), String.format("(trans_month = '%s')", month), new Partition()));
+        }
+        when(client.getPartitionSpecs(table)).thenReturn(partitionSpecs.build());
+        when(client.getPartitionKeyNames(table)).thenReturn(ImmutableSet.of("trans_month"));
+    }
 }
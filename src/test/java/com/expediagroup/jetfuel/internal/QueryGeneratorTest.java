@@ -18,11 +18,19 @@ package com.expediagroup.jetfuel.internal;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.when;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.junit.Before;
 import org.junit.Test;
@@ -30,6 +38,7 @@ import org.junit.runner.RunWith;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import com.expediagroup.jetfuel.exception.JetFuelException;
 import com.expediagroup.jetfuel.internal.formats.AvroFileFormatCompressorImpl;
 import com.expediagroup.jetfuel.internal.formats.DefaultFileFormatCompressorImpl;
 import com.expediagroup.jetfuel.internal.formats.OrcFileFormatCompressorImpl;
@@ -38,10 +47,15 @@ import com.expediagroup.jetfuel.internal.formats.RcFileFormatCompressorImpl;
 import com.expediagroup.jetfuel.internal.formats.SeqFileFormatCompressorImpl;
 import com.expediagroup.jetfuel.internal.formats.TextFileFormatCompressorImpl;
 import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+import com.expediagroup.jetfuel.models.ExecutionEngine;
+import com.expediagroup.jetfuel.models.FailureIsolation;
 import com.expediagroup.jetfuel.models.FileFormat;
 import com.expediagroup.jetfuel.models.JetFuelConfiguration;
 import com.expediagroup.jetfuel.models.JetFuelRequest;
+import com.expediagroup.jetfuel.models.PartitionSpec;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * Tests for {@link QueryGenerator}
@@ -353,6 +367,33 @@ public final class QueryGeneratorTest {
         assertTrue(request.getJetFuelQueries().contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable"));
     }
 
+    @Test
+    public void testTezExecutionSettings() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withExecutionEngine(ExecutionEngine.TEZ)
+                .withMapReduceMemoryInMB(4096L)
+                .withMapReduceJavaOptsInMB(3276L)
+                .build();
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+        final List<String> queries = queryGenerator.generateJetFuelRequest(true, table, "cols", true, false).getJetFuelQueries();
+
+        assertTrue(queries.contains("SET hive.execution.engine=tez"));
+        assertTrue(queries.contains("SET hive.tez.input.format=org.apache.hadoop.hive.ql.io.CombineHiveInputFormat"));
+        assertTrue(queries.contains("SET hive.tez.container.size=4096"));
+        assertTrue(queries.contains("SET hive.tez.java.opts=-Xmx3276m"));
+        assertTrue(queries.contains("SET tez.grouping.max-size=100000000"));
+        assertTrue(queries.contains("SET tez.grouping.min-size=100000000"));
+        assertTrue(queries.contains("SET hive.merge.tezfiles=true"));
+        assertTrue(queries.contains("SET hive.merge.smallfiles.avgsize=1000000000"));
+        assertTrue(queries.contains("SET hive.merge.size.per.task=800000000"));
+
+        assertFalse(queries.contains("SET hive.execution.engine=mr"));
+        assertFalse(queries.contains("SET mapreduce.map.memory.mb=4096"));
+        assertFalse(queries.contains("SET mapreduce.map.java.opts=-Xmx3276m"));
+        assertFalse(queries.contains("SET mapred.max.split.size=100000000"));
+        assertFalse(queries.contains("SET hive.merge.mapfiles=true"));
+    }
+
     private void testStandardQueries(final List<String> queries) {
         assertTrue(queries.contains("SET hive.execution.engine=mr"));
         assertTrue(queries.contains("SET hive.exec.dynamic.partition.mode=nonstrict"));
@@ -375,6 +416,65 @@ public final class QueryGeneratorTest {
         assertTrue(request.getJetFuelQueries().contains("SET mapreduce.reduce.memory.mb=10"));
     }
 
+    @Test
+    public void testGenerateMemoryEscalationQueries() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withMapReduceMemoryInMB(2048L)
+                .withMapReduceJavaOptsInMB(1638L)
+                .build();
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        final JetFuelRequest request = queryGenerator.generateJetFuelRequest(true, table, "cols", false, true);
+
+        assertEquals(Collections.singletonList(Arrays.asList("SET mapreduce.map.memory.mb=4096", "SET mapreduce.reduce.memory.mb=4096", "SET mapreduce.map.java.opts=-Xmx3276m",
+                "SET mapreduce.reduce.java.opts=-Xmx3276m")), request.getMemoryEscalationQueries());
+        assertEquals(Arrays.asList("SET mapreduce.map.memory.mb=2048", "SET mapreduce.reduce.memory.mb=2048", "SET mapreduce.map.java.opts=-Xmx1638m",
+                "SET mapreduce.reduce.java.opts=-Xmx1638m"), request.getMemoryResetQueries());
+    }
+
+    @Test
+    public void testGenerateMemoryEscalationQueriesDoublingToCeiling() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withExecutionEngine(ExecutionEngine.TEZ)
+                .withMapReduceMemoryInMB(2048L)
+                .withMaxMapReduceMemoryInMB(10000L)
+                .build();
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        final JetFuelRequest request = queryGenerator.generateJetFuelRequest(true, table, "cols", false, true);
+
+        assertEquals(Arrays.asList(Collections.singletonList("SET hive.tez.container.size=4096"), Collections.singletonList("SET hive.tez.container.size=8192"),
+                Collections.singletonList("SET hive.tez.container.size=10000")), request.getMemoryEscalationQueries());
+        assertEquals(Collections.singletonList("SET hive.tez.container.size=2048"), request.getMemoryResetQueries());
+    }
+
+    @Test
+    public void testGenerateMemoryEscalationQueriesFromLadder() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withExecutionEngine(ExecutionEngine.TEZ)
+                .withMapReduceMemoryInMB(2048L)
+                .withMapReduceJavaOptsInMB(1600L)
+                .withMapReduceMemoryLadderInMB(Arrays.asList(16384L, 1024L, 6144L, 3072L))
+                .withMaxMapReduceMemoryInMB(8192L)
+                .build();
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        final JetFuelRequest request = queryGenerator.generateJetFuelRequest(true, table, "cols", false, true);
+
+        assertEquals(Arrays.asList(Arrays.asList("SET hive.tez.container.size=3072", "SET hive.tez.java.opts=-Xmx2400m"),
+                Arrays.asList("SET hive.tez.container.size=6144", "SET hive.tez.java.opts=-Xmx4800m")), request.getMemoryEscalationQueries());
+    }
+
+    @Test
+    public void testGenerateNoMemoryEscalationQueries() {
+        final QueryGenerator queryGenerator = new QueryGenerator(client, builder.build(), new OrcFileFormatCompressorImpl());
+
+        final JetFuelRequest request = queryGenerator.generateJetFuelRequest(true, table, "cols", false, true);
+
+        assertTrue(request.getMemoryEscalationQueries().isEmpty());
+        assertTrue(request.getMemoryResetQueries().isEmpty());
+    }
+
     @Test
     public void testGenerateJavaOptsQueries() {
         final JetFuelConfiguration jetFuelConfiguration = builder
@@ -476,17 +576,18 @@ public final class QueryGeneratorTest {
                 .withPartitionFilter("(trans_month = '2000-01') OR (trans_month = '2010-03')")
                 .withInsertPartitionGroupSize(5L)
                 .build();
+        mockPartitionSpecs("trans_month", ImmutableMap.of("2000-01", 10L, "2005-01", 10L, "2010-03", 10L));
         final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new ParquetFileFormatCompressorImpl());
 
         queryGenerator.getInsertTableQuery(true, table, "cols", request);
         assertFalse(request.getInsertPartitionQueries().isEmpty());
 
         assertEquals(1, request.getInsertPartitionQueries().keySet().size());
-        assertTrue(request.getInsertPartitionQueries().keySet().contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2000-01')  OR  (trans_month = '2010-03')"));
+        assertTrue(request.getInsertPartitionQueries().keySet().contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2000-01') OR (trans_month = '2010-03')"));
 
         assertEquals(2, request.getInsertPartitionQueries().values().size());
-        assertTrue(request.getInsertPartitionQueries().values().contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2000-01') "));
-        assertTrue(request.getInsertPartitionQueries().values().contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE  (trans_month = '2010-03')"));
+        assertTrue(request.getInsertPartitionQueries().values().contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2000-01')"));
+        assertTrue(request.getInsertPartitionQueries().values().contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2010-03')"));
     }
 
     @Test
@@ -496,14 +597,15 @@ public final class QueryGeneratorTest {
                 .withPartitionFilter("(trans_month = '2000-01') OR (trans_month = '2010-03') OR (trans_month = '2011-03')")
                 .withInsertPartitionGroupSize(2L)
                 .build();
+        mockPartitionSpecs("trans_month", ImmutableMap.of("2000-01", 10L, "2010-03", 10L, "2011-03", 10L));
         final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new ParquetFileFormatCompressorImpl());
 
         queryGenerator.getInsertTableQuery(true, table, "cols", request);
         assertFalse(request.getInsertPartitionQueries().isEmpty());
 
         assertEquals(2, request.getInsertPartitionQueries().keySet().size());
-        final String groupQuery1 = "INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2000-01')  OR  (trans_month = '2010-03') ";
-        final String groupQuery2 = "INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE  (trans_month = '2011-03')";
+        final String groupQuery1 = "INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2000-01') OR (trans_month = '2010-03')";
+        final String groupQuery2 = "INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2011-03')";
 
         assertTrue(request.getInsertPartitionQueries().keySet().contains(groupQuery1));
         assertEquals(2, request.getInsertPartitionQueries().get(groupQuery1).size());
@@ -512,9 +614,443 @@ public final class QueryGeneratorTest {
         assertEquals(1, request.getInsertPartitionQueries().get(groupQuery2).size());
 
         assertEquals(3, request.getInsertPartitionQueries().values().size());
-        assertTrue(request.getInsertPartitionQueries().get(groupQuery1).contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2000-01') "));
-        assertTrue(request.getInsertPartitionQueries().get(groupQuery1).contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE  (trans_month = '2010-03') "));
-        assertTrue(request.getInsertPartitionQueries().get(groupQuery2).contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE  (trans_month = '2011-03')"));
+        assertTrue(request.getInsertPartitionQueries().get(groupQuery1).contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2000-01')"));
+        assertTrue(request.getInsertPartitionQueries().get(groupQuery1).contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2010-03')"));
+        assertTrue(request.getInsertPartitionQueries().get(groupQuery2).contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2011-03')"));
+    }
+
+    @Test
+    public void testStaticGroupedRangeAndInFilter() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionFilter("p BETWEEN 'b' AND 'd' AND p NOT IN ('c')")
+                .withEnablePartitionGrouping(true)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("a", 10L, "b", 10L, "c", 10L, "d", 10L, "e", 10L));
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        queryGenerator.getInsertTableQuery(true, table, "cols", request);
+
+        assertEquals(ImmutableSet.of("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (p = 'b') OR (p = 'd')"), request.getInsertPartitionQueries().keySet());
+    }
+
+    @Test
+    public void testStaticGroupedCompactPredicates() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionFilter("p >= '2019-01-01'")
+                .withEnablePartitionGrouping(true)
+                .withCompactPartitionPredicates(true)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("2019-01-01", 10L, "2019-01-02", 10L, "2019-01-03", 10L, "2019-01-05", 10L));
+        when(client.getDatePartitionKeys(table)).thenReturn(ImmutableSet.of("p"));
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        queryGenerator.getInsertTableQuery(true, table, "cols", request);
+
+        assertTrue(request.isCompactPartitionPredicates());
+        assertEquals(ImmutableSet.of("p"), request.getDatePartitionKeys());
+        assertEquals(ImmutableSet.of("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (p BETWEEN '2019-01-01' AND '2019-01-03' OR p = '2019-01-05')"), request.getInsertPartitionQueries().keySet());
+        assertTrue(request.getInsertPartitionQueries().values().contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (p = '2019-01-05')"));
+    }
+
+    @Test
+    public void testStaticGroupedCompactPredicatesStringDateKey() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionFilter("p >= '2019-01-01'")
+                .withEnablePartitionGrouping(true)
+                .withCompactPartitionPredicates(true)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("2019-01-01", 10L, "2019-01-02", 10L, "2019-01-03", 10L));
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        queryGenerator.getInsertTableQuery(true, table, "cols", request);
+
+        assertEquals(ImmutableSet.of("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE p IN ('2019-01-01', '2019-01-02', '2019-01-03')"), request.getInsertPartitionQueries().keySet());
+    }
+
+    @Test
+    public void testGroupedFilterValueContainingOr() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionFilter("country = 'OR' OR country = 'ORDER'")
+                .withEnablePartitionGrouping(true)
+                .build();
+        mockPartitionSpecs("country", ImmutableMap.of("OR", 10L, "ORDER", 10L, "US", 10L));
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        queryGenerator.getInsertTableQuery(true, table, "cols", request);
+
+        assertEquals(ImmutableSet.of("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (country = 'OR') OR (country = 'ORDER')"), request.getInsertPartitionQueries().keySet());
+    }
+
+    @Test
+    public void testGroupedFilterMatchingNoPartitions() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionFilter("p = 'x' OR p = 'y'")
+                .withEnablePartitionGrouping(true)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("a", 10L));
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        queryGenerator.getInsertTableQuery(true, table, "cols", request);
+
+        assertTrue(request.getInsertPartitionQueries().isEmpty());
+        assertTrue(request.getJetFuelQueries().contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE p = 'x' OR p = 'y'"));
+    }
+
+    @Test
+    public void testGroupedFilterMatchingDefaultPartition() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionFilter("(p = 'a') OR (p IS NULL)")
+                .withEnablePartitionGrouping(true)
+                .build();
+        when(client.getPartitionKeyNames(table)).thenReturn(ImmutableSet.of("p"));
+        when(client.getPartitionSpecs(table)).thenReturn(ImmutableList.of(
+                new PartitionSpec(ImmutableMap.of("p", "a"), "(p = 'a')", new Partition()),
+                new PartitionSpec(ImmutableMap.of("p", "__HIVE_DEFAULT_PARTITION__"), "(p IS NULL)", new Partition()),
+                new PartitionSpec(ImmutableMap.of("p", "b"), "(p = 'b')", new Partition())));
+        request.addCompletedPartitions(ImmutableSet.of("(p = 'b')"));
+
+        new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl()).getInsertTableQuery(true, table, "cols", request);
+
+        assertEquals(ImmutableSet.of("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (p = 'a') OR (p IS NULL)"), request.getInsertPartitionQueries().keySet());
+    }
+
+    @Test
+    public void testGroupedFilterUnknownPartitionKey() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionFilter("q = 'a' OR q = 'b'")
+                .withEnablePartitionGrouping(true)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("a", 10L));
+        new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl()).getInsertTableQuery(true, table, "cols", request);
+
+        assertTrue(request.getInsertPartitionQueries().isEmpty());
+        assertTrue(request.getJetFuelQueries().contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE q = 'a' OR q = 'b'"));
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testGroupedFilterUnknownPartitionKeyWithCompletedPartitions() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionFilter("q = 'a' OR q = 'b'")
+                .withEnablePartitionGrouping(true)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("a", 10L));
+        request.addCompletedPartitions(ImmutableSet.of("(p = 'a')"));
+        new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl()).getInsertTableQuery(true, table, "cols", request);
+    }
+
+    @Test
+    public void testSizeGroupedPartitioned() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionFilter("p IN ('a', 'b', 'c')")
+                .withPartitionGrouping("SIZE")
+                .withEnablePartitionGrouping(true)
+                .withInsertPartitionGroupBytes(100L)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("a", 60L, "b", 50L, "c", 30L, "d", 10L));
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        queryGenerator.getInsertTableQuery(true, table, "cols", request);
+
+        assertEquals(2, request.getInsertPartitionQueries().keySet().size());
+        final String groupQuery1 = "INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (p = 'a') OR (p = 'c')";
+        final String groupQuery2 = "INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (p = 'b')";
+        assertEquals(2, request.getInsertPartitionQueries().get(groupQuery1).size());
+        assertEquals(1, request.getInsertPartitionQueries().get(groupQuery2).size());
+    }
+
+    @Test
+    public void testSizeGroupedPartitionedWithMissingStatistics() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionFilter("(p = 'a') OR (p = 'b') OR (p = 'c')")
+                .withPartitionGrouping("SIZE")
+                .withEnablePartitionGrouping(true)
+                .withInsertPartitionGroupBytes(250L)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("a", -1L, "b", 100L, "c", 100L));
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        queryGenerator.getInsertTableQuery(true, table, "cols", request);
+
+        assertEquals(2, request.getInsertPartitionQueries().keySet().size());
+        assertTrue(request.getInsertPartitionQueries().keySet().contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (p = 'a') OR (p = 'b')"));
+    }
+
+    @Test
+    public void testSizeGroupedPartitionedWithoutStatistics() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionFilter("(p = 'a') OR (p = 'b') OR (p = 'c')")
+                .withPartitionGrouping("SIZE")
+                .withEnablePartitionGrouping(true)
+                .withInsertPartitionGroupSize(1L)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("a", -1L, "b", -1L, "c", -1L));
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        queryGenerator.getInsertTableQuery(true, table, "cols", request);
+
+        assertEquals(3, request.getInsertPartitionQueries().keySet().size());
+    }
+
+    @Test
+    public void testSizeGroupedSinglePartition() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionFilter("(p = 'a')")
+                .withPartitionGrouping("SIZE")
+                .withEnablePartitionGrouping(true)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("a", 10L, "b", 10L));
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        queryGenerator.getInsertTableQuery(true, table, "cols", request);
+        assertEquals(ImmutableSet.of("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (p = 'a')"), request.getInsertPartitionQueries().keySet());
+        assertEquals(1, request.getInsertPartitionCount());
+    }
+
+    @Test
+    public void testSizeGroupedNoPartitionFilter() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionGrouping("SIZE")
+                .withEnablePartitionGrouping(true)
+                .build();
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        queryGenerator.getInsertTableQuery(true, table, "cols", request);
+        assertTrue(request.getInsertPartitionQueries().isEmpty());
+        assertTrue(request.getJetFuelQueries().contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable"));
+    }
+
+    @Test
+    public void testStaticGroupedWithoutPartitionFilter() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withEnablePartitionGrouping(true)
+                .withInsertPartitionGroupSize(2L)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("a", 10L, "b", 10L, "c", 10L));
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        queryGenerator.getInsertTableQuery(true, table, "cols", request);
+
+        assertEquals(2, request.getInsertPartitionQueries().keySet().size());
+        final String groupQuery = "INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (p = 'a') OR (p = 'b')";
+        assertEquals(ImmutableSet.of("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (p = 'a')", "INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (p = 'b')"), request.getInsertPartitionQueries().get(groupQuery));
+    }
+
+    @Test
+    public void testSingleEnumeratedPartition() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withEnablePartitionGrouping(true)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("a", 10L));
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        queryGenerator.getInsertTableQuery(true, table, "cols", request);
+
+        assertEquals(ImmutableSet.of("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (p = 'a')"), request.getInsertPartitionQueries().keySet());
+        assertEquals(1, request.getInsertPartitionCount());
+    }
+
+    @Test
+    public void testDynamicGroupedWithoutPartitionFilter() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionGrouping("DYNAMIC")
+                .withEnablePartitionGrouping(true)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("a", 10L, "b", 10L));
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        queryGenerator.getInsertTableQuery(true, table, "cols", request);
+
+        assertEquals(ImmutableList.of("(p = 'a')", "(p = 'b')"), ImmutableList.copyOf(request.getPartitionFilterFragments()));
+        assertEquals(3, request.getGroupSizeIncreaseAfter());
+    }
+
+    @Test
+    public void testSizeGroupedWithoutPartitionFilter() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionGrouping("SIZE")
+                .withEnablePartitionGrouping(true)
+                .withInsertPartitionGroupBytes(100L)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("a", 60L, "b", 50L, "c", 30L));
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        queryGenerator.getInsertTableQuery(true, table, "cols", request);
+
+        assertEquals(2, request.getInsertPartitionQueries().keySet().size());
+        assertTrue(request.getInsertPartitionQueries().keySet().contains("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (p = 'a') OR (p = 'c')"));
+    }
+
+    @Test
+    public void testStaticGroupedSkipsCompletedPartitions() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withEnablePartitionGrouping(true)
+                .withInsertPartitionGroupSize(2L)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("a", 10L, "b", 10L, "c", 10L));
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+        request.addCompletedPartitions(ImmutableSet.of("(p = 'b')"));
+
+        queryGenerator.getInsertTableQuery(true, table, "cols", request);
+
+        assertEquals(ImmutableSet.of("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (p = 'a') OR (p = 'c')"), request.getInsertPartitionQueries().keySet());
+        assertEquals("(p = 'c')", request.getInsertPartitionQueryFragments().get("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (p = 'c')"));
+        assertEquals("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable", request.getInsertPartitionTemplate());
+        assertEquals(FailureIsolation.FALLBACK, request.getFailureIsolation());
+    }
+
+    @Test
+    public void testStaticGroupedFailureIsolation() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withEnablePartitionGrouping(true)
+                .withFailureIsolation("bisect")
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("a", 10L, "b", 10L));
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        queryGenerator.getInsertTableQuery(true, table, "cols", request);
+
+        assertEquals(FailureIsolation.BISECT, request.getFailureIsolation());
+    }
+
+    @Test
+    public void testDynamicGroupedSkipsCompletedPartitions() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionGrouping("DYNAMIC")
+                .withEnablePartitionGrouping(true)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("a", 10L, "b", 10L, "c", 10L));
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        final JetFuelRequest jetFuelRequest = queryGenerator.generateJetFuelRequest(true, table, "cols", false, false, ImmutableSet.of("(p = 'a')"));
+
+        assertEquals(ImmutableList.of("(p = 'b')", "(p = 'c')"), ImmutableList.copyOf(jetFuelRequest.getPartitionFilterFragments()));
+    }
+
+    @Test
+    public void testGenerateJetFuelRequestWithListedPartitions() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionGrouping("DYNAMIC")
+                .withEnablePartitionGrouping(true)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("a", 10L, "b", 10L, "c", 10L));
+        final List<PartitionSpec> partitionSpecs = client.getPartitionSpecs(table);
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        final JetFuelRequest jetFuelRequest = queryGenerator.generateJetFuelRequest(true, table, "cols", false, false, ImmutableSet.of(), partitionSpecs.subList(1, 3));
+
+        assertEquals(ImmutableList.of("(p = 'b')", "(p = 'c')"), ImmutableList.copyOf(jetFuelRequest.getPartitionFilterFragments()));
+        verify(client, times(1)).getPartitionSpecs(table);
+    }
+
+    @Test
+    public void testResumeWithOnePartitionLeft() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withEnablePartitionGrouping(true)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("a", 10L, "b", 10L));
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+        request.addCompletedPartitions(ImmutableSet.of("(p = 'a')"));
+
+        queryGenerator.getInsertTableQuery(true, table, "cols", request);
+
+        assertEquals(ImmutableSet.of("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (p = 'b')"), request.getInsertPartitionQueries().keySet());
+        assertEquals(1, request.getInsertPartitionCount());
+        assertEquals("(p = 'b')", request.getInsertPartitionQueryFragments().get("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (p = 'b')"));
+    }
+
+    @Test
+    public void testGroupedAllPartitionsCompleted() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withEnablePartitionGrouping(true)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("a", 10L, "b", 10L));
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+        request.addCompletedPartitions(ImmutableSet.of("(p = 'a')", "(p = 'b')"));
+
+        queryGenerator.getInsertTableQuery(true, table, "cols", request);
+
+        assertTrue(request.getInsertPartitionQueries().isEmpty());
+        assertTrue(request.getJetFuelQueries().isEmpty());
+    }
+
+    @Test
+    public void testUnparsableFilterWithCompletedPartitions() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withEnablePartitionGrouping(true)
+                .withPartitionFilter("upper(p) = 'A'")
+                .build();
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+        request.addCompletedPartitions(ImmutableSet.of("(p = 'a')"));
+
+        try {
+            queryGenerator.getInsertTableQuery(true, table, "cols", request);
+            fail("Expected JetFuelException");
+        } catch (final JetFuelException e) {
+            assertTrue(e.getMessage().startsWith("Partition filter cannot be parsed, so 1 partitions cannot be left out of fueling"));
+        }
+        assertTrue(request.getJetFuelQueries().isEmpty());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testGenerateJetFuelRequestNullCompletedPartitions() {
+        final QueryGenerator queryGenerator = new QueryGenerator(client, builder.build(), new OrcFileFormatCompressorImpl());
+        queryGenerator.generateJetFuelRequest(true, table, "cols", false, false, null);
+    }
+
+    @Test
+    public void testGroupBySizeOversizedPartition() {
+        final Map<String, Long> partitionSizes = new LinkedHashMap<>();
+        partitionSizes.put("a", 10L);
+        partitionSizes.put("b", 500L);
+        partitionSizes.put("c", 20L);
+
+        final List<List<String>> partitionGroups = QueryGenerator.groupBySize(partitionSizes, ImmutableMap.of(), 100L, 100L);
+        assertEquals(ImmutableList.of(ImmutableList.of("b"), ImmutableList.of("c", "a")), partitionGroups);
+    }
+
+    @Test
+    public void testGroupBySizeFileLimit() {
+        final Map<String, Long> partitionSizes = new LinkedHashMap<>();
+        partitionSizes.put("a", 30L);
+        partitionSizes.put("b", 20L);
+        partitionSizes.put("c", 10L);
+
+        assertEquals(ImmutableList.of(ImmutableList.of("a", "b", "c")),
+                QueryGenerator.groupBySize(partitionSizes, ImmutableMap.of("a", 1L, "b", 1L, "c", 1L), 100L, 100L));
+        assertEquals(ImmutableList.of(ImmutableList.of("a", "c"), ImmutableList.of("b")),
+                QueryGenerator.groupBySize(partitionSizes, ImmutableMap.of("a", 60L, "b", 50L, "c", 30L), 100L, 100L));
+    }
+
+    @Test
+    public void testSizeGroupedPartitionedByFileCount() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionFilter("p IN ('a', 'b', 'c')")
+                .withPartitionGrouping("SIZE")
+                .withEnablePartitionGrouping(true)
+                .withInsertPartitionGroupBytes(1000L)
+                .withInsertPartitionGroupFiles(1000L)
+                .build();
+        mockPartitionSpecs("p", ImmutableMap.of("a", 30L, "b", 20L, "c", 10L));
+        for (final PartitionSpec partitionSpec : client.getPartitionSpecs(table)) {
+            when(client.getNumFiles(partitionSpec.getPartition())).thenReturn(600L);
+        }
+        final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new OrcFileFormatCompressorImpl());
+
+        queryGenerator.getInsertTableQuery(true, table, "cols", request);
+
+        assertEquals(3, request.getInsertPartitionQueries().keySet().size());
+    }
+
+    private void mockPartitionSpecs(final String partitionKey, final Map<String, Long> partitionSizes) {
+        final ImmutableList.Builder<PartitionSpec> partitionSpecs = ImmutableList.builder();
+        for (final Map.Entry<String, Long> entry : partitionSizes.entrySet()) {
+            final Partition partition = new Partition();
+            partition.setValues(ImmutableList.of(entry.getKey()));
+            when(client.getTotalSize(partition)).thenReturn(entry.getValue());
+            partitionSpecs.add(new PartitionSpec(ImmutableMap.of(partitionKey, entry.getKey()), String.format("(%s = '%s')", partitionKey, entry.getKey()), partition));
+        }
+        when(client.getPartitionSpecs(table)).thenReturn(partitionSpecs.build());
+        when(client.getPartitionKeyNames(table)).thenReturn(ImmutableSet.of(partitionKey));
     }
 
     @Test
@@ -525,6 +1061,7 @@ public final class QueryGeneratorTest {
                 .withPartitionGrouping("DYNAMIC")
                 .withInsertPartitionGroupSize(5L)
                 .build();
+        mockPartitionSpecs("trans_month", ImmutableMap.of("2000-01", 10L, "2010-03", 10L));
         final QueryGenerator queryGenerator = new QueryGenerator(client, jetFuelConfiguration, new ParquetFileFormatCompressorImpl());
 
         queryGenerator.getInsertTableQuery(true, table, "cols", request);
@@ -536,4 +1073,27 @@ public final class QueryGeneratorTest {
         assertEquals("(trans_month = '2000-01')", request.getPartitionFilterFragments().pop());
         assertEquals("(trans_month = '2010-03')", request.getPartitionFilterFragments().pop());
     }
+
+    @Test
+    public void testGenerateConcatenateRequest() {
+        final Partition partition = new Partition();
+        partition.setValues(ImmutableList.of("2018-01"));
+        when(client.getPartitionClause(table, partition)).thenReturn("(trans_month = '2018-01')");
+        final QueryGenerator queryGenerator = new QueryGenerator(client, builder.build(), new OrcFileFormatCompressorImpl());
+
+        final JetFuelRequest request = queryGenerator.generateConcatenateRequest(ImmutableList.of("SET hive.execution.engine=mr"), table, "cols",
+                ImmutableList.of(new PartitionSpec(ImmutableMap.of("trans_month", "2018-01"), "(trans_month = '2018-01')", partition)));
+
+        assertEquals(ImmutableList.of("SET hive.execution.engine=mr"), request.getJetFuelQueries());
+        final String concatenateQuery = "ALTER TABLE targetDb.targetTable PARTITION (trans_month = '2018-01') CONCATENATE";
+        final String insertQuery = "INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2018-01')";
+        assertEquals(ImmutableSet.of(concatenateQuery), request.getInsertPartitionQueries().keySet());
+        assertEquals(ImmutableSet.of(insertQuery), request.getInsertPartitionQueries().get(concatenateQuery));
+        assertEquals("(trans_month = '2018-01')", request.getInsertPartitionQueryFragments().get(insertQuery));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testGenerateConcatenateRequestNullPartitionSpecs() {
+        new QueryGenerator(client, builder.build(), new OrcFileFormatCompressorImpl()).generateConcatenateRequest(ImmutableList.of(), table, "cols", null);
+    }
 }
@@ -15,7 +15,12 @@
  */
 package com.expediagroup.jetfuel.internal;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+import java.util.Collections;
 
 import org.junit.Test;
 
@@ -42,21 +47,23 @@ public final class QueryRunnerFactoryTest {
 
             .withTargetFileFormat("ORC");
 
+    private final RunContext runContext = new RunContext.Builder().build();
+
     @Test
     public void testCreate() throws ClassNotFoundException {
         final JetFuelConfiguration jetFuelConfiguration = builder
                 .withPartitionGrouping("STATIC")
                 .build();
-        final HiveDriverClient hiveDriverClient = new HiveDriverClient(jetFuelConfiguration);
-        final QueryRunner queryRunner = QueryRunnerFactory.create(jetFuelConfiguration, hiveDriverClient);
+        final QueryRunner queryRunner = QueryRunnerFactory.create(jetFuelConfiguration,
+                Collections.singletonList(new HiveDriverClient(jetFuelConfiguration, runContext)), runContext);
         assertTrue(queryRunner instanceof StaticQueryRunner);
     }
 
     @Test
     public void testCreateStatic() throws ClassNotFoundException {
         final JetFuelConfiguration jetFuelConfiguration = builder.build();
-        final HiveDriverClient hiveDriverClient = new HiveDriverClient(jetFuelConfiguration);
-        final QueryRunner queryRunner = QueryRunnerFactory.create(jetFuelConfiguration, hiveDriverClient);
+        final QueryRunner queryRunner = QueryRunnerFactory.create(jetFuelConfiguration,
+                Collections.singletonList(new HiveDriverClient(jetFuelConfiguration, runContext)), runContext);
         assertTrue(queryRunner instanceof StaticQueryRunner);
     }
 
@@ -66,8 +73,46 @@ public final class QueryRunnerFactoryTest {
                 .withPartitionGrouping("DYNAMIC")
                 .withEnablePartitionGrouping(true)
                 .build();
-        final HiveDriverClient hiveDriverClient = new HiveDriverClient(jetFuelConfiguration);
-        final QueryRunner queryRunner = QueryRunnerFactory.create(jetFuelConfiguration, hiveDriverClient);
+        final QueryRunner queryRunner = QueryRunnerFactory.create(jetFuelConfiguration,
+                Collections.singletonList(new HiveDriverClient(jetFuelConfiguration, runContext)), runContext);
+        assertTrue(queryRunner instanceof DynamicQueryRunner);
+    }
+
+    @Test
+    public void testCreateWithSessionPool() throws ClassNotFoundException {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionGrouping("DYNAMIC")
+                .withEnablePartitionGrouping(true)
+                .withConcurrency(2)
+                .build();
+        final QueryRunner queryRunner = QueryRunnerFactory.create(jetFuelConfiguration,
+                Arrays.asList(new HiveDriverClient(jetFuelConfiguration, runContext), new HiveDriverClient(jetFuelConfiguration, runContext)), runContext);
+        assertTrue(queryRunner instanceof DynamicQueryRunner);
+        assertEquals(2, queryRunner.hiveDriverClients.size());
+    }
+
+    @Test
+    public void testCreateWithProgressJournal() throws ClassNotFoundException {
+        final JetFuelConfiguration jetFuelConfiguration = builder.build();
+        final ProgressJournal progressJournal = mock(ProgressJournal.class);
+        final RunContext journalContext = new RunContext.Builder().withProgressJournal(progressJournal).build();
+        final QueryRunner queryRunner = QueryRunnerFactory.create(jetFuelConfiguration,
+                Collections.singletonList(new HiveDriverClient(jetFuelConfiguration, journalContext)), journalContext);
+        assertTrue(queryRunner instanceof StaticQueryRunner);
+        assertEquals(progressJournal, queryRunner.progressJournal);
+    }
+
+    @Test
+    public void testCreateWithRunMetrics() throws ClassNotFoundException {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionGrouping("DYNAMIC")
+                .withEnablePartitionGrouping(true)
+                .build();
+        final RunMetrics runMetrics = new RunMetrics();
+        final RunContext metricsContext = new RunContext.Builder().withRunMetrics(runMetrics).build();
+        final QueryRunner queryRunner = QueryRunnerFactory.create(jetFuelConfiguration,
+                Collections.singletonList(new HiveDriverClient(jetFuelConfiguration, metricsContext)), metricsContext);
         assertTrue(queryRunner instanceof DynamicQueryRunner);
+        assertEquals(runMetrics, queryRunner.getRunMetrics());
     }
 }
@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import java.time.Instant;
+
+import org.junit.Test;
+
+import com.expediagroup.jetfuel.internal.hive.HiveSessionPool;
+
+/**
+ * Tests for {@link RunContext}
+ */
+public final class RunContextTest {
+
+    @Test
+    public void testDefaults() {
+        final RunContext runContext = new RunContext.Builder().build();
+        assertNull(runContext.getProgressJournal());
+        assertNull(runContext.getRunMetrics());
+        assertEquals(JetFuelListeners.NONE, runContext.getListeners());
+        assertNull(runContext.getSessionPool());
+    }
+
+    @Test
+    public void testBuild() {
+        final ProgressJournal progressJournal = mock(ProgressJournal.class);
+        final RunMetrics runMetrics = new RunMetrics();
+        final JetFuelListeners listeners = JetFuelListeners.load();
+        final HiveSessionPool sessionPool = new HiveSessionPool(1);
+
+        final RunContext runContext = new RunContext.Builder()
+                .withProgressJournal(progressJournal)
+                .withRunMetrics(runMetrics)
+                .withListeners(listeners)
+                .withSessionPool(sessionPool)
+                .build();
+
+        assertSame(progressJournal, runContext.getProgressJournal());
+        assertSame(runMetrics, runContext.getRunMetrics());
+        assertSame(listeners, runContext.getListeners());
+        assertSame(sessionPool, runContext.getSessionPool());
+    }
+
+    @Test
+    public void testStartClock() {
+        final RunContext runContext = new RunContext.Builder().build();
+        final Instant start = runContext.startClock();
+        assertSame(start, runContext.startClock());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testBuildNullListeners() {
+        new RunContext.Builder().withListeners(null).build();
+    }
+}
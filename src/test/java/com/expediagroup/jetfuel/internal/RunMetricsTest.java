@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import com.expediagroup.jetfuel.exception.FailureType;
+import com.expediagroup.jetfuel.models.QueryMetrics;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests for {@link RunMetrics}
+ */
+public final class RunMetricsTest {
+
+    private final RunMetrics runMetrics = new RunMetrics();
+
+    @Test(expected = NullPointerException.class)
+    public void testRecordNullMetrics() {
+        runMetrics.record(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testRecordFueledNullPartitions() {
+        runMetrics.recordFueled(null);
+    }
+
+    @Test
+    public void testRecord() {
+        final QueryMetrics first = new QueryMetrics("session-1", 0L, 10L, 2, 0, null);
+        final QueryMetrics second = new QueryMetrics("session-2", 5L, 20L, 1, 1, FailureType.TASK_OOM);
+
+        runMetrics.record(first);
+        runMetrics.record(second);
+
+        assertEquals(ImmutableList.of(first, second), runMetrics.getQueryMetrics());
+    }
+
+    @Test
+    public void testRecordFueled() {
+        runMetrics.recordFueled(ImmutableList.of("(p = 'a')", "(p = 'b')"));
+        runMetrics.recordFueled(ImmutableList.of("(p = 'a')"));
+
+        assertEquals(ImmutableSet.of("(p = 'a')", "(p = 'b')"), runMetrics.getFueledPartitions());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGetQueryMetricsImmutable() {
+        runMetrics.getQueryMetrics().add(new QueryMetrics("session", 0L, 0L, 1, 0, null));
+    }
+
+    @Test
+    public void testLiveMetrics() {
+        runMetrics.addPartitionsPlanned(ImmutableList.of("(p = 'a')", "(p = 'b')", "(p = 'c')"));
+        runMetrics.addPartitionsPlanned(ImmutableList.of("(p = 'c')", "(p = 'd')"));
+        runMetrics.startGroup(2);
+        runMetrics.recordGroupSizeChange(4, 2);
+        runMetrics.recordGroupSizeChange(2, 3);
+        runMetrics.recordGroupSizeChange(3, 2);
+        runMetrics.startQuery();
+        runMetrics.startQuery();
+        runMetrics.endQuery();
+        runMetrics.record(new QueryMetrics("session", 0L, 10L, 2, 0, null));
+        runMetrics.record(new QueryMetrics("session", 0L, 10L, 2, 0, FailureType.UNKNOWN));
+        runMetrics.recordFueled(ImmutableList.of("(p = 'a')", "(p = 'b')"));
+        runMetrics.recordQuarantined("(p = 'c')");
+        runMetrics.addBytes(100L, 10L);
+        runMetrics.addBytes(50L, 5L);
+
+        assertEquals(4, runMetrics.getPartitionsPlanned());
+        assertEquals(2, runMetrics.getCurrentGroupSize());
+        assertEquals(1, runMetrics.getGroupSizeIncreases());
+        assertEquals(2, runMetrics.getGroupSizeDecreases());
+        assertEquals(3, runMetrics.getGroupSizeChanges().size());
+        assertEquals(Thread.currentThread().getName(), runMetrics.getGroupSizeChanges().get(0).getSession());
+        assertEquals(4, runMetrics.getGroupSizeChanges().get(0).getPreviousSize());
+        assertEquals(2, runMetrics.getGroupSizeChanges().get(0).getNewSize());
+        assertEquals(1, runMetrics.getQueriesInFlight());
+        assertEquals(1, runMetrics.getGroupsCompleted());
+        assertEquals(1, runMetrics.getGroupsFailed());
+        assertEquals(2, runMetrics.getPartitionsFueled());
+        assertEquals(1, runMetrics.getPartitionsQuarantined());
+        assertEquals(150L, runMetrics.getBytesRead());
+        assertEquals(15L, runMetrics.getBytesWritten());
+    }
+
+    @Test
+    public void testProgressTime() {
+        assertEquals(runMetrics.getStartTime(), runMetrics.getLastProgressTime());
+        assertEquals(0L, runMetrics.getSecondsSinceLastProgress());
+
+        runMetrics.recordProgress();
+
+        assertTrue(runMetrics.getLastProgressTime() >= runMetrics.getStartTime());
+    }
+
+    @Test
+    public void testEstimatedSecondsRemaining() {
+        runMetrics.addPartitionsPlanned(ImmutableList.of("(p = 'a')", "(p = 'b')", "(p = 'c')", "(p = 'd')"));
+        assertEquals(-1L, runMetrics.getEstimatedSecondsRemaining());
+
+        runMetrics.recordFueled(ImmutableList.of("(p = 'a')", "(p = 'b')", "(p = 'c')"));
+        runMetrics.recordQuarantined("(p = 'd')");
+
+        assertEquals(0L, runMetrics.getEstimatedSecondsRemaining());
+    }
+
+    @Test
+    public void testEstimatedSecondsRemainingExtrapolated() throws Exception {
+        final RunMetrics startedEarlier = new RunMetrics();
+        Whitebox.setInternalState(startedEarlier, "start", Instant.now().minusSeconds(100));
+        startedEarlier.addPartitionsPlanned(ImmutableList.of("(p = 'a')", "(p = 'b')", "(p = 'c')", "(p = 'd')"));
+        startedEarlier.recordFueled(ImmutableList.of("(p = 'a')"));
+
+        final long estimate = startedEarlier.getEstimatedSecondsRemaining();
+        assertTrue(String.valueOf(estimate), estimate >= 300 && estimate <= 303);
+    }
+}
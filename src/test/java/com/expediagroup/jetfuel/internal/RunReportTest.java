@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.expediagroup.jetfuel.exception.FailureType;
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+import com.expediagroup.jetfuel.models.GroupSizeChange;
+import com.expediagroup.jetfuel.models.QueryMetrics;
+import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Tests for {@link RunReport}
+ */
+public final class RunReportTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final Instant start = Instant.parse("2019-01-01T00:00:00Z");
+    private final Instant end = Instant.parse("2019-01-01T00:01:40Z");
+    private final List<QueryMetrics> queryMetrics = ImmutableList.of(
+            new QueryMetrics("session-1", start.toEpochMilli(), 1000L, 2, 0, null),
+            new QueryMetrics("session-2", start.toEpochMilli(), 4000L, 2, 1, FailureType.TASK_OOM),
+            new QueryMetrics("session-1", start.toEpochMilli(), 2000L, 1, 0, null),
+            new QueryMetrics("session-2", start.toEpochMilli(), 3000L, 1, 2, null));
+    private final List<GroupSizeChange> groupSizeChanges = ImmutableList.of(
+            new GroupSizeChange("session-1", start.toEpochMilli() + 10000L, 2, 1),
+            new GroupSizeChange("session-1", start.toEpochMilli() + 20000L, 1, 2));
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullQueryMetrics() {
+        new RunReport("db.source", "db.target", start, end, true, null, Collections.emptyList(), 0, 0, null, null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullGroupSizeChanges() {
+        new RunReport("db.source", "db.target", start, end, true, Collections.emptyList(), null, 0, 0, null, null);
+    }
+
+    @Test
+    public void testGetPercentile() {
+        final long[] values = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+        assertEquals(5, RunReport.getPercentile(values, 50));
+        assertEquals(9, RunReport.getPercentile(values, 90));
+        assertEquals(10, RunReport.getPercentile(values, 99));
+        assertEquals(1, RunReport.getPercentile(values, 1));
+        assertEquals(7, RunReport.getPercentile(new long[] { 7 }, 99));
+    }
+
+    @Test
+    public void testToJson() {
+        final RunReport runReport = new RunReport("db.source", "db.target", start, end, false, queryMetrics, groupSizeChanges, 3, 1,
+                new RunReport.StorageStatistics(3, 0, 1000L, 30L), new RunReport.StorageStatistics(3, 0, 400L, 3L));
+
+        final JsonObject report = runReport.toJson();
+
+        assertEquals("db.source", report.get("sourceTable").getAsString());
+        assertEquals("2019-01-01T00:00:00Z", report.get("start").getAsString());
+        assertEquals(100000L, report.get("durationMillis").getAsLong());
+        assertFalse(report.get("succeeded").getAsBoolean());
+        assertEquals(4, report.getAsJsonObject("queries").get("total").getAsInt());
+        assertEquals(1, report.getAsJsonObject("queries").get("failed").getAsInt());
+        assertEquals(3, report.getAsJsonObject("queries").get("retries").getAsInt());
+        assertEquals(3, report.getAsJsonObject("partitions").get("fueled").getAsInt());
+        assertEquals(1, report.getAsJsonObject("partitions").get("quarantined").getAsInt());
+
+        final JsonObject durations = report.getAsJsonObject("queryDurationMillis");
+        assertEquals(10000L, durations.get("total").getAsLong());
+        assertEquals(1000L, durations.get("min").getAsLong());
+        assertEquals(2000L, durations.get("p50").getAsLong());
+        assertEquals(4000L, durations.get("p90").getAsLong());
+        assertEquals(4000L, durations.get("max").getAsLong());
+
+        assertEquals(2, report.getAsJsonArray("groupSizes").size());
+        final JsonObject singles = report.getAsJsonArray("groupSizes").get(0).getAsJsonObject();
+        assertEquals(1, singles.get("groupSize").getAsInt());
+        assertEquals(0, singles.get("failed").getAsInt());
+        assertEquals(2000L, singles.getAsJsonObject("durationMillis").get("p50").getAsLong());
+
+        assertEquals(2, report.getAsJsonArray("groupSizeChanges").size());
+        final JsonObject decrease = report.getAsJsonArray("groupSizeChanges").get(0).getAsJsonObject();
+        assertEquals("session-1", decrease.get("session").getAsString());
+        assertEquals("2019-01-01T00:00:10Z", decrease.get("time").getAsString());
+        assertEquals(2, decrease.get("previousSize").getAsInt());
+        assertEquals(1, decrease.get("newSize").getAsInt());
+
+        assertEquals(600L, report.getAsJsonObject("storage").get("bytesSaved").getAsLong());
+        assertEquals(27L, report.getAsJsonObject("storage").get("filesSaved").getAsLong());
+
+        assertEquals(4, report.getAsJsonArray("queryMetrics").size());
+        assertEquals("TASK_OOM", report.getAsJsonArray("queryMetrics").get(1).getAsJsonObject().get("failureType").getAsString());
+        assertTrue(report.getAsJsonArray("queryMetrics").get(0).getAsJsonObject().get("failureType").isJsonNull());
+    }
+
+    @Test
+    public void testToJsonWithoutQueriesOrStorage() {
+        final JsonObject report = new RunReport("db.source", "db.target", start, end, true, Collections.emptyList(), Collections.emptyList(), 0, 0, null, null).toJson();
+        assertEquals(0, report.getAsJsonArray("groupSizeChanges").size());
+
+        assertEquals(0L, report.getAsJsonObject("queryDurationMillis").get("total").getAsLong());
+        assertFalse(report.getAsJsonObject("queryDurationMillis").has("p50"));
+        assertFalse(report.has("storage"));
+    }
+
+    @Test
+    public void testGetSummary() {
+        final RunReport runReport = new RunReport("db.source", "db.target", start, end, true, queryMetrics, Collections.emptyList(), 3, 0,
+                new RunReport.StorageStatistics(3, 0, 1000L, 30L), new RunReport.StorageStatistics(3, 0, 400L, 3L));
+
+        assertEquals("Succeeded 4 queries (1 failed, 3 retries) fueling 3 partitions (0 quarantined) in 100s, "
+                + "1000 bytes in 30 files became 400 bytes in 3 files", runReport.getSummary());
+    }
+
+    @Test
+    public void testWrite() throws IOException {
+        final File reportFile = new File(folder.getRoot(), "report.json");
+        final RunReport runReport = new RunReport("db.source", "db.target", start, end, true, queryMetrics, Collections.emptyList(), 3, 0, null, null);
+
+        runReport.write(reportFile.toURI().toString());
+
+        final String content = new String(Files.readAllBytes(reportFile.toPath()), StandardCharsets.UTF_8);
+        assertEquals(runReport.toJson(), new JsonParser().parse(content));
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testWriteToDirectory() {
+        new RunReport("db.source", "db.target", start, end, true, queryMetrics, Collections.emptyList(), 3, 0, null, null).write(folder.getRoot().toURI().toString());
+    }
+
+    @Test
+    public void testStorageStatistics() {
+        final HiveTableUtils hiveTableUtils = mock(HiveTableUtils.class);
+        final Partition measured = new Partition();
+        measured.setValues(ImmutableList.of("a"));
+        final Partition missing = new Partition();
+        missing.setValues(ImmutableList.of("b"));
+        when(hiveTableUtils.getTotalSize(measured)).thenReturn(100L);
+        when(hiveTableUtils.getNumFiles(measured)).thenReturn(4L);
+        when(hiveTableUtils.getTotalSize(missing)).thenReturn(-1L);
+        when(hiveTableUtils.getNumFiles(missing)).thenReturn(2L);
+
+        final RunReport.StorageStatistics storageStatistics = RunReport.StorageStatistics.of(hiveTableUtils, ImmutableList.of(measured, missing));
+
+        assertEquals(new RunReport.StorageStatistics(1, 1, 100L, 4L), storageStatistics);
+        assertEquals(new RunReport.StorageStatistics(1, 1, 100L, 4L).hashCode(), storageStatistics.hashCode());
+        assertEquals("RunReport.StorageStatistics(partitions=1, missingStatistics=1, bytes=100, files=4)", storageStatistics.toString());
+    }
+}
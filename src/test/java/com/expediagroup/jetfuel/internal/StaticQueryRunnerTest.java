@@ -15,21 +15,40 @@
  */
 package com.expediagroup.jetfuel.internal;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.times;
 import static org.powermock.api.mockito.PowerMockito.doThrow;
 import static org.powermock.api.mockito.PowerMockito.mock;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import com.expediagroup.jetfuel.JetFuelListener;
+import com.expediagroup.jetfuel.exception.FailureType;
+import com.expediagroup.jetfuel.exception.JetFuelQueryException;
 import com.expediagroup.jetfuel.internal.hive.HiveDriverClient;
+import com.expediagroup.jetfuel.models.FailureIsolation;
+import com.expediagroup.jetfuel.models.HiveProperty;
 import com.expediagroup.jetfuel.models.JetFuelRequest;
+import com.expediagroup.jetfuel.models.QueryMetrics;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * Tests for {@link StaticQueryRunner}
@@ -39,18 +58,19 @@ import com.google.common.collect.ImmutableList;
 public final class StaticQueryRunnerTest {
 
     private final HiveDriverClient client = mock(HiveDriverClient.class);
+    private final RunContext runContext = new RunContext.Builder().build();
     private StaticQueryRunner queryRunner;
     private JetFuelRequest request = new JetFuelRequest();
 
     @Before
     public void setup() {
-        queryRunner = new StaticQueryRunner(client);
+        queryRunner = new StaticQueryRunner(Collections.singletonList(client), runContext);
         request.addJetFuelQuery("query1");
     }
 
     @Test(expected = NullPointerException.class)
     public void testContructorNullHiveDriverClient() {
-        new StaticQueryRunner(null);
+        new StaticQueryRunner(null, runContext);
     }
 
     @Test(expected = NullPointerException.class)
@@ -75,6 +95,25 @@ public final class StaticQueryRunnerTest {
         Mockito.verify(client).closeConnection();
     }
 
+    @Test
+    public void testExecuteRecordsCompletedPartitions() {
+        final ProgressJournal progressJournal = mock(ProgressJournal.class);
+        queryRunner = new StaticQueryRunner(Collections.singletonList(client), new RunContext.Builder().withProgressJournal(progressJournal).build());
+        request.addInsertPartitionQuery("group1", ImmutableMap.of("(p = 'a')", "query a", "(p = 'b')", "query b"));
+        request.addInsertPartitionQuery("group2", ImmutableMap.of("(p = 'c')", "query c", "(p = 'd')", "query d"));
+        request.addInsertPartitionQuery("group3", ImmutableList.of("query e"));
+        doThrow(new IllegalArgumentException("Error")).when(client).runQuery("group2");
+        doThrow(new IllegalArgumentException("Error")).when(client).runQuery("group3");
+
+        queryRunner.execute(request);
+
+        Mockito.verify(progressJournal).record(ImmutableList.of("(p = 'a')", "(p = 'b')"));
+        Mockito.verify(progressJournal).record(Collections.singletonList("(p = 'c')"));
+        Mockito.verify(progressJournal).record(Collections.singletonList("(p = 'd')"));
+        Mockito.verify(client).runQuery("query e");
+        Mockito.verify(progressJournal, times(3)).record(Mockito.any());
+    }
+
     @Test
     public void testExecuteWithInsertGroupQueries() {
         request.addInsertPartitionQuery("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2018-01') OR (trans_month = '2018-02')",
@@ -106,4 +145,400 @@ public final class StaticQueryRunnerTest {
         Mockito.verify(client, times(1)).runQuery("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2018-02')");
         Mockito.verify(client).closeConnection();
     }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullRunContext() {
+        new StaticQueryRunner(Collections.singletonList(client), null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorNullHiveDriverClientInPool() {
+        new StaticQueryRunner(Arrays.asList(client, null), runContext);
+    }
+
+    @Test
+    public void testExecuteWithSessionPool() {
+        final HiveDriverClient client2 = mock(HiveDriverClient.class);
+        Mockito.when(client2.tryOpenConnection()).thenReturn(true);
+        queryRunner = new StaticQueryRunner(Arrays.asList(client, client2), runContext);
+        request.addJetFuelQuery("SET hive.exec.dynamic.partition=true");
+        request.addInsertPartitionQuery("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2018-01') OR (trans_month = '2018-02')",
+                ImmutableList.of(
+                        "INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2018-01')",
+                        "INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2018-02')"));
+        request.addInsertPartitionQuery("INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2018-03') OR (trans_month = '2018-04')",
+                ImmutableList.of(
+                        "INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2018-03')",
+                        "INSERT OVERWRITE TABLE targetDb.targetTable PARTITION (partition1, partition2) SELECT cols, partition1, partition2 FROM sourceDb.sourceTable WHERE (trans_month = '2018-04')"));
+        queryRunner.execute(request);
+
+        Mockito.verify(client).openConnection();
+        Mockito.verify(client, times(1)).runQuery("query1");
+        Mockito.verify(client2).tryOpenConnection();
+        Mockito.verify(client2, times(0)).runQuery("query1");
+        Mockito.verify(client2, times(1)).runQuery("SET hive.exec.dynamic.partition=true");
+
+        // Every group runs exactly once, on whichever session picked it up
+        for (final String query : request.getInsertPartitionQueries().keySet()) {
+            assertEquals(1, countQueries(client, query) + countQueries(client2, query));
+        }
+        Mockito.verify(client).closeConnection();
+        Mockito.verify(client2).closeConnection();
+    }
+
+    @Test
+    public void testExecuteWithoutFreeSession() {
+        final HiveDriverClient client2 = mock(HiveDriverClient.class);
+        queryRunner = new StaticQueryRunner(Arrays.asList(client, client2), runContext);
+        request.addInsertPartitionQuery("INSERT WHERE (p = 'a')", ImmutableList.of("INSERT WHERE (p = 'a')"));
+        request.addInsertPartitionQuery("INSERT WHERE (p = 'b')", ImmutableList.of("INSERT WHERE (p = 'b')"));
+
+        queryRunner.execute(request);
+
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'a')");
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'b')");
+        Mockito.verify(client2).tryOpenConnection();
+        Mockito.verify(client2, times(0)).runQuery(anyString());
+    }
+
+    private static long countQueries(final HiveDriverClient session, final String query) {
+        return Mockito.mockingDetails(session).getInvocations().stream()
+                .filter(invocation -> query.equals(invocation.getArguments().length == 1 ? invocation.getArguments()[0] : null))
+                .count();
+    }
+
+    @Test
+    public void testExecuteBisectsFailedGroup() {
+        final ProgressJournal progressJournal = mock(ProgressJournal.class);
+        queryRunner = new StaticQueryRunner(Collections.singletonList(client), new RunContext.Builder().withProgressJournal(progressJournal).build());
+        request.setInsertPartitionTemplate("INSERT");
+        request.setFailureIsolation(FailureIsolation.BISECT);
+        request.addInsertPartitionQuery("INSERT WHERE (p = 'a') OR (p = 'b') OR (p = 'c') OR (p = 'd')", ImmutableMap.of(
+                "(p = 'a')", "INSERT WHERE (p = 'a')",
+                "(p = 'b')", "INSERT WHERE (p = 'b')",
+                "(p = 'c')", "INSERT WHERE (p = 'c')",
+                "(p = 'd')", "INSERT WHERE (p = 'd')"));
+        doThrow(new IllegalArgumentException("Error")).when(client).runQuery(contains("(p = 'c')"));
+
+        queryRunner.execute(request);
+
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'c') OR (p = 'd')");
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'c')");
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'd')");
+        Mockito.verify(client, times(5)).runQuery(startsWith("INSERT"));
+        Mockito.verify(progressJournal).record(ImmutableList.of("(p = 'a')", "(p = 'b')"));
+        Mockito.verify(progressJournal).record(ImmutableList.of("(p = 'd')"));
+        assertEquals(ImmutableSet.of("(p = 'c')"), queryRunner.getQuarantinedPartitions());
+    }
+
+    @Test
+    public void testExecutePlansEveryPartitionOfEveryGroup() {
+        queryRunner = new StaticQueryRunner(Collections.singletonList(client), new RunContext.Builder().withRunMetrics(new RunMetrics()).build());
+        request.addInsertPartitionQuery("group1", ImmutableMap.of("(p = 'a')", "query a", "(p = 'b')", "query b", "(p = 'c')", "query c"));
+        request.addInsertPartitionQuery("group2", ImmutableMap.of("(p = 'd')", "query d", "(p = 'e')", "query e"));
+        doThrow(new IllegalArgumentException("Error")).when(client).runQuery("group2");
+
+        queryRunner.execute(request);
+
+        final RunMetrics runMetrics = queryRunner.getRunMetrics();
+        assertEquals(5, runMetrics.getPartitionsPlanned());
+        assertEquals(runMetrics.getPartitionsPlanned(), runMetrics.getPartitionsFueled() + runMetrics.getPartitionsQuarantined());
+        assertEquals(0, runMetrics.getEstimatedSecondsRemaining());
+    }
+
+    @Test
+    public void testExecuteConcatenateFallbackPlansPartitionOnce() {
+        queryRunner = new StaticQueryRunner(Collections.singletonList(client), new RunContext.Builder().withRunMetrics(new RunMetrics()).build());
+        request.addInsertPartitionQuery("INSERT WHERE (p = 'a') OR (p = 'b')", ImmutableMap.of("(p = 'a')", "INSERT WHERE (p = 'a')", "(p = 'b')", "INSERT WHERE (p = 'b')"));
+        final JetFuelRequest concatenateRequest = new JetFuelRequest();
+        concatenateRequest.setFailureIsolation(FailureIsolation.BISECT);
+        concatenateRequest.addInsertPartitionQuery("ALTER TABLE db.tbl PARTITION (p = 'b') CONCATENATE", ImmutableMap.of("(p = 'b')", "INSERT WHERE (p = 'b')"));
+        doThrow(new IllegalArgumentException("Error")).when(client).runQuery("ALTER TABLE db.tbl PARTITION (p = 'b') CONCATENATE");
+
+        queryRunner.execute(request);
+        queryRunner.execute(concatenateRequest);
+
+        final RunMetrics runMetrics = queryRunner.getRunMetrics();
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'b')");
+        assertEquals(2, runMetrics.getPartitionsPlanned());
+        assertEquals(runMetrics.getPartitionsPlanned(), runMetrics.getPartitionsFueled() + runMetrics.getPartitionsQuarantined());
+    }
+
+    @Test
+    public void testExecuteNotifiesGroupFallbacks() {
+        final JetFuelListener listener = mock(JetFuelListener.class);
+        queryRunner = new StaticQueryRunner(Collections.singletonList(client),
+                new RunContext.Builder().withRunMetrics(new RunMetrics()).withListeners(new JetFuelListeners(Collections.singletonList(listener))).build());
+        request.setInsertPartitionTemplate("INSERT");
+        request.setFailureIsolation(FailureIsolation.BISECT);
+        request.addInsertPartitionQuery("INSERT WHERE (p = 'a') OR (p = 'b') OR (p = 'c') OR (p = 'd')", ImmutableMap.of(
+                "(p = 'a')", "INSERT WHERE (p = 'a')",
+                "(p = 'b')", "INSERT WHERE (p = 'b')",
+                "(p = 'c')", "INSERT WHERE (p = 'c')",
+                "(p = 'd')", "INSERT WHERE (p = 'd')"));
+        final IllegalArgumentException failure = new IllegalArgumentException("Error");
+        doThrow(failure).when(client).runQuery(contains("(p = 'c')"));
+
+        queryRunner.execute(request);
+
+        Mockito.verify(client).setRequest(request);
+        final InOrder inOrder = Mockito.inOrder(listener);
+        inOrder.verify(listener).onGroupFallback(request, "INSERT WHERE (p = 'a') OR (p = 'b') OR (p = 'c') OR (p = 'd')",
+                ImmutableList.of("(p = 'a')", "(p = 'b')", "(p = 'c')", "(p = 'd')"), failure);
+        inOrder.verify(listener).onGroupFallback(request, "INSERT WHERE (p = 'c') OR (p = 'd')", ImmutableList.of("(p = 'c')", "(p = 'd')"), failure);
+        Mockito.verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    public void testExecuteRecordsQueryMetrics() {
+        request.setInsertPartitionTemplate("INSERT");
+        request.setFailureIsolation(FailureIsolation.BISECT);
+        request.addInsertPartitionQuery("INSERT WHERE (p = 'a') OR (p = 'b')", ImmutableMap.of(
+                "(p = 'a')", "INSERT WHERE (p = 'a')",
+                "(p = 'b')", "INSERT WHERE (p = 'b')"));
+        doThrow(new JetFuelQueryException("Error", null, FailureType.TIMEOUT)).when(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+        doThrow(new IllegalArgumentException("Error")).when(client).runQuery("INSERT WHERE (p = 'b')");
+
+        queryRunner.execute(request);
+
+        final List<QueryMetrics> queryMetrics = queryRunner.getRunMetrics().getQueryMetrics();
+        assertEquals(ImmutableList.of(2, 1, 1), queryMetrics.stream().map(QueryMetrics::getGroupSize).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(FailureType.TIMEOUT, null, FailureType.UNKNOWN),
+                queryMetrics.stream().map(QueryMetrics::getFailureType).collect(Collectors.toList()));
+        assertEquals(ImmutableSet.of("(p = 'a')"), queryRunner.getRunMetrics().getFueledPartitions());
+        assertEquals(2, queryRunner.getRunMetrics().getPartitionsPlanned());
+        assertEquals(1, queryRunner.getRunMetrics().getPartitionsQuarantined());
+        assertEquals(1, queryRunner.getRunMetrics().getGroupsCompleted());
+        assertEquals(2, queryRunner.getRunMetrics().getGroupsFailed());
+        assertEquals(1, queryRunner.getRunMetrics().getCurrentGroupSize());
+    }
+
+    @Test
+    public void testExecuteQuarantinesFailedFallbackQuery() {
+        request.setFailureIsolation(FailureIsolation.BISECT);
+        request.addInsertPartitionQuery("ALTER TABLE t PARTITION (p = 'a') CONCATENATE", ImmutableMap.of("(p = 'a')", "INSERT WHERE (p = 'a')"));
+        request.addInsertPartitionQuery("ALTER TABLE t PARTITION (p = 'b') CONCATENATE", ImmutableMap.of("(p = 'b')", "INSERT WHERE (p = 'b')"));
+        doThrow(new IllegalArgumentException("Error")).when(client).runQuery("ALTER TABLE t PARTITION (p = 'a') CONCATENATE");
+        doThrow(new IllegalArgumentException("Error")).when(client).runQuery("INSERT WHERE (p = 'a')");
+
+        queryRunner.execute(request);
+
+        Mockito.verify(client).runQuery("ALTER TABLE t PARTITION (p = 'b') CONCATENATE");
+        assertEquals(ImmutableSet.of("(p = 'a')"), queryRunner.getQuarantinedPartitions());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecuteFallbackFailure() {
+        request.addInsertPartitionQuery("ALTER TABLE t PARTITION (p = 'a') CONCATENATE", ImmutableMap.of("(p = 'a')", "INSERT WHERE (p = 'a')"));
+        doThrow(new IllegalArgumentException("Error")).when(client).runQuery("ALTER TABLE t PARTITION (p = 'a') CONCATENATE");
+        doThrow(new IllegalArgumentException("Error")).when(client).runQuery("INSERT WHERE (p = 'a')");
+
+        queryRunner.execute(request);
+    }
+
+    @Test
+    public void testExecuteRetriesOnNewConnection() {
+        request.addJetFuelQuery("SET a=b");
+        request.addInsertPartitionQuery("INSERT WHERE (p = 'a')", ImmutableMap.of("(p = 'a')", "INSERT WHERE (p = 'a')"));
+        doThrow(new JetFuelQueryException("Error", null, FailureType.CONNECTION)).doNothing().when(client).runQuery("INSERT WHERE (p = 'a')");
+
+        queryRunner.execute(request);
+
+        final InOrder inOrder = Mockito.inOrder(client);
+        inOrder.verify(client).ensureConnection(Collections.singletonList("SET a=b"));
+        inOrder.verify(client).runQuery("INSERT WHERE (p = 'a')");
+        inOrder.verify(client).reconnect(Collections.singletonList("SET a=b"));
+        inOrder.verify(client).runQuery("INSERT WHERE (p = 'a')");
+    }
+
+    @Test
+    public void testExecuteRetriesWithMoreMemory() {
+        request.addMemoryEscalationStep(Collections.singletonList(new HiveProperty("mapreduce.map.memory.mb", 4096)));
+        request.addMemoryResetQuery(new HiveProperty("mapreduce.map.memory.mb", 2048));
+        request.addInsertPartitionQuery("INSERT WHERE (p = 'a') OR (p = 'b')", ImmutableMap.of("(p = 'a')", "INSERT WHERE (p = 'a')", "(p = 'b')", "INSERT WHERE (p = 'b')"));
+        doThrow(new JetFuelQueryException("Error", null, FailureType.TASK_OOM)).doNothing().when(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+
+        queryRunner.execute(request);
+
+        final InOrder inOrder = Mockito.inOrder(client);
+        inOrder.verify(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+        inOrder.verify(client).runQuery("SET mapreduce.map.memory.mb=4096");
+        inOrder.verify(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+        inOrder.verify(client).runQuery("SET mapreduce.map.memory.mb=2048");
+        Mockito.verify(client, times(0)).runQuery("INSERT WHERE (p = 'a')");
+
+        final QueryMetrics queryMetrics = queryRunner.getRunMetrics().getQueryMetrics().get(0);
+        assertEquals(2, queryMetrics.getGroupSize());
+        assertEquals(1, queryMetrics.getRetries());
+        assertTrue(queryMetrics.isSucceeded());
+    }
+
+    @Test
+    public void testExecuteEscalatesMemoryLadder() {
+        request.addMemoryEscalationStep(Collections.singletonList(new HiveProperty("mapreduce.map.memory.mb", 4096)));
+        request.addMemoryEscalationStep(Collections.singletonList(new HiveProperty("mapreduce.map.memory.mb", 8192)));
+        request.addMemoryResetQuery(new HiveProperty("mapreduce.map.memory.mb", 2048));
+        request.addInsertPartitionQuery("INSERT WHERE (p = 'a') OR (p = 'b')", ImmutableMap.of("(p = 'a')", "INSERT WHERE (p = 'a')", "(p = 'b')", "INSERT WHERE (p = 'b')"));
+        request.addInsertPartitionQuery("INSERT WHERE (p = 'c')", ImmutableMap.of("(p = 'c')", "INSERT WHERE (p = 'c')"));
+        doThrow(new JetFuelQueryException("Error", null, FailureType.TASK_OOM))
+                .doThrow(new JetFuelQueryException("Error", null, FailureType.TASK_OOM))
+                .doNothing()
+                .when(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+
+        queryRunner.execute(request);
+
+        final InOrder inOrder = Mockito.inOrder(client);
+        inOrder.verify(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+        inOrder.verify(client).runQuery("SET mapreduce.map.memory.mb=4096");
+        inOrder.verify(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+        inOrder.verify(client).runQuery("SET mapreduce.map.memory.mb=8192");
+        inOrder.verify(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+        inOrder.verify(client).runQuery("SET mapreduce.map.memory.mb=2048");
+        inOrder.verify(client).runQuery("INSERT WHERE (p = 'c')");
+        Mockito.verify(client, times(0)).runQuery("INSERT WHERE (p = 'a')");
+    }
+
+    @Test
+    public void testExecuteMemoryLadderExhausted() {
+        request.addMemoryEscalationStep(Collections.singletonList(new HiveProperty("mapreduce.map.memory.mb", 4096)));
+        request.addMemoryResetQuery(new HiveProperty("mapreduce.map.memory.mb", 2048));
+        request.addInsertPartitionQuery("INSERT WHERE (p = 'a') OR (p = 'b')", ImmutableMap.of("(p = 'a')", "INSERT WHERE (p = 'a')", "(p = 'b')", "INSERT WHERE (p = 'b')"));
+        doThrow(new JetFuelQueryException("Error", null, FailureType.TASK_OOM)).when(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+
+        queryRunner.execute(request);
+
+        final InOrder inOrder = Mockito.inOrder(client);
+        inOrder.verify(client).runQuery("SET mapreduce.map.memory.mb=4096");
+        inOrder.verify(client).runQuery("SET mapreduce.map.memory.mb=2048");
+        inOrder.verify(client).runQuery("INSERT WHERE (p = 'a')");
+        inOrder.verify(client).runQuery("INSERT WHERE (p = 'b')");
+    }
+
+    @Test
+    public void testExecuteMemoryRetryLosesConnection() {
+        request.addMemoryEscalationStep(Collections.singletonList(new HiveProperty("mapreduce.map.memory.mb", 4096)));
+        request.addMemoryResetQuery(new HiveProperty("mapreduce.map.memory.mb", 2048));
+        request.addInsertPartitionQuery("INSERT WHERE (p = 'a')", ImmutableMap.of("(p = 'a')", "INSERT WHERE (p = 'a')"));
+        doThrow(new JetFuelQueryException("Error", null, FailureType.TASK_OOM))
+                .doThrow(new JetFuelQueryException("Error", null, FailureType.CONNECTION))
+                .when(client).runQuery("INSERT WHERE (p = 'a')");
+
+        try {
+            queryRunner.execute(request);
+            fail("Expected JetFuelQueryException");
+        } catch (final JetFuelQueryException e) {
+            assertEquals(FailureType.CONNECTION, e.getFailureType());
+        }
+        Mockito.verify(client).runQuery("SET mapreduce.map.memory.mb=4096");
+        Mockito.verify(client, times(0)).runQuery("SET mapreduce.map.memory.mb=2048");
+    }
+
+    @Test
+    public void testExecuteContainerMemoryClimbsLadder() {
+        request.addMemoryEscalationStep(Collections.singletonList(new HiveProperty("mapreduce.map.memory.mb", 4096)));
+        request.addMemoryEscalationStep(Collections.singletonList(new HiveProperty("mapreduce.map.memory.mb", 8192)));
+        request.addMemoryResetQuery(new HiveProperty("mapreduce.map.memory.mb", 2048));
+        request.addInsertPartitionQuery("INSERT WHERE (p = 'a') OR (p = 'b')", ImmutableMap.of("(p = 'a')", "INSERT WHERE (p = 'a')", "(p = 'b')", "INSERT WHERE (p = 'b')"));
+        doThrow(new JetFuelQueryException("Error", null, FailureType.CONTAINER_MEMORY))
+                .doThrow(new JetFuelQueryException("Error", null, FailureType.TASK_OOM))
+                .doNothing()
+                .when(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+
+        queryRunner.execute(request);
+
+        final InOrder inOrder = Mockito.inOrder(client);
+        inOrder.verify(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+        inOrder.verify(client).runQuery("SET mapreduce.map.memory.mb=4096");
+        inOrder.verify(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+        inOrder.verify(client).runQuery("SET mapreduce.map.memory.mb=8192");
+        inOrder.verify(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+        inOrder.verify(client).runQuery("SET mapreduce.map.memory.mb=2048");
+        Mockito.verify(client, times(0)).runQuery("INSERT WHERE (p = 'a')");
+        assertEquals(2, queryRunner.getRunMetrics().getQueryMetrics().get(0).getRetries());
+    }
+
+    @Test
+    public void testExecuteContainerMemoryLadderExhausted() {
+        request.addMemoryEscalationStep(Collections.singletonList(new HiveProperty("mapreduce.map.memory.mb", 4096)));
+        request.addMemoryResetQuery(new HiveProperty("mapreduce.map.memory.mb", 2048));
+        request.addInsertPartitionQuery("INSERT WHERE (p = 'a') OR (p = 'b')", ImmutableMap.of("(p = 'a')", "INSERT WHERE (p = 'a')", "(p = 'b')", "INSERT WHERE (p = 'b')"));
+        doThrow(new JetFuelQueryException("Error", null, FailureType.CONTAINER_MEMORY)).when(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+
+        queryRunner.execute(request);
+
+        final InOrder inOrder = Mockito.inOrder(client);
+        inOrder.verify(client).runQuery("SET mapreduce.map.memory.mb=4096");
+        inOrder.verify(client).runQuery("SET mapreduce.map.memory.mb=2048");
+        inOrder.verify(client).runQuery("INSERT WHERE (p = 'a')");
+        inOrder.verify(client).runQuery("INSERT WHERE (p = 'b')");
+    }
+
+    @Test
+    public void testExecuteOutOfMemoryWithoutMemoryRetry() {
+        request.addInsertPartitionQuery("INSERT WHERE (p = 'a') OR (p = 'b')", ImmutableMap.of("(p = 'a')", "INSERT WHERE (p = 'a')", "(p = 'b')", "INSERT WHERE (p = 'b')"));
+        doThrow(new JetFuelQueryException("Error", null, FailureType.TASK_OOM)).when(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+
+        queryRunner.execute(request);
+
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'a')");
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'b')");
+    }
+
+    @Test
+    public void testExecuteAbortsOnSemanticFailure() {
+        request.setFailureIsolation(FailureIsolation.BISECT);
+        request.setInsertPartitionTemplate("INSERT");
+        request.addInsertPartitionQuery("INSERT WHERE (p = 'a') OR (p = 'b')", ImmutableMap.of("(p = 'a')", "INSERT WHERE (p = 'a')", "(p = 'b')", "INSERT WHERE (p = 'b')"));
+        doThrow(new JetFuelQueryException("Error", null, FailureType.SEMANTIC)).when(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+
+        try {
+            queryRunner.execute(request);
+            fail("Expected JetFuelQueryException");
+        } catch (final JetFuelQueryException e) {
+            assertEquals(FailureType.SEMANTIC, e.getFailureType());
+        }
+        Mockito.verify(client, times(0)).runQuery("INSERT WHERE (p = 'a')");
+    }
+
+    @Test
+    public void testExecuteAbortsOnAuthorizationFailure() {
+        request.setFailureIsolation(FailureIsolation.BISECT);
+        request.setInsertPartitionTemplate("INSERT");
+        request.addInsertPartitionQuery("INSERT WHERE (p = 'a') OR (p = 'b')", ImmutableMap.of("(p = 'a')", "INSERT WHERE (p = 'a')", "(p = 'b')", "INSERT WHERE (p = 'b')"));
+        doThrow(new JetFuelQueryException("Error", null, FailureType.AUTHORIZATION)).when(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+
+        try {
+            queryRunner.execute(request);
+            fail("Expected JetFuelQueryException");
+        } catch (final JetFuelQueryException e) {
+            assertEquals(FailureType.AUTHORIZATION, e.getFailureType());
+        }
+        Mockito.verify(client, times(0)).runQuery("INSERT WHERE (p = 'a')");
+    }
+
+    @Test
+    public void testExecuteAbortsWhenRunBudgetSpent() {
+        request.addInsertPartitionQuery("INSERT WHERE (p = 'a') OR (p = 'b')", ImmutableMap.of("(p = 'a')", "INSERT WHERE (p = 'a')", "(p = 'b')", "INSERT WHERE (p = 'b')"));
+        doThrow(new JetFuelQueryException("Error", null, FailureType.BUDGET_EXHAUSTED)).when(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+
+        try {
+            queryRunner.execute(request);
+            fail("Expected JetFuelQueryException");
+        } catch (final JetFuelQueryException e) {
+            assertEquals(FailureType.BUDGET_EXHAUSTED, e.getFailureType());
+        }
+        Mockito.verify(client, times(0)).runQuery("INSERT WHERE (p = 'a')");
+    }
+
+    @Test
+    public void testExecuteFallsBackOnTimeout() {
+        request.addInsertPartitionQuery("INSERT WHERE (p = 'a') OR (p = 'b')", ImmutableMap.of("(p = 'a')", "INSERT WHERE (p = 'a')", "(p = 'b')", "INSERT WHERE (p = 'b')"));
+        doThrow(new JetFuelQueryException("Error", null, FailureType.TIMEOUT)).when(client).runQuery("INSERT WHERE (p = 'a') OR (p = 'b')");
+
+        queryRunner.execute(request);
+
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'a')");
+        Mockito.verify(client).runQuery("INSERT WHERE (p = 'b')");
+    }
 }
@@ -0,0 +1,257 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.hadoop.hive.metastore.TableType;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.internal.hive.HiveTableUtils;
+import com.expediagroup.jetfuel.models.AdvisorConfiguration;
+import com.expediagroup.jetfuel.models.FileFormat;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.expediagroup.jetfuel.models.TableAdvice;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Tests for {@link WarehouseAdvisor}
+ */
+public final class WarehouseAdvisorTest {
+
+    private static final String TEXT_INPUT_FORMAT = "org.apache.hadoop.mapred.TextInputFormat";
+    private static final String ORC_INPUT_FORMAT = "org.apache.hadoop.hive.ql.io.orc.OrcInputFormat";
+    private static final String PARQUET_INPUT_FORMAT = "org.apache.hadoop.hive.ql.io.parquet.MapredParquetInputFormat";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final HiveTableUtils hiveTableUtils = mock(HiveTableUtils.class);
+    private final AtomicInteger clients = new AtomicInteger();
+    private final Map<String, Table> tables = ImmutableMap.<String, Table>builder()
+            .put("text_table", createTable("text_table", TEXT_INPUT_FORMAT, ImmutableMap.of("totalSize", "10000", "numFiles", "100")))
+            .put("orc_table", createTable("orc_table", ORC_INPUT_FORMAT, ImmutableMap.of("orc.compress", "ZLIB")))
+            .put("good_table", createTable("good_table", ORC_INPUT_FORMAT, ImmutableMap.of("orc.compress", "SNAPPY", "totalSize", "1000", "numFiles", "1")))
+            .put("view", createTable("view", null, null))
+            .put("broken_table", createTable("broken_table", ORC_INPUT_FORMAT, null))
+            .put("parquet_table", createTable("parquet_table", PARQUET_INPUT_FORMAT, ImmutableMap.of("totalSize", "500", "numFiles", "1")))
+            .build();
+    private AdvisorConfiguration.Builder builder;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        builder = new AdvisorConfiguration.Builder()
+                .withHiveMetastoreUri("hiveMetastoreUri")
+                .withDatabases(ImmutableList.of("db"))
+                .withOutputDirectory(new File(folder.getRoot(), "advice").getPath())
+                .withDefaults(ImmutableMap.of("hiveServer2Url", "hiveUrl", "hiveServer2Username", "username"))
+                .withBlockSize(1000L)
+                .withThreads(2)
+                .withPageSize(2);
+
+        tables.get("orc_table").setPartitionKeys(ImmutableList.of(new FieldSchema("p", "string", null)));
+        tables.get("broken_table").setPartitionKeys(ImmutableList.of(new FieldSchema("p", "string", null)));
+        tables.get("view").setTableType(TableType.VIRTUAL_VIEW.toString());
+
+        when(hiveTableUtils.getTableNames("db")).thenReturn(ImmutableList.copyOf(tables.keySet()));
+        when(hiveTableUtils.getTables(eq("db"), anyList())).thenAnswer(invocation -> ((List<String>) invocation.getArgument(1)).stream()
+                .map(tables::get)
+                .collect(Collectors.toList()));
+        when(hiveTableUtils.isPartitioned(any())).thenAnswer(invocation -> ((Table) invocation.getArgument(0)).getPartitionKeysSize() != 0);
+        when(hiveTableUtils.getPartitionNames("db", "orc_table")).thenReturn(ImmutableList.of("p=a", "p=b", "p=c"));
+        when(hiveTableUtils.getPartitionNames("db", "broken_table")).thenThrow(new JetFuelException("Unreachable"));
+        when(hiveTableUtils.getPartitions(eq("db"), eq("orc_table"), anyList())).thenAnswer(invocation -> ((List<String>) invocation.getArgument(2)).stream()
+                .map(this::createPartition)
+                .collect(Collectors.toList()));
+        when(hiveTableUtils.getTotalSize(any())).thenAnswer(invocation -> getStatistic(invocation.getArgument(0), "totalSize"));
+        when(hiveTableUtils.getNumFiles(any())).thenAnswer(invocation -> getStatistic(invocation.getArgument(0), "numFiles"));
+        when(hiveTableUtils.getPartitionFilterFragment(any(), any())).thenAnswer(invocation -> String.format("(p = '%s')",
+                ((Partition) invocation.getArgument(1)).getValues().get(0)));
+    }
+
+    private static Table createTable(final String name, final String inputFormat, final Map<String, String> parameters) {
+        final StorageDescriptor storageDescriptor = new StorageDescriptor();
+        storageDescriptor.setInputFormat(inputFormat);
+        final Table table = new Table();
+        table.setDbName("db");
+        table.setTableName(name);
+        table.setSd(storageDescriptor);
+        table.setParameters(parameters);
+        return table;
+    }
+
+    private Partition createPartition(final String name) {
+        final Map<String, Map<String, String>> statistics = ImmutableMap.of(
+                "p=a", ImmutableMap.of("totalSize", "1000", "numFiles", "1"),
+                "p=b", ImmutableMap.of("totalSize", "2000", "numFiles", "20"));
+        final Partition partition = new Partition();
+        partition.setValues(ImmutableList.of(name.substring(2)));
+        partition.setSd(tables.get("orc_table").getSd());
+        partition.setParameters(statistics.get(name));
+        return partition;
+    }
+
+    private static long getStatistic(final Partition partition, final String name) {
+        return partition.getParameters() == null ? -1 : NumberUtils.toLong(partition.getParameters().get(name), -1);
+    }
+
+    private WarehouseAdvisor createAdvisor(final AdvisorConfiguration advisorConfiguration) {
+        return new WarehouseAdvisor(advisorConfiguration, () -> {
+            clients.incrementAndGet();
+            return hiveTableUtils;
+        });
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullAdvisorConfiguration() {
+        new WarehouseAdvisor(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullMetastoreClientFactory() {
+        new WarehouseAdvisor(builder.build(), null);
+    }
+
+    @Test
+    public void testAdvise() throws IOException {
+        final List<TableAdvice> advice = createAdvisor(builder.build()).advise();
+
+        assertEquals(ImmutableList.of("text_table", "orc_table", "parquet_table"), advice.stream().map(TableAdvice::getTable).collect(Collectors.toList()));
+
+        final TableAdvice textAdvice = advice.get(0);
+        assertEquals(10000, textAdvice.getTotalSize());
+        assertEquals(100, textAdvice.getNumFiles());
+        assertEquals(90, textAdvice.getExcessFiles());
+        assertEquals(10000, textAdvice.getInefficientBytes());
+        assertEquals(100000, textAdvice.getScore());
+        assertTrue(textAdvice.getPartitionFilterFragments().isEmpty());
+
+        final TableAdvice orcAdvice = advice.get(1);
+        assertEquals(3000, orcAdvice.getTotalSize());
+        assertEquals(18, orcAdvice.getExcessFiles());
+        assertEquals(0, orcAdvice.getInefficientBytes());
+        assertEquals(ImmutableList.of("(p = 'b')"), orcAdvice.getPartitionFilterFragments());
+
+        final TableAdvice parquetAdvice = advice.get(2);
+        assertEquals(500, parquetAdvice.getScore());
+        assertEquals(FileFormat.PARQUET, parquetAdvice.getTargetFileFormat());
+        assertEquals("SNAPPY", parquetAdvice.getTargetCompression());
+        assertFalse(parquetAdvice.isTargetCompaction());
+
+        final JetFuelConfiguration textConfiguration = JetFuelConfiguration.loadFromYaml(new File(folder.getRoot(), "advice/db.text_table.yml").getPath());
+        assertEquals("text_table", textConfiguration.getSourceTable());
+        assertEquals("db", textConfiguration.getTargetDatabase());
+        assertEquals("text_table_jetfuel", textConfiguration.getTargetTable());
+        assertEquals("hiveMetastoreUri", textConfiguration.getHiveMetastoreUri());
+        assertEquals("hiveUrl", textConfiguration.getHiveServer2Url());
+        assertEquals(FileFormat.ORC, textConfiguration.getTargetFileFormat());
+        assertEquals("ZLIB", textConfiguration.getTargetCompression());
+        assertTrue(textConfiguration.getTargetCompaction());
+        assertNull(textConfiguration.getPartitionFilter());
+
+        final JetFuelConfiguration orcConfiguration = JetFuelConfiguration.loadFromYaml(new File(folder.getRoot(), "advice/db.orc_table.yml").getPath());
+        assertEquals("ZLIB", orcConfiguration.getTargetCompression());
+        assertEquals("(p = 'b')", orcConfiguration.getPartitionFilter());
+        assertTrue(orcConfiguration.isCompactPartitionPredicates());
+
+        assertTrue(new File(folder.getRoot(), "advice/db.parquet_table.yml").exists());
+        assertFalse(new File(folder.getRoot(), "advice/db.good_table.yml").exists());
+        verify(hiveTableUtils, atLeastOnce()).close();
+    }
+
+    @Test
+    public void testAdviseMaxTables() {
+        final List<TableAdvice> advice = createAdvisor(builder.withMaxTables(1).withTargetDatabase("targetDb").build()).advise();
+
+        assertEquals(3, advice.size());
+        assertTrue(new File(folder.getRoot(), "advice/db.text_table.yml").exists());
+        assertFalse(new File(folder.getRoot(), "advice/db.orc_table.yml").exists());
+    }
+
+    @Test
+    public void testAdviseInvalidDefaults() {
+        try {
+            createAdvisor(builder.withDefaults(ImmutableMap.of()).build()).advise();
+            fail("Expected JetFuelException");
+        } catch (final JetFuelException e) {
+            assertEquals("Invalid configuration for db.text_table: hiveServer2Url cannot be null or blank", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testAdviseUnwritableOutputDirectory() throws IOException {
+        final File file = folder.newFile();
+
+        try {
+            createAdvisor(builder.withOutputDirectory(file.getPath()).build()).advise();
+            fail("Expected JetFuelException");
+        } catch (final JetFuelException e) {
+            assertTrue(e.getMessage().startsWith("Unable to write"));
+        }
+    }
+
+    @Test
+    public void testAdviseTablesError() {
+        when(hiveTableUtils.getTables(anyString(), anyList())).thenThrow(new JetFuelException("Unreachable"));
+
+        try {
+            createAdvisor(builder.build()).advise();
+            fail("Expected JetFuelException");
+        } catch (final JetFuelException e) {
+            assertEquals("Unreachable", e.getCause().getMessage());
+        }
+        verify(hiveTableUtils, atLeastOnce()).close();
+    }
+
+    @Test
+    public void testAdviseCloseFailureIgnored() {
+        doThrow(new IllegalStateException("Already closed")).when(hiveTableUtils).close();
+
+        assertEquals(3, createAdvisor(builder.build()).advise().size());
+        assertTrue(clients.get() > 0);
+    }
+}
@@ -0,0 +1,228 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal.filter;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests for {@link PartitionFilterParser}
+ */
+public final class PartitionFilterParserTest {
+
+    private final Map<String, String> partition = ImmutableMap.of("dt", "2019-02-15", "country", "OR", "hour", "7");
+
+    @Test(expected = NullPointerException.class)
+    public void testParseNullFilter() {
+        PartitionFilterParser.parse(null, partition.keySet());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseBlankFilter() {
+        PartitionFilterParser.parse(" ", partition.keySet());
+    }
+
+    @Test
+    public void testEquals() {
+        assertTrue(matches("dt = '2019-02-15'"));
+        assertTrue(matches("dt == \"2019-02-15\""));
+        assertFalse(matches("dt = '2019-02-16'"));
+        assertTrue(matches("DT = '2019-02-15'"));
+        assertTrue(matches("`dt` = '2019-02-15'"));
+    }
+
+    @Test
+    public void testValuesContainingKeywords() {
+        assertTrue(matches("country = 'OR'"));
+        assertTrue(matches("country = 'ORDER' OR country = 'OR'"));
+        assertFalse(matches("country = 'ORDER' OR country = 'AND'"));
+    }
+
+    @Test
+    public void testComparisons() {
+        assertTrue(matches("dt != '2019-02-16'"));
+        assertTrue(matches("dt <> '2019-02-16'"));
+        assertTrue(matches("dt < '2019-02-16'"));
+        assertTrue(matches("dt <= '2019-02-15'"));
+        assertTrue(matches("dt > '2019-02-14'"));
+        assertTrue(matches("dt >= '2019-02-15'"));
+        assertFalse(matches("dt > '2019-02-15'"));
+    }
+
+    @Test
+    public void testNumericComparisons() {
+        assertTrue(matches("hour < 10"));
+        assertFalse(matches("hour < '10'"));
+        assertTrue(matches("hour = 7.0"));
+        assertTrue(matches("hour > -1"));
+        assertFalse(matches("country = 1"));
+    }
+
+    @Test
+    public void testBetween() {
+        assertTrue(matches("dt BETWEEN '2019-01-01' AND '2019-03-31'"));
+        assertTrue(matches("dt between '2019-02-15' and '2019-02-15'"));
+        assertFalse(matches("dt BETWEEN '2019-03-01' AND '2019-03-31'"));
+        assertTrue(matches("dt NOT BETWEEN '2019-03-01' AND '2019-03-31'"));
+        assertTrue(matches("hour BETWEEN 1 AND 10"));
+    }
+
+    @Test
+    public void testIn() {
+        assertTrue(matches("country IN ('US', 'OR')"));
+        assertFalse(matches("country IN ('US')"));
+        assertTrue(matches("country NOT IN ('US')"));
+        assertTrue(matches("hour IN (6, 7, 8)"));
+    }
+
+    @Test
+    public void testBooleanOperators() {
+        assertTrue(matches("dt = '2019-02-15' AND country = 'OR'"));
+        assertFalse(matches("dt = '2019-02-15' AND country = 'US'"));
+        assertTrue(matches("dt = '2019-02-16' OR country = 'OR'"));
+        assertTrue(matches("NOT country = 'US'"));
+        assertTrue(matches("(dt = '2019-02-16' OR dt = '2019-02-15') AND (country = 'OR')"));
+        assertFalse(matches("dt = '2019-02-16' OR dt = '2019-02-15' AND country = 'US'"));
+    }
+
+    @Test
+    public void testEscapedStrings() {
+        final Map<String, String> quoted = ImmutableMap.of("name", "it's");
+        assertTrue(PartitionFilterParser.parse("name = 'it\\'s'", quoted.keySet()).matches(quoted));
+        assertTrue(PartitionFilterParser.parse("name = 'it''s'", quoted.keySet()).matches(quoted));
+        assertTrue(PartitionFilterParser.parse("name = \"it's\"", quoted.keySet()).matches(quoted));
+    }
+
+    @Test
+    public void testIsNull() {
+        final Map<String, String> defaultPartition = ImmutableMap.of("dt", "2019-02-15", "country", "__HIVE_DEFAULT_PARTITION__", "hour", "7");
+        assertTrue(PartitionFilterParser.parse("country IS NULL", partition.keySet()).matches(defaultPartition));
+        assertFalse(PartitionFilterParser.parse("country IS NULL", partition.keySet()).matches(partition));
+        assertTrue(PartitionFilterParser.parse("country is not null", partition.keySet()).matches(partition));
+        assertFalse(PartitionFilterParser.parse("country IS NOT NULL", partition.keySet()).matches(defaultPartition));
+        assertTrue(PartitionFilterParser.parse("(dt = '2019-02-15' AND country IS NULL) OR (dt = '2019-02-16' AND country = 'US')", partition.keySet())
+                .matches(defaultPartition));
+    }
+
+    @Test
+    public void testComparisonsWithDefaultPartition() {
+        final Map<String, String> defaultPartition = ImmutableMap.of("dt", "2019-02-15", "country", "__HIVE_DEFAULT_PARTITION__", "hour", "7");
+        assertFalse(PartitionFilterParser.parse("country = 'US'", partition.keySet()).matches(defaultPartition));
+        assertFalse(PartitionFilterParser.parse("country != 'US'", partition.keySet()).matches(defaultPartition));
+        assertFalse(PartitionFilterParser.parse("NOT country = 'US'", partition.keySet()).matches(defaultPartition));
+        assertFalse(PartitionFilterParser.parse("country NOT IN ('US')", partition.keySet()).matches(defaultPartition));
+        assertFalse(PartitionFilterParser.parse("country NOT BETWEEN 'A' AND 'B'", partition.keySet()).matches(defaultPartition));
+        assertTrue(PartitionFilterParser.parse("country = 'US' OR hour = 7", partition.keySet()).matches(defaultPartition));
+        assertFalse(PartitionFilterParser.parse("country = 'US' AND hour = 7", partition.keySet()).matches(defaultPartition));
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testIsWithoutNull() {
+        PartitionFilterParser.parse("country IS 'US'", partition.keySet());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testUnknownPartitionKey() {
+        PartitionFilterParser.parse("dt = '2019-02-15' OR region = 'US'", partition.keySet());
+    }
+
+    @Test
+    public void testPartitionKeysAreCaseInsensitive() {
+        assertTrue(PartitionFilterParser.parse("DT = '2019-02-15'", ImmutableSet.of("Dt")).matches(partition));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testParseNullPartitionKeys() {
+        PartitionFilterParser.parse("dt = '2019-02-15'", null);
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testMissingOperator() {
+        PartitionFilterParser.parse("partitionFilter", partition.keySet());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testUnbalancedParentheses() {
+        PartitionFilterParser.parse("(dt = '2019-02-15'", partition.keySet());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testTrailingTokens() {
+        PartitionFilterParser.parse("dt = '2019-02-15')", partition.keySet());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testUnterminatedString() {
+        PartitionFilterParser.parse("dt = '2019-02-15", partition.keySet());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testUnterminatedIdentifier() {
+        PartitionFilterParser.parse("`dt = '2019-02-15'", partition.keySet());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testUnexpectedCharacter() {
+        PartitionFilterParser.parse("dt = '2019-02-15' ; DROP TABLE x", partition.keySet());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testBangWithoutEquals() {
+        PartitionFilterParser.parse("dt ! '2019-02-15'", partition.keySet());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testUnsupportedFunction() {
+        PartitionFilterParser.parse("to_date(dt) = '2019-02-15'", partition.keySet());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testKeywordAsPartitionKey() {
+        PartitionFilterParser.parse("AND = 'x'", partition.keySet());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testNotWithoutInOrBetween() {
+        PartitionFilterParser.parse("dt NOT = 'x'", partition.keySet());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testBetweenWithoutAnd() {
+        PartitionFilterParser.parse("dt BETWEEN 'a' OR 'b'", partition.keySet());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testMissingLiteral() {
+        PartitionFilterParser.parse("dt = country", partition.keySet());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testInvalidNumber() {
+        PartitionFilterParser.parse("hour = 1.2.3", partition.keySet());
+    }
+
+    private boolean matches(final String filter) {
+        return PartitionFilterParser.parse(filter, partition.keySet()).matches(partition);
+    }
+}
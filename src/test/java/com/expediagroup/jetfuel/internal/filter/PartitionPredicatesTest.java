@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal.filter;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests for {@link PartitionPredicates}
+ */
+public final class PartitionPredicatesTest {
+
+    private static final Set<String> HOUR = ImmutableSet.of("hour");
+    private static final Set<String> DT = ImmutableSet.of("dt");
+
+    @Test(expected = NullPointerException.class)
+    public void testJoinNullFragments() {
+        PartitionPredicates.join(null, true, Collections.emptySet(), Collections.emptySet());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testJoinEmptyFragments() {
+        PartitionPredicates.join(Collections.emptyList(), true, Collections.emptySet(), Collections.emptySet());
+    }
+
+    @Test
+    public void testJoinWithOr() {
+        assertEquals("(p = 'a') OR (p = 'b')", PartitionPredicates.join(ImmutableList.of("(p = 'a')", "(p = 'b')"), false, Collections.emptySet(), Collections.emptySet()));
+    }
+
+    @Test
+    public void testJoinSingleFragment() {
+        assertEquals("(p = 'a')", PartitionPredicates.join(ImmutableList.of("(p = 'a')"), true, Collections.emptySet(), Collections.emptySet()));
+    }
+
+    @Test
+    public void testInList() {
+        assertEquals("country IN ('US', 'OR', 'it\\'s')", PartitionPredicates.join(ImmutableList.of("(country = 'US')", "(country = 'OR')", "(country = 'it\\'s')"), true, Collections.emptySet(), Collections.emptySet()));
+    }
+
+    @Test
+    public void testDuplicateFragments() {
+        assertEquals("country = 'US'", PartitionPredicates.join(ImmutableList.of("(country = 'US')", "(country = 'US')"), true, Collections.emptySet(), Collections.emptySet()));
+    }
+
+    @Test
+    public void testDateRanges() {
+        assertEquals("(dt BETWEEN '2019-01-30' AND '2019-02-01' OR dt IN ('2019-02-05', '2019-02-07'))", PartitionPredicates.join(ImmutableList.of(
+                "(dt = '2019-02-01')", "(dt = '2019-01-31')", "(dt = '2019-02-05')", "(dt = '2019-01-30')", "(dt = '2019-02-07')"), true, Collections.emptySet(), DT));
+    }
+
+    @Test
+    public void testStringDateKeyUsesInList() {
+        assertEquals("dt IN ('2019-01-01', '2019-01-02', '2019-01-03')", PartitionPredicates.join(ImmutableList.of("(dt = '2019-01-01')", "(dt = '2019-01-02')", "(dt = '2019-01-03')"),
+                true, Collections.emptySet(), Collections.emptySet()));
+        assertEquals("dt IN ('20181231', '20190101', '20190102')", PartitionPredicates.join(ImmutableList.of("(dt = '20181231')", "(dt = '20190101')", "(dt = '20190102')"),
+                true, Collections.emptySet(), DT));
+        assertEquals("trans_month IN ('2018-11', '2018-12', '2019-01')", PartitionPredicates.join(ImmutableList.of(
+                "(trans_month = '2018-11')", "(trans_month = '2018-12')", "(trans_month = '2019-01')"), true, Collections.emptySet(), Collections.emptySet()));
+    }
+
+    @Test
+    public void testShortRunsUseInList() {
+        assertEquals("dt IN ('2019-01-01', '2019-01-02')", PartitionPredicates.join(ImmutableList.of("(dt = '2019-01-02')", "(dt = '2019-01-01')"), true, Collections.emptySet(), DT));
+    }
+
+    @Test
+    public void testInvalidDatesUseInList() {
+        assertEquals("dt IN ('2019-13-01', '2019-13-02', '2019-13-03')", PartitionPredicates.join(ImmutableList.of("(dt = '2019-13-01')", "(dt = '2019-13-02')", "(dt = '2019-13-03')"), true, Collections.emptySet(), DT));
+    }
+
+    @Test
+    public void testIntegerRanges() {
+        assertEquals("(hour BETWEEN -1 AND 2 OR hour = 7)", PartitionPredicates.join(ImmutableList.of("(hour = 7)", "(hour = 0)", "(hour = 1)", "(hour = -1)", "(hour = 2)"), true, HOUR, Collections.emptySet()));
+        assertEquals("hour IN (99999999999999999999, 1)", PartitionPredicates.join(ImmutableList.of("(hour = 99999999999999999999)", "(hour = 1)"), true, HOUR, Collections.emptySet()));
+    }
+
+    @Test
+    public void testDecimalKeyUsesInList() {
+        assertEquals("price IN (1, 2, 3)", PartitionPredicates.join(ImmutableList.of("(price = 1)", "(price = 2)", "(price = 3)"), true, Collections.emptySet(), Collections.emptySet()));
+        assertEquals("(price IN (1, 2, 3) AND hour BETWEEN 0 AND 2)", PartitionPredicates.join(ImmutableList.of(
+                "(price = 1 AND hour = 0)", "(price = 1 AND hour = 1)", "(price = 1 AND hour = 2)",
+                "(price = 2 AND hour = 0)", "(price = 2 AND hour = 1)", "(price = 2 AND hour = 2)",
+                "(price = 3 AND hour = 0)", "(price = 3 AND hour = 1)", "(price = 3 AND hour = 2)"), true, HOUR, Collections.emptySet()));
+    }
+
+    @Test
+    public void testMultipleKeys() {
+        assertEquals("(dt BETWEEN '2019-01-01' AND '2019-01-03' AND hour IN (0, 1))", PartitionPredicates.join(ImmutableList.of(
+                "(dt = '2019-01-01' AND hour = 0)", "(dt = '2019-01-01' AND hour = 1)",
+                "(dt = '2019-01-02' AND hour = 0)", "(dt = '2019-01-02' AND hour = 1)",
+                "(dt = '2019-01-03' AND hour = 0)", "(dt = '2019-01-03' AND hour = 1)"), true, HOUR, DT));
+
+        assertEquals("((dt = '2019-01-01' AND hour IN (0, 1)) OR (dt = '2019-01-02' AND hour = 5))", PartitionPredicates.join(ImmutableList.of(
+                "(dt = '2019-01-01' AND hour = 0)", "(dt = '2019-01-01' AND hour = 1)", "(dt = '2019-01-02' AND hour = 5)"), true, HOUR, Collections.emptySet()));
+    }
+
+    @Test
+    public void testValuesContainingAnd() {
+        assertEquals("(region IN ('a AND b', 'c') AND n = 1)", PartitionPredicates.join(ImmutableList.of("(region = 'a AND b' AND n = 1)", "(region = 'c' AND n = 1)"), true, Collections.emptySet(), Collections.emptySet()));
+    }
+
+    @Test
+    public void testMixedKeysFallBackToOr() {
+        assertEquals("(p = 'a') OR (q = 'b')", PartitionPredicates.join(ImmutableList.of("(p = 'a')", "(q = 'b')"), true, Collections.emptySet(), Collections.emptySet()));
+    }
+
+    @Test
+    public void testUnrecognizedFragmentsFallBackToOr() {
+        assertEquals("(p = 'a') OR p LIKE 'b%'", PartitionPredicates.join(ImmutableList.of("(p = 'a')", "p LIKE 'b%'"), true, Collections.emptySet(), Collections.emptySet()));
+        assertEquals("(p = 'a') OR (p > 'b')", PartitionPredicates.join(ImmutableList.of("(p = 'a')", "(p > 'b')"), true, Collections.emptySet(), Collections.emptySet()));
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal.hive;
+
+import static org.junit.Assert.assertEquals;
+
+import java.net.SocketException;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import org.apache.thrift.transport.TTransportException;
+import org.junit.Test;
+
+import com.expediagroup.jetfuel.exception.FailureType;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests for {@link FailureClassifier}
+ */
+public final class FailureClassifierTest {
+
+    @Test
+    public void testConnection() {
+        assertEquals(FailureType.CONNECTION, FailureClassifier.classify(new SQLException("Error", new TTransportException()), Collections.emptyList()));
+        assertEquals(FailureType.CONNECTION, FailureClassifier.classify(new SQLException("Error", new SocketException()), Collections.emptyList()));
+        assertEquals(FailureType.CONNECTION, FailureClassifier.classify(new SQLException("org.apache.thrift.transport.TTransportException: java.net.SocketException: Broken pipe"),
+                Collections.emptyList()));
+    }
+
+    @Test
+    public void testSemantic() {
+        assertEquals(FailureType.SEMANTIC, FailureClassifier.classify(new SQLException("Error while compiling statement: FAILED: SemanticException [Error 10004]: Invalid table alias",
+                "42000", 10004), Collections.emptyList()));
+        assertEquals(FailureType.SEMANTIC, FailureClassifier.classify(new SQLException("FAILED: ParseException line 1:4 cannot recognize input"), Collections.emptyList()));
+    }
+
+    @Test
+    public void testAuthorization() {
+        assertEquals(FailureType.AUTHORIZATION, FailureClassifier.classify(new SQLException("Error while compiling statement: FAILED: HiveAccessControlException "
+                + "Permission denied: user [jetfuel] does not have [UPDATE] privilege on [targetDb/targetTable]", "42000", 40000), Collections.emptyList()));
+        assertEquals(FailureType.AUTHORIZATION, FailureClassifier.classify(new SQLException("Error while processing statement: FAILED: Execution Error, return code 1", "08S01", 1),
+                ImmutableList.of("org.apache.hadoop.security.AccessControlException: Permission denied: user=jetfuel, access=WRITE")));
+    }
+
+    @Test
+    public void testTaskOutOfMemory() {
+        assertEquals(FailureType.TASK_OOM, FailureClassifier.classify(new SQLException("Error while processing statement: FAILED: Execution Error, return code 2", "08S01", 2),
+                ImmutableList.of("Task with the most failures(4):", "Error: Java heap space")));
+        assertEquals(FailureType.TASK_OOM, FailureClassifier.classify(new SQLException("Error: GC overhead limit exceeded"), Collections.emptyList()));
+    }
+
+    @Test
+    public void testContainerMemory() {
+        assertEquals(FailureType.CONTAINER_MEMORY, FailureClassifier.classify(new SQLException("Error while processing statement: FAILED: Execution Error, return code 2", "08S01", 2),
+                ImmutableList.of("Container [pid=1,containerID=container_1] is running beyond physical memory limits. Current usage: 2.1 GB of 2 GB physical memory used")));
+    }
+
+    @Test
+    public void testTimeout() {
+        assertEquals(FailureType.TIMEOUT, FailureClassifier.classify(new SQLException("Error while processing statement: FAILED: Execution Error, return code 2", "08S01", 2),
+                ImmutableList.of("AttemptID:attempt_1_0001_m_000000_0 Timed out after 1200 secs")));
+    }
+
+    @Test
+    public void testUnknown() {
+        assertEquals(FailureType.UNKNOWN, FailureClassifier.classify(new SQLException("Error while processing statement: FAILED: Execution Error, return code 2", "08S01", 2),
+                Collections.emptyList()));
+        assertEquals(FailureType.UNKNOWN, FailureClassifier.classify(new IllegalArgumentException(), Collections.emptyList()));
+    }
+}
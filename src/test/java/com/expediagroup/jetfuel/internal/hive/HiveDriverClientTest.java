@@ -15,9 +15,20 @@
  */
 package com.expediagroup.jetfuel.internal.hive;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.powermock.api.mockito.PowerMockito.doAnswer;
+import static org.powermock.api.mockito.PowerMockito.doThrow;
 import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
 import static org.powermock.api.mockito.PowerMockito.verifyNoMoreInteractions;
@@ -28,15 +39,31 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.hive.jdbc.HiveStatement;
+import org.apache.thrift.transport.TTransportException;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
 
+import com.expediagroup.jetfuel.JetFuelListener;
+import com.expediagroup.jetfuel.exception.FailureType;
 import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.exception.JetFuelQueryException;
+import com.expediagroup.jetfuel.internal.JetFuelListeners;
+import com.expediagroup.jetfuel.internal.RunContext;
+import com.expediagroup.jetfuel.internal.RunMetrics;
 import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+import com.expediagroup.jetfuel.models.JetFuelRequest;
+import com.google.common.collect.ImmutableList;
 
 /**
  * Tests for {@link HiveDriverClient}
@@ -67,12 +94,12 @@ public final class HiveDriverClientTest {
         when(connection.createStatement()).thenReturn(statement);
         when(statement.execute(anyString())).thenReturn(true);
         when(connection.isClosed()).thenReturn(false);
-        hiveDriverClient = new HiveDriverClient(jetFuelConfiguration);
+        hiveDriverClient = new HiveDriverClient(jetFuelConfiguration, new RunContext.Builder().build());
     }
 
     @Test(expected = NullPointerException.class)
     public void testConstructorNullHiveServe2Url() throws ClassNotFoundException {
-        new HiveDriverClient(null);
+        new HiveDriverClient(null, new RunContext.Builder().build());
     }
 
     @Test(expected = NullPointerException.class)
@@ -134,6 +161,19 @@ public final class HiveDriverClientTest {
         hiveDriverClient.closeConnection();
     }
 
+    @Test
+    public void testCloseConnectionAlreadyClosed() throws SQLException {
+        hiveDriverClient.openConnection();
+        when(connection.isClosed()).thenReturn(true);
+
+        hiveDriverClient.closeConnection();
+        hiveDriverClient.openConnection();
+
+        verify(connection, times(0)).close();
+        verifyStatic(DriverManager.class, times(2));
+        DriverManager.getConnection("url", "user", "password");
+    }
+
     @Test
     public void testCloseConnectionNope() {
         hiveDriverClient.closeConnection();
@@ -148,4 +188,411 @@ public final class HiveDriverClientTest {
 
         verify(connection, times(1)).close();
     }
+
+    @Test
+    public void testRunQueryRecordsQueriesInFlight() throws Exception {
+        final RunMetrics runMetrics = mock(RunMetrics.class);
+        final HiveDriverClient client = new HiveDriverClient(jetFuelConfiguration, new RunContext.Builder().withRunMetrics(runMetrics).build());
+        when(statement.execute("failing")).thenThrow(new SQLException("Error"));
+        client.openConnection();
+
+        client.runQuery("query");
+        try {
+            client.runQuery("failing");
+            fail("Expected JetFuelQueryException");
+        } catch (final JetFuelQueryException e) {
+            assertEquals(FailureType.UNKNOWN, e.getFailureType());
+        }
+
+        verify(runMetrics, times(2)).startQuery();
+        verify(runMetrics, times(2)).endQuery();
+    }
+
+    @Test
+    public void testSessionPool() throws Exception {
+        final HiveSessionPool sessionPool = mock(HiveSessionPool.class);
+        when(sessionPool.acquire(jetFuelConfiguration)).thenReturn(connection);
+        final HiveDriverClient client = new HiveDriverClient(jetFuelConfiguration, new RunContext.Builder().withSessionPool(sessionPool).build());
+
+        client.openConnection();
+        client.openConnection();
+        client.runQuery("query");
+        client.closeConnection();
+        client.closeConnection();
+
+        verify(sessionPool, times(1)).acquire(jetFuelConfiguration);
+        verify(sessionPool, times(1)).release(connection);
+        verify(connection, times(0)).close();
+    }
+
+    @Test
+    public void testTryOpenConnectionWithoutFreeSession() throws Exception {
+        final HiveSessionPool sessionPool = mock(HiveSessionPool.class);
+        final HiveDriverClient client = new HiveDriverClient(jetFuelConfiguration, new RunContext.Builder().withSessionPool(sessionPool).build());
+
+        assertFalse(client.tryOpenConnection());
+        client.closeConnection();
+
+        verify(sessionPool).tryAcquire(jetFuelConfiguration);
+        verify(sessionPool, times(0)).release(any());
+    }
+
+    @Test
+    public void testTryOpenConnectionWithFreeSession() throws Exception {
+        final HiveSessionPool sessionPool = mock(HiveSessionPool.class);
+        when(sessionPool.tryAcquire(jetFuelConfiguration)).thenReturn(connection);
+        final HiveDriverClient client = new HiveDriverClient(jetFuelConfiguration, new RunContext.Builder().withSessionPool(sessionPool).build());
+
+        assertTrue(client.tryOpenConnection());
+        assertTrue(client.tryOpenConnection());
+        client.runQuery("query");
+
+        verify(sessionPool, times(1)).tryAcquire(jetFuelConfiguration);
+        verify(sessionPool, times(0)).acquire(any());
+    }
+
+    @Test
+    public void testTryOpenConnectionWithoutSessionPool() throws Exception {
+        assertTrue(hiveDriverClient.tryOpenConnection());
+        hiveDriverClient.runQuery("query");
+
+        verify(statement).execute("query");
+    }
+
+    @Test
+    public void testRunQueryNotifiesListeners() throws Exception {
+        final JetFuelListener listener = mock(JetFuelListener.class);
+        final HiveDriverClient client = new HiveDriverClient(jetFuelConfiguration,
+                new RunContext.Builder().withListeners(new JetFuelListeners(Collections.singletonList(listener))).build());
+        final JetFuelRequest request = new JetFuelRequest();
+        client.setRequest(request);
+        when(statement.execute("failing")).thenThrow(new SQLException("Error"));
+        client.openConnection();
+
+        client.runQuery("query");
+        try {
+            client.runQuery("failing");
+            fail("Expected JetFuelQueryException");
+        } catch (final JetFuelQueryException e) {
+            assertEquals(FailureType.UNKNOWN, e.getFailureType());
+        }
+
+        final InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener).onQueryStart(request, "query");
+        inOrder.verify(listener).onQueryEnd(eq(request), eq("query"), anyLong(), isNull(FailureType.class));
+        inOrder.verify(listener).onQueryStart(request, "failing");
+        inOrder.verify(listener).onQueryEnd(eq(request), eq("failing"), anyLong(), eq(FailureType.UNKNOWN));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullRunContext() throws Exception {
+        new HiveDriverClient(jetFuelConfiguration, null);
+    }
+
+    @Test
+    public void testRunQueryErrorClassified() throws SQLException {
+        final HiveStatement hiveStatement = mock(HiveStatement.class);
+        when(connection.createStatement()).thenReturn(hiveStatement);
+        when(hiveStatement.execute(anyString())).thenThrow(new SQLException("Error while processing statement: FAILED: Execution Error, return code 2", "08S01", 2));
+        when(hiveStatement.getQueryLog()).thenReturn(ImmutableList.of("Error: Java heap space"));
+        hiveDriverClient.openConnection();
+
+        try {
+            hiveDriverClient.runQuery("query");
+            fail("Expected JetFuelQueryException");
+        } catch (final JetFuelQueryException e) {
+            assertEquals(FailureType.TASK_OOM, e.getFailureType());
+        }
+        verify(hiveStatement).close();
+    }
+
+    @Test
+    public void testRunQueryErrorWithoutQueryLog() throws SQLException {
+        final HiveStatement hiveStatement = mock(HiveStatement.class);
+        when(connection.createStatement()).thenReturn(hiveStatement);
+        when(hiveStatement.execute(anyString())).thenThrow(new SQLException("Error while compiling statement: FAILED: SemanticException", "42000", 40000));
+        when(hiveStatement.getQueryLog()).thenThrow(new SQLException("closed"));
+        doThrow(new SQLException("closed")).when(hiveStatement).close();
+        hiveDriverClient.openConnection();
+
+        try {
+            hiveDriverClient.runQuery("query");
+            fail("Expected JetFuelQueryException");
+        } catch (final JetFuelQueryException e) {
+            assertEquals(FailureType.SEMANTIC, e.getFailureType());
+        }
+    }
+
+    @Test(expected = JetFuelQueryException.class)
+    public void testRunQueryCreateStatementError() throws SQLException {
+        when(connection.createStatement()).thenThrow(new SQLException("Error", new TTransportException()));
+        hiveDriverClient.openConnection();
+        hiveDriverClient.runQuery("query");
+    }
+
+    @Test
+    public void testRunQueryErrorClassifiedWithoutProgress() throws SQLException, ClassNotFoundException {
+        final HiveStatement hiveStatement = mock(HiveStatement.class);
+        when(connection.createStatement()).thenReturn(hiveStatement);
+        when(hiveStatement.execute(anyString())).thenThrow(new SQLException("Error while processing statement: FAILED: Execution Error, return code 2", "08S01", 2));
+        when(hiveStatement.getQueryLog()).thenReturn(ImmutableList.of("Container killed on request. Exit code is 143"));
+        final HiveDriverClient client = new HiveDriverClient(new JetFuelConfiguration.Builder()
+                .withSourceDatabase("sourceDb")
+                .withSourceTable("sourceTable")
+                .withTargetDatabase("targetDb")
+                .withTargetTable("targetTable")
+                .withHiveMetastoreUri("hiveMetastoreUri")
+                .withHiveServer2Url("url")
+                .withHiveServer2Username("user")
+                .withProgressIntervalInSeconds(0)
+                .build(), new RunContext.Builder().build());
+        client.openConnection();
+
+        try {
+            client.runQuery("query");
+            fail("Expected JetFuelQueryException");
+        } catch (final JetFuelQueryException e) {
+            assertEquals(FailureType.CONTAINER_MEMORY, e.getFailureType());
+        }
+        verify(hiveStatement).getQueryLog();
+    }
+
+    @Test
+    public void testRunQueryFollowsProgress() throws SQLException {
+        final HiveStatement hiveStatement = mock(HiveStatement.class);
+        when(connection.createStatement()).thenReturn(hiveStatement);
+        when(hiveStatement.execute(anyString())).thenReturn(false);
+        when(hiveStatement.getQueryLog()).thenReturn(ImmutableList.of("Stage-1 map = 100%,  reduce = 0%"));
+        hiveDriverClient.openConnection();
+
+        hiveDriverClient.runQuery("query");
+
+        verify(hiveStatement).getQueryLog();
+        verify(hiveStatement).close();
+    }
+
+    @Test
+    public void testRunQueryCancelledAtDeadline() throws Exception {
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        when(statement.execute(anyString())).thenAnswer(invocation -> {
+            if (!cancelled.await(10, TimeUnit.SECONDS)) {
+                return true;
+            }
+            throw new SQLException("Query was cancelled.");
+        });
+        doAnswer(invocation -> {
+            cancelled.countDown();
+            return null;
+        }).when(statement).cancel();
+        final HiveDriverClient client = new HiveDriverClient(getConfiguration(1L, 1L), new RunContext.Builder().build());
+        Whitebox.setInternalState(client, "runDeadline", Instant.now().plusMillis(200));
+        client.openConnection();
+
+        try {
+            client.runQuery("query");
+            fail("Expected JetFuelQueryException");
+        } catch (final JetFuelQueryException e) {
+            assertEquals(FailureType.TIMEOUT, e.getFailureType());
+        }
+        verify(statement).cancel();
+        verify(statement).close();
+    }
+
+    @Test
+    public void testRunQueryRunBudgetSpent() throws Exception {
+        final RunContext runContext = new RunContext.Builder().build();
+        Whitebox.setInternalState(runContext, "startTime", Instant.now().minusSeconds(61));
+        final HiveDriverClient client = new HiveDriverClient(getConfiguration(null, 1L), runContext);
+        client.openConnection();
+
+        try {
+            client.runQuery("query");
+            fail("Expected JetFuelQueryException");
+        } catch (final JetFuelQueryException e) {
+            assertEquals(FailureType.BUDGET_EXHAUSTED, e.getFailureType());
+        }
+        verify(connection, times(0)).createStatement();
+    }
+
+    @Test
+    public void testRunBudgetMeasuredFromRunStart() throws Exception {
+        final RunContext runContext = new RunContext.Builder().build();
+        final HiveDriverClient client = new HiveDriverClient(getConfiguration(null, 1L), runContext);
+        Whitebox.setInternalState(runContext, "startTime", Instant.now().minusSeconds(61));
+        client.openConnection();
+
+        try {
+            client.runQuery("query");
+            fail("Expected JetFuelQueryException");
+        } catch (final JetFuelQueryException e) {
+            assertEquals(FailureType.BUDGET_EXHAUSTED, e.getFailureType());
+        }
+    }
+
+    @Test
+    public void testRunQueryWithinDeadline() throws Exception {
+        final HiveDriverClient client = new HiveDriverClient(getConfiguration(5L, 10L), new RunContext.Builder().build());
+        client.openConnection();
+
+        client.runQuery("query");
+
+        verify(statement).execute("query");
+        verify(statement, times(0)).cancel();
+    }
+
+    @Test
+    public void testRunQueryFailsWithinBudget() throws Exception {
+        when(statement.execute(anyString())).thenThrow(new SQLException("Error"));
+        final HiveDriverClient client = new HiveDriverClient(getConfiguration(null, 10L), new RunContext.Builder().build());
+        client.openConnection();
+
+        try {
+            client.runQuery("query");
+            fail("Expected JetFuelQueryException");
+        } catch (final JetFuelQueryException e) {
+            assertEquals(FailureType.UNKNOWN, e.getFailureType());
+        }
+        verify(statement, times(0)).cancel();
+    }
+
+    private static JetFuelConfiguration getConfiguration(final Long queryTimeoutInMinutes, final Long runBudgetInMinutes) {
+        return new JetFuelConfiguration.Builder()
+                .withSourceDatabase("sourceDb")
+                .withSourceTable("sourceTable")
+                .withTargetDatabase("targetDb")
+                .withTargetTable("targetTable")
+                .withHiveMetastoreUri("hiveMetastoreUri")
+                .withHiveServer2Url("url")
+                .withHiveServer2Username("user")
+                .withQueryTimeoutInMinutes(queryTimeoutInMinutes)
+                .withRunBudgetInMinutes(runBudgetInMinutes)
+                .build();
+    }
+
+    @Test
+    public void testReconnectReplaysSessionQueries() throws SQLException {
+        hiveDriverClient.openConnection();
+
+        hiveDriverClient.reconnect(ImmutableList.of("SET a=b", "SET c=d"));
+
+        verify(connection).close();
+        verifyStatic(DriverManager.class, times(2));
+        DriverManager.getConnection("url", "user", "password");
+        verify(statement).execute("SET a=b");
+        verify(statement).execute("SET c=d");
+    }
+
+    @Test
+    public void testReconnectWithBackoff() throws SQLException, ClassNotFoundException {
+        when(DriverManager.getConnection(anyString(), anyString(), anyString()))
+                .thenThrow(new SQLException("Connection refused", new TTransportException()))
+                .thenThrow(new SQLException("Connection refused", new TTransportException()))
+                .thenReturn(connection);
+        final HiveDriverClient client = new HiveDriverClient(getReconnectConfiguration(3), new RunContext.Builder().build());
+
+        client.reconnect(ImmutableList.of("SET a=b"));
+
+        verifyStatic(DriverManager.class, times(3));
+        DriverManager.getConnection("url", "user", "password");
+        verify(statement).execute("SET a=b");
+    }
+
+    @Test
+    public void testReconnectLosesConnectionWhileReplaying() throws SQLException, ClassNotFoundException {
+        when(statement.execute("SET a=b")).thenThrow(new SQLException("Error", new TTransportException())).thenReturn(false);
+        final HiveDriverClient client = new HiveDriverClient(getReconnectConfiguration(2), new RunContext.Builder().build());
+
+        client.reconnect(ImmutableList.of("SET a=b"));
+
+        verify(statement, times(2)).execute("SET a=b");
+    }
+
+    @Test
+    public void testReconnectFails() throws SQLException, ClassNotFoundException {
+        when(DriverManager.getConnection(anyString(), anyString(), anyString())).thenThrow(new SQLException("Connection refused"));
+        final HiveDriverClient client = new HiveDriverClient(getReconnectConfiguration(2), new RunContext.Builder().build());
+
+        try {
+            client.reconnect(ImmutableList.of("SET a=b"));
+            fail("Expected JetFuelQueryException");
+        } catch (final JetFuelQueryException e) {
+            assertEquals(FailureType.CONNECTION, e.getFailureType());
+        }
+        verifyStatic(DriverManager.class, times(2));
+        DriverManager.getConnection("url", "user", "password");
+    }
+
+    @Test(expected = JetFuelQueryException.class)
+    public void testReconnectInvalidSessionQuery() throws SQLException {
+        when(statement.execute("SET a")).thenThrow(new SQLException("Error while compiling statement", "42000"));
+
+        hiveDriverClient.reconnect(ImmutableList.of("SET a"));
+    }
+
+    @Test
+    public void testEnsureConnectionRecentlyUsed() throws SQLException {
+        hiveDriverClient.openConnection();
+        hiveDriverClient.runQuery("query");
+
+        hiveDriverClient.ensureConnection(ImmutableList.of("SET a=b"));
+
+        verify(statement, times(0)).execute("SELECT 1");
+        verify(statement, times(0)).execute("SET a=b");
+    }
+
+    @Test
+    public void testEnsureConnectionJustOpened() throws SQLException {
+        hiveDriverClient.openConnection();
+
+        hiveDriverClient.ensureConnection(ImmutableList.of("SET a=b"));
+
+        verify(statement, times(0)).execute("SELECT 1");
+    }
+
+    @Test
+    public void testEnsureConnectionValid() throws SQLException {
+        hiveDriverClient.openConnection();
+        Whitebox.setInternalState(hiveDriverClient, "lastUsed", Instant.now().minusSeconds(120));
+
+        hiveDriverClient.ensureConnection(ImmutableList.of("SET a=b"));
+
+        verify(statement).execute("SELECT 1");
+        verify(statement, times(0)).execute("SET a=b");
+    }
+
+    @Test
+    public void testEnsureConnectionInvalid() throws SQLException {
+        when(statement.execute("SELECT 1")).thenThrow(new SQLException("Error", new TTransportException()));
+        hiveDriverClient.openConnection();
+        Whitebox.setInternalState(hiveDriverClient, "lastUsed", Instant.now().minusSeconds(120));
+
+        hiveDriverClient.ensureConnection(ImmutableList.of("SET a=b"));
+
+        verify(connection).close();
+        verify(statement).execute("SET a=b");
+    }
+
+    @Test
+    public void testEnsureConnectionNotOpen() throws SQLException {
+        hiveDriverClient.ensureConnection(Collections.emptyList());
+
+        verify(statement, times(0)).execute("SELECT 1");
+        verifyStatic(DriverManager.class);
+        DriverManager.getConnection("url", "user", "password");
+    }
+
+    private static JetFuelConfiguration getReconnectConfiguration(final int reconnectAttempts) {
+        return new JetFuelConfiguration.Builder()
+                .withSourceDatabase("sourceDb")
+                .withSourceTable("sourceTable")
+                .withTargetDatabase("targetDb")
+                .withTargetTable("targetTable")
+                .withHiveMetastoreUri("hiveMetastoreUri")
+                .withHiveServer2Url("url")
+                .withHiveServer2Username("user")
+                .withHiveServer2Password("password")
+                .withReconnectAttempts(reconnectAttempts)
+                .withReconnectBackoffInSeconds(0)
+                .build();
+    }
 }
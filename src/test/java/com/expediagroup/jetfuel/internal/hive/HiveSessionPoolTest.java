@@ -0,0 +1,205 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal.hive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.verifyStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.models.JetFuelConfiguration;
+
+/**
+ * Tests for {@link HiveSessionPool}
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ HiveSessionPool.class, DriverManager.class })
+public final class HiveSessionPoolTest {
+
+    private final Connection connection = mock(Connection.class);
+    private final Connection connection2 = mock(Connection.class);
+    private final Statement statement = mock(Statement.class);
+    private final JetFuelConfiguration.Builder builder = new JetFuelConfiguration.Builder()
+            .withSourceDatabase("sourceDb")
+            .withSourceTable("sourceTable")
+            .withTargetDatabase("targetDb")
+            .withTargetTable("targetTable")
+            .withHiveMetastoreUri("hiveMetastoreUri")
+            .withHiveServer2Url("url")
+            .withHiveServer2Username("user")
+            .withHiveServer2Password("password");
+    private final JetFuelConfiguration jetFuelConfiguration = builder.build();
+
+    @Before
+    public void setup() throws SQLException {
+        mockStatic(DriverManager.class);
+        when(DriverManager.getConnection(anyString(), anyString(), anyString())).thenReturn(connection, connection2);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection2.createStatement()).thenReturn(statement);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorInvalidMaxSessions() {
+        new HiveSessionPool(0);
+    }
+
+    @Test
+    public void testReleasedConnectionReused() throws SQLException {
+        final HiveSessionPool sessionPool = new HiveSessionPool(1);
+        assertEquals(1, sessionPool.getMaxSessions());
+
+        assertSame(connection, sessionPool.acquire(jetFuelConfiguration));
+        sessionPool.release(connection);
+        assertSame(connection, sessionPool.acquire(jetFuelConfiguration));
+
+        verify(statement).execute("RESET");
+        verify(connection, never()).close();
+        verifyStatic(DriverManager.class, times(1));
+        DriverManager.getConnection("url", "user", "password");
+    }
+
+    @Test
+    public void testConnectionNotReusedForOtherServer() {
+        final HiveSessionPool sessionPool = new HiveSessionPool(1);
+
+        sessionPool.release(sessionPool.acquire(jetFuelConfiguration));
+
+        assertSame(connection2, sessionPool.acquire(builder.withHiveServer2Url("url2").build()));
+    }
+
+    @Test
+    public void testConnectionClosedIfResetFails() throws SQLException {
+        final HiveSessionPool sessionPool = new HiveSessionPool(1);
+        when(statement.execute("RESET")).thenThrow(new SQLException("Connection lost"));
+
+        sessionPool.release(sessionPool.acquire(jetFuelConfiguration));
+
+        verify(connection).close();
+        assertSame(connection2, sessionPool.acquire(jetFuelConfiguration));
+    }
+
+    @Test
+    public void testTryAcquireExhausted() {
+        final HiveSessionPool sessionPool = new HiveSessionPool(1);
+
+        assertSame(connection, sessionPool.tryAcquire(jetFuelConfiguration));
+        assertNull(sessionPool.tryAcquire(jetFuelConfiguration));
+        sessionPool.release(connection);
+        assertSame(connection, sessionPool.tryAcquire(jetFuelConfiguration));
+    }
+
+    @Test
+    public void testAcquireWaitsForRelease() throws Exception {
+        final HiveSessionPool sessionPool = new HiveSessionPool(1);
+        sessionPool.acquire(jetFuelConfiguration);
+        final AtomicReference<Connection> acquired = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        final Thread thread = new Thread(() -> {
+            acquired.set(sessionPool.acquire(jetFuelConfiguration));
+            done.countDown();
+        });
+        thread.start();
+
+        assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+        sessionPool.release(connection);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertSame(connection, acquired.get());
+    }
+
+    @Test
+    public void testAcquireInterrupted() {
+        final HiveSessionPool sessionPool = new HiveSessionPool(1);
+        sessionPool.acquire(jetFuelConfiguration);
+        Thread.currentThread().interrupt();
+
+        try {
+            sessionPool.acquire(jetFuelConfiguration);
+            fail("Expected JetFuelException");
+        } catch (final JetFuelException e) {
+            assertEquals("Interrupted while waiting for a HiveServer2 session", e.getMessage());
+            assertTrue(Thread.interrupted());
+        }
+    }
+
+    @Test
+    public void testAcquireFailureReleasesSession() throws SQLException {
+        when(DriverManager.getConnection(anyString(), anyString(), anyString())).thenThrow(new SQLException("Refused")).thenReturn(connection);
+        final HiveSessionPool sessionPool = new HiveSessionPool(1);
+
+        try {
+            sessionPool.acquire(jetFuelConfiguration);
+            fail("Expected JetFuelException");
+        } catch (final JetFuelException e) {
+            assertEquals("Error opening connection: Refused ", e.getMessage());
+        }
+        assertSame(connection, sessionPool.tryAcquire(jetFuelConfiguration));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReleaseUnknownConnection() {
+        new HiveSessionPool(1).release(connection);
+    }
+
+    @Test
+    public void testClose() throws SQLException {
+        final HiveSessionPool sessionPool = new HiveSessionPool(2);
+        final Connection idle = sessionPool.acquire(jetFuelConfiguration);
+        final Connection inUse = sessionPool.acquire(jetFuelConfiguration);
+        assertNotSame(idle, inUse);
+        sessionPool.release(idle);
+
+        sessionPool.close();
+        verify(connection).close();
+        verify(connection2, never()).close();
+
+        sessionPool.release(inUse);
+        verify(connection2).close();
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testAcquireAfterClose() {
+        final HiveSessionPool sessionPool = new HiveSessionPool(1);
+        sessionPool.close();
+        sessionPool.acquire(jetFuelConfiguration);
+    }
+}
@@ -19,15 +19,25 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyShort;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.when;
 import static org.powermock.api.mockito.PowerMockito.whenNew;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.metastore.HiveMetaStoreClient;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.thrift.TException;
@@ -38,7 +48,10 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import com.expediagroup.jetfuel.exception.JetFuelException;
+import com.expediagroup.jetfuel.models.PartitionSpec;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * Tests for {@link HiveTableUtils}
@@ -165,4 +178,292 @@ public final class HiveTableUtilsTest {
         hiveTableUtils.getPartitions(table);
     }
 
+
+    @Test
+    public void testGetTotalSize() {
+        final Partition partition = new Partition();
+        assertEquals(-1, hiveTableUtils.getTotalSize(partition));
+
+        partition.setParameters(ImmutableMap.of("numFiles", "3"));
+        assertEquals(-1, hiveTableUtils.getTotalSize(partition));
+
+        partition.setParameters(ImmutableMap.of("totalSize", "1024"));
+        assertEquals(1024, hiveTableUtils.getTotalSize(partition));
+    }
+
+    @Test
+    public void testGetTableTotalSize() {
+        final Table table = new Table();
+        assertEquals(-1, hiveTableUtils.getTableTotalSize(table));
+
+        table.setParameters(ImmutableMap.of("totalSize", "2048"));
+        assertEquals(2048, hiveTableUtils.getTableTotalSize(table));
+    }
+
+    @Test
+    public void testGetAllPartitions() throws TException {
+        final Partition partition = new Partition();
+        when(hiveMetaStoreClient.listPartitions("db", "table", (short) -1)).thenReturn(ImmutableList.of(partition));
+        assertEquals(ImmutableList.of(partition), hiveTableUtils.getAllPartitions("db", "table"));
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testGetAllPartitionsError() throws TException {
+        when(hiveMetaStoreClient.listPartitions(anyString(), anyString(), anyShort())).thenThrow(new MetaException());
+        hiveTableUtils.getAllPartitions("db", "table");
+    }
+
+    @Test
+    public void testGetTableNames() throws TException {
+        when(hiveMetaStoreClient.getAllTables("db")).thenReturn(ImmutableList.of("table1", "table2"));
+        assertEquals(ImmutableList.of("table1", "table2"), hiveTableUtils.getTableNames("db"));
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testGetTableNamesError() throws TException {
+        when(hiveMetaStoreClient.getAllTables("db")).thenThrow(new MetaException());
+        hiveTableUtils.getTableNames("db");
+    }
+
+    @Test
+    public void testGetTables() throws TException {
+        when(hiveMetaStoreClient.getTableObjectsByName("db", ImmutableList.of("table"))).thenReturn(ImmutableList.of(table));
+        assertEquals(ImmutableList.of(table), hiveTableUtils.getTables("db", ImmutableList.of("table")));
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testGetTablesError() throws TException {
+        when(hiveMetaStoreClient.getTableObjectsByName(anyString(), any())).thenThrow(new MetaException());
+        hiveTableUtils.getTables("db", ImmutableList.of("table"));
+    }
+
+    @Test
+    public void testGetPartitionNames() throws TException {
+        when(hiveMetaStoreClient.listPartitionNames("db", "table", (short) -1)).thenReturn(ImmutableList.of("p=a"));
+        assertEquals(ImmutableList.of("p=a"), hiveTableUtils.getPartitionNames("db", "table"));
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testGetPartitionNamesError() throws TException {
+        when(hiveMetaStoreClient.listPartitionNames(anyString(), anyString(), anyShort())).thenThrow(new MetaException());
+        hiveTableUtils.getPartitionNames("db", "table");
+    }
+
+    @Test
+    public void testGetPartitionsByName() throws TException {
+        final Partition partition = new Partition();
+        when(hiveMetaStoreClient.getPartitionsByNames("db", "table", ImmutableList.of("p=a"))).thenReturn(ImmutableList.of(partition));
+        assertEquals(ImmutableList.of(partition), hiveTableUtils.getPartitions("db", "table", ImmutableList.of("p=a")));
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testGetPartitionsByNameError() throws TException {
+        when(hiveMetaStoreClient.getPartitionsByNames(anyString(), anyString(), any())).thenThrow(new MetaException());
+        hiveTableUtils.getPartitions("db", "table", ImmutableList.of("p=a"));
+    }
+
+    @Test
+    public void testGetPartitionFilterFragment() {
+        final Partition partition = new Partition();
+        partition.setValues(ImmutableList.of("1", "2"));
+        assertEquals("(col1 = 1 AND col2 = 2)", hiveTableUtils.getPartitionFilterFragment(table, partition));
+
+        when(table.getPartitionKeys()).thenReturn(ImmutableList.of(new FieldSchema("dt", "string", null), new FieldSchema("amount", "decimal(10,2)", null)));
+        partition.setValues(ImmutableList.of("it's", "1.50"));
+        assertEquals("(dt = 'it\\'s' AND amount = 1.50)", hiveTableUtils.getPartitionFilterFragment(table, partition));
+
+        partition.setValues(ImmutableList.of("a\\b", "2"));
+        when(table.getPartitionKeys()).thenReturn(ImmutableList.of(new FieldSchema("dt", "varchar(10)", null), new FieldSchema("n", "BIGINT", null)));
+        assertEquals("(dt = 'a\\\\b' AND n = 2)", hiveTableUtils.getPartitionFilterFragment(table, partition));
+    }
+
+    @Test
+    public void testGetPartitionFilterFragmentDefaultPartition() {
+        final Partition partition = new Partition();
+        partition.setValues(ImmutableList.of("__HIVE_DEFAULT_PARTITION__", "2"));
+        assertEquals("(col1 IS NULL AND col2 = 2)", hiveTableUtils.getPartitionFilterFragment(table, partition));
+
+        when(table.getPartitionKeys()).thenReturn(ImmutableList.of(new FieldSchema("dt", "string", null), new FieldSchema("amount", "decimal(10,2)", null)));
+        partition.setValues(ImmutableList.of("2012-09", "__HIVE_DEFAULT_PARTITION__"));
+        assertEquals("(dt = '2012-09' AND amount IS NULL)", hiveTableUtils.getPartitionFilterFragment(table, partition));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetPartitionFilterFragmentMismatchedValues() {
+        final Partition partition = new Partition();
+        partition.setValues(ImmutableList.of("1"));
+        hiveTableUtils.getPartitionFilterFragment(table, partition);
+    }
+
+    @Test
+    public void testGetIntegerPartitionKeys() {
+        when(table.getPartitionKeys()).thenReturn(ImmutableList.of(new FieldSchema("Hour", "INT", null), new FieldSchema("n", "bigint", null),
+                new FieldSchema("amount", "decimal(10,0)", null), new FieldSchema("ratio", "double", null), new FieldSchema("dt", "string", null)));
+        assertEquals(ImmutableSet.of("hour", "n"), hiveTableUtils.getIntegerPartitionKeys(table));
+    }
+
+    @Test
+    public void testGetDatePartitionKeys() {
+        when(table.getPartitionKeys()).thenReturn(ImmutableList.of(new FieldSchema("Dt", "DATE", null), new FieldSchema("day", "string", null),
+                new FieldSchema("ts", "timestamp", null)));
+        assertEquals(ImmutableSet.of("dt"), hiveTableUtils.getDatePartitionKeys(table));
+    }
+
+    @Test
+    public void testGetPartitionSpecs() throws TException {
+        final Partition partition = new Partition();
+        partition.setValues(ImmutableList.of("1", "2"));
+        when(table.getDbName()).thenReturn("db");
+        when(table.getTableName()).thenReturn("table");
+        when(table.getPartitionKeys()).thenReturn(ImmutableList.of(new FieldSchema("Col1", "int", null), schema2));
+        when(hiveMetaStoreClient.listPartitions("db", "table", (short) -1)).thenReturn(ImmutableList.of(partition));
+
+        final List<PartitionSpec> partitionSpecs = hiveTableUtils.getPartitionSpecs(table);
+        assertEquals(1, partitionSpecs.size());
+        assertEquals(ImmutableMap.of("col1", "1", "col2", "2"), partitionSpecs.get(0).getValues());
+        assertEquals("(Col1 = 1 AND col2 = 2)", partitionSpecs.get(0).getFilterFragment());
+        assertEquals(partition, partitionSpecs.get(0).getPartition());
+    }
+
+    @Test
+    public void testGetLastDdlTime() {
+        final Partition partition = new Partition();
+        assertEquals(-1, hiveTableUtils.getLastDdlTime(partition));
+
+        partition.setParameters(ImmutableMap.of("transient_lastDdlTime", "1546300800"));
+        assertEquals(1546300800L, hiveTableUtils.getLastDdlTime(partition));
+    }
+
+    @Test
+    public void testGetUpToDatePartitions() throws TException {
+        final Table targetTable = mock(Table.class);
+        when(table.getDbName()).thenReturn("sourceDb");
+        when(table.getTableName()).thenReturn("sourceTable");
+        when(targetTable.getDbName()).thenReturn("targetDb");
+        when(targetTable.getTableName()).thenReturn("targetTable");
+        when(targetTable.getPartitionKeys()).thenReturn(ImmutableList.of(schema1, schema2));
+        when(hiveMetaStoreClient.listPartitions("sourceDb", "sourceTable", (short) -1)).thenReturn(ImmutableList.of(
+                createPartition("1", "100", "10"),
+                createPartition("2", "100", "10"),
+                createPartition("3", "100", "10"),
+                createPartition("4", "100", "10"),
+                createPartition("5", null, "10"),
+                createPartition("6", "100", "0")));
+        when(hiveMetaStoreClient.listPartitions("targetDb", "targetTable", (short) -1)).thenReturn(ImmutableList.of(
+                createPartition("1", "200", "5"),
+                createPartition("2", "50", "5"),
+                createPartition("3", "200", "0"),
+                createPartition("5", "200", "5"),
+                createPartition("6", "200", "0"),
+                createPartition("7", "200", "5")));
+
+        assertEquals(ImmutableSet.of("(col1 = 1 AND col2 = 0)", "(col1 = 6 AND col2 = 0)"), hiveTableUtils.getUpToDatePartitions(hiveTableUtils.getPartitionSpecs(table), targetTable));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testGetUpToDatePartitionsNullTargetTable() {
+        hiveTableUtils.getUpToDatePartitions(Collections.emptyList(), null);
+    }
+
+    private static Partition createPartition(final String value, final String lastDdlTime, final String totalSize) {
+        final Partition partition = new Partition();
+        partition.setValues(ImmutableList.of(value, "0"));
+        final ImmutableMap.Builder<String, String> parameters = ImmutableMap.<String, String>builder().put("totalSize", totalSize);
+        if (lastDdlTime != null) {
+            parameters.put("transient_lastDdlTime", lastDdlTime);
+        }
+        partition.setParameters(parameters.build());
+        return partition;
+    }
+
+    @Test
+    public void testGetNumFiles() {
+        final Partition partition = new Partition();
+        assertEquals(-1, hiveTableUtils.getNumFiles(partition));
+
+        partition.setParameters(ImmutableMap.of("numFiles", "3"));
+        assertEquals(3, hiveTableUtils.getNumFiles(partition));
+    }
+
+    @Test
+    public void testGetRawDataSize() {
+        final Partition partition = new Partition();
+        assertEquals(-1, hiveTableUtils.getRawDataSize(partition));
+
+        partition.setParameters(ImmutableMap.of("rawDataSize", "1024"));
+        assertEquals(1024, hiveTableUtils.getRawDataSize(partition));
+    }
+
+    @Test
+    public void testAddPartitions() throws TException {
+        final List<Partition> partitions = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            final Partition partition = new Partition();
+            partition.setValues(ImmutableList.of(String.valueOf(i)));
+            partitions.add(partition);
+        }
+
+        hiveTableUtils.addPartitions(partitions);
+
+        verify(hiveMetaStoreClient).add_partitions(partitions.subList(0, 100), true, false);
+        verify(hiveMetaStoreClient).add_partitions(partitions.subList(100, 150), true, false);
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testAddPartitionsError() throws TException {
+        when(hiveMetaStoreClient.add_partitions(anyList(), anyBoolean(), anyBoolean())).thenThrow(new MetaException());
+        hiveTableUtils.addPartitions(ImmutableList.of(new Partition()));
+    }
+
+    @Test
+    public void testAlterPartitions() throws TException {
+        final List<Partition> partitions = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            final Partition partition = new Partition();
+            partition.setValues(ImmutableList.of(String.valueOf(i)));
+            partitions.add(partition);
+        }
+
+        hiveTableUtils.alterPartitions("db", "table", partitions);
+
+        verify(hiveMetaStoreClient).alter_partitions("db", "table", partitions.subList(0, 100));
+        verify(hiveMetaStoreClient).alter_partitions("db", "table", partitions.subList(100, 150));
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testAlterPartitionsError() throws TException {
+        doThrow(new MetaException()).when(hiveMetaStoreClient).alter_partitions(anyString(), anyString(), anyList());
+        hiveTableUtils.alterPartitions("db", "table", ImmutableList.of(new Partition()));
+    }
+
+    @Test
+    public void testGetPartitionName() {
+        final Partition partition = new Partition();
+        partition.setValues(ImmutableList.of("1", "a/b"));
+        assertEquals("col1=1/col2=a%2Fb", hiveTableUtils.getPartitionName(table, partition));
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testGetPartitionNameMismatchedValues() {
+        final Partition partition = new Partition();
+        partition.setValues(ImmutableList.of("1"));
+        hiveTableUtils.getPartitionName(table, partition);
+    }
+
+    @Test
+    public void testGetPartitionClause() {
+        final Partition partition = new Partition();
+        partition.setValues(ImmutableList.of("1", "2"));
+        assertEquals("(col1 = 1, col2 = 2)", hiveTableUtils.getPartitionClause(table, partition));
+
+        partition.setValues(ImmutableList.of("__HIVE_DEFAULT_PARTITION__", "2"));
+        assertEquals("(col1 = '__HIVE_DEFAULT_PARTITION__', col2 = 2)", hiveTableUtils.getPartitionClause(table, partition));
+    }
+
+    @Test
+    public void testClose() {
+        hiveTableUtils.close();
+
+        verify(hiveMetaStoreClient).close();
+    }
 }
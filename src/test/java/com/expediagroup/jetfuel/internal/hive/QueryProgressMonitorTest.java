@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.internal.hive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.apache.hive.jdbc.HiveStatement;
+import org.junit.After;
+import org.junit.Test;
+
+import com.expediagroup.jetfuel.internal.RunMetrics;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests for {@link QueryProgressMonitor}
+ */
+public final class QueryProgressMonitorTest {
+
+    private final HiveStatement statement = mock(HiveStatement.class);
+    private final QueryProgressMonitor monitor = new QueryProgressMonitor(statement);
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void teardown() {
+        poller.shutdownNow();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullStatement() {
+        new QueryProgressMonitor(null);
+    }
+
+    @Test
+    public void testMapReduceProgress() throws SQLException {
+        when(statement.getQueryLog())
+                .thenReturn(ImmutableList.of(
+                        "Launching Job 1 out of 1",
+                        "Starting Job = job_1550000000000_0001, Tracking URL = http://rm:8088/proxy/application_1550000000000_0001/",
+                        "Hadoop job information for Stage-1: number of mappers: 3; number of reducers: 0",
+                        "Stage-1 map = 0%,  reduce = 0%"))
+                .thenReturn(ImmutableList.of(
+                        "Stage-1 map = 0%,  reduce = 0%",
+                        "Stage-1 map = 100%,  reduce = 0%, Cumulative CPU 12.3 sec",
+                        "Ended Job = job_1550000000000_0001"))
+                .thenReturn(Collections.emptyList());
+
+        monitor.poll();
+        monitor.poll();
+        monitor.close();
+
+        assertEquals(ImmutableSet.of("job_1550000000000_0001"), monitor.getJobIds());
+        assertEquals(ImmutableSet.of("application_1550000000000_0001"), monitor.getApplicationIds());
+        assertEquals(7, monitor.getQueryLog().size());
+        assertEquals("Ended Job = job_1550000000000_0001", monitor.getQueryLog().get(6));
+    }
+
+    @Test
+    public void testRunMetrics() throws SQLException {
+        final RunMetrics runMetrics = mock(RunMetrics.class);
+        when(statement.getQueryLog())
+                .thenReturn(ImmutableList.of(
+                        "Stage-1 map = 0%,  reduce = 0%",
+                        "Stage-1 map = 0%,  reduce = 0%",
+                        "Stage-1 map = 100%,  reduce = 0%"))
+                .thenReturn(ImmutableList.of(
+                        "MapReduce Jobs Launched: ",
+                        "Stage-Stage-1: Map: 3   Cumulative CPU: 12.3 sec   HDFS Read: 123456 HDFS Write: 7890 SUCCESS",
+                        "Stage-Stage-2: Map: 1   Cumulative CPU: 1.2 sec   HDFS Read: 100 HDFS Write: 10 SUCCESS"))
+                .thenReturn(Collections.emptyList());
+        final QueryProgressMonitor metricsMonitor = new QueryProgressMonitor(statement, runMetrics);
+
+        metricsMonitor.poll();
+        metricsMonitor.poll();
+        metricsMonitor.close();
+
+        verify(runMetrics, times(2)).recordProgress();
+        verify(runMetrics).addBytes(123456L, 7890L);
+        verify(runMetrics).addBytes(100L, 10L);
+    }
+
+    @Test
+    public void testTezProgress() throws SQLException {
+        when(statement.getQueryLog())
+                .thenReturn(ImmutableList.of(
+                        "Status: Running (Executing on YARN cluster with App id application_1550000000000_0002)",
+                        "Map 1: -/-\tReducer 2: 0/1",
+                        "Map 1: 0/10\tReducer 2: 0/1",
+                        "Map 1: 10/10\tReducer 2: 1/1"))
+                .thenReturn(Collections.emptyList());
+
+        monitor.poll();
+        monitor.close();
+
+        assertTrue(monitor.getJobIds().isEmpty());
+        assertEquals(ImmutableSet.of("application_1550000000000_0002"), monitor.getApplicationIds());
+    }
+
+    @Test
+    public void testQueryLogIsBounded() throws SQLException {
+        final List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            lines.add("line " + i);
+        }
+        when(statement.getQueryLog()).thenReturn(lines).thenReturn(Collections.emptyList());
+
+        monitor.poll();
+
+        assertEquals(1000, monitor.getQueryLog().size());
+        assertEquals("line 1499", monitor.getQueryLog().get(999));
+    }
+
+    @Test
+    public void testPollError() throws SQLException {
+        when(statement.getQueryLog()).thenThrow(new SQLException("closed"));
+
+        monitor.poll();
+        monitor.close();
+
+        assertTrue(monitor.getQueryLog().isEmpty());
+    }
+
+    @Test
+    public void testStartPollsUntilClosed() throws SQLException {
+        when(statement.getQueryLog()).thenReturn(Collections.emptyList());
+
+        monitor.start(poller, 1);
+        verify(statement, timeout(5000).atLeastOnce()).getQueryLog();
+        monitor.close();
+        final int polls = mockingDetails(statement).getInvocations().size();
+        monitor.close();
+        monitor.poll();
+
+        assertEquals(polls, mockingDetails(statement).getInvocations().size());
+    }
+
+    @Test
+    public void testSlowSessionDoesNotDelayOtherSessions() throws Exception {
+        final HiveStatement slowStatement = mock(HiveStatement.class);
+        final CountDownLatch released = new CountDownLatch(1);
+        when(slowStatement.getQueryLog()).thenAnswer(invocation -> {
+            released.await();
+            return Collections.emptyList();
+        });
+        when(statement.getQueryLog()).thenReturn(Collections.emptyList());
+        final ScheduledExecutorService slowPoller = Executors.newSingleThreadScheduledExecutor();
+        final QueryProgressMonitor slowMonitor = new QueryProgressMonitor(slowStatement);
+
+        try {
+            slowMonitor.start(slowPoller, 1);
+            verify(slowStatement, timeout(5000)).getQueryLog();
+            monitor.start(poller, 1);
+            verify(statement, timeout(5000).atLeast(2)).getQueryLog();
+            monitor.close();
+        } finally {
+            released.countDown();
+            slowMonitor.close();
+            slowPoller.shutdownNow();
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testStartNullPoller() {
+        monitor.start(null, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStartInvalidInterval() {
+        monitor.start(poller, 0);
+    }
+}
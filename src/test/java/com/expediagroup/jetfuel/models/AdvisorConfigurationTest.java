@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Tests for {@link AdvisorConfiguration}
+ */
+public final class AdvisorConfigurationTest {
+
+    private final AdvisorConfiguration.Builder builder = new AdvisorConfiguration.Builder()
+            .withHiveMetastoreUri("hiveMetastoreUri")
+            .withDatabases(ImmutableList.of("db"))
+            .withOutputDirectory("advice");
+
+    @Test
+    public void testBuildDefaults() {
+        final AdvisorConfiguration advisorConfiguration = builder.build();
+
+        assertEquals("hiveMetastoreUri", advisorConfiguration.getHiveMetastoreUri());
+        assertEquals(ImmutableList.of("db"), advisorConfiguration.getDatabases());
+        assertEquals("advice", advisorConfiguration.getOutputDirectory());
+        assertTrue(advisorConfiguration.getDefaults().isEmpty());
+        assertNull(advisorConfiguration.getTargetDatabase());
+        assertEquals("_jetfuel", advisorConfiguration.getTargetTableSuffix());
+        assertEquals(20, advisorConfiguration.getMaxTables());
+        assertEquals(134217728, advisorConfiguration.getBlockSize());
+        assertEquals(8, advisorConfiguration.getThreads());
+        assertEquals(100, advisorConfiguration.getPageSize());
+    }
+
+    @Test
+    public void testBuild() {
+        final AdvisorConfiguration advisorConfiguration = builder
+                .withDefaults(ImmutableMap.of("hiveServer2Url", "hiveUrl"))
+                .withTargetDatabase("targetDb")
+                .withTargetTableSuffix("")
+                .withMaxTables(5)
+                .withBlockSize(256L)
+                .withThreads(2)
+                .withPageSize(10)
+                .build();
+
+        assertEquals(ImmutableMap.of("hiveServer2Url", "hiveUrl"), advisorConfiguration.getDefaults());
+        assertEquals("targetDb", advisorConfiguration.getTargetDatabase());
+        assertEquals("", advisorConfiguration.getTargetTableSuffix());
+        assertEquals(5, advisorConfiguration.getMaxTables());
+        assertEquals(256, advisorConfiguration.getBlockSize());
+        assertEquals(2, advisorConfiguration.getThreads());
+        assertEquals(10, advisorConfiguration.getPageSize());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testBuildNullHiveMetastoreUri() {
+        builder.withHiveMetastoreUri(null).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildEmptyDatabases() {
+        builder.withDatabases(ImmutableList.of()).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildBlankOutputDirectory() {
+        builder.withOutputDirectory(" ").build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildNoSuffixWithoutTargetDatabase() {
+        builder.withTargetTableSuffix("").build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildNoSuffixInScannedTargetDatabase() {
+        builder.withTargetTableSuffix("").withTargetDatabase("db").build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildInvalidMaxTables() {
+        builder.withMaxTables(0).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildInvalidBlockSize() {
+        builder.withBlockSize(0L).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildInvalidThreads() {
+        builder.withThreads(0).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildInvalidPageSize() {
+        builder.withPageSize(0).build();
+    }
+
+    @Test
+    public void testLoadFromYaml() throws IOException {
+        final AdvisorConfiguration advisorConfiguration = AdvisorConfiguration.loadFromYaml("./src/test/resources/jetFuelAdvisor.yml");
+
+        assertEquals("thrift://hivemetastore:9083", advisorConfiguration.getHiveMetastoreUri());
+        assertEquals(ImmutableList.of("jetfuel_test", "clickstream"), advisorConfiguration.getDatabases());
+        assertEquals("target/advice", advisorConfiguration.getOutputDirectory());
+        assertEquals("jetfuel", advisorConfiguration.getTargetDatabase());
+        assertEquals(10, advisorConfiguration.getMaxTables());
+        assertEquals(4, advisorConfiguration.getThreads());
+        assertEquals("TEZ", advisorConfiguration.getDefaults().get("executionEngine"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadFromYamlMissingFile() throws IOException {
+        AdvisorConfiguration.loadFromYaml("missing.yml");
+    }
+
+    @Test
+    public void testEquals() {
+        final AdvisorConfiguration advisorConfiguration = builder.build();
+
+        assertEquals(builder.build(), advisorConfiguration);
+        assertEquals(builder.build().hashCode(), advisorConfiguration.hashCode());
+        assertNotEquals(builder.withMaxTables(1).build(), advisorConfiguration);
+    }
+}
@@ -0,0 +1,248 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+/**
+ * Tests for {@link BatchConfiguration}
+ */
+public final class BatchConfigurationTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final JetFuelConfiguration.Builder builder = new JetFuelConfiguration.Builder()
+            .withSourceDatabase("sourceDb")
+            .withSourceTable("sourceTable")
+            .withTargetDatabase("targetDb")
+            .withTargetTable("targetTable")
+            .withHiveMetastoreUri("hiveMetastoreUri")
+            .withHiveServer2Url("hiveUrl")
+            .withHiveServer2Username("username")
+            .withTargetFileFormat("ORC");
+
+    @Test
+    public void testEqualsAndHashCode() {
+        EqualsVerifier.forClass(BatchConfiguration.class).verify();
+    }
+
+    @Test
+    public void testConstructor() {
+        final JetFuelConfiguration table1 = builder.build();
+        final JetFuelConfiguration table2 = builder.withTargetTable("targetTable2").build();
+
+        final BatchConfiguration batchConfiguration = new BatchConfiguration(Arrays.asList(table1, table2), 5);
+
+        assertEquals(ImmutableList.of(table1, table2), batchConfiguration.getTables());
+        assertEquals(5, batchConfiguration.getMaxSessions());
+    }
+
+    @Test
+    public void testToString() {
+        final JetFuelConfiguration table = builder.build();
+        assertEquals(String.format("BatchConfiguration(tables=[%s], maxSessions=2, timeBudgetInMinutes=60, rewriteBytesPerSecond=1000)", table),
+                new BatchConfiguration(Collections.singletonList(table), 2, 60L, 1000L).toString());
+    }
+
+    @Test
+    public void testConstructorDefaultMaxSessions() {
+        assertEquals(4, new BatchConfiguration(Collections.singletonList(builder.build()), null).getMaxSessions());
+    }
+
+    @Test
+    public void testConstructorTimeBudget() {
+        final BatchConfiguration batchConfiguration = new BatchConfiguration(Collections.singletonList(builder.build()), 1, 60L, 1000L);
+
+        assertEquals(Long.valueOf(60), batchConfiguration.getTimeBudgetInMinutes());
+        assertEquals(1000, batchConfiguration.getRewriteBytesPerSecond());
+    }
+
+    @Test
+    public void testConstructorDefaultTimeBudget() {
+        final BatchConfiguration batchConfiguration = new BatchConfiguration(Collections.singletonList(builder.build()), 1);
+
+        assertNull(batchConfiguration.getTimeBudgetInMinutes());
+        assertEquals(104857600, batchConfiguration.getRewriteBytesPerSecond());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorInvalidTimeBudget() {
+        new BatchConfiguration(Collections.singletonList(builder.build()), 1, 0L, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorInvalidRewriteBytesPerSecond() {
+        new BatchConfiguration(Collections.singletonList(builder.build()), 1, null, -1L);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructorNullTables() {
+        new BatchConfiguration(null, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorEmptyTables() {
+        new BatchConfiguration(Collections.emptyList(), 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorInvalidMaxSessions() {
+        new BatchConfiguration(Collections.singletonList(builder.build()), 0);
+    }
+
+    @Test
+    public void testConstructorDuplicateTargetTable() {
+        try {
+            new BatchConfiguration(Arrays.asList(builder.build(), builder.withSourceTable("otherTable").build()), 1);
+            fail("Expected IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("target table targetdb.targettable is used by more than one table", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testConstructorDuplicateJournalPath() {
+        try {
+            new BatchConfiguration(Arrays.asList(builder.withJournalPath("journal").build(), builder.withTargetTable("targetTable2").build()), 1);
+            fail("Expected IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("journalPath journal is used by more than one table", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testConstructorDuplicateMetricsPort() {
+        try {
+            new BatchConfiguration(Arrays.asList(builder.withMetricsPort(9100).build(), builder.withTargetTable("targetTable2").build()), 1);
+            fail("Expected IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("metricsPort 9100 is used by more than one table", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testIsBatch() throws IOException {
+        assertTrue(BatchConfiguration.isBatch("./src/test/resources/jetFuelBatch.yml"));
+        assertTrue(BatchConfiguration.isBatch("./src/test/resources/batch"));
+        assertFalse(BatchConfiguration.isBatch("./src/test/resources/jetFuel.yml"));
+        assertFalse(BatchConfiguration.isBatch("./src/test/resources/invalid.yml"));
+    }
+
+    @Test
+    public void testLoadFromYaml() throws IOException {
+        final BatchConfiguration batchConfiguration = BatchConfiguration.loadFromYaml("./src/test/resources/jetFuelBatch.yml");
+
+        assertEquals(3, batchConfiguration.getMaxSessions());
+        assertEquals(Long.valueOf(360), batchConfiguration.getTimeBudgetInMinutes());
+        assertEquals(2, batchConfiguration.getTables().size());
+
+        final JetFuelConfiguration table1 = batchConfiguration.getTables().get(0);
+        assertEquals("source_table1", table1.getSourceTable());
+        assertEquals("target_table1", table1.getTargetTable());
+        assertEquals(FileFormat.ORC, table1.getTargetFileFormat());
+        assertEquals("SNAPPY", table1.getTargetCompression());
+        assertEquals("thrift://hivemetastore:9083", table1.getHiveMetastoreUri());
+        assertEquals(Integer.valueOf(1), table1.getConcurrency());
+
+        final JetFuelConfiguration table2 = batchConfiguration.getTables().get(1);
+        assertEquals("source_table2", table2.getSourceTable());
+        assertEquals(FileFormat.PARQUET, table2.getTargetFileFormat());
+        assertEquals("SNAPPY", table2.getTargetCompression());
+        assertEquals(Integer.valueOf(2), table2.getConcurrency());
+    }
+
+    @Test
+    public void testLoadFromDirectory() throws IOException {
+        final BatchConfiguration batchConfiguration = BatchConfiguration.loadFromYaml("./src/test/resources/batch");
+
+        assertEquals(2, batchConfiguration.getMaxSessions());
+        assertEquals(5000000000L, batchConfiguration.getRewriteBytesPerSecond());
+        assertEquals(2, batchConfiguration.getTables().size());
+
+        final JetFuelConfiguration table1 = batchConfiguration.getTables().get(0);
+        assertEquals("target_table1", table1.getTargetTable());
+        assertEquals(FileFormat.ORC, table1.getTargetFileFormat());
+        assertEquals("UNCOMPRESSED", table1.getTargetCompression());
+
+        final JetFuelConfiguration table2 = batchConfiguration.getTables().get(1);
+        assertEquals("target_table2", table2.getTargetTable());
+        assertEquals("GZIP", table2.getTargetCompression());
+        assertEquals("jdbc:hive2://hiveserver2:10001/jetfuel_test", table2.getHiveServer2Url());
+    }
+
+    @Test
+    public void testLoadFromYamlInvalidTable() throws IOException {
+        final File file = write("tables:\n  - sourceDatabase: db\n    sourceTable: table\n");
+
+        try {
+            BatchConfiguration.loadFromYaml(file.getPath());
+            fail("Expected IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            assertEquals(String.format("Invalid configuration in %s table 1: targetDatabase cannot be null or blank", file), e.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLoadFromYamlTablesNotList() throws IOException {
+        BatchConfiguration.loadFromYaml(write("tables: table\n").getPath());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLoadFromYamlMaxSessionsNotNumber() throws IOException {
+        BatchConfiguration.loadFromYaml(write("maxSessions: many\ntables: []\n").getPath());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLoadFromYamlMaxSessionsTooLarge() throws IOException {
+        BatchConfiguration.loadFromYaml(write("maxSessions: 5000000000\ntables: []\n").getPath());
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadFromYamlMissingFile() throws IOException {
+        BatchConfiguration.loadFromYaml("missing.yml");
+    }
+
+    @Test
+    public void testGetTableName() {
+        assertEquals("sourceDb.sourceTable -> targetDb.targetTable", BatchConfiguration.getTableName(builder.build()));
+    }
+
+    private File write(final String yaml) throws IOException {
+        final File file = folder.newFile("batch.yml");
+        Files.write(file.toPath(), yaml.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
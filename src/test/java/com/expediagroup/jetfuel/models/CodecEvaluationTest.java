@@ -0,0 +1,52 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.models;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+import nl.jqno.equalsverifier.Warning;
+
+/**
+ * Tests for {@link CodecEvaluation}
+ */
+public final class CodecEvaluationTest {
+
+    @Test
+    public void testDefaults() {
+        final CodecEvaluation codecEvaluation = new CodecEvaluation();
+        assertNull(codecEvaluation.getFileFormats());
+        assertNull(codecEvaluation.getObjective());
+        assertFalse(codecEvaluation.isApply());
+    }
+
+    @Test
+    public void testEquals() {
+        EqualsVerifier
+                .forClass(CodecEvaluation.class)
+                .suppress(Warning.NONFINAL_FIELDS)
+                .verify();
+    }
+
+    @Test
+    public void testToString() {
+        assertTrue(new CodecEvaluation().toString().startsWith("CodecEvaluation("));
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+/**
+ * Tests for {@link CodecResult}
+ */
+public final class CodecResultTest {
+
+    @Test
+    public void testGetters() {
+        final CodecResult codecResult = new CodecResult(FileFormat.ORC, "ZLIB", 1024L, 2000L, null);
+        assertEquals(FileFormat.ORC, codecResult.getFileFormat());
+        assertEquals("ZLIB", codecResult.getCompression());
+        assertEquals(1024L, codecResult.getSampleBytes());
+        assertEquals(2000L, codecResult.getWriteMillis());
+        assertNull(codecResult.getScanMillis());
+    }
+
+    @Test
+    public void testEquals() {
+        EqualsVerifier.forClass(CodecResult.class).verify();
+    }
+
+    @Test
+    public void testToString() {
+        assertTrue(new CodecResult(FileFormat.ORC, "ZLIB", 1024L, 2000L, 300L).toString().startsWith("CodecResult("));
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link GroupSizeChange}
+ */
+public final class GroupSizeChangeTest {
+
+    @Test
+    public void testEquals() {
+        final GroupSizeChange groupSizeChange = new GroupSizeChange("session", 0L, 4, 2);
+
+        assertEquals(new GroupSizeChange("session", 0L, 4, 2), groupSizeChange);
+        assertEquals(new GroupSizeChange("session", 0L, 4, 2).hashCode(), groupSizeChange.hashCode());
+        assertNotEquals(new GroupSizeChange("session", 0L, 2, 3), groupSizeChange);
+    }
+
+    @Test
+    public void testToString() {
+        assertEquals("GroupSizeChange(session=session, time=0, previousSize=4, newSize=2)", new GroupSizeChange("session", 0L, 4, 2).toString());
+    }
+}
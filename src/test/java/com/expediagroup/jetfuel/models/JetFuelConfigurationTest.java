@@ -21,7 +21,16 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.expediagroup.jetfuel.exception.JetFuelException;
 
@@ -32,6 +41,9 @@ import nl.jqno.equalsverifier.EqualsVerifier;
  */
 public final class JetFuelConfigurationTest {
 
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
     private final JetFuelConfiguration.Builder builder = new JetFuelConfiguration.Builder()
             .withSourceDatabase("sourceDb")
             .withSourceTable("sourceTable")
@@ -474,4 +486,274 @@ public final class JetFuelConfigurationTest {
         assertNotNull(jetFuelConfigurationWithTimeout.getMapReduceTaskTimeout());
         assertEquals(Long.valueOf(110000), jetFuelConfigurationWithTimeout.getMapReduceTaskTimeout());
     }
+
+    @Test
+    public void testDefaultConcurrency() {
+        assertEquals(Integer.valueOf(1), builder.withConcurrency(null).build().getConcurrency());
+        assertEquals(Integer.valueOf(1), builder.withConcurrency(0).build().getConcurrency());
+    }
+
+    @Test
+    public void testConcurrency() {
+        assertEquals(Integer.valueOf(4), builder.withConcurrency(4).build().getConcurrency());
+    }
+
+    @Test
+    public void testDefaultExecutionEngine() {
+        assertEquals(ExecutionEngine.MR, builder.build().getExecutionEngine());
+        assertEquals(ExecutionEngine.MR, builder.withExecutionEngine("").build().getExecutionEngine());
+    }
+
+    @Test
+    public void testExecutionEngine() {
+        assertEquals(ExecutionEngine.TEZ, builder.withExecutionEngine(ExecutionEngine.TEZ).build().getExecutionEngine());
+        assertEquals(ExecutionEngine.TEZ, builder.withExecutionEngine("tez").build().getExecutionEngine());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testInvalidExecutionEngine() {
+        builder.withExecutionEngine("spark");
+    }
+
+    @Test
+    public void testDefaultInsertPartitionGroupBytes() {
+        assertEquals(Long.valueOf(10737418240L), builder.withInsertPartitionGroupBytes(null).build().getInsertPartitionGroupBytes());
+        assertEquals(Long.valueOf(10737418240L), builder.withInsertPartitionGroupBytes(0L).build().getInsertPartitionGroupBytes());
+    }
+
+    @Test
+    public void testDefaultInsertPartitionGroupFiles() {
+        assertEquals(Long.valueOf(10000L), builder.withInsertPartitionGroupFiles(null).build().getInsertPartitionGroupFiles());
+        assertEquals(Long.valueOf(10000L), builder.withInsertPartitionGroupFiles(0L).build().getInsertPartitionGroupFiles());
+        assertEquals(Long.valueOf(500L), builder.withInsertPartitionGroupFiles(500L).build().getInsertPartitionGroupFiles());
+    }
+
+    @Test
+    public void testWithSizePartitionGrouping() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withPartitionGrouping("size")
+                .withEnablePartitionGrouping(true)
+                .withInsertPartitionGroupBytes(1024L)
+                .build();
+        assertEquals(PartitionGrouping.SIZE, jetFuelConfiguration.getPartitionGroupingStrategy());
+        assertEquals(Long.valueOf(1024L), jetFuelConfiguration.getInsertPartitionGroupBytes());
+    }
+
+    @Test
+    public void testCompactPartitionPredicates() {
+        assertFalse(builder.build().isCompactPartitionPredicates());
+        assertTrue(builder.withCompactPartitionPredicates(true).build().isCompactPartitionPredicates());
+    }
+
+    @Test
+    public void testResume() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withJournalPath("hdfs:///tmp/jetfuel/journal")
+                .withResume(true)
+                .build();
+        assertEquals("hdfs:///tmp/jetfuel/journal", jetFuelConfiguration.getJournalPath());
+        assertTrue(jetFuelConfiguration.isResume());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testResumeWithoutJournalPath() {
+        builder.withResume(true).build();
+    }
+
+    @Test
+    public void testReportPath() {
+        assertNull(builder.build().getReportPath());
+        assertEquals("hdfs:///tmp/jetfuel/report.json", builder.withReportPath("hdfs:///tmp/jetfuel/report.json").build().getReportPath());
+    }
+
+    @Test
+    public void testMetrics() {
+        assertNull(builder.build().getMetricsPort());
+        assertNull(builder.build().getMetricsTextfilePath());
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withMetricsPort(9102)
+                .withMetricsTextfilePath("/var/lib/node_exporter/jetfuel.prom")
+                .build();
+        assertEquals(Integer.valueOf(9102), jetFuelConfiguration.getMetricsPort());
+        assertEquals("/var/lib/node_exporter/jetfuel.prom", jetFuelConfiguration.getMetricsTextfilePath());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMetricsPort() {
+        builder.withMetricsPort(0).build();
+    }
+
+    @Test
+    public void testIncremental() {
+        assertFalse(builder.build().isIncremental());
+        assertTrue(builder.withIncremental(true).withEnablePartitionGrouping(true).build().isIncremental());
+    }
+
+    @Test
+    public void testOptimalPartitions() {
+        assertEquals(OptimalPartitions.FUEL, builder.build().getOptimalPartitions());
+        assertEquals(OptimalPartitions.FUEL, builder.withOptimalPartitions("").build().getOptimalPartitions());
+        assertEquals(OptimalPartitions.SKIP, builder.withEnablePartitionGrouping(true).withOptimalPartitions("skip").build().getOptimalPartitions());
+        assertEquals(OptimalPartitions.SKIP, builder.withEnablePartitionGrouping(true).withOptimalPartitions(OptimalPartitions.SKIP).build().getOptimalPartitions());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testInvalidOptimalPartitions() {
+        builder.withOptimalPartitions("move");
+    }
+
+    @Test
+    public void testCopyThreads() {
+        assertEquals(Integer.valueOf(8), builder.build().getCopyThreads());
+        assertEquals(Integer.valueOf(8), builder.withCopyThreads(0).build().getCopyThreads());
+        assertEquals(Integer.valueOf(16), builder.withEnablePartitionGrouping(true).withCopyThreads(16).withOptimalPartitions("copy").build().getCopyThreads());
+        assertEquals(OptimalPartitions.COPY, builder.withEnablePartitionGrouping(true).withOptimalPartitions("copy").build().getOptimalPartitions());
+    }
+
+    @Test
+    public void testConcatenate() {
+        assertFalse(builder.build().isConcatenate());
+        assertTrue(builder.withConcatenate(true).withEnablePartitionGrouping(true).build().isConcatenate());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConcatenateWithoutPartitionGrouping() {
+        builder.withConcatenate(true).withPartitionGrouping("NONE").build();
+    }
+
+    @Test
+    public void testToBuilder() {
+        final JetFuelConfiguration jetFuelConfiguration = builder.withPartitionFilter("year = 2020").withConcurrency(2).build();
+        assertEquals(jetFuelConfiguration, jetFuelConfiguration.toBuilder().build());
+
+        final JetFuelConfiguration parquetConfiguration = jetFuelConfiguration.toBuilder().withTargetFileFormat(FileFormat.PARQUET).withTargetCompression("SNAPPY").build();
+        assertEquals(FileFormat.PARQUET, parquetConfiguration.getTargetFileFormat());
+        assertEquals("SNAPPY", parquetConfiguration.getTargetCompression());
+        assertEquals(PartitionGrouping.STATIC, parquetConfiguration.getPartitionGroupingStrategy());
+        assertEquals("year = 2020", parquetConfiguration.getPartitionFilter());
+        assertEquals(Integer.valueOf(2), parquetConfiguration.getConcurrency());
+    }
+
+    @Test
+    public void testCodecEvaluationDefaults() {
+        assertNull(builder.build().getCodecEvaluation());
+
+        final CodecEvaluation codecEvaluation = builder.withCodecEvaluation(new CodecEvaluation()).build().getCodecEvaluation();
+        assertEquals(Collections.singletonList("ORC"), codecEvaluation.getFileFormats());
+        assertEquals(Integer.valueOf(2), codecEvaluation.getSamplePartitions());
+        assertEquals(Integer.valueOf(1), codecEvaluation.getSamplePercent());
+        assertEquals(EvaluationObjective.STORAGE, codecEvaluation.getObjective());
+        assertFalse(codecEvaluation.isApply());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCodecEvaluationUnknownFileFormat() {
+        final CodecEvaluation codecEvaluation = new CodecEvaluation();
+        codecEvaluation.setFileFormats(Arrays.asList("orc", "csv"));
+        builder.withCodecEvaluation(codecEvaluation).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCodecEvaluationSamplePercentAboveHundred() {
+        final CodecEvaluation codecEvaluation = new CodecEvaluation();
+        codecEvaluation.setSamplePercent(101);
+        builder.withCodecEvaluation(codecEvaluation).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCodecEvaluationReadSpeedWithoutScanQuery() {
+        final CodecEvaluation codecEvaluation = new CodecEvaluation();
+        codecEvaluation.setObjective(EvaluationObjective.READ_SPEED);
+        builder.withCodecEvaluation(codecEvaluation).build();
+    }
+
+    @Test
+    public void testCodecEvaluationFromYaml() throws IOException {
+        final File yamlFile = folder.newFile("jetFuel.yml");
+        Files.write(yamlFile.toPath(), Arrays.asList(
+                "sourceDatabase: sourceDb", "sourceTable: sourceTable", "targetDatabase: targetDb", "targetTable: targetTable",
+                "targetFileFormat: ORC", "hiveMetastoreUri: hiveMetastoreUri", "hiveServer2Url: hiveUrl", "hiveServer2Username: username",
+                "codecEvaluation:", "  fileFormats: [ORC, PARQUET]", "  samplePartitions: 3", "  scanQuery: SELECT COUNT(*) FROM ${table}",
+                "  objective: READ_SPEED", "  apply: true"), StandardCharsets.UTF_8);
+
+        final CodecEvaluation codecEvaluation = JetFuelConfiguration.loadFromYaml(yamlFile.getPath()).getCodecEvaluation();
+
+        assertEquals(Arrays.asList("ORC", "PARQUET"), codecEvaluation.getFileFormats());
+        assertEquals(Integer.valueOf(3), codecEvaluation.getSamplePartitions());
+        assertEquals("SELECT COUNT(*) FROM ${table}", codecEvaluation.getScanQuery());
+        assertEquals(EvaluationObjective.READ_SPEED, codecEvaluation.getObjective());
+        assertTrue(codecEvaluation.isApply());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncrementalWithoutPartitionGrouping() {
+        builder.withIncremental(true).withPartitionGrouping("NONE").build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSkipOptimalPartitionsWithoutPartitionGrouping() {
+        builder.withOptimalPartitions(OptimalPartitions.SKIP).withPartitionGrouping("NONE").build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCopyOptimalPartitionsWithoutPartitionGrouping() {
+        builder.withOptimalPartitions(OptimalPartitions.COPY).withPartitionGrouping("NONE").build();
+    }
+
+    @Test
+    public void testGroupSizeIncreaseAfter() {
+        assertEquals(Integer.valueOf(3), builder.build().getGroupSizeIncreaseAfter());
+        assertEquals(Integer.valueOf(3), builder.withGroupSizeIncreaseAfter(-1).build().getGroupSizeIncreaseAfter());
+        assertEquals(Integer.valueOf(0), builder.withGroupSizeIncreaseAfter(0).build().getGroupSizeIncreaseAfter());
+        assertEquals(Integer.valueOf(10), builder.withGroupSizeIncreaseAfter(10).build().getGroupSizeIncreaseAfter());
+    }
+
+    @Test
+    public void testFailureIsolation() {
+        assertEquals(FailureIsolation.FALLBACK, builder.build().getFailureIsolation());
+        assertEquals(FailureIsolation.FALLBACK, builder.withFailureIsolation("").build().getFailureIsolation());
+        assertEquals(FailureIsolation.BISECT, builder.withFailureIsolation("bisect").build().getFailureIsolation());
+        assertEquals(FailureIsolation.BISECT, builder.withFailureIsolation(FailureIsolation.BISECT).build().getFailureIsolation());
+    }
+
+    @Test(expected = JetFuelException.class)
+    public void testInvalidFailureIsolation() {
+        builder.withFailureIsolation("retry");
+    }
+
+    @Test
+    public void testMapReduceMemoryLadder() {
+        final JetFuelConfiguration jetFuelConfiguration = builder
+                .withMapReduceMemoryLadderInMB(Arrays.asList(4096L, 8192L))
+                .withMaxMapReduceMemoryInMB(8192L)
+                .build();
+
+        assertEquals(Arrays.asList(4096L, 8192L), jetFuelConfiguration.getMapReduceMemoryLadderInMB());
+        assertEquals(Long.valueOf(8192L), jetFuelConfiguration.getMaxMapReduceMemoryInMB());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMapReduceMemoryLadderNotPositive() {
+        builder.withMapReduceMemoryLadderInMB(Arrays.asList(4096L, 0L)).build();
+    }
+
+    @Test
+    public void testMapReduceMemoryLadderFromYaml() throws IOException {
+        final File yamlFile = folder.newFile("jetFuel.yml");
+        Files.write(yamlFile.toPath(), Arrays.asList(
+                "sourceDatabase: sourceDb", "sourceTable: sourceTable", "targetDatabase: targetDb", "targetTable: targetTable",
+                "targetFileFormat: ORC", "hiveMetastoreUri: hiveMetastoreUri", "hiveServer2Url: hiveUrl", "hiveServer2Username: username",
+                "mapReduceMemoryLadderInMB: [4096, 8192]"), StandardCharsets.UTF_8);
+
+        final JetFuelConfiguration jetFuelConfiguration = JetFuelConfiguration.loadFromYaml(yamlFile.getPath());
+
+        assertEquals(Arrays.asList(4096L, 8192L), jetFuelConfiguration.getMapReduceMemoryLadderInMB());
+    }
+
+    @Test
+    public void testDefaultProgressInterval() {
+        assertEquals(Integer.valueOf(10), builder.build().getProgressIntervalInSeconds());
+        assertEquals(Integer.valueOf(10), builder.withProgressIntervalInSeconds(-1).build().getProgressIntervalInSeconds());
+        assertEquals(Integer.valueOf(0), builder.withProgressIntervalInSeconds(0).build().getProgressIntervalInSeconds());
+    }
 }
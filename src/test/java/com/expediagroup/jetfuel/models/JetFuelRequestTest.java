@@ -18,8 +18,14 @@ package com.expediagroup.jetfuel.models;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Map;
+
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
 /**
  * Tests for {@link JetFuelRequest}
  */
@@ -46,4 +52,42 @@ public final class JetFuelRequestTest {
         assertTrue(request.getJetFuelQueries().contains("query1"));
         assertTrue(request.getJetFuelQueries().contains("query2"));
     }
+
+    @Test
+    public void testGetSessionQueries() {
+        request.addJetFuelQuery("SET hive.exec.dynamic.partition=true");
+        request.addJetFuelQuery("CREATE TABLE targetDb.targetTable LIKE sourceDb.sourceTable");
+        request.addJetFuelQuery("set mapred.map.tasks=985");
+
+        assertEquals(2, request.getSessionQueries().size());
+        assertEquals("SET hive.exec.dynamic.partition=true", request.getSessionQueries().get(0));
+        assertEquals("set mapred.map.tasks=985", request.getSessionQueries().get(1));
+    }
+
+    @Test
+    public void testAddInsertPartitionQueryWithFragments() {
+        request.addInsertPartitionQuery("group", ImmutableMap.of("(p = 'a')", "query a", "(p = 'b')", "query b"));
+
+        assertEquals(ImmutableSet.of("query a", "query b"), request.getInsertPartitionQueries().get("group"));
+        assertEquals("(p = 'b')", request.getInsertPartitionQueryFragments().get("query b"));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testAddInsertPartitionQueryNullFragments() {
+        request.addInsertPartitionQuery("group", (Map<String, String>) null);
+    }
+
+    @Test
+    public void testAddCompletedPartitions() {
+        request.addCompletedPartitions(ImmutableList.of("(p = 'a')", "(p = 'a')"));
+        assertEquals(ImmutableSet.of("(p = 'a')"), request.getCompletedPartitions());
+    }
+
+    @Test
+    public void testGetInsertPartitionCount() {
+        assertEquals(0, request.getInsertPartitionCount());
+        request.addInsertPartitionQuery("group1", ImmutableMap.of("(p = 'a')", "query a", "(p = 'b')", "query b", "(p = 'c')", "query c"));
+        request.addInsertPartitionQuery("group2", ImmutableMap.of("(p = 'd')", "query d", "(p = 'e')", "query e"));
+        assertEquals(5, request.getInsertPartitionCount());
+    }
 }
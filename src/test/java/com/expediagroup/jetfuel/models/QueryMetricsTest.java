@@ -0,0 +1,52 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.expediagroup.jetfuel.exception.FailureType;
+
+/**
+ * Tests for {@link QueryMetrics}
+ */
+public final class QueryMetricsTest {
+
+    @Test
+    public void testIsSucceeded() {
+        assertTrue(new QueryMetrics("session", 0L, 10L, 2, 0, null).isSucceeded());
+        assertFalse(new QueryMetrics("session", 0L, 10L, 2, 1, FailureType.TASK_OOM).isSucceeded());
+    }
+
+    @Test
+    public void testEquals() {
+        final QueryMetrics queryMetrics = new QueryMetrics("session", 0L, 10L, 2, 0, null);
+
+        assertEquals(new QueryMetrics("session", 0L, 10L, 2, 0, null), queryMetrics);
+        assertEquals(new QueryMetrics("session", 0L, 10L, 2, 0, null).hashCode(), queryMetrics.hashCode());
+        assertNotEquals(new QueryMetrics("session", 0L, 10L, 2, 1, null), queryMetrics);
+    }
+
+    @Test
+    public void testToString() {
+        assertEquals("QueryMetrics(session=session, startTime=0, durationMillis=10, groupSize=2, retries=1, failureType=TIMEOUT)",
+                new QueryMetrics("session", 0L, 10L, 2, 1, FailureType.TIMEOUT).toString());
+    }
+}
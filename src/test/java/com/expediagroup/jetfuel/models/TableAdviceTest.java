@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests for {@link TableAdvice}
+ */
+public final class TableAdviceTest {
+
+    private static TableAdvice createAdvice(final long excessFiles) {
+        return new TableAdvice("db", "table", 3000L, 21L, excessFiles, 0L, ImmutableList.of("(p = 'b')"), excessFiles * 1000,
+                FileFormat.ORC, "ZLIB", excessFiles > 0);
+    }
+
+    @Test
+    public void testEquals() {
+        final TableAdvice tableAdvice = createAdvice(18L);
+
+        assertEquals(createAdvice(18L), tableAdvice);
+        assertEquals(createAdvice(18L).hashCode(), tableAdvice.hashCode());
+        assertNotEquals(createAdvice(0L), tableAdvice);
+    }
+
+    @Test
+    public void testToString() {
+        assertEquals("TableAdvice(database=db, table=table, totalSize=3000, numFiles=21, excessFiles=18, inefficientBytes=0, "
+                + "partitionFilterFragments=[(p = 'b')], score=18000, targetFileFormat=ORC, targetCompression=ZLIB, targetCompaction=true)",
+                createAdvice(18L).toString());
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (C) 2018-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.jetfuel.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link TableEstimate}
+ */
+public final class TableEstimateTest {
+
+    private final JetFuelConfiguration table = new JetFuelConfiguration.Builder()
+            .withSourceDatabase("sourceDb")
+            .withSourceTable("sourceTable")
+            .withTargetDatabase("targetDb")
+            .withTargetTable("targetTable")
+            .withHiveMetastoreUri("hiveMetastoreUri")
+            .withHiveServer2Url("hiveUrl")
+            .withHiveServer2Username("username")
+            .withTargetFileFormat("ORC")
+            .build();
+
+    @Test
+    public void testGetBenefitPerCost() {
+        assertEquals(0.5, new TableEstimate(table, 1000L, 500L, 0L, 0, 500L).getBenefitPerCost(), 0);
+        assertEquals(500, new TableEstimate(table, 0L, 0L, 0L, 0, 500L).getBenefitPerCost(), 0);
+        assertEquals(0, new TableEstimate(table, 1000L, 0L, 0L, 0, 0L).getBenefitPerCost(), 0);
+    }
+
+    @Test
+    public void testEquals() {
+        final TableEstimate tableEstimate = new TableEstimate(table, 1000L, 500L, 2L, 0, 600L);
+
+        assertEquals(new TableEstimate(table, 1000L, 500L, 2L, 0, 600L), tableEstimate);
+        assertEquals(new TableEstimate(table, 1000L, 500L, 2L, 0, 600L).hashCode(), tableEstimate.hashCode());
+        assertNotEquals(new TableEstimate(table, 1000L, 500L, 2L, 1, 600L), tableEstimate);
+    }
+
+    @Test
+    public void testToString() {
+        assertEquals(String.format("TableEstimate(table=%s, rewriteBytes=1000, savedBytes=500, removedFiles=2, partitionsWithoutStats=0, benefit=600)", table),
+                new TableEstimate(table, 1000L, 500L, 2L, 0, 600L).toString());
+    }
+}